@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.scheduler.impl;
+
+/**
+ * The execution statistics of a single scheduled job.
+ * All times are in milliseconds.
+ */
+public final class JobStatistics {
+
+    private final String name;
+
+    private long executionCount;
+
+    private long lastExecutionTime = -1;
+
+    private long totalExecutionTime;
+
+    private long maxExecutionTime = -1;
+
+    private long lastLag = -1;
+
+    private long totalLag;
+
+    private long maxLag = -1;
+
+    private long overlapCount;
+
+    private long skippedCount;
+
+    private long misfireCount;
+
+    private long slowCount;
+
+    public JobStatistics(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record an execution.
+     * @param executionTime The time the job took.
+     * @param lag The time between the scheduled fire time and the start of the job.
+     * @param slow Whether the execution exceeded the slow job threshold.
+     */
+    public synchronized void executed(final long executionTime, final long lag, final boolean slow) {
+        this.executionCount++;
+        this.lastExecutionTime = executionTime;
+        this.totalExecutionTime += executionTime;
+        this.maxExecutionTime = Math.max(this.maxExecutionTime, executionTime);
+        this.lastLag = lag;
+        this.totalLag += lag;
+        this.maxLag = Math.max(this.maxLag, lag);
+        if ( slow ) {
+            this.slowCount++;
+        }
+    }
+
+    /**
+     * Record an execution of a non concurrent job which lasted
+     * beyond the next fire time.
+     * @param skipped The number of fire times passed during the execution.
+     */
+    public synchronized void overlapped(final int skipped) {
+        this.overlapCount++;
+        this.skippedCount += skipped;
+    }
+
+    /**
+     * Record a misfire.
+     */
+    public synchronized void misfired() {
+        this.misfireCount++;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public synchronized long getExecutionCount() {
+        return this.executionCount;
+    }
+
+    /** The time of the last execution or -1 if not executed yet. */
+    public synchronized long getLastExecutionTime() {
+        return this.lastExecutionTime;
+    }
+
+    /** The mean execution time or -1 if not executed yet. */
+    public synchronized long getMeanExecutionTime() {
+        return this.executionCount == 0 ? -1 : this.totalExecutionTime / this.executionCount;
+    }
+
+    /** The maximum execution time or -1 if not executed yet. */
+    public synchronized long getMaxExecutionTime() {
+        return this.maxExecutionTime;
+    }
+
+    /** The lag of the last execution or -1 if not executed yet. */
+    public synchronized long getLastLag() {
+        return this.lastLag;
+    }
+
+    /** The mean lag or -1 if not executed yet. */
+    public synchronized long getMeanLag() {
+        return this.executionCount == 0 ? -1 : this.totalLag / this.executionCount;
+    }
+
+    /** The maximum lag or -1 if not executed yet. */
+    public synchronized long getMaxLag() {
+        return this.maxLag;
+    }
+
+    /**
+     * The number of executions of a non concurrent job which lasted
+     * beyond the next fire time, delaying the next execution.
+     */
+    public synchronized long getOverlapCount() {
+        return this.overlapCount;
+    }
+
+    /**
+     * The number of fire times of a non concurrent job which passed
+     * while the job was still running. These executions are delayed
+     * and eventually dropped as misfires.
+     */
+    public synchronized long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    public synchronized long getMisfireCount() {
+        return this.misfireCount;
+    }
+
+    /** The number of executions exceeding the slow job threshold. */
+    public synchronized long getSlowCount() {
+        return this.slowCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "executions=" + this.executionCount
+                + ", time (last/mean/max)=" + this.lastExecutionTime + "/" + this.getMeanExecutionTime() + "/" + this.maxExecutionTime + "ms"
+                + ", lag (last/mean/max)=" + this.lastLag + "/" + this.getMeanLag() + "/" + this.maxLag + "ms"
+                + ", overlaps=" + this.overlapCount
+                + ", skipped=" + this.skippedCount
+                + ", misfires=" + this.misfireCount
+                + ", slow=" + this.slowCount;
+    }
+}
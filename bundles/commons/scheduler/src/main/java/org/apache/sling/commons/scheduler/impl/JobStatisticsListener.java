@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.scheduler.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This listener records the {@link JobStatistics} of all jobs
+ * scheduled through the sling scheduler and logs a warning for
+ * executions exceeding the slow job threshold.
+ * The statistics of a job are kept until the job is removed or its
+ * trigger will not fire again.
+ */
+public class JobStatisticsListener implements JobListener, TriggerListener {
+
+    /** Context key marking an execution skipped because of the run on information. */
+    static final String CONTEXT_EXCLUDED = "QuartzJobScheduler.Excluded";
+
+    /** Upper bound when counting the fire times passed during an execution. */
+    private static final int MAX_BLOCKED = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ConcurrentMap<String, JobStatistics> statistics = new ConcurrentHashMap<String, JobStatistics>();
+
+    /** The slow job threshold in ms, 0 disables the check. */
+    private final long slowThreshold;
+
+    public JobStatisticsListener(final long slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    /**
+     * @see org.quartz.JobListener#getName()
+     */
+    public String getName() {
+        return "Apache Sling Job Statistics";
+    }
+
+    public long getSlowThreshold() {
+        return this.slowThreshold;
+    }
+
+    /**
+     * Return the statistics of all jobs sorted by name.
+     */
+    public List<JobStatistics> getStatistics() {
+        final List<JobStatistics> result = new ArrayList<JobStatistics>(this.statistics.values());
+        Collections.sort(result, new Comparator<JobStatistics>() {
+
+            public int compare(final JobStatistics o1, final JobStatistics o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Return the statistics of a job.
+     * @return The statistics or <code>null</code>
+     */
+    public JobStatistics getStatistics(final String name) {
+        return this.statistics.get(name);
+    }
+
+    /**
+     * Remove the statistics of a job.
+     */
+    public void remove(final String name) {
+        this.statistics.remove(name);
+    }
+
+    private JobStatistics get(final String name) {
+        JobStatistics stats = this.statistics.get(name);
+        if ( stats == null ) {
+            stats = new JobStatistics(name);
+            final JobStatistics old = this.statistics.putIfAbsent(name, stats);
+            if ( old != null ) {
+                stats = old;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @see org.quartz.JobListener#jobToBeExecuted(org.quartz.JobExecutionContext)
+     */
+    public void jobToBeExecuted(final JobExecutionContext context) {
+        // nothing to do
+    }
+
+    /**
+     * @see org.quartz.JobListener#jobExecutionVetoed(org.quartz.JobExecutionContext)
+     */
+    public void jobExecutionVetoed(final JobExecutionContext context) {
+        // nothing to do
+    }
+
+    /**
+     * @see org.quartz.JobListener#jobWasExecuted(org.quartz.JobExecutionContext, org.quartz.JobExecutionException)
+     */
+    public void jobWasExecuted(final JobExecutionContext context, final JobExecutionException jobException) {
+        if ( context.get(CONTEXT_EXCLUDED) != null ) {
+            return;
+        }
+        final String name = context.getJobDetail().getKey().getName();
+        final long end = System.currentTimeMillis();
+        final long executionTime = Math.max(0, context.getJobRunTime());
+        final Date scheduled = context.getScheduledFireTime();
+        final long lag = (scheduled == null ? 0 : Math.max(0, end - executionTime - scheduled.getTime()));
+        final boolean slow = this.slowThreshold > 0 && executionTime >= this.slowThreshold;
+
+        final JobStatistics stats = this.get(name);
+        stats.executed(executionTime, lag, slow);
+        if ( slow ) {
+            logger.warn("Slow execution of job {} took {}ms (threshold {}ms, lag {}ms).",
+                    new Object[] {name, executionTime, this.slowThreshold, lag});
+        }
+
+        // a non concurrent job running beyond its next fire time blocks
+        // its trigger, these fire times are delayed until the job is done
+        // and dropped as misfires if they are late by more than the misfire
+        // threshold
+        if ( context.getJobDetail().isConcurrentExectionDisallowed() ) {
+            final Trigger trigger = context.getTrigger();
+            int blocked = 0;
+            Date next = trigger.getFireTimeAfter(new Date(end - executionTime));
+            while ( next != null && next.getTime() <= end && blocked < MAX_BLOCKED ) {
+                blocked++;
+                next = trigger.getFireTimeAfter(next);
+            }
+            if ( blocked > 0 ) {
+                stats.overlapped(blocked);
+                logger.debug("Execution of non concurrent job {} blocked {} fire time(s).", name, blocked);
+            }
+        }
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#triggerFired(org.quartz.Trigger, org.quartz.JobExecutionContext)
+     */
+    public void triggerFired(final Trigger trigger, final JobExecutionContext context) {
+        // nothing to do
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#vetoJobExecution(org.quartz.Trigger, org.quartz.JobExecutionContext)
+     */
+    public boolean vetoJobExecution(final Trigger trigger, final JobExecutionContext context) {
+        return false;
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#triggerMisfired(org.quartz.Trigger)
+     */
+    public void triggerMisfired(final Trigger trigger) {
+        final String name = trigger.getJobKey().getName();
+        this.get(name).misfired();
+        logger.debug("Trigger of job {} misfired.", name);
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#triggerComplete(org.quartz.Trigger, org.quartz.JobExecutionContext, org.quartz.Trigger.CompletedExecutionInstruction)
+     */
+    public void triggerComplete(final Trigger trigger,
+            final JobExecutionContext context,
+            final CompletedExecutionInstruction triggerInstructionCode) {
+        if ( triggerInstructionCode == CompletedExecutionInstruction.DELETE_TRIGGER ) {
+            this.remove(trigger.getJobKey().getName());
+        }
+    }
+}
@@ -63,6 +63,7 @@ public class QuartzJobExecutor implements Job {
                     if ( !IS_LEADER.get() ) {
                         logger.debug("Excluding job {} with name {} and config {}.",
                                 new Object[] {job, data.get(QuartzScheduler.DATA_MAP_NAME), runOn[0]});
+                        context.put(JobStatisticsListener.CONTEXT_EXCLUDED, Boolean.TRUE);
                         return;
                     }
                 } else {
@@ -87,6 +88,7 @@ public class QuartzJobExecutor implements Job {
                 if ( !schedule ) {
                     logger.debug("Excluding job {} with name {} and config {}.",
                             new Object[] {job, data.get(QuartzScheduler.DATA_MAP_NAME), Arrays.toString(runOn)});
+                    context.put(JobStatisticsListener.CONTEXT_EXCLUDED, Boolean.TRUE);
                     return;
                 }
             }
@@ -18,6 +18,8 @@ package org.apache.sling.commons.scheduler.impl;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -32,6 +34,7 @@ import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.commons.scheduler.Job;
 import org.apache.sling.commons.scheduler.ScheduleOptions;
 import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.commons.scheduler.jmx.SchedulerMBean;
 import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.commons.threads.ThreadPoolManager;
 import org.osgi.framework.BundleContext;
@@ -92,9 +95,20 @@ public class QuartzScheduler implements Scheduler {
     /** Service registration for the plugin. */
     private ServiceRegistration plugin;
 
+    /** Service registration for the MBean. */
+    private ServiceRegistration mbeanRegistration;
+
+    /** The job statistics. */
+    private volatile JobStatisticsListener statistics;
+
     @Property
     private static final String PROPERTY_POOL_NAME = "poolName";
 
+    private static final long DEFAULT_SLOW_THRESHOLD = 1000;
+
+    @Property(longValue=DEFAULT_SLOW_THRESHOLD)
+    private static final String PROPERTY_SLOW_THRESHOLD = "slowThresholdMillis";
+
     /**
      * Activate this component.
      * Start the scheduler.
@@ -109,10 +123,34 @@ public class QuartzScheduler implements Scheduler {
         } else {
             poolName = null;
         }
+        this.statistics = new JobStatisticsListener(toLong(props.get(PROPERTY_SLOW_THRESHOLD), DEFAULT_SLOW_THRESHOLD));
 
         // start scheduler
         this.scheduler = this.init(poolName);
         this.plugin = WebConsolePrinter.initPlugin(ctx, this);
+        try {
+            final Dictionary<String, String> mbeanProps = new Hashtable<String, String>();
+            mbeanProps.put("jmx.objectname", "org.apache.sling:type=scheduler,service=Scheduler");
+
+            final SchedulerMBeanImpl mbean = new SchedulerMBeanImpl(this.statistics);
+            this.mbeanRegistration = ctx.registerService(SchedulerMBean.class.getName(), mbean, mbeanProps);
+        } catch (final Throwable t) {
+            this.logger.warn("Unable to register Scheduler MBean", t);
+        }
+    }
+
+    private static long toLong(final Object value, final long defaultValue) {
+        if ( value instanceof Number ) {
+            return ((Number)value).longValue();
+        }
+        if ( value != null ) {
+            try {
+                return Long.parseLong(value.toString().trim());
+            } catch (final NumberFormatException nfe) {
+                // ignore and use default
+            }
+        }
+        return defaultValue;
     }
 
     /**
@@ -121,6 +159,10 @@ public class QuartzScheduler implements Scheduler {
      */
     @Deactivate
     protected void deactivate() {
+        if ( this.mbeanRegistration != null ) {
+            this.mbeanRegistration.unregister();
+            this.mbeanRegistration = null;
+        }
         WebConsolePrinter.destroyPlugin(this.plugin);
         this.plugin = null;
         final org.quartz.Scheduler s = this.scheduler;
@@ -165,6 +207,8 @@ public class QuartzScheduler implements Scheduler {
         if ( s == null ) {
             throw new SchedulerException("Unable to find new scheduler with name " + QUARTZ_SCHEDULER_NAME + " and run ID " + runID);
         }
+        s.getListenerManager().addJobListener(this.statistics);
+        s.getListenerManager().addTriggerListener(this.statistics);
 
         s.start();
         if ( this.logger.isDebugEnabled() ) {
@@ -356,6 +400,7 @@ public class QuartzScheduler implements Scheduler {
         if ( s != null ) {
             try {
                 s.deleteJob(JobKey.jobKey(name));
+                this.statistics.remove(name);
                 this.logger.debug("Unscheduling job with name {}", name);
             } catch (final SchedulerException se) {
                 throw new NoSuchElementException(se.getMessage());
@@ -368,6 +413,11 @@ public class QuartzScheduler implements Scheduler {
         return this.scheduler;
     }
 
+    /** Used by the web console plugin. */
+    JobStatisticsListener getStatistics() {
+        return this.statistics;
+    }
+
     public static final class QuartzThreadPool implements org.quartz.spi.ThreadPool {
 
         /** Our executor thread pool */
@@ -537,6 +587,7 @@ public class QuartzScheduler implements Scheduler {
                 final JobDetail jobdetail = s.getJobDetail(key);
                 if (jobdetail != null) {
                     s.deleteJob(key);
+                    this.statistics.remove(jobName);
                     this.logger.debug("Unscheduling job with name {}", jobName);
                     return true;
                 }
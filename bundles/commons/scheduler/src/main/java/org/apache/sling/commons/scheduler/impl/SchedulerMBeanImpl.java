@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.scheduler.impl;
+
+import java.util.List;
+
+import javax.management.NotCompliantMBeanException;
+import javax.management.StandardMBean;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+
+import org.apache.sling.commons.scheduler.jmx.SchedulerMBean;
+
+class SchedulerMBeanImpl extends StandardMBean implements SchedulerMBean {
+
+    private static final String[] ITEM_NAMES = new String[] {
+        "name", "executionCount",
+        "lastExecutionTime", "meanExecutionTime", "maxExecutionTime",
+        "lastLag", "meanLag", "maxLag",
+        "overlapCount", "skippedCount", "misfireCount", "slowCount"
+    };
+
+    private static final String[] ITEM_DESCRIPTIONS = new String[] {
+        "Job name", "Number of executions",
+        "Last execution time (ms)", "Mean execution time (ms)", "Max execution time (ms)",
+        "Last lag between scheduled and actual start (ms)",
+        "Mean lag between scheduled and actual start (ms)",
+        "Max lag between scheduled and actual start (ms)",
+        "Executions of a non concurrent job lasting beyond the next fire time",
+        "Fire times of a non concurrent job passed while it was still running",
+        "Number of misfires",
+        "Executions exceeding the slow job threshold"
+    };
+
+    private final JobStatisticsListener listener;
+
+    private final TabularType tabularType;
+
+    SchedulerMBeanImpl(final JobStatisticsListener listener) throws NotCompliantMBeanException {
+        super(SchedulerMBean.class);
+        this.listener = listener;
+        try {
+            final OpenType<?>[] itemTypes = new OpenType<?>[ITEM_NAMES.length];
+            itemTypes[0] = SimpleType.STRING;
+            for(int i = 1; i < itemTypes.length; i++) {
+                itemTypes[i] = SimpleType.LONG;
+            }
+            final CompositeType rowType = new CompositeType("JobStatistics", "Statistics of a scheduled job",
+                    ITEM_NAMES, ITEM_DESCRIPTIONS, itemTypes);
+            this.tabularType = new TabularType("JobStatisticsTable", "Statistics of the scheduled jobs",
+                    rowType, new String[] {ITEM_NAMES[0]});
+        } catch (final OpenDataException ode) {
+            throw new IllegalStateException("Unable to create open types", ode);
+        }
+    }
+
+    public long getSlowJobThreshold() {
+        return this.listener.getSlowThreshold();
+    }
+
+    public String[] getJobNames() {
+        final List<JobStatistics> stats = this.listener.getStatistics();
+        final String[] names = new String[stats.size()];
+        for(int i = 0; i < names.length; i++) {
+            names[i] = stats.get(i).getName();
+        }
+        return names;
+    }
+
+    public long getExecutionCount() {
+        long count = 0;
+        for(final JobStatistics stats : this.listener.getStatistics()) {
+            count += stats.getExecutionCount();
+        }
+        return count;
+    }
+
+    public long getMisfireCount() {
+        long count = 0;
+        for(final JobStatistics stats : this.listener.getStatistics()) {
+            count += stats.getMisfireCount();
+        }
+        return count;
+    }
+
+    public long getSlowExecutionCount() {
+        long count = 0;
+        for(final JobStatistics stats : this.listener.getStatistics()) {
+            count += stats.getSlowCount();
+        }
+        return count;
+    }
+
+    public TabularData getJobStatistics() {
+        final TabularDataSupport result = new TabularDataSupport(this.tabularType);
+        for(final JobStatistics stats : this.listener.getStatistics()) {
+            try {
+                result.put(new CompositeDataSupport(this.tabularType.getRowType(), ITEM_NAMES, new Object[] {
+                        stats.getName(), stats.getExecutionCount(),
+                        stats.getLastExecutionTime(), stats.getMeanExecutionTime(), stats.getMaxExecutionTime(),
+                        stats.getLastLag(), stats.getMeanLag(), stats.getMaxLag(),
+                        stats.getOverlapCount(), stats.getSkippedCount(), stats.getMisfireCount(), stats.getSlowCount()
+                }));
+            } catch (final OpenDataException ode) {
+                throw new IllegalStateException("Unable to create statistics for job " + stats.getName(), ode);
+            }
+        }
+        return result;
+    }
+}
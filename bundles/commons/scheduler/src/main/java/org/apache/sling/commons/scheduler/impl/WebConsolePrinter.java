@@ -86,6 +86,12 @@ public class WebConsolePrinter {
                 pw.println(s.getSchedulerName());
                 pw.print  ("Id     : ");
                 pw.println(s.getSchedulerInstanceId());
+                final JobStatisticsListener statistics = this.scheduler.getStatistics();
+                if ( statistics != null ) {
+                    pw.print  ("Slow job threshold : ");
+                    pw.print  (statistics.getSlowThreshold());
+                    pw.println("ms");
+                }
                 final List<String> groups = s.getJobGroupNames();
                 for(final String group : groups) {
                     final Set<JobKey> keys = s.getJobKeys(GroupMatcher.jobGroupEquals(group));
@@ -117,6 +123,12 @@ public class WebConsolePrinter {
                                 pw.print(trigger);
                                 pw.println();
                             }
+                            final JobStatistics stats = (statistics == null ? null : statistics.getStatistics(key.getName()));
+                            if ( stats != null ) {
+                                pw.print("Statistics : ");
+                                pw.print(stats);
+                                pw.println();
+                            }
                             pw.println();
                         }
                     }
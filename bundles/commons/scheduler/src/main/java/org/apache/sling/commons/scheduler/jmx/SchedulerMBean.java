@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.scheduler.jmx;
+
+import javax.management.openmbean.TabularData;
+
+/**
+ * This is the management interface for the Sling Scheduler.
+ * All times are in milliseconds.
+ */
+public interface SchedulerMBean {
+
+    /**
+     * Return the threshold for logging slow job executions.
+     *
+     * @return the threshold or 0 if disabled
+     */
+    long getSlowJobThreshold();
+
+    /**
+     * Return the names of the jobs with statistics.
+     *
+     * @return the job names
+     */
+    String[] getJobNames();
+
+    /**
+     * Return the total number of recorded executions of all jobs.
+     *
+     * @return the execution count
+     */
+    long getExecutionCount();
+
+    /**
+     * Return the total number of misfires of all jobs.
+     *
+     * @return the misfire count
+     */
+    long getMisfireCount();
+
+    /**
+     * Return the total number of executions of all jobs exceeding
+     * the slow job threshold.
+     *
+     * @return the slow execution count
+     */
+    long getSlowExecutionCount();
+
+    /**
+     * Return the execution statistics of all jobs. The table contains one
+     * row per job, indexed by the job name, with the execution count, the
+     * last, mean and max execution time, the last, mean and max lag between
+     * the scheduled and the actual start, the overlap and skip counts for
+     * jobs which can't run concurrently, the misfire count and the slow
+     * execution count.
+     *
+     * @return the statistics
+     */
+    TabularData getJobStatistics();
+}
@@ -33,9 +33,32 @@ import java.util.concurrent.ThreadFactory;
  * - priority: NORM
  * - daemon: false
  * - factory: null (= default jvm thread factory)
+ * - type: DEFAULT
  */
 public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
 
+    /**
+     * The thread pool types.
+     * <ul>
+     * <li>DEFAULT : a thread pool executor using the pool sizes, queue size
+     *     and block policy of the configuration.</li>
+     * <li>FORK_JOIN : a work stealing pool for CPU bound tasks using the max pool
+     *     size as the parallelism. The queue size, block policy, priority, daemon flag
+     *     and thread factory are ignored. Requires Java 7.</li>
+     * <li>VIRTUAL : a new virtual thread is started for each task, at most max pool size
+     *     tasks run at the same time. The other tasks wait without occupying a platform thread.
+     *     The queue size, block policy, priority, daemon flag and thread factory are ignored.
+     *     Requires Java 21.</li>
+     * </ul>
+     * If the type is not supported by the JVM, a DEFAULT pool is created.
+     * @since 3.3.0
+     */
+    public enum ThreadPoolType {
+        DEFAULT,
+        FORK_JOIN,
+        VIRTUAL
+    };
+
     /** Configuration property for the min pool size. */
     public static final String PROPERTY_MIN_POOL_SIZE = "minPoolSize";
     /** Configuration property for the max pool size. */
@@ -56,6 +79,9 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
     public static final String PROPERTY_DAEMON = "daemon";
     /** Configuration property for the thread pool name. */
     public static final String PROPERTY_NAME = "name";
+    /** Configuration property for the thread pool type.
+     * @since 3.3.0 */
+    public static final String PROPERTY_TYPE = "type";
 
     /** The min pool size. */
     private int minPoolSize = 5;
@@ -87,6 +113,9 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
     /** Create daemon threads? */
     private  boolean isDaemon = false;
 
+    /** The type of the pool. */
+    private  ThreadPoolType type = ThreadPoolType.DEFAULT;
+
     /**
      * Create a new default configuration.
      */
@@ -110,6 +139,9 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
             this.factory = copy.getFactory();
             this.priority = copy.getPriority();
             this.isDaemon = copy.isDaemon();
+            if ( copy instanceof ModifiableThreadPoolConfig ) {
+                this.type = ((ModifiableThreadPoolConfig)copy).getType();
+            }
         }
     }
 
@@ -272,6 +304,28 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
         this.isDaemon = isDaemon;
     }
 
+    /**
+     * Return the type of the pool.
+     * @return The type of the pool.
+     * @since 3.3.0
+     */
+    public ThreadPoolType getType() {
+        return type;
+    }
+
+    /**
+     * Set the type of the pool.
+     * @param type The type of the pool.
+     * @throws IllegalArgumentException If type is null.
+     * @since 3.3.0
+     */
+    public void setType(final ThreadPoolType type) {
+        if ( type == null ) {
+            throw new IllegalArgumentException("Type must not be null.");
+        }
+        this.type = type;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if ( obj instanceof ModifiableThreadPoolConfig ) {
@@ -284,7 +338,8 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
                 && this.shutdownGraceful == o.shutdownGraceful
                 && this.shutdownWaitTimeMs == o.shutdownWaitTimeMs
                 && this.priority.equals(o.priority)
-                && this.isDaemon == o.isDaemon;
+                && this.isDaemon == o.isDaemon
+                && this.type.equals(o.type);
         }
         return false;
     }
@@ -16,18 +16,22 @@
  */
 package org.apache.sling.commons.threads.impl;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
+import org.apache.sling.commons.threads.ModifiableThreadPoolConfig.ThreadPoolType;
 import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.commons.threads.ThreadPoolConfig;
 import org.apache.sling.commons.threads.ThreadPoolManager;
@@ -48,8 +52,11 @@ public class DefaultThreadPool
     /** The name of this thread pool */
     protected final String name;
 
-    /** The executor. */
-    protected ThreadPoolExecutor executor;
+    /** The executor used to run the tasks. */
+    protected ExecutorService executor;
+
+    /** Limits the number of concurrently running tasks of a virtual thread pool. */
+    private final Semaphore concurrencyLimit;
 
     protected final ModifiableThreadPoolConfig configuration;
 
@@ -90,6 +97,33 @@ public class DefaultThreadPool
             this.configuration.setMaxPoolSize(Integer.MAX_VALUE);
         }
 
+        ExecutorService service = null;
+        if ( this.configuration.getType() == ThreadPoolType.FORK_JOIN ) {
+            service = createForkJoinPool(this.configuration.getMaxPoolSize());
+        } else if ( this.configuration.getType() == ThreadPoolType.VIRTUAL ) {
+            service = createVirtualThreadExecutor(this.name);
+        }
+        if ( service == null ) {
+            if ( this.configuration.getType() != ThreadPoolType.DEFAULT ) {
+                this.logger.warn("Thread pool type {} is not supported by this JVM for pool \"{}\". Using {}.",
+                        new Object[] {this.configuration.getType(), this.name, ThreadPoolType.DEFAULT});
+                this.configuration.setType(ThreadPoolType.DEFAULT);
+            }
+            service = createThreadPoolExecutor(delegateThreadFactory);
+        }
+        this.executor = service;
+        if ( this.configuration.getType() == ThreadPoolType.VIRTUAL ) {
+            this.concurrencyLimit = new Semaphore(Math.max(1, this.configuration.getMaxPoolSize()), true);
+        } else {
+            this.concurrencyLimit = null;
+        }
+        this.logger.info("Thread pool [{}] initialized.", name);
+    }
+
+    /**
+     * Create the thread pool executor for a {@link ThreadPoolType#DEFAULT} pool.
+     */
+    private ThreadPoolExecutor createThreadPoolExecutor(final ThreadFactory delegateThreadFactory) {
         // Set priority and daemon flag
         final ExtendedThreadFactory threadFactory = new ExtendedThreadFactory(delegateThreadFactory, this.configuration.getPriority(), this.configuration.isDaemon());
 
@@ -126,14 +160,50 @@ public class DefaultThreadPool
                 handler = new ThreadPoolExecutor.CallerRunsPolicy();
                 break;
         }
-        this.executor = new ThreadPoolExecutor(this.configuration.getMinPoolSize(),
+        return new ThreadPoolExecutor(this.configuration.getMinPoolSize(),
                 this.configuration.getMaxPoolSize(),
                 this.configuration.getKeepAliveTime(),
                 TimeUnit.MILLISECONDS,
                 queue,
                 threadFactory,
                 handler);
-        this.logger.info("Thread pool [{}] initialized.", name);
+    }
+
+    /**
+     * Create a work stealing pool for a {@link ThreadPoolType#FORK_JOIN} pool.
+     * The fork join pool is available since Java 7 and therefore created
+     * reflectively.
+     * @return The pool or <code>null</code> if not supported.
+     */
+    private ExecutorService createForkJoinPool(final int parallelism) {
+        try {
+            final Class<?> poolClass = Class.forName("java.util.concurrent.ForkJoinPool");
+            return (ExecutorService) poolClass.getConstructor(int.class).newInstance(
+                    Math.max(1, Math.min(parallelism, 0x7fff)));
+        } catch (final Exception e) {
+            this.logger.debug("Unable to create fork join pool", e);
+            return null;
+        }
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each task for a
+     * {@link ThreadPoolType#VIRTUAL} pool. Virtual threads are available since
+     * Java 21 and therefore created reflectively.
+     * @return The executor or <code>null</code> if not supported.
+     */
+    private ExecutorService createVirtualThreadExecutor(final String poolName) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, poolName + "-", 0L);
+            final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            final Method m = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) m.invoke(null, factory);
+        } catch (final Exception e) {
+            this.logger.debug("Unable to create virtual thread executor", e);
+            return null;
+        }
     }
 
     /**
@@ -160,7 +230,7 @@ public class DefaultThreadPool
             if ( logger.isDebugEnabled() ) {
                 logOperation("Executing runnable: ", runnable);
             }
-            executor.execute(runnable);
+            executor.execute(limit(runnable));
         }
     }
 
@@ -172,7 +242,7 @@ public class DefaultThreadPool
         if ( logger.isDebugEnabled() ) {
             logOperation("Submitting callable: ", callable);
         }
-        return executor.submit(callable);
+        return executor.submit(limit(callable));
     }
 
     /**
@@ -183,7 +253,7 @@ public class DefaultThreadPool
         if ( logger.isDebugEnabled() ) {
             logOperation("Submitting runnable: ", runnable);
         }
-        return executor.submit(runnable);
+        return executor.submit(limit(runnable));
     }
 
     /**
@@ -215,8 +285,76 @@ public class DefaultThreadPool
         this.logger.info("Thread pool [{}] is shut down.", this.name);
     }
 
+    /**
+     * Return the thread pool executor.
+     * @return The executor or <code>null</code> if the pool is shut down
+     *         or is not a {@link ThreadPoolType#DEFAULT} pool.
+     */
     public ThreadPoolExecutor getExecutor() {
-        return this.executor;
+        final ExecutorService service = this.executor;
+        if ( service instanceof ThreadPoolExecutor ) {
+            return (ThreadPoolExecutor) service;
+        }
+        return null;
+    }
+
+    /**
+     * Wrap the runnable to wait for a free slot if the number of
+     * concurrently running tasks is limited.
+     */
+    private Runnable limit(final Runnable runnable) {
+        final Semaphore limit = this.concurrencyLimit;
+        if ( limit == null || runnable == null ) {
+            return runnable;
+        }
+        return new Runnable() {
+
+            public void run() {
+                try {
+                    limit.acquire();
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    runnable.run();
+                } finally {
+                    limit.release();
+                }
+            }
+
+            @Override
+            public String toString() {
+                return runnable.toString();
+            }
+        };
+    }
+
+    /**
+     * Wrap the callable to wait for a free slot if the number of
+     * concurrently running tasks is limited.
+     */
+    private <T> Callable<T> limit(final Callable<T> callable) {
+        final Semaphore limit = this.concurrencyLimit;
+        if ( limit == null || callable == null ) {
+            return callable;
+        }
+        return new Callable<T>() {
+
+            public T call() throws Exception {
+                limit.acquire();
+                try {
+                    return callable.call();
+                } finally {
+                    limit.release();
+                }
+            }
+
+            @Override
+            public String toString() {
+                return callable.toString();
+            }
+        };
     }
 
     private void checkExecutor() {
@@ -226,6 +364,11 @@ public class DefaultThreadPool
     }
 
     private void logOperation(final String msg, final Object obj) {
+        final ThreadPoolExecutor executor = this.getExecutor();
+        if ( executor == null ) {
+            logger.debug("{} {}, pool={}, type={}", new Object[] {msg, obj, name, this.configuration.getType()});
+            return;
+        }
         logger.debug("{} {}, pool={}, active={}, corePoolSize={}, maxPoolSize={}, queueSize={}",
                 new Object[] {msg, obj, name,
                         executor.getActiveCount(),
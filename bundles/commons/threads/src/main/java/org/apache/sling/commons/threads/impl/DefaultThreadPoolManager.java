@@ -24,6 +24,7 @@ import java.util.UUID;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
+import org.apache.sling.commons.threads.ModifiableThreadPoolConfig.ThreadPoolType;
 import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.commons.threads.ThreadPoolConfig;
 import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadPoolPolicy;
@@ -116,6 +117,9 @@ public class DefaultThreadPoolManager
         if ( props.get(ModifiableThreadPoolConfig.PROPERTY_DAEMON) != null ) {
             config.setDaemon((Boolean)props.get(ModifiableThreadPoolConfig.PROPERTY_DAEMON));
         }
+        if ( props.get(ModifiableThreadPoolConfig.PROPERTY_TYPE) != null ) {
+            config.setType(ThreadPoolType.valueOf(props.get(ModifiableThreadPoolConfig.PROPERTY_TYPE).toString()));
+        }
         return config;
     }
 
@@ -397,6 +401,20 @@ public class DefaultThreadPoolManager
             return this.config;
         }
 
+        /**
+         * Return the type of the pool. If the pool is in use, this is
+         * the type actually used which might differ from the configured
+         * one if the type is not supported by the JVM.
+         */
+        public ThreadPoolType getType() {
+            final ThreadPoolFacade pool = this.pool;
+            final ThreadPoolConfig config = (pool != null ? pool.getConfiguration() : this.config);
+            if ( config instanceof ModifiableThreadPoolConfig ) {
+                return ((ModifiableThreadPoolConfig)config).getType();
+            }
+            return ThreadPoolType.DEFAULT;
+        }
+
         public ThreadPoolExecutor getExecutor() {
             if ( this.pool != null ) {
                 return this.pool.getExecutor();
@@ -404,6 +422,14 @@ public class DefaultThreadPoolManager
             return null;
         }
 
+        public ThreadPoolStatistics getStatistics() {
+            final ThreadPoolFacade pool = this.pool;
+            if ( pool != null ) {
+                return pool.getStatistics();
+            }
+            return null;
+        }
+
         protected void unregisterMBean() {
             if ( this.mbeanRegistration != null ) {
                 this.mbeanRegistration.unregister();
@@ -37,30 +37,34 @@ public final class ThreadPoolFacade implements ThreadPool {
     /** The name of the pool */
     private String name;
 
+    /** The statistics, kept when the pool is changed. */
+    private final ThreadPoolStatistics statistics = new ThreadPoolStatistics();
+
     public ThreadPoolFacade(final DefaultThreadPool pool) {
         this.delegatee = pool;
         this.name = pool.getName();
+        this.statistics.countRejections(pool.getExecutor());
     }
 
     /**
      * @see org.apache.sling.commons.threads.ThreadPool#execute(java.lang.Runnable)
      */
     public void execute(final Runnable runnable) {
-        this.delegatee.execute(runnable);
+        this.delegatee.execute(this.statistics.wrap(runnable));
     }
 
     /**
      * @see org.apache.sling.commons.threads.ThreadPool#submit(java.util.concurrent.Callable)
      */
     public <T> Future<T> submit(final Callable<T> callable) {
-        return this.delegatee.submit(callable);
+        return this.delegatee.submit(this.statistics.wrap(callable));
     }
 
     /**
      * @see org.apache.sling.commons.threads.ThreadPool#submit(java.lang.Runnable)
      */
     public Future<?> submit(final Runnable runnable) {
-        return this.delegatee.submit(runnable);
+        return this.delegatee.submit(this.statistics.wrap(runnable));
     }
 
     /**
@@ -96,6 +100,7 @@ public final class ThreadPoolFacade implements ThreadPool {
      */
     public void setPool(final DefaultThreadPool pool) {
         final DefaultThreadPool oldPool = this.delegatee;
+        this.statistics.countRejections(pool.getExecutor());
         this.delegatee = pool;
         oldPool.shutdown();
     }
@@ -103,4 +108,8 @@ public final class ThreadPoolFacade implements ThreadPool {
     public ThreadPoolExecutor getExecutor() {
         return this.delegatee.getExecutor();
     }
+
+    public ThreadPoolStatistics getStatistics() {
+        return this.statistics;
+    }
 }
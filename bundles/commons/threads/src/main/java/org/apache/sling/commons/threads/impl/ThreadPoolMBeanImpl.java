@@ -41,6 +41,10 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
         final ThreadPoolExecutor tpe = this.entry.getExecutor();
         if ( tpe != null ) {
             return tpe.getActiveCount();
+        }
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getActiveCount();
         } else {
             return -1;
         }
@@ -50,6 +54,10 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
         final ThreadPoolExecutor tpe = this.entry.getExecutor();
         if ( tpe != null ) {
             return tpe.getCompletedTaskCount();
+        }
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getExecutionTime().getCount();
         } else {
             return -1;
         }
@@ -124,6 +132,10 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
         return this.entry.getConfig().getPriority().name();
     }
 
+    public String getType() {
+        return this.entry.getType().name();
+    }
+
     public int getQueueSize() {
         return this.entry.getConfig().getQueueSize();
     }
@@ -144,4 +156,103 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
         return this.entry.isUsed();
     }
 
+    public long getStatisticsExecutedTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getExecutionTime().getCount();
+        } else {
+            return -1;
+        }
+    }
+
+    public long getStatisticsQueueWaitTimeAverageMs() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getQueueWaitTime().getAverageMs();
+        } else {
+            return -1;
+        }
+    }
+
+    public long getStatisticsQueueWaitTime99PercentileMs() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getQueueWaitTime().getPercentileMs(99);
+        } else {
+            return -1;
+        }
+    }
+
+    public long getStatisticsQueueWaitTimeMaxMs() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getQueueWaitTime().getMaxMs();
+        } else {
+            return -1;
+        }
+    }
+
+    public long[] getStatisticsQueueWaitTimeHistogram() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getQueueWaitTime().getBuckets();
+        } else {
+            return null;
+        }
+    }
+
+    public long getStatisticsExecutionTimeAverageMs() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getExecutionTime().getAverageMs();
+        } else {
+            return -1;
+        }
+    }
+
+    public long getStatisticsExecutionTime99PercentileMs() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getExecutionTime().getPercentileMs(99);
+        } else {
+            return -1;
+        }
+    }
+
+    public long getStatisticsExecutionTimeMaxMs() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getExecutionTime().getMaxMs();
+        } else {
+            return -1;
+        }
+    }
+
+    public long[] getStatisticsExecutionTimeHistogram() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getExecutionTime().getBuckets();
+        } else {
+            return null;
+        }
+    }
+
+    public long getStatisticsRejectedTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getRejectedCount();
+        } else {
+            return -1;
+        }
+    }
+
+    public int getStatisticsPeakActiveCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        if ( stats != null ) {
+            return stats.getPeakActiveCount();
+        } else {
+            return -1;
+        }
+    }
+
 }
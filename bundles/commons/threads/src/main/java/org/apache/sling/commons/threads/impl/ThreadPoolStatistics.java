@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.threads.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics about the tasks executed by a thread pool.
+ * Tasks are wrapped on submission to measure how long they wait
+ * in the queue and how long they run. The measurements are recorded
+ * in histograms with exponential buckets, so recording a value is just
+ * a few atomic operations and needs no locking.
+ */
+public final class ThreadPoolStatistics {
+
+    /** Number of histogram buckets. */
+    public static final int BUCKETS = 16;
+
+    /** Length of the window for the peak active count. */
+    static final long WINDOW_NANOS = 60L * 1000 * 1000 * 1000;
+
+    private final Histogram queueWaitTime = new Histogram();
+
+    private final Histogram executionTime = new Histogram();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final AtomicInteger windowPeakActiveCount = new AtomicInteger();
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private volatile int previousWindowPeakActiveCount;
+
+    /**
+     * Wrap the runnable to record its statistics.
+     */
+    public Runnable wrap(final Runnable runnable) {
+        if ( runnable == null ) {
+            return null;
+        }
+        final long submitted = System.nanoTime();
+        return new Runnable() {
+
+            public void run() {
+                final long started = beforeExecute(submitted);
+                try {
+                    runnable.run();
+                } finally {
+                    afterExecute(started);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return runnable.toString();
+            }
+        };
+    }
+
+    /**
+     * Wrap the callable to record its statistics.
+     */
+    public <T> Callable<T> wrap(final Callable<T> callable) {
+        if ( callable == null ) {
+            return null;
+        }
+        final long submitted = System.nanoTime();
+        return new Callable<T>() {
+
+            public T call() throws Exception {
+                final long started = beforeExecute(submitted);
+                try {
+                    return callable.call();
+                } finally {
+                    afterExecute(started);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return callable.toString();
+            }
+        };
+    }
+
+    /**
+     * Install a rejected execution handler on the executor which counts
+     * the tasks handled by the block policy and then delegates to it.
+     */
+    public void countRejections(final ThreadPoolExecutor executor) {
+        if ( executor == null ) {
+            return;
+        }
+        final RejectedExecutionHandler policy = executor.getRejectedExecutionHandler();
+        executor.setRejectedExecutionHandler(new RejectedExecutionHandler() {
+
+            public void rejectedExecution(final Runnable r, final ThreadPoolExecutor e) {
+                rejectedCount.incrementAndGet();
+                policy.rejectedExecution(r, e);
+            }
+        });
+    }
+
+    private long beforeExecute(final long submitted) {
+        final long now = System.nanoTime();
+        queueWaitTime.record(now - submitted);
+        updatePeak(activeCount.incrementAndGet(), now);
+        return now;
+    }
+
+    private void afterExecute(final long started) {
+        activeCount.decrementAndGet();
+        executionTime.record(System.nanoTime() - started);
+    }
+
+    void updatePeak(final int active, final long now) {
+        final long start = this.windowStart.get();
+        final long elapsed = now - start;
+        if ( elapsed >= WINDOW_NANOS && this.windowStart.compareAndSet(start, now) ) {
+            final int peak = this.windowPeakActiveCount.getAndSet(active);
+            // after a whole window without any task starting, the peak of
+            // the window before is too old to be reported
+            this.previousWindowPeakActiveCount = (elapsed >= 2 * WINDOW_NANOS ? active : peak);
+        }
+        int peak;
+        while ( active > (peak = this.windowPeakActiveCount.get()) ) {
+            if ( this.windowPeakActiveCount.compareAndSet(peak, active) ) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * The time tasks waited in the queue before being executed.
+     */
+    public Histogram getQueueWaitTime() {
+        return this.queueWaitTime;
+    }
+
+    /**
+     * The time tasks took to execute.
+     */
+    public Histogram getExecutionTime() {
+        return this.executionTime;
+    }
+
+    /**
+     * The number of tasks handled by the block policy, as the pool
+     * and the queue were full.
+     */
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    /**
+     * The number of tasks currently running.
+     */
+    public int getActiveCount() {
+        return this.activeCount.get();
+    }
+
+    /**
+     * The highest number of tasks running at the same time during
+     * the current and the previous one minute window.
+     */
+    public int getPeakActiveCount() {
+        return getPeakActiveCount(System.nanoTime());
+    }
+
+    int getPeakActiveCount(final long now) {
+        updatePeak(this.activeCount.get(), now);
+        return Math.max(this.previousWindowPeakActiveCount, this.windowPeakActiveCount.get());
+    }
+
+    /**
+     * A histogram of durations. Bucket 0 counts durations below one
+     * millisecond, bucket n counts durations of at least 2^(n-1) and less than
+     * 2^n milliseconds, the last bucket counts all longer durations.
+     */
+    public static final class Histogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong totalNanos = new AtomicLong();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(final long nanos) {
+            final long millis = nanos / 1000000;
+            final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+            this.buckets.incrementAndGet(bucket);
+            this.count.incrementAndGet();
+            this.totalNanos.addAndGet(nanos);
+            long max;
+            while ( nanos > (max = this.maxNanos.get()) ) {
+                if ( this.maxNanos.compareAndSet(max, nanos) ) {
+                    break;
+                }
+            }
+        }
+
+        /** The number of recorded durations. */
+        public long getCount() {
+            return this.count.get();
+        }
+
+        /** The average duration in milliseconds. */
+        public long getAverageMs() {
+            final long c = this.count.get();
+            return c == 0 ? 0 : this.totalNanos.get() / c / 1000000;
+        }
+
+        /** The longest duration in milliseconds. */
+        public long getMaxMs() {
+            return this.maxNanos.get() / 1000000;
+        }
+
+        /**
+         * The upper bound in milliseconds of the bucket containing the
+         * given percentile, or the maximum if that is lower.
+         */
+        public long getPercentileMs(final int percentile) {
+            final long[] counts = getBuckets();
+            long total = 0;
+            for(final long c : counts) {
+                total += c;
+            }
+            if ( total == 0 ) {
+                return 0;
+            }
+            final long rank = (total * percentile + 99) / 100;
+            long seen = 0;
+            for(int i = 0; i < counts.length - 1; i++) {
+                seen += counts[i];
+                if ( seen >= rank ) {
+                    return Math.min(1L << i, getMaxMs());
+                }
+            }
+            return getMaxMs();
+        }
+
+        /** The counts of all buckets. */
+        public long[] getBuckets() {
+            final long[] result = new long[BUCKETS];
+            for(int i = 0; i < BUCKETS; i++) {
+                result[i] = this.buckets.get(i);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append("count=").append(getCount());
+            sb.append(", avg=").append(getAverageMs()).append("ms");
+            sb.append(", 99%<=").append(getPercentileMs(99)).append("ms");
+            sb.append(", max=").append(getMaxMs()).append("ms");
+            return sb.toString();
+        }
+    }
+}
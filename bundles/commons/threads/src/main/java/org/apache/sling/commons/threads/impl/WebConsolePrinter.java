@@ -104,6 +104,8 @@ public class WebConsolePrinter {
                 pw.println(config.getShutdownWaitTimeMs());
                 pw.print("- daemon : ");
                 pw.println(config.isDaemon());
+                pw.print("- type : ");
+                pw.println(entry.getType());
                 final ThreadPoolExecutor tpe = entry.getExecutor();
                 if ( tpe != null ) {
                     pw.print("- active count : ");
@@ -121,6 +123,23 @@ public class WebConsolePrinter {
                     pw.print("- task count : ");
                     pw.println(tpe.getTaskCount());
                 }
+                final ThreadPoolStatistics stats = entry.getStatistics();
+                if ( stats != null ) {
+                    if ( tpe == null ) {
+                        pw.print("- active count : ");
+                        pw.println(stats.getActiveCount());
+                    }
+                    pw.print("- queue wait time : ");
+                    pw.println(stats.getQueueWaitTime());
+                    pw.print("- execution time : ");
+                    pw.println(stats.getExecutionTime());
+                    pw.print("- rejected task count (");
+                    pw.print(config.getBlockPolicy());
+                    pw.print(") : ");
+                    pw.println(stats.getRejectedCount());
+                    pw.print("- peak active count (last minute) : ");
+                    pw.println(stats.getPeakActiveCount());
+                }
                 pw.println();
             }
         } else {
@@ -29,16 +29,18 @@ public interface ThreadPoolMBean {
     String getBlockPolicy();
 
     /**
-     * Retrieve the active count from the pool's Executor.
+     * Retrieve the active count from the pool's Executor. For pools not
+     * backed by a thread pool executor, the number of running tasks is returned.
      * 
-     * @return the active count or -1 if the thread pool does not have an Executor
+     * @return the active count or -1 if the thread pool is not in use
      */
     int getExecutorActiveCount();
 
     /**
-     * Retrieve the completed task count from the pool's Executor.
+     * Retrieve the completed task count from the pool's Executor. For pools not
+     * backed by a thread pool executor, the number of executed tasks is returned.
      * 
-     * @return the completed task count or -1 if the thread pool does not have an Executor
+     * @return the completed task count or -1 if the thread pool is not in use
      */
     long getExecutorCompletedTaskCount();
 
@@ -121,6 +123,13 @@ public interface ThreadPoolMBean {
      */
     String getPriority();
 
+    /**
+     * Return the type of the thread pool.
+     * 
+     * @return the type
+     */
+    String getType();
+
     /**
      * Return the configured queue size.
      * 
@@ -156,4 +165,87 @@ public interface ThreadPoolMBean {
      */
     boolean isUsed();
 
+    /**
+     * Retrieve the number of tasks which have been executed by the pool.
+     *
+     * @return the number of executed tasks or -1 if the thread pool is not in use
+     */
+    long getStatisticsExecutedTaskCount();
+
+    /**
+     * Retrieve the average time tasks waited in the queue before being executed.
+     *
+     * @return the average wait time in milliseconds or -1 if the thread pool is not in use
+     */
+    long getStatisticsQueueWaitTimeAverageMs();
+
+    /**
+     * Retrieve the upper bound of the time 99% of the tasks waited in the queue.
+     *
+     * @return the 99th percentile of the wait time in milliseconds or -1 if the thread pool is not in use
+     */
+    long getStatisticsQueueWaitTime99PercentileMs();
+
+    /**
+     * Retrieve the longest time a task waited in the queue.
+     *
+     * @return the maximum wait time in milliseconds or -1 if the thread pool is not in use
+     */
+    long getStatisticsQueueWaitTimeMaxMs();
+
+    /**
+     * Retrieve the histogram of the time tasks waited in the queue. The first
+     * bucket counts times below one millisecond, bucket n counts times of at
+     * least 2^(n-1) and less than 2^n milliseconds, the last bucket counts
+     * all longer times.
+     *
+     * @return the histogram or null if the thread pool is not in use
+     */
+    long[] getStatisticsQueueWaitTimeHistogram();
+
+    /**
+     * Retrieve the average execution time of the tasks.
+     *
+     * @return the average execution time in milliseconds or -1 if the thread pool is not in use
+     */
+    long getStatisticsExecutionTimeAverageMs();
+
+    /**
+     * Retrieve the upper bound of the execution time of 99% of the tasks.
+     *
+     * @return the 99th percentile of the execution time in milliseconds or -1 if the thread pool is not in use
+     */
+    long getStatisticsExecutionTime99PercentileMs();
+
+    /**
+     * Retrieve the longest execution time of a task.
+     *
+     * @return the maximum execution time in milliseconds or -1 if the thread pool is not in use
+     */
+    long getStatisticsExecutionTimeMaxMs();
+
+    /**
+     * Retrieve the histogram of the execution time of the tasks, with the
+     * same buckets as {@link #getStatisticsQueueWaitTimeHistogram()}.
+     *
+     * @return the histogram or null if the thread pool is not in use
+     */
+    long[] getStatisticsExecutionTimeHistogram();
+
+    /**
+     * Retrieve the number of tasks handled by the block policy because the
+     * pool and its queue were full. Depending on the policy these tasks have
+     * been rejected, discarded or executed by the calling thread.
+     *
+     * @return the number of rejected tasks or -1 if the thread pool is not in use
+     */
+    long getStatisticsRejectedTaskCount();
+
+    /**
+     * Retrieve the highest number of tasks executed at the same time
+     * during the current and the previous one minute window.
+     *
+     * @return the peak active count or -1 if the thread pool is not in use
+     */
+    int getStatisticsPeakActiveCount();
 }
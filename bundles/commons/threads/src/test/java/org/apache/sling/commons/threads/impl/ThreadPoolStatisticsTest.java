@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.commons.threads.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ThreadPoolStatisticsTest {
+
+    private static final long MS = 1000 * 1000;
+
+    private static final long WINDOW = ThreadPoolStatistics.WINDOW_NANOS;
+
+    @Test
+    public void testBucketBoundaries() {
+        assertBucket(0, 0);
+        assertBucket(0, MS - 1);
+        assertBucket(1, MS);
+        assertBucket(1, 2 * MS - 1);
+        assertBucket(2, 2 * MS);
+        assertBucket(2, 4 * MS - 1);
+        assertBucket(3, 4 * MS);
+        assertBucket(14, 8192 * MS);
+        assertBucket(14, 16384 * MS - 1);
+        assertBucket(15, 16384 * MS);
+        assertBucket(15, 3600 * 1000 * MS);
+    }
+
+    private void assertBucket(final int bucket, final long nanos) {
+        final ThreadPoolStatistics.Histogram histogram = new ThreadPoolStatistics.Histogram();
+        histogram.record(nanos);
+        final long[] expected = new long[ThreadPoolStatistics.BUCKETS];
+        expected[bucket] = 1;
+        for(int i = 0; i < expected.length; i++) {
+            assertEquals("bucket " + i + " for " + nanos + "ns", expected[i], histogram.getBuckets()[i]);
+        }
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        final ThreadPoolStatistics.Histogram histogram = new ThreadPoolStatistics.Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getAverageMs());
+        assertEquals(0, histogram.getMaxMs());
+        assertEquals(0, histogram.getPercentileMs(50));
+        assertEquals(0, histogram.getPercentileMs(99));
+    }
+
+    @Test
+    public void testPercentileRank() {
+        final ThreadPoolStatistics.Histogram histogram = new ThreadPoolStatistics.Histogram();
+        histogram.record(MS / 2);
+        histogram.record(3 * MS);
+        histogram.record(10 * MS);
+
+        // the rank is rounded up, 33% of 3 is the first value, 34% the second
+        assertEquals(1, histogram.getPercentileMs(33));
+        assertEquals(4, histogram.getPercentileMs(34));
+        assertEquals(4, histogram.getPercentileMs(66));
+        // the upper bound of the bucket is 16ms, capped by the maximum
+        assertEquals(10, histogram.getPercentileMs(67));
+        assertEquals(10, histogram.getPercentileMs(100));
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(4, histogram.getAverageMs());
+        assertEquals(10, histogram.getMaxMs());
+    }
+
+    @Test
+    public void testPercentileOfMostlyFastTasks() {
+        final ThreadPoolStatistics.Histogram histogram = new ThreadPoolStatistics.Histogram();
+        for(int i = 0; i < 90; i++) {
+            histogram.record(MS / 2);
+        }
+        for(int i = 0; i < 10; i++) {
+            histogram.record(100 * MS);
+        }
+        assertEquals(1, histogram.getPercentileMs(50));
+        assertEquals(1, histogram.getPercentileMs(90));
+        assertEquals(100, histogram.getPercentileMs(91));
+        assertEquals(100, histogram.getPercentileMs(99));
+    }
+
+    @Test
+    public void testPercentileInLastBucket() {
+        final ThreadPoolStatistics.Histogram histogram = new ThreadPoolStatistics.Histogram();
+        histogram.record(MS / 2);
+        histogram.record(3600 * 1000 * MS);
+        assertEquals(1, histogram.getPercentileMs(50));
+        assertEquals(3600 * 1000, histogram.getPercentileMs(99));
+    }
+
+    @Test
+    public void testPeakWithinWindow() {
+        final ThreadPoolStatistics stats = new ThreadPoolStatistics();
+        final long now = System.nanoTime();
+        stats.updatePeak(3, now);
+        stats.updatePeak(1, now + 1);
+        assertEquals(3, stats.getPeakActiveCount(now + 2));
+    }
+
+    @Test
+    public void testPeakRollover() {
+        final ThreadPoolStatistics stats = new ThreadPoolStatistics();
+        final long now = System.nanoTime();
+        stats.updatePeak(3, now);
+
+        // the next window still reports the peak of the previous one
+        final long next = now + WINDOW;
+        assertEquals(3, stats.getPeakActiveCount(next));
+        stats.updatePeak(2, next + 1);
+        assertEquals(3, stats.getPeakActiveCount(next + 2));
+
+        // one window later only the peak of the window before is left
+        assertEquals(2, stats.getPeakActiveCount(next + WINDOW));
+        assertEquals(0, stats.getPeakActiveCount(next + 2 * WINDOW));
+    }
+
+    @Test
+    public void testPeakResetAfterIdleWindows() {
+        final ThreadPoolStatistics stats = new ThreadPoolStatistics();
+        final long now = System.nanoTime();
+        stats.updatePeak(5, now);
+        assertEquals(0, stats.getPeakActiveCount(now + 3 * WINDOW));
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        final ThreadPoolStatistics stats = new ThreadPoolStatistics();
+        final int[] active = new int[1];
+        stats.wrap(new Runnable() {
+
+            public void run() {
+                active[0] = stats.getActiveCount();
+            }
+        }).run();
+        assertEquals(1, active[0]);
+        assertEquals("result", stats.wrap(new Callable<String>() {
+
+            public String call() {
+                return "result";
+            }
+        }).call());
+
+        assertEquals(0, stats.getActiveCount());
+        assertEquals(1, stats.getPeakActiveCount());
+        assertEquals(2, stats.getQueueWaitTime().getCount());
+        assertEquals(2, stats.getExecutionTime().getCount());
+    }
+
+    @Test
+    public void testCountRejections() throws Exception {
+        final ThreadPoolStatistics stats = new ThreadPoolStatistics();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        stats.countRejections(executor);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        try {
+            executor.execute(new Runnable() {
+
+                public void run() {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            started.await();
+            final Thread[] runner = new Thread[1];
+            executor.execute(new Runnable() {
+
+                public void run() {
+                    runner[0] = Thread.currentThread();
+                }
+            });
+            // the rejected task has been run by the caller
+            assertEquals(Thread.currentThread(), runner[0]);
+            assertEquals(1, stats.getRejectedCount());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -40,6 +40,7 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.PropertyOption;
 import org.apache.felix.scr.annotations.PropertyUnbounded;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
@@ -59,6 +60,7 @@ import org.apache.sling.engine.impl.helper.SlingServletContext;
 import org.apache.sling.engine.impl.parameters.ParameterSupport;
 import org.apache.sling.engine.impl.request.RequestData;
 import org.apache.sling.engine.impl.request.RequestHistoryConsolePlugin;
+import org.apache.sling.engine.impl.request.RequestProgressTrackerFactory;
 import org.apache.sling.engine.jmx.RequestProcessorMBean;
 import org.apache.sling.engine.servlets.ErrorHandler;
 import org.osgi.framework.BundleContext;
@@ -102,6 +104,24 @@ public class SlingMainServlet extends GenericServlet {
     @Property(boolValue=DEFAULT_FILTER_COMPAT_MODE)
     public static final String PROP_FILTER_COMPAT_MODE = "sling.filter.compat.mode";
 
+    public static final boolean DEFAULT_FILTER_STATISTICS = false;
+
+    @Property(boolValue=DEFAULT_FILTER_STATISTICS)
+    public static final String PROP_FILTER_STATISTICS = "sling.filter.statistics";
+
+    @Property(value = RequestProgressTrackerFactory.DEFAULT_MODE, options = {
+        @PropertyOption(name = RequestProgressTrackerFactory.MODE_FULL, value = "Full"),
+        @PropertyOption(name = RequestProgressTrackerFactory.MODE_SAMPLED, value = "Sampled"),
+        @PropertyOption(name = RequestProgressTrackerFactory.MODE_OFF, value = "Off")
+    })
+    public static final String PROP_TRACKER_MODE = "sling.tracker.mode";
+
+    @Property(intValue = RequestProgressTrackerFactory.DEFAULT_SAMPLE_RATE)
+    public static final String PROP_TRACKER_SAMPLE_RATE = "sling.tracker.sample.rate";
+
+    @Property(longValue = RequestProgressTrackerFactory.DEFAULT_THRESHOLD)
+    public static final String PROP_TRACKER_THRESHOLD = "sling.tracker.threshold";
+
     @Property(intValue = RequestHistoryConsolePlugin.STORED_REQUESTS_COUNT)
     private static final String PROP_MAX_RECORD_REQUESTS = "sling.max.record.requests";
 
@@ -373,6 +393,15 @@ public class SlingMainServlet extends GenericServlet {
             RequestData.DEFAULT_MAX_CALL_COUNTER));
         RequestData.setSlingMainServlet(this);
 
+        // configure request progress tracking
+        RequestData.setRequestProgressTrackerFactory(new RequestProgressTrackerFactory(
+            OsgiUtil.toString(componentConfig.get(PROP_TRACKER_MODE),
+                RequestProgressTrackerFactory.DEFAULT_MODE),
+            OsgiUtil.toInteger(componentConfig.get(PROP_TRACKER_SAMPLE_RATE),
+                RequestProgressTrackerFactory.DEFAULT_SAMPLE_RATE),
+            OsgiUtil.toLong(componentConfig.get(PROP_TRACKER_THRESHOLD),
+                RequestProgressTrackerFactory.DEFAULT_THRESHOLD)));
+
         // configure default request parameter encoding
         ParameterSupport.setDefaultParameterEncoding(OsgiUtil.toString(
             componentConfig.get(PROP_DEFAULT_PARAMETER_ENCODING), null));
@@ -399,7 +428,8 @@ public class SlingMainServlet extends GenericServlet {
         // context to be required (see SLING-42)
         filterManager = new ServletFilterManager(bundleContext,
             slingServletContext,
-            OsgiUtil.toBoolean(componentConfig.get(PROP_FILTER_COMPAT_MODE), DEFAULT_FILTER_COMPAT_MODE));
+            OsgiUtil.toBoolean(componentConfig.get(PROP_FILTER_COMPAT_MODE), DEFAULT_FILTER_COMPAT_MODE),
+            OsgiUtil.toBoolean(componentConfig.get(PROP_FILTER_STATISTICS), DEFAULT_FILTER_STATISTICS));
         filterManager.open();
         requestProcessor.setFilterManager(filterManager);
 
@@ -27,7 +27,6 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.security.AccessControlException;
 
-import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
@@ -53,6 +52,7 @@ import org.apache.sling.engine.impl.filter.RequestSlingFilterChain;
 import org.apache.sling.engine.impl.filter.ServletFilterManager;
 import org.apache.sling.engine.impl.filter.ServletFilterManager.FilterChainType;
 import org.apache.sling.engine.impl.filter.SlingComponentFilterChain;
+import org.apache.sling.engine.impl.filter.SlingFilterChainHelper.FilterListEntry;
 import org.apache.sling.engine.impl.request.ContentData;
 import org.apache.sling.engine.impl.request.RequestData;
 import org.apache.sling.engine.impl.request.RequestHistoryConsolePlugin;
@@ -140,7 +140,7 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
             Resource resource = requestData.initResource(resourceResolver);
             requestData.initServlet(resource, sr);
 
-            Filter[] filters = filterManager.getFilters(FilterChainType.REQUEST);
+            FilterListEntry[] filters = filterManager.getFilters(FilterChainType.REQUEST);
             if (filters != null) {
                 FilterChain processor = new RequestSlingFilterChain(this,
                     filters);
@@ -226,6 +226,11 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
             handleError(t, request, response);
 
         } finally {
+            // complete tracking and record the request if it has only been
+            // tracked for exceeding the latency threshold
+            request.getRequestProgressTracker().done();
+            RequestHistoryConsolePlugin.recordCompletedRequest(request);
+
             if (mbean != null) {
                 mbean.addRequestData(requestData);
             }
@@ -250,7 +255,7 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
             final FilterChainType filterChainType) throws IOException,
             ServletException {
 
-        Filter filters[] = filterManager.getFilters(filterChainType);
+        FilterListEntry[] filters = filterManager.getFilters(filterChainType);
         if (filters != null) {
 
             FilterChain processor = new SlingComponentFilterChain(filters);
@@ -312,7 +317,7 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
         // the response output stream if reset does not reset this
         response = new ErrorResponseWrapper(response);
 
-        Filter[] filters = filterManager.getFilters(FilterChainType.ERROR);
+        FilterListEntry[] filters = filterManager.getFilters(FilterChainType.ERROR);
         if (filters != null && filters.length > 0) {
             FilterChain processor = new AbstractSlingFilterChain(filters) {
 
@@ -344,7 +349,7 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
         // the response output stream if reset does not reset this
         response = new ErrorResponseWrapper(response);
 
-        Filter[] filters = filterManager.getFilters(FilterChainType.ERROR);
+        FilterListEntry[] filters = filterManager.getFilters(FilterChainType.ERROR);
         if (filters != null && filters.length > 0) {
             FilterChain processor = new AbstractSlingFilterChain(filters) {
 
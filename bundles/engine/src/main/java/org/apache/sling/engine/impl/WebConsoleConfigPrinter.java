@@ -25,6 +25,7 @@ import java.util.Hashtable;
 import org.apache.sling.engine.impl.filter.ServletFilterManager;
 import org.apache.sling.engine.impl.filter.ServletFilterManager.FilterChainType;
 import org.apache.sling.engine.impl.filter.SlingFilterChainHelper;
+import org.apache.sling.engine.impl.log.RequestLogConfigPrinter;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceRegistration;
@@ -44,6 +45,7 @@ public class WebConsoleConfigPrinter {
 
     private static final class Registration {
         public ServiceRegistration filterPlugin;
+        public ServiceRegistration requestLogPlugin;
     }
 
     public static Object register(final BundleContext bundleContext,
@@ -63,6 +65,19 @@ public class WebConsoleConfigPrinter {
         reg.filterPlugin = bundleContext.registerService(WebConsoleConfigPrinter.class.getName(),
                 filterPrinter,
                 serviceProps);
+
+        // and the plugin for the request logs
+        final Dictionary<String, String> logProps = new Hashtable<String, String>();
+        logProps.put(Constants.SERVICE_DESCRIPTION,
+            "Apache Sling Request Log Configuration Printer");
+        logProps.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        logProps.put("felix.webconsole.label", "slingrequestlog");
+        logProps.put("felix.webconsole.title", "Sling Request Logs");
+        logProps.put("felix.webconsole.configprinter.modes", "always");
+
+        reg.requestLogPlugin = bundleContext.registerService(RequestLogConfigPrinter.class.getName(),
+                new RequestLogConfigPrinter(),
+                logProps);
         return reg;
     }
 
@@ -73,6 +88,10 @@ public class WebConsoleConfigPrinter {
                 registration.filterPlugin.unregister();
                 registration.filterPlugin = null;
             }
+            if ( registration.requestLogPlugin != null) {
+                registration.requestLogPlugin.unregister();
+                registration.requestLogPlugin = null;
+            }
         }
     }
 
@@ -89,7 +108,21 @@ public class WebConsoleConfigPrinter {
                 pw.print(entry.getFilter().getClass());
                 pw.print(" (");
                 pw.print(entry.getFitlerId());
-                pw.println(")");
+                pw.print(")");
+                final SlingFilterChainHelper.FilterStatistics stats = entry.getStatistics();
+                if ( stats != null ) {
+                    final long calls = stats.getCalls();
+                    pw.print(" : calls=");
+                    pw.print(calls);
+                    pw.print(", total=");
+                    pw.print(stats.getTotalTime() / 1000000);
+                    pw.print("ms, avg=");
+                    pw.print(calls > 0 ? stats.getTotalTime() / calls / 1000 : 0);
+                    pw.print("us, max=");
+                    pw.print(stats.getMaxTime() / 1000);
+                    pw.print("us");
+                }
+                pw.println();
             }
         }
     }
@@ -29,15 +29,24 @@ import javax.servlet.ServletResponse;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.request.RequestProgressTracker;
+import org.apache.sling.engine.impl.filter.SlingFilterChainHelper.FilterListEntry;
+import org.apache.sling.engine.impl.filter.SlingFilterChainHelper.FilterStatistics;
 import org.apache.sling.engine.impl.request.RequestData;
 
 public abstract class AbstractSlingFilterChain implements FilterChain {
 
-    private Filter[] filters;
+    private FilterListEntry[] filters;
 
     private int current;
 
-    protected AbstractSlingFilterChain(Filter[] filters) {
+    /**
+     * Time in nanoseconds spent in the chain below each position, used to
+     * calculate the time spent in the filters themselves. Only allocated
+     * if statistics are collected.
+     */
+    private long[] times;
+
+    protected AbstractSlingFilterChain(FilterListEntry[] filters) {
         this.filters = filters;
         this.current = -1;
     }
@@ -52,17 +61,36 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
         SlingHttpServletRequest slingRequest = toSlingRequest(request);
         SlingHttpServletResponse slingResponse = toSlingResponse(response);
 
-        if (this.current < this.filters.length) {
-
-            // continue filtering with the next filter
-            Filter filter = this.filters[this.current];
-            trackFilter(slingRequest, filter);
-            filter.doFilter(slingRequest, slingResponse, this);
-
-        } else {
-
-            this.render(slingRequest, slingResponse);
-
+        final int index = this.current;
+        final FilterStatistics stats = (index < this.filters.length)
+                ? this.filters[index].getStatistics()
+                : null;
+        if (stats != null && this.times == null) {
+            this.times = new long[this.filters.length + 1];
+        }
+        final long start = (this.times != null) ? System.nanoTime() : 0;
+        try {
+            if (index < this.filters.length) {
+
+                // continue filtering with the next filter
+                Filter filter = this.filters[index].getFilter();
+                trackFilter(slingRequest, filter);
+                filter.doFilter(slingRequest, slingResponse, this);
+
+            } else {
+
+                this.render(slingRequest, slingResponse);
+
+            }
+        } finally {
+            if (this.times != null) {
+                final long time = System.nanoTime() - start;
+                if (stats != null) {
+                    // exclude the time spent in the rest of the chain
+                    stats.record(time - this.times[index + 1]);
+                }
+                this.times[index] += time;
+            }
         }
     }
 
@@ -77,7 +105,7 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
         if (data != null) {
             RequestProgressTracker tracker = data.getRequestProgressTracker();
             tracker.log("Calling filter: {0}",
-                this.filters[this.current].getClass().getName());
+                filter.getClass().getName());
         }
     }
 
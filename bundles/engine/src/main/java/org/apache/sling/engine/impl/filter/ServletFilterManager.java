@@ -25,6 +25,7 @@ import javax.servlet.ServletException;
 import org.apache.sling.commons.osgi.OsgiUtil;
 import org.apache.sling.engine.EngineConstants;
 import org.apache.sling.engine.impl.helper.SlingFilterConfig;
+import org.apache.sling.engine.impl.filter.SlingFilterChainHelper.FilterListEntry;
 import org.apache.sling.engine.impl.helper.SlingServletContext;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
@@ -104,14 +105,21 @@ public class ServletFilterManager extends ServiceTracker {
     public ServletFilterManager(final BundleContext context,
             final SlingServletContext servletContext,
             final boolean compatMode) {
+        this(context, servletContext, compatMode, false);
+    }
+
+    public ServletFilterManager(final BundleContext context,
+            final SlingServletContext servletContext,
+            final boolean compatMode,
+            final boolean collectStatistics) {
         super(context, FILTER_SERVICE_NAME, null);
         this.servletContext = servletContext;
         this.filterChains = new SlingFilterChainHelper[FilterChainType.values().length];
-        this.filterChains[FilterChainType.REQUEST.ordinal()] = new SlingFilterChainHelper();
-        this.filterChains[FilterChainType.ERROR.ordinal()] = new SlingFilterChainHelper();
-        this.filterChains[FilterChainType.INCLUDE.ordinal()] = new SlingFilterChainHelper();
-        this.filterChains[FilterChainType.FORWARD.ordinal()] = new SlingFilterChainHelper();
-        this.filterChains[FilterChainType.COMPONENT.ordinal()] = new SlingFilterChainHelper();
+        this.filterChains[FilterChainType.REQUEST.ordinal()] = new SlingFilterChainHelper(collectStatistics);
+        this.filterChains[FilterChainType.ERROR.ordinal()] = new SlingFilterChainHelper(collectStatistics);
+        this.filterChains[FilterChainType.INCLUDE.ordinal()] = new SlingFilterChainHelper(collectStatistics);
+        this.filterChains[FilterChainType.FORWARD.ordinal()] = new SlingFilterChainHelper(collectStatistics);
+        this.filterChains[FilterChainType.COMPONENT.ordinal()] = new SlingFilterChainHelper(collectStatistics);
         this.compatMode = compatMode;
     }
 
@@ -119,7 +127,7 @@ public class ServletFilterManager extends ServiceTracker {
         return filterChains[chain.ordinal()];
     }
 
-    public Filter[] getFilters(final FilterChainType chain) {
+    public FilterListEntry[] getFilters(final FilterChainType chain) {
         return getFilterChain(chain).getFilters();
     }
 
@@ -20,11 +20,11 @@ package org.apache.sling.engine.impl.filter;
 
 import java.io.IOException;
 
-import javax.servlet.Filter;
 import javax.servlet.ServletException;
 
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.engine.impl.filter.SlingFilterChainHelper.FilterListEntry;
 import org.apache.sling.engine.impl.request.RequestData;
 
 /**
@@ -35,7 +35,7 @@ import org.apache.sling.engine.impl.request.RequestData;
  */
 public class SlingComponentFilterChain extends AbstractSlingFilterChain {
 
-    public SlingComponentFilterChain(Filter[] filters) {
+    public SlingComponentFilterChain(FilterListEntry[] filters) {
         super(filters);
     }
 
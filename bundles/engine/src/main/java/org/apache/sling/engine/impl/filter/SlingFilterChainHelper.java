@@ -21,6 +21,7 @@ package org.apache.sling.engine.impl.filter;
 import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.Filter;
 
@@ -30,29 +31,50 @@ import javax.servlet.Filter;
  * ordering, each filter is optionally registered with an ordering index. If
  * none is provided the default ordering index is Integer.MAX_VALUE to append
  * the filter to the end of the list.
+ * <p>
+ * The filters are read for every request but change rarely. Therefore
+ * modifications are synchronized and publish a new immutable snapshot of the
+ * filter list, which is read without any locking by {@link #getFilters()}.
  */
 public class SlingFilterChainHelper {
 
-    SortedSet<FilterListEntry> filterList;
+    private SortedSet<FilterListEntry> filterList;
 
-    Filter[] filters;
+    /** The current snapshot of the filter list or <code>null</code> if empty */
+    private volatile FilterListEntry[] filters;
+
+    /** Whether statistics are collected for the filters of this chain */
+    private final boolean collectStatistics;
 
     SlingFilterChainHelper() {
+        this(false);
+    }
+
+    SlingFilterChainHelper(final boolean collectStatistics) {
+        this.collectStatistics = collectStatistics;
     }
 
     public synchronized Filter addFilter(Filter filter,
             Long filterId, int order) {
-        filters = null;
         if (filterList == null) {
             filterList = new TreeSet<FilterListEntry>();
         }
-        filterList.add(new FilterListEntry(filter, filterId, order));
+        filterList.add(new FilterListEntry(filter, filterId, order,
+            collectStatistics ? new FilterStatistics() : null));
+        updateFilters();
         return filter;
     }
 
     public synchronized Filter[] removeAllFilters() {
         // will be returned after cleaning the lists
-        Filter[] removedFilters = getFilters();
+        Filter[] removedFilters = null;
+        final FilterListEntry[] entries = filters;
+        if (entries != null) {
+            removedFilters = new Filter[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                removedFilters[i] = entries[i].getFilter();
+            }
+        }
 
         filters = null;
         filterList = null;
@@ -62,11 +84,11 @@ public class SlingFilterChainHelper {
 
     public synchronized Filter removeFilter(Filter filter) {
         if (filterList != null) {
-            filters = null;
             for (Iterator<FilterListEntry> fi = filterList.iterator(); fi.hasNext();) {
                 FilterListEntry test = fi.next();
                 if (test.getFilter().equals(filter)) {
                     fi.remove();
+                    updateFilters();
                     return test.getFilter();
                 }
             }
@@ -78,13 +100,13 @@ public class SlingFilterChainHelper {
 
     public synchronized boolean removeFilterById(Object filterId) {
         if (filterList != null) {
-            filters = null;
             for (Iterator<FilterListEntry> fi = filterList.iterator(); fi.hasNext();) {
                 FilterListEntry test = fi.next();
                 if (test.getFitlerId() == filterId
                     || (test.getFitlerId() != null && test.getFitlerId().equals(
                         filterId))) {
                     fi.remove();
+                    updateFilters();
                     return true;
                 }
             }
@@ -95,21 +117,11 @@ public class SlingFilterChainHelper {
     }
 
     /**
-     * Returns the list of <code>Filter</code>s added to this instance
-     * or <code>null</code> if no filters have been added.
+     * Returns the current snapshot of the <code>FilterListEntry</code>s added
+     * to this instance or <code>null</code> if no filters have been added.
+     * The returned array must not be modified.
      */
-    public synchronized Filter[] getFilters() {
-        if (filters == null) {
-            if (filterList != null && !filterList.isEmpty()) {
-                Filter[] tmp = new Filter[filterList.size()];
-                int i = 0;
-                for (FilterListEntry entry : filterList) {
-                    tmp[i] = entry.getFilter();
-                    i++;
-                }
-                filters = tmp;
-            }
-        }
+    public FilterListEntry[] getFilters() {
         return filters;
     }
 
@@ -117,13 +129,21 @@ public class SlingFilterChainHelper {
      * Returns the list of <code>FilterListEntry</code>s added to this instance
      * or <code>null</code> if no filters have been added.
      */
-    public synchronized FilterListEntry[] getFilterListEntries() {
-        FilterListEntry[] result = null;
+    public FilterListEntry[] getFilterListEntries() {
+        final FilterListEntry[] entries = filters;
+        return (entries == null) ? null : entries.clone();
+    }
+
+    /**
+     * Publishes a new snapshot of the filter list, must be called with
+     * the lock held after each modification of the list.
+     */
+    private void updateFilters() {
         if (filterList != null && !filterList.isEmpty()) {
-            result = new FilterListEntry[filterList.size()];
-            filterList.toArray(result);
+            filters = filterList.toArray(new FilterListEntry[filterList.size()]);
+        } else {
+            filters = null;
         }
-        return result;
     }
 
     public static class FilterListEntry implements Comparable<FilterListEntry> {
@@ -134,10 +154,17 @@ public class SlingFilterChainHelper {
 
         private final int order;
 
+        private final FilterStatistics statistics;
+
         FilterListEntry(Filter filter, Long filterId, int order) {
+            this(filter, filterId, order, null);
+        }
+
+        FilterListEntry(Filter filter, Long filterId, int order, FilterStatistics statistics) {
             this.filter = filter;
             this.filterId = filterId;
             this.order = order;
+            this.statistics = statistics;
         }
 
         public Filter getFilter() {
@@ -152,6 +179,14 @@ public class SlingFilterChainHelper {
             return order;
         }
 
+        /**
+         * Returns the statistics of this filter or <code>null</code> if
+         * no statistics are collected.
+         */
+        public FilterStatistics getStatistics() {
+            return statistics;
+        }
+
         /**
          * Note: this class has a natural ordering that is inconsistent with
          * equals.
@@ -200,4 +235,42 @@ public class SlingFilterChainHelper {
             return false;
         }
     }
+
+    /**
+     * The processing time statistics of a filter. The times are the time
+     * spent in the filter itself, excluding the time spent in the rest of
+     * the filter chain.
+     */
+    public static class FilterStatistics {
+
+        private final AtomicLong calls = new AtomicLong();
+
+        private final AtomicLong totalTime = new AtomicLong();
+
+        private final AtomicLong maxTime = new AtomicLong();
+
+        void record(final long time) {
+            calls.incrementAndGet();
+            totalTime.addAndGet(time);
+            long max = maxTime.get();
+            while (time > max && !maxTime.compareAndSet(max, time)) {
+                max = maxTime.get();
+            }
+        }
+
+        /** Number of calls of the filter */
+        public long getCalls() {
+            return calls.get();
+        }
+
+        /** Total time in nanoseconds spent in the filter */
+        public long getTotalTime() {
+            return totalTime.get();
+        }
+
+        /** Maximum time in nanoseconds spent in the filter for one call */
+        public long getMaxTime() {
+            return maxTime.get();
+        }
+    }
 }
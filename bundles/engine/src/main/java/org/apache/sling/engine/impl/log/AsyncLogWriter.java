@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>AsyncLogWriter</code> decouples the request threads from the
+ * file I/O of a {@link FileRequestLog}. Log lines are placed into the slots
+ * of a pre-allocated ring buffer without taking any lock and a single
+ * background thread writes them to the underlying writer in batches,
+ * flushing whenever the buffer has been drained or at least once per
+ * flush interval.
+ * <p>
+ * If the ring buffer is full, the line is dropped and counted instead of
+ * blocking the request thread. The number of dropped lines is available
+ * through {@link #getDroppedLines()} and is reported to the log
+ * periodically.
+ */
+class AsyncLogWriter implements Runnable {
+
+    /** Default number of slots of the ring buffer. */
+    static final int DEFAULT_CAPACITY = 8192;
+
+    /** Maximum time in ms lines are kept in the writer buffer. */
+    private static final long FLUSH_INTERVAL = 1000;
+
+    /** Time the writer thread parks if there is nothing to write. */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Minimum time in ms between two reports of dropped lines. */
+    private static final long DROP_REPORT_INTERVAL = 60 * 1000;
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator", "\n");
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Writer output;
+
+    private final String name;
+
+    private final AtomicReferenceArray<String> slots;
+
+    private final int mask;
+
+    /** Next sequence to be claimed by a producer. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next sequence to be written by the writer thread. */
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong droppedLines = new AtomicLong();
+
+    private final Thread writerThread;
+
+    private volatile boolean running;
+
+    private long reportedDrops;
+
+    private long lastDropReport;
+
+    /**
+     * Creates the writer and starts its background thread.
+     *
+     * @param output The writer to write the lines to, this writer should be
+     *            buffered
+     * @param capacity The number of slots, rounded up to the next power of
+     *            two
+     * @param name The name of the log, used for the thread name
+     */
+    AsyncLogWriter(final Writer output, final int capacity, final String name) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.output = output;
+        this.name = name;
+        this.slots = new AtomicReferenceArray<String>(size);
+        this.mask = size - 1;
+
+        this.running = true;
+        this.writerThread = new Thread(this, "Sling Request Log Writer " + name);
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Places the message into the ring buffer.
+     *
+     * @param message The log line
+     * @return <code>true</code> if the message has been queued,
+     *         <code>false</code> if it has been dropped because the buffer
+     *         is full or the writer is closed.
+     */
+    boolean write(final String message) {
+        if (!this.running || message == null) {
+            return false;
+        }
+
+        long seq;
+        do {
+            seq = this.tail.get();
+            if (seq - this.head.get() > this.mask) {
+                this.droppedLines.incrementAndGet();
+                return false;
+            }
+        } while (!this.tail.compareAndSet(seq, seq + 1));
+
+        // the slot has been released by the writer before head moved past it
+        this.slots.set((int) seq & this.mask, message);
+        return true;
+    }
+
+    /**
+     * Returns the number of lines dropped so far because the ring buffer
+     * was full.
+     */
+    long getDroppedLines() {
+        return this.droppedLines.get();
+    }
+
+    /**
+     * Returns the number of lines the ring buffer can hold.
+     */
+    int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Stops the writer thread after all queued lines have been written and
+     * closes the underlying writer.
+     */
+    void close() {
+        this.running = false;
+        LockSupport.unpark(this.writerThread);
+        try {
+            this.writerThread.join(FLUSH_INTERVAL * 5);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.output.close();
+        } catch (IOException ioe) {
+            // don't care
+        }
+    }
+
+    public void run() {
+        long lastFlush = System.currentTimeMillis();
+        boolean dirty = false;
+        while (this.running || this.head.get() != this.tail.get()) {
+            final long seq = this.head.get();
+            final int index = (int) seq & this.mask;
+            final String message = this.slots.get(index);
+            if (message != null) {
+                this.slots.set(index, null);
+                this.head.set(seq + 1);
+                try {
+                    this.output.write(message);
+                    this.output.write(LINE_SEPARATOR);
+                    dirty = true;
+                } catch (IOException ioe) {
+                    this.log.error("Cannot write request log line", ioe);
+                }
+
+                final long now = System.currentTimeMillis();
+                if (dirty && now - lastFlush >= FLUSH_INTERVAL) {
+                    dirty = !this.flush();
+                    lastFlush = now;
+                }
+
+            } else if (seq != this.tail.get()) {
+                // a slot has been claimed but not yet filled
+                Thread.yield();
+
+            } else {
+                // buffer drained - flush and wait for more lines
+                if (dirty) {
+                    dirty = !this.flush();
+                    lastFlush = System.currentTimeMillis();
+                }
+                this.reportDrops();
+                if (this.running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+        this.flush();
+        this.reportDrops();
+    }
+
+    private boolean flush() {
+        try {
+            this.output.flush();
+            return true;
+        } catch (IOException ioe) {
+            this.log.error("Cannot flush request log", ioe);
+            return false;
+        }
+    }
+
+    private void reportDrops() {
+        final long dropped = this.droppedLines.get();
+        if (dropped != this.reportedDrops) {
+            final long now = System.currentTimeMillis();
+            if (!this.running || now - this.lastDropReport >= DROP_REPORT_INTERVAL) {
+                this.log.warn("{} lines of request log {} dropped because the log buffer of {} lines was full ({} in total)",
+                    new Object[] { dropped - this.reportedDrops, this.name, this.mask + 1, dropped });
+                this.reportedDrops = dropped;
+                this.lastDropReport = now;
+            }
+        }
+    }
+}
@@ -23,11 +23,11 @@ import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.text.StringCharacterIterator;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import javax.servlet.http.Cookie;
 
@@ -612,18 +612,12 @@ class CustomLogFormat {
         /** time format for GMT offset - see access logging in service() */
         private static final DecimalFormat dfmt = new DecimalFormat("+0000;-0000");
 
-        /** the timezone for the timezone offset calculation */
-        private static final Calendar calendar = Calendar.getInstance();
-
-        /** last zone offset (cached by hours) */
-        private static String lastZoneOffset = "";
-
-        private static long lastZoneOffsetHour = -1;
-
-        /** last formatted time (cached in seconds) */
-        private static String lastTimeFormatted = "";
-
-        private static long lastTimeFormattedSeconds = -1;
+        /**
+         * last formatted time (cached in seconds). The cache entry is
+         * immutable and replaced as a whole so concurrent readers always
+         * see a consistent pair of seconds and formatted time.
+         */
+        private static volatile FormattedTime lastTime = new FormattedTime(-1, "");
 
         private final boolean requestStart;
 
@@ -646,23 +640,34 @@ class CustomLogFormat {
         // -----------------------------------------------------
 
         static String timeFormatted(long time) {
-            if (time / 1000 != lastTimeFormattedSeconds) {
-                lastTimeFormattedSeconds = time / 1000;
-                Date date = new Date(time);
-                StringBuilder buf = new StringBuilder(accessLogFmt.format(date));
-                if (time / 3600000 != lastZoneOffsetHour) {
-                    lastZoneOffsetHour = time / 3600000;
-                    calendar.setTime(date);
-                    int tzOffset = calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET);
-                    tzOffset /= (60 * 1000);
-                    tzOffset = ((tzOffset / 60) * 100) + (tzOffset % 60);
-
-                    lastZoneOffset = dfmt.format(tzOffset);
+            final long seconds = time / 1000;
+            FormattedTime cached = lastTime;
+            if (cached.seconds != seconds) {
+                int tzOffset = TimeZone.getDefault().getOffset(time);
+                tzOffset /= (60 * 1000);
+                tzOffset = ((tzOffset / 60) * 100) + (tzOffset % 60);
+
+                final StringBuilder buf = new StringBuilder(32);
+                // the formats are not thread safe
+                synchronized (accessLogFmt) {
+                    buf.append(accessLogFmt.format(new Date(time)));
+                    buf.append(dfmt.format(tzOffset));
                 }
-                buf.append(lastZoneOffset);
-                lastTimeFormatted = buf.toString();
+                cached = new FormattedTime(seconds, buf.toString());
+                lastTime = cached;
+            }
+            return cached.formatted;
+        }
+
+        private static final class FormattedTime {
+            final long seconds;
+
+            final String formatted;
+
+            FormattedTime(long seconds, String formatted) {
+                this.seconds = seconds;
+                this.formatted = formatted;
             }
-            return lastTimeFormatted;
         }
     }
 
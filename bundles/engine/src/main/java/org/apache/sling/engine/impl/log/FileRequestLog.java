@@ -18,6 +18,7 @@
  */
 package org.apache.sling.engine.impl.log;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -46,48 +47,109 @@ import org.apache.sling.engine.RequestLog;
  * last user has closed the log, (3) optimize the first strategy by keeping the
  * files open for some time.
  * <p>
- * Note: Currently, the <code>PrintWriter</code> used to log the message is
- * flushed after each log message written. Future development should probably
- * implement better buffering in conjunction with the temporary open/close
- * cycles of the files.
+ * Note: In synchronous mode the <code>PrintWriter</code> used to log the
+ * message is flushed after each log message written. In asynchronous mode the
+ * messages are handed over to an {@link AsyncLogWriter} shared by all logs
+ * writing to the same file, which writes and flushes them in batches from a
+ * background thread.
  */
 class FileRequestLog implements RequestLog {
 
     // The map of shared open files (actually PrintWriter instances)
     private static Map<String, PrintWriter> logFiles = new HashMap<String, PrintWriter>();
 
+    // The map of shared asynchronous writers
+    private static Map<String, AsyncLogWriter> asyncLogFiles = new HashMap<String, AsyncLogWriter>();
+
     // Dispose class by closing all open PrintWeiter instances
     static void dispose() {
-        for (final Writer w : logFiles.values()) {
-            try {
+        synchronized (logFiles) {
+            for (final Writer w : logFiles.values()) {
+                try {
+                    w.close();
+                } catch (IOException ioe) {
+                    // don't care
+                }
+            }
+            logFiles.clear();
+
+            for (final AsyncLogWriter w : asyncLogFiles.values()) {
                 w.close();
-            } catch (IOException ioe) {
-                // don't care
+            }
+            asyncLogFiles.clear();
+        }
+    }
+
+    // Print the state of the shared asynchronous writers
+    static void printAsyncLogs(final PrintWriter pw) {
+        synchronized (logFiles) {
+            if (asyncLogFiles.isEmpty()) {
+                pw.println("---");
+            }
+            for (final Map.Entry<String, AsyncLogWriter> entry : asyncLogFiles.entrySet()) {
+                pw.print(entry.getKey());
+                pw.print(" : buffer=");
+                pw.print(entry.getValue().getCapacity());
+                pw.print(" lines, dropped=");
+                pw.print(entry.getValue().getDroppedLines());
+                pw.println(" lines");
             }
         }
-        logFiles.clear();
     }
 
     // The PrintWriter used by this instance to write the messages
     private PrintWriter output;
 
+    // The asynchronous writer used by this instance in asynchronous mode
+    private AsyncLogWriter asyncOutput;
+
     FileRequestLog(File logFile) throws IOException {
+        this(logFile, false, AsyncLogWriter.DEFAULT_CAPACITY);
+    }
+
+    FileRequestLog(File logFile, boolean async, int bufferSize) throws IOException {
         synchronized (logFiles) {
             final String fileName = logFile.getAbsolutePath();
-            this.output = logFiles.get(fileName);
-            if (this.output == null) {
-                logFile.getParentFile().mkdirs();
-                FileWriter fw = new FileWriter(logFile, true);
-                this.output = new PrintWriter(fw);
-                logFiles.put(fileName, this.output);
+            if (async) {
+                this.asyncOutput = asyncLogFiles.get(fileName);
+                if (this.asyncOutput == null) {
+                    logFile.getParentFile().mkdirs();
+                    Writer fw = new BufferedWriter(new FileWriter(logFile, true), 64 * 1024);
+                    this.asyncOutput = new AsyncLogWriter(fw, bufferSize, logFile.getName());
+                    asyncLogFiles.put(fileName, this.asyncOutput);
+                }
+            } else {
+                this.output = logFiles.get(fileName);
+                if (this.output == null) {
+                    logFile.getParentFile().mkdirs();
+                    FileWriter fw = new FileWriter(logFile, true);
+                    this.output = new PrintWriter(fw);
+                    logFiles.put(fileName, this.output);
+                }
             }
         }
     }
 
+    /**
+     * Returns the number of lines dropped by the asynchronous writer of this
+     * log because its buffer was full. In synchronous mode no lines are
+     * dropped and this method always returns zero.
+     */
+    long getDroppedLines() {
+        AsyncLogWriter writer = this.asyncOutput;
+        return (writer != null) ? writer.getDroppedLines() : 0;
+    }
+
     /**
      * @see org.apache.sling.engine.RequestLog#write(java.lang.String)
      */
     public void write(String message) {
+        AsyncLogWriter asyncWriter = this.asyncOutput;
+        if (asyncWriter != null) {
+            asyncWriter.write(message);
+            return;
+        }
+
         // use a local copy of the reference to not encounter NPE when this
         // log happens to be closed asynchronously while at the same time not
         // requiring synchronization
@@ -103,5 +165,6 @@ class FileRequestLog implements RequestLog {
     public void close() {
         // just drop the reference to the output
         this.output = null;
+        this.asyncOutput = null;
     }
 }
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import java.io.PrintWriter;
+
+/**
+ * This is a configuration printer for the web console which
+ * prints out the state of the asynchronous request log files,
+ * in particular the number of lines dropped because the log
+ * buffer was full.
+ */
+public class RequestLogConfigPrinter {
+
+    /**
+     * Print out the asynchronous request logs.
+     * @see org.apache.felix.webconsole.ConfigurationPrinter#printConfiguration(java.io.PrintWriter)
+     */
+    public void printConfiguration(final PrintWriter pw) {
+        pw.println("Current Apache Sling Request Log Configuration");
+        pw.println();
+        pw.println("Asynchronous Request Logs:");
+        FileRequestLog.printAsyncLogs(pw);
+    }
+}
@@ -67,6 +67,12 @@ public class RequestLogger {
     @Property(boolValue = true)
     public static final String PROP_ACCESS_LOG_ENABLED = "access.log.enabled";
 
+    @Property(boolValue = false)
+    public static final String PROP_LOG_ASYNC = "log.async";
+
+    @Property(intValue = AsyncLogWriter.DEFAULT_CAPACITY)
+    public static final String PROP_LOG_BUFFER_SIZE = "log.async.buffersize";
+
     /**
      * The log format string for the request log entry message (value is "%t
      * [%R] -> %m %U%q %H").
@@ -97,6 +103,10 @@ public class RequestLogger {
     @Activate
     protected void activate(BundleContext bundleContext, Map<String, Object> props) {
 
+        // asynchronous writing of file based logs
+        Object async = props.get(PROP_LOG_ASYNC);
+        Object bufferSize = props.get(PROP_LOG_BUFFER_SIZE);
+
         // prepare the request loggers if a name is configured and the
         // request loggers are enabled
         Object requestLogName = props.get(PROP_REQUEST_LOG_OUTPUT);
@@ -105,9 +115,9 @@ public class RequestLogger {
             && ((Boolean) requestLogEnabled).booleanValue()) {
             Object requestLogType = props.get(PROP_REQUEST_LOG_OUTPUT_TYPE);
             createRequestLoggerService(services, bundleContext, true, REQUEST_LOG_ENTRY_FORMAT, requestLogName,
-                requestLogType);
+                requestLogType, async, bufferSize);
             createRequestLoggerService(services, bundleContext, false, REQUEST_LOG_EXIT_FORMAT, requestLogName,
-                requestLogType);
+                requestLogType, async, bufferSize);
         }
 
         // prepare the access logger if a name is configured and the
@@ -116,7 +126,8 @@ public class RequestLogger {
         Object accessLogEnabled = props.get(PROP_ACCESS_LOG_ENABLED);
         if (accessLogName != null && accessLogEnabled instanceof Boolean && ((Boolean) accessLogEnabled).booleanValue()) {
             Object accessLogType = props.get(PROP_ACCESS_LOG_OUTPUT_TYPE);
-            createRequestLoggerService(services, bundleContext, false, ACCESS_LOG_FORMAT, accessLogName, accessLogType);
+            createRequestLoggerService(services, bundleContext, false, ACCESS_LOG_FORMAT, accessLogName, accessLogType,
+                async, bufferSize);
         }
     }
 
@@ -130,12 +141,19 @@ public class RequestLogger {
     }
 
     private static void createRequestLoggerService(Map<ServiceRegistration, RequestLoggerService> services,
-            BundleContext bundleContext, boolean onEntry, Object format, Object output, Object outputType) {
+            BundleContext bundleContext, boolean onEntry, Object format, Object output, Object outputType, Object async,
+            Object bufferSize) {
         final Hashtable<String, Object> config = new Hashtable<String, Object>();
         config.put(RequestLoggerService.PARAM_ON_ENTRY, onEntry ? Boolean.TRUE : Boolean.FALSE);
         config.put(RequestLoggerService.PARAM_FORMAT, format);
         config.put(RequestLoggerService.PARAM_OUTPUT, output);
         config.put(RequestLoggerService.PARAM_OUTPUT_TYPE, outputType);
+        if (async != null) {
+            config.put(RequestLoggerService.PARAM_ASYNC, async);
+        }
+        if (bufferSize != null) {
+            config.put(RequestLoggerService.PARAM_BUFFER_SIZE, bufferSize);
+        }
 
         final RequestLoggerService service = new RequestLoggerService(bundleContext, config);
         final ServiceRegistration reg = bundleContext.registerService(service.getClass().getName(), service, config);
@@ -65,6 +65,12 @@ public class RequestLoggerService {
     @Property(boolValue = false)
     public static final String PARAM_ON_ENTRY = "request.log.service.onentry";
 
+    @Property(boolValue = false)
+    public static final String PARAM_ASYNC = "request.log.service.async";
+
+    @Property(intValue = AsyncLogWriter.DEFAULT_CAPACITY)
+    public static final String PARAM_BUFFER_SIZE = "request.log.service.buffersize";
+
     private static final int OUTPUT_TYPE_LOGGER = 0;
 
     private static final int OUTPUT_TYPE_FILE = 1;
@@ -77,6 +83,10 @@ public class RequestLoggerService {
 
     private RequestLog log;
 
+    private boolean async;
+
+    private int bufferSize;
+
     /**
      * Public default constructor for SCR integration
      */
@@ -99,6 +109,14 @@ public class RequestLoggerService {
             this.logFormat = new CustomLogFormat(format.toString());
         }
 
+        // asynchronous file logging
+        Object asyncObject = configuration.get(PARAM_ASYNC);
+        this.async = (asyncObject instanceof Boolean) ? ((Boolean) asyncObject).booleanValue() : false;
+        Object bufferSizeObject = configuration.get(PARAM_BUFFER_SIZE);
+        this.bufferSize = (bufferSizeObject instanceof Number && ((Number) bufferSizeObject).intValue() > 0)
+                ? ((Number) bufferSizeObject).intValue()
+                : AsyncLogWriter.DEFAULT_CAPACITY;
+
         // where to log to
         Object output = configuration.get(PARAM_OUTPUT);
         if (output != null) {
@@ -145,7 +163,7 @@ public class RequestLoggerService {
                         file = file.getAbsoluteFile();
                     }
 
-                    return new FileRequestLog(file);
+                    return new FileRequestLog(file, this.async, this.bufferSize);
                 } catch (IOException ioe) {
                     // TODO: log
                 }
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.request;
+
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.apache.sling.api.request.RequestProgressTracker;
+
+/**
+ * The <code>NoopRequestProgressTracker</code> is the request progress
+ * tracker used for requests which are not tracked. It does not record any
+ * entries and is stateless, so a single {@link #INSTANCE} is shared by all
+ * requests.
+ */
+public final class NoopRequestProgressTracker implements RequestProgressTracker {
+
+    /** The shared instance. */
+    public static final NoopRequestProgressTracker INSTANCE = new NoopRequestProgressTracker();
+
+    private NoopRequestProgressTracker() {
+    }
+
+    public void reset() {
+    }
+
+    public Iterator<String> getMessages() {
+        return Collections.<String> emptyList().iterator();
+    }
+
+    public void dump(final PrintWriter writer) {
+    }
+
+    public void log(String message) {
+    }
+
+    public void log(String format, Object... args) {
+    }
+
+    public void startTimer(String timerName) {
+    }
+
+    public void logTimer(String timerName) {
+    }
+
+    public void logTimer(String timerName, String format, Object... args) {
+    }
+
+    public void done() {
+    }
+}
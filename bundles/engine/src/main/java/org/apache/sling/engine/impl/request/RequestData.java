@@ -104,6 +104,15 @@ public class RequestData {
      */
     private static int maxCallCounter = DEFAULT_MAX_CALL_COUNTER;
 
+    /**
+     * The factory creating the {@link RequestProgressTracker} of each
+     * request (default: all requests are fully tracked).
+     */
+    private static RequestProgressTrackerFactory requestProgressTrackerFactory = new RequestProgressTrackerFactory(
+        RequestProgressTrackerFactory.DEFAULT_MODE,
+        RequestProgressTrackerFactory.DEFAULT_SAMPLE_RATE,
+        RequestProgressTrackerFactory.DEFAULT_THRESHOLD);
+
     private static SlingMainServlet SLING_MAIN_SERVLET;
 
     /** The SlingMainServlet used for request dispatching and other stuff */
@@ -173,6 +182,11 @@ public class RequestData {
         return maxInclusionCounter;
     }
 
+    public static void setRequestProgressTrackerFactory(
+            final RequestProgressTrackerFactory requestProgressTrackerFactory) {
+        RequestData.requestProgressTrackerFactory = requestProgressTrackerFactory;
+    }
+
     public static void setSlingMainServlet(final SlingMainServlet slingMainServlet) {
         RequestData.SLING_MAIN_SERVLET = slingMainServlet;
     }
@@ -191,7 +205,7 @@ public class RequestData {
         this.slingResponse = new SlingHttpServletResponseImpl(this,
             servletResponse);
 
-        this.requestProgressTracker = new SlingRequestProgressTracker();
+        this.requestProgressTracker = requestProgressTrackerFactory.createTracker();
         this.requestProgressTracker.log(
         		"Method={0}, PathInfo={1}",
         		this.slingRequest.getMethod(), this.slingRequest.getPathInfo()
@@ -65,12 +65,40 @@ public class RequestHistoryConsolePlugin {
     private RequestHistoryConsolePlugin() {
     }
 
+    /**
+     * Records the request at the start of request processing. Requests which
+     * are not tracked or only tracked if exceeding the latency threshold are
+     * not recorded here.
+     */
     public static void recordRequest(SlingHttpServletRequest r) {
-        if (instance != null) {
+        if (instance != null && isTracked(r.getRequestProgressTracker())) {
             instance.addRequest(r);
         }
     }
 
+    /**
+     * Records the request after request processing if it has only been
+     * tracked because it exceeded the latency threshold.
+     */
+    public static void recordCompletedRequest(SlingHttpServletRequest r) {
+        if (instance != null) {
+            final RequestProgressTracker t = r.getRequestProgressTracker();
+            if (t instanceof SlingRequestProgressTracker) {
+                final SlingRequestProgressTracker tracker = (SlingRequestProgressTracker) t;
+                if (tracker.isConditional() && !tracker.isDiscarded()) {
+                    instance.addRequest(r);
+                }
+            }
+        }
+    }
+
+    private static boolean isTracked(final RequestProgressTracker t) {
+        if (t instanceof SlingRequestProgressTracker) {
+            return !((SlingRequestProgressTracker) t).isConditional();
+        }
+        return t != NoopRequestProgressTracker.INSTANCE;
+    }
+
     public static void initPlugin(BundleContext context, int maxRequests, List<Pattern> storePatterns) {
         if (instance == null) {
             Plugin tmp = new Plugin(maxRequests, storePatterns);
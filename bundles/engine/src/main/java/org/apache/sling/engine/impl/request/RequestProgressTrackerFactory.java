@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.request;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sling.api.request.RequestProgressTracker;
+
+/**
+ * The <code>RequestProgressTrackerFactory</code> creates the request
+ * progress tracker for each request according to the configured mode:
+ * <dl>
+ * <dt>{@link #MODE_FULL full}</dt>
+ * <dd>Every request is fully tracked.</dd>
+ * <dt>{@link #MODE_SAMPLED sampled}</dt>
+ * <dd>Every n-th request is fully tracked. If a latency threshold is
+ * configured, the other requests are tracked as well but their entries are
+ * discarded unless the request takes at least the threshold. Otherwise the
+ * other requests are not tracked at all.</dd>
+ * <dt>{@link #MODE_OFF off}</dt>
+ * <dd>No request is tracked, the shared
+ * {@link NoopRequestProgressTracker} is used.</dd>
+ * </dl>
+ */
+public class RequestProgressTrackerFactory {
+
+    public static final String MODE_FULL = "full";
+
+    public static final String MODE_SAMPLED = "sampled";
+
+    public static final String MODE_OFF = "off";
+
+    public static final String DEFAULT_MODE = MODE_FULL;
+
+    public static final int DEFAULT_SAMPLE_RATE = 100;
+
+    public static final long DEFAULT_THRESHOLD = 0;
+
+    private final String mode;
+
+    private final int sampleRate;
+
+    private final long threshold;
+
+    private final AtomicLong requestCounter = new AtomicLong();
+
+    /**
+     * Creates a factory for the given mode.
+     *
+     * @param mode One of {@link #MODE_FULL}, {@link #MODE_SAMPLED} or
+     *            {@link #MODE_OFF}. Any other value is treated as
+     *            {@link #MODE_FULL}.
+     * @param sampleRate Every how many requests are fully tracked in the
+     *            sampled mode. Values less than 1 are treated as 1.
+     * @param threshold Latency threshold in milliseconds for keeping the
+     *            entries of requests not sampled in the sampled mode. If zero
+     *            or negative, these requests are not tracked.
+     */
+    public RequestProgressTrackerFactory(final String mode,
+            final int sampleRate, final long threshold) {
+        if (MODE_OFF.equalsIgnoreCase(mode)) {
+            this.mode = MODE_OFF;
+        } else if (MODE_SAMPLED.equalsIgnoreCase(mode)) {
+            this.mode = MODE_SAMPLED;
+        } else {
+            this.mode = MODE_FULL;
+        }
+        this.sampleRate = Math.max(1, sampleRate);
+        this.threshold = threshold;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the request progress tracker for a new request.
+     */
+    public RequestProgressTracker createTracker() {
+        if (MODE_FULL.equals(mode)) {
+            return new SlingRequestProgressTracker();
+        } else if (MODE_OFF.equals(mode)) {
+            return NoopRequestProgressTracker.INSTANCE;
+        }
+
+        if (requestCounter.incrementAndGet() % sampleRate == 0) {
+            return new SlingRequestProgressTracker();
+        } else if (threshold > 0) {
+            return new SlingRequestProgressTracker(threshold);
+        }
+        return NoopRequestProgressTracker.INSTANCE;
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.sling.engine.impl.request;
 import java.io.PrintWriter;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -88,6 +89,20 @@ import org.apache.sling.api.request.RequestProgressTracker;
  * <li>The absolute time of the timer in parenthesis.
  * <li>The entry message
  * </ol>
+ * <p>
+ * <b>Deferred Formatting</b>
+ * <p>
+ * Tracking entries keep the message format and arguments as provided and
+ * are only formatted when the messages are requested through the
+ * {@link #getMessages()} or {@link #dump(PrintWriter)} methods. Thus the
+ * arguments are converted to strings at the time of the dump.
+ * <p>
+ * <b>Conditional Tracking</b>
+ * <p>
+ * If created with a positive latency threshold, the entries are only kept if
+ * the request takes at least the threshold number of milliseconds. If the
+ * request is {@link #done() done} before, the entries are discarded and
+ * further entries are ignored.
  */
 public class SlingRequestProgressTracker implements RequestProgressTracker {
 
@@ -113,6 +128,15 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
     /** TIMER_END format explanation */
     private static final String TIMER_END_FORMAT = "{<elapsed msec>,<timer name>} <optional message>";
 
+    /** The initial comment entry message */
+    private static final String TIMER_END_COMMENT = COMMENT_PREFIX + "timer_end format is " + TIMER_END_FORMAT;
+
+    /**
+     * The minimum processing time in milliseconds for the entries to be
+     * kept. If zero or negative, entries are always kept.
+     */
+    private final long threshold;
+
     /**
      * The system time at creation of this instance or the last {@link #reset()}.
      */
@@ -131,19 +155,51 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
 
     private boolean done;
 
+    private boolean discarded;
+
     /**
      * Creates a new request progress tracker.
      */
     public SlingRequestProgressTracker() {
+        this(0);
+    }
+
+    /**
+     * Creates a new request progress tracker only keeping its entries if the
+     * request takes at least the given number of milliseconds.
+     *
+     * @param threshold The minimum processing time in milliseconds. If zero
+     *            or negative, the entries are always kept.
+     */
+    public SlingRequestProgressTracker(final long threshold) {
+        this.threshold = threshold;
         reset();
     }
 
+    /**
+     * Returns <code>true</code> if the entries of this tracker are only
+     * kept for requests taking at least the latency threshold.
+     */
+    public boolean isConditional() {
+        return threshold > 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the entries of this tracker have been
+     * discarded because the request has been done before the latency
+     * threshold has been reached.
+     */
+    public boolean isDiscarded() {
+        return discarded;
+    }
+
     /**
      * Resets this timer by removing all current entries and timers and adds an
      * initial timer entry
      */
     public void reset() {
         done = false;
+        discarded = false;
 
         // remove all entries
         entries.clear();
@@ -151,13 +207,17 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
 
         // enter initial messages
         processingStart = startTimerInternal(REQUEST_PROCESSING_TIMER);
-        entries.add(new TrackingEntry(COMMENT_PREFIX + "timer_end format is " + TIMER_END_FORMAT));
+        entries.add(new TrackingEntry(processingStart, TIMER_END_COMMENT, null));
     }
 
     /**
      * @see org.apache.sling.api.request.RequestProgressTracker#getMessages()
      */
     public Iterator<String> getMessages() {
+        if (discarded) {
+            return Collections.<String> emptyList().iterator();
+        }
+
         return new Iterator<String>() {
             private final Iterator<TrackingEntry> entryIter = entries.iterator();
 
@@ -198,13 +258,16 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
 
     /** Creates an entry with the given message. */
     public void log(String message) {
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        if (!discarded) {
+            entries.add(new TrackingEntry(LOG_PREFIX, message, null));
+        }
     }
 
     /** Creates an entry with the given entry tag and message */
     public void log(String format, Object... args) {
-        String message = MessageFormat.format(format, args);
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        if (!discarded) {
+            entries.add(new TrackingEntry(LOG_PREFIX, format, args));
+        }
     }
 
     /**
@@ -212,7 +275,9 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
      * reset to the current time.
      */
     public void startTimer(String name) {
-        startTimerInternal(name);
+        if (!discarded) {
+            startTimerInternal(name);
+        }
     }
 
     /**
@@ -225,7 +290,7 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
     private long startTimerInternal(String name) {
         long timer = System.currentTimeMillis();
         namedTimerEntries.put(name, timer);
-        entries.add(new TrackingEntry(timer, "TIMER_START{" + name + "}"));
+        entries.add(new TimerEntry(timer, name, -1, null, null));
         return timer;
     }
 
@@ -233,61 +298,67 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
      * Log a timer entry, including start, end and elapsed time.
      */
     public void logTimer(String name) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, null, namedTimerEntries.get(name));
-        }
+        logTimer(name, null, (Object[]) null);
     }
 
     /**
      * Log a timer entry, including start, end and elapsed time.
      */
     public void logTimer(String name, String format, Object... args) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, MessageFormat.format(format, args), namedTimerEntries.get(name));
-        }
-    }
-
-    /**
-     * Log a timer entry, including start, end and elapsed time using TIMER_END_FORMAT
-     */
-    private void logTimerInternal(String name, String msg, long startTime) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append("TIMER_END{");
-        sb.append(System.currentTimeMillis() - startTime);
-        sb.append(',');
-        sb.append(name);
-        sb.append('}');
-        if(msg != null) {
-            sb.append(' ');
-            sb.append(msg);
+        if (!discarded) {
+            final Long startTime = namedTimerEntries.get(name);
+            if (startTime != null) {
+                final long now = System.currentTimeMillis();
+                entries.add(new TimerEntry(now, name, now - startTime, format, args));
+            }
         }
-        entries.add(new TrackingEntry(sb.toString()));
     }
 
     public void done() {
         if(done) return;
         logTimer(REQUEST_PROCESSING_TIMER, REQUEST_PROCESSING_TIMER);
         done = true;
+
+        if (threshold > 0
+            && System.currentTimeMillis() - processingStart < threshold) {
+            entries.clear();
+            namedTimerEntries.clear();
+            discarded = true;
+        }
     }
 
 
-    /** Process tracker entry keeping timestamp, tag and message */
+    /**
+     * Process tracker entry keeping timestamp, prefix and the unformatted
+     * message.
+     */
     private static class TrackingEntry {
 
         // creation time stamp
         private final long timeStamp;
 
-        // tracking message
-        private final String message;
+        // message prefix
+        final String prefix;
+
+        // tracking message or MessageFormat pattern
+        final String format;
+
+        // MessageFormat arguments, null if the message is not formatted
+        final Object[] args;
 
-        TrackingEntry(String message) {
-            this.timeStamp = System.currentTimeMillis();
-            this.message = message;
+        TrackingEntry(String prefix, String format, Object[] args) {
+            this(System.currentTimeMillis(), prefix, format, args);
         }
 
-        TrackingEntry(long timeStamp, String message) {
+        TrackingEntry(long timeStamp, String format, Object[] args) {
+            this(timeStamp, null, format, args);
+        }
+
+        TrackingEntry(long timeStamp, String prefix, String format, Object[] args) {
             this.timeStamp = timeStamp;
-            this.message = message;
+            this.prefix = prefix;
+            this.format = format;
+            this.args = args;
         }
 
         long getTimeStamp() {
@@ -295,7 +366,52 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
         }
 
         String getMessage() {
-            return message;
+            final StringBuilder sb = new StringBuilder();
+            appendMessage(sb);
+            return sb.toString();
+        }
+
+        void appendMessage(final StringBuilder sb) {
+            if (prefix != null) {
+                sb.append(prefix);
+            }
+            if (args != null) {
+                sb.append(MessageFormat.format(format, args));
+            } else if (format != null) {
+                sb.append(format);
+            }
+        }
+    }
+
+    /**
+     * Timer entry for either the start of a named timer or, if the elapsed
+     * time is not negative, the end of a named timer.
+     */
+    private static class TimerEntry extends TrackingEntry {
+
+        // timer name
+        final String name;
+
+        // elapsed time in ms or -1 for a TIMER_START entry
+        final long elapsed;
+
+        TimerEntry(long timeStamp, String name, long elapsed, String format, Object[] args) {
+            super(timeStamp, format, args);
+            this.name = name;
+            this.elapsed = elapsed;
+        }
+
+        @Override
+        void appendMessage(final StringBuilder sb) {
+            if (elapsed < 0) {
+                sb.append("TIMER_START{").append(name).append('}');
+            } else {
+                sb.append("TIMER_END{").append(elapsed).append(',').append(name).append('}');
+                if (format != null) {
+                    sb.append(' ');
+                    super.appendMessage(sb);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.engine.impl.filter.SlingFilterChainHelper.FilterListEntry;
+import org.apache.sling.engine.impl.filter.SlingFilterChainHelper.FilterStatistics;
+import org.junit.Test;
+
+public class SlingFilterChainHelperTest {
+
+    private static class TestFilter implements Filter {
+        public void init(FilterConfig filterConfig) {
+        }
+
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) {
+        }
+
+        public void destroy() {
+        }
+    }
+
+    @Test
+    public void testSnapshots() {
+        final SlingFilterChainHelper helper = new SlingFilterChainHelper();
+        assertNull(helper.getFilters());
+
+        final Filter a = new TestFilter();
+        final Filter b = new TestFilter();
+        helper.addFilter(a, 1L, 10);
+        helper.addFilter(b, 2L, 5);
+
+        final FilterListEntry[] first = helper.getFilters();
+        assertEquals(2, first.length);
+        assertSame(b, first[0].getFilter());
+        assertSame(a, first[1].getFilter());
+        // unchanged list returns the same snapshot
+        assertSame(first, helper.getFilters());
+        assertNull(first[0].getStatistics());
+
+        helper.removeFilterById(2L);
+        final FilterListEntry[] second = helper.getFilters();
+        assertNotSame(first, second);
+        assertEquals(1, second.length);
+        assertSame(a, second[0].getFilter());
+        // the old snapshot is not modified
+        assertEquals(2, first.length);
+        assertSame(b, first[0].getFilter());
+
+        helper.removeFilter(a);
+        assertNull(helper.getFilters());
+    }
+
+    @Test
+    public void testRemoveAll() {
+        final SlingFilterChainHelper helper = new SlingFilterChainHelper();
+        assertNull(helper.removeAllFilters());
+
+        final Filter a = new TestFilter();
+        helper.addFilter(a, 1L, 0);
+        final Filter[] removed = helper.removeAllFilters();
+        assertEquals(1, removed.length);
+        assertSame(a, removed[0]);
+        assertNull(helper.getFilters());
+        assertNull(helper.getFilterListEntries());
+    }
+
+    @Test
+    public void testStatistics() {
+        final SlingFilterChainHelper helper = new SlingFilterChainHelper(true);
+        helper.addFilter(new TestFilter(), 1L, 0);
+
+        final FilterStatistics stats = helper.getFilters()[0].getStatistics();
+        assertNotNull(stats);
+        stats.record(100);
+        stats.record(300);
+        stats.record(200);
+
+        assertEquals(3, stats.getCalls());
+        assertEquals(600, stats.getTotalTime());
+        assertEquals(300, stats.getMaxTime());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncLogWriterTest {
+
+    @Test
+    public void testLinesWrittenInOrder() throws Exception {
+        final StringWriter out = new StringWriter();
+        final AsyncLogWriter writer = new AsyncLogWriter(out, 4, "test");
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            while (!writer.write("line " + i)) {
+                Thread.sleep(1);
+            }
+            expected.append("line ").append(i).append(System.getProperty("line.separator"));
+        }
+        writer.close();
+
+        assertEquals(expected.toString(), out.toString());
+        assertFalse(writer.write("after close"));
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        final StringWriter out = new StringWriter();
+        final AsyncLogWriter writer = new AsyncLogWriter(out, 1 << 16, "test");
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        writer.write(id + ":" + i);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        writer.close();
+
+        final String[] lines = out.toString().split(System.getProperty("line.separator"));
+        assertEquals(4000 - writer.getDroppedLines(), lines.length);
+        assertEquals(0, writer.getDroppedLines());
+    }
+
+    @Test
+    public void testDropWhenFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final StringWriter out = new StringWriter() {
+            @Override
+            public void write(String str) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    // ignore
+                }
+                super.write(str);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() throws IOException {
+            }
+        };
+        final AsyncLogWriter writer = new AsyncLogWriter(out, 2, "test");
+
+        // the first line blocks the writer thread in the output
+        assertTrue(writer.write("first"));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // two more lines fill the buffer, the next ones are dropped
+        assertTrue(writer.write("second"));
+        assertTrue(writer.write("third"));
+        assertFalse(writer.write("fourth"));
+        assertFalse(writer.write("fifth"));
+        assertEquals(2, writer.getDroppedLines());
+
+        release.countDown();
+        writer.close();
+        assertTrue(out.toString().contains("third"));
+        assertFalse(out.toString().contains("fourth"));
+    }
+}
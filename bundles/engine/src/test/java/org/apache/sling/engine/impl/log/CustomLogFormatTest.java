@@ -16,6 +16,10 @@
  */
 package org.apache.sling.engine.impl.log;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
 import junit.framework.TestCase;
 
 /**
@@ -66,4 +70,43 @@ public class CustomLogFormatTest extends TestCase {
         assertEquals("This is a special character \\u1234", CustomLogFormat.HeaderParameter.escape("This is a special character \u1234"));
     }
 
+    public void testTimeFormatted() throws Exception {
+        final long time = 1000000000000L;
+        final SimpleDateFormat fmt = new SimpleDateFormat("dd/MMM/yyyy:HH:mm:ss Z", Locale.US);
+
+        final String[] results = new String[8];
+        final Thread[] threads = new Thread[results.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    String value = null;
+                    for (int i = 0; i < 1000; i++) {
+                        // alternate between two seconds to defeat the cache
+                        final long current = time + (i % 2) * 1000;
+                        final String formatted = CustomLogFormat.TimeParameter.timeFormatted(current);
+                        if (i % 2 == 0) {
+                            if (value != null && !value.equals(formatted)) {
+                                value = "inconsistent";
+                                break;
+                            }
+                            value = formatted;
+                        }
+                    }
+                    results[id] = value;
+                }
+            };
+            threads[t].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+
+        final String expected = fmt.format(new Date(time));
+        for (final String result : results) {
+            assertEquals(expected, result);
+        }
+    }
+
 }
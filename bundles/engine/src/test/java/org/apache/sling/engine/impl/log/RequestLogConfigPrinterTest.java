@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RequestLogConfigPrinterTest {
+
+    @After
+    public void dispose() {
+        FileRequestLog.dispose();
+    }
+
+    private String print() {
+        final StringWriter out = new StringWriter();
+        new RequestLogConfigPrinter().printConfiguration(new PrintWriter(out));
+        return out.toString();
+    }
+
+    @Test
+    public void testNoAsyncLogs() {
+        assertTrue(print().contains("---"));
+    }
+
+    @Test
+    public void testAsyncLogWithDroppedLines() throws Exception {
+        final File logFile = File.createTempFile("request", ".log");
+        logFile.deleteOnExit();
+        final FileRequestLog log = new FileRequestLog(logFile, true, 8);
+        log.write("line");
+
+        final String output = print();
+        assertTrue(output, output.contains(logFile.getAbsolutePath()
+            + " : buffer=8 lines, dropped=" + log.getDroppedLines() + " lines"));
+    }
+}
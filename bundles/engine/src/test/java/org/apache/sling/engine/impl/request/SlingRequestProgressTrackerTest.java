@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.sling.api.request.RequestProgressTracker;
+import org.junit.Test;
+
+public class SlingRequestProgressTrackerTest {
+
+    private List<String> messages(final RequestProgressTracker t) {
+        final List<String> result = new ArrayList<String>();
+        final Iterator<String> it = t.getMessages();
+        while (it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    @Test
+    public void testDeferredFormatting() {
+        final SlingRequestProgressTracker t = new SlingRequestProgressTracker();
+        final StringBuilder arg = new StringBuilder("before");
+        t.log("Plain {0}");
+        t.log("Value={0}", arg);
+        t.startTimer("timer");
+        t.logTimer("timer", "Path={0}", "/content");
+        t.logTimer("unknown");
+        arg.replace(0, arg.length(), "after");
+        t.done();
+
+        final List<String> m = messages(t);
+        assertEquals(7, m.size());
+        assertTrue(m.get(0).contains("TIMER_START{Request Processing}"));
+        assertTrue(m.get(1).contains("COMMENT timer_end format is"));
+        assertTrue(m.get(2).contains("LOG Plain {0}"));
+        // arguments are formatted when the messages are requested
+        assertTrue(m.get(3).contains("LOG Value=after"));
+        assertTrue(m.get(4).contains("TIMER_START{timer}"));
+        assertTrue(m.get(5).matches("(?s).*TIMER_END\\{\\d+,timer\\} Path=/content.*"));
+        assertTrue(m.get(6).matches("(?s).*TIMER_END\\{\\d+,Request Processing\\} Request Processing.*"));
+    }
+
+    @Test
+    public void testThreshold() throws Exception {
+        final SlingRequestProgressTracker fast = new SlingRequestProgressTracker(60000);
+        assertTrue(fast.isConditional());
+        fast.log("message");
+        fast.done();
+        assertTrue(fast.isDiscarded());
+        assertFalse(fast.getMessages().hasNext());
+        fast.log("ignored");
+        assertFalse(fast.getMessages().hasNext());
+
+        final SlingRequestProgressTracker slow = new SlingRequestProgressTracker(1);
+        slow.log("message");
+        Thread.sleep(5);
+        slow.done();
+        assertFalse(slow.isDiscarded());
+        assertEquals(4, messages(slow).size());
+    }
+
+    @Test
+    public void testFactoryModes() {
+        assertTrue(new RequestProgressTrackerFactory("full", 1, 0).createTracker() instanceof SlingRequestProgressTracker);
+        assertSame(NoopRequestProgressTracker.INSTANCE,
+            new RequestProgressTrackerFactory("off", 1, 0).createTracker());
+        assertEquals(RequestProgressTrackerFactory.MODE_FULL,
+            new RequestProgressTrackerFactory("unknown", 1, 0).getMode());
+
+        final RequestProgressTrackerFactory sampled = new RequestProgressTrackerFactory("sampled", 3, 0);
+        int tracked = 0;
+        for (int i = 0; i < 9; i++) {
+            if (sampled.createTracker() != NoopRequestProgressTracker.INSTANCE) {
+                tracked++;
+            }
+        }
+        assertEquals(3, tracked);
+
+        final RequestProgressTrackerFactory thresholdFactory = new RequestProgressTrackerFactory("sampled", 2, 100);
+        final SlingRequestProgressTracker first = (SlingRequestProgressTracker) thresholdFactory.createTracker();
+        final SlingRequestProgressTracker second = (SlingRequestProgressTracker) thresholdFactory.createTracker();
+        assertTrue(first.isConditional());
+        assertFalse(second.isConditional());
+    }
+}
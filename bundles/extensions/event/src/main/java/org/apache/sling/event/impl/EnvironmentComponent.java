@@ -18,6 +18,9 @@
  */
 package org.apache.sling.event.impl;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -45,6 +48,9 @@ public class EnvironmentComponent {
     @Reference(referenceInterface=EventingThreadPool.class)
     private ThreadPool threadPool;
 
+    /** Executor for virtual threads, if supported. */
+    private ExecutorService virtualThreads;
+
     /** Sling settings service. */
     @Reference
     private SlingSettingsService settingsService;
@@ -57,6 +63,22 @@ public class EnvironmentComponent {
         // Set the application id and the thread pool
         Environment.APPLICATION_ID = this.settingsService.getSlingId();
         Environment.THREAD_POOL = this.threadPool;
+        this.virtualThreads = createVirtualThreadExecutor();
+        Environment.VIRTUAL_THREADS = this.virtualThreads;
+    }
+
+    /**
+     * Create an executor starting a new virtual thread per task.
+     * Virtual threads are available with Java 21, on older JVMs
+     * <code>null</code> is returned.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final Exception ignore) {
+            // not supported
+            return null;
+        }
     }
 
     /**
@@ -68,6 +90,13 @@ public class EnvironmentComponent {
         if ( Environment.THREAD_POOL == this.threadPool ) {
             Environment.THREAD_POOL = null;
         }
+        if ( this.virtualThreads != null ) {
+            if ( Environment.VIRTUAL_THREADS == this.virtualThreads ) {
+                Environment.VIRTUAL_THREADS = null;
+            }
+            this.virtualThreads.shutdown();
+            this.virtualThreads = null;
+        }
     }
 
     protected void bindThreadPool(final EventingThreadPool etp) {
@@ -49,9 +49,48 @@ public class DistributedEventAdminConfiguration {
     @Property(intValue=DEFAULT_CLEANUP_PERIOD)
     private static final String CONFIG_PROPERTY_CLEANUP_PERIOD = "cleanup.period";
 
+    /** Default maximum number of events written or read with a single commit/resolver. */
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    @Property(intValue=DEFAULT_BATCH_SIZE)
+    private static final String CONFIG_PROPERTY_BATCH_SIZE = "batch.size";
+
+    /** Default time in milliseconds to collect events for a batch. */
+    private static final long DEFAULT_BATCH_TIME = 50;
+
+    @Property(longValue=DEFAULT_BATCH_TIME)
+    private static final String CONFIG_PROPERTY_BATCH_TIME = "batch.time";
+
+    /** Default maximum number of events waiting to be written. */
+    private static final int DEFAULT_QUEUE_SIZE = 100000;
+
+    @Property(intValue=DEFAULT_QUEUE_SIZE)
+    private static final String CONFIG_PROPERTY_QUEUE_SIZE = "queue.size";
+
+    /** What to do if the write queue is full. */
+    public enum OverflowPolicy {
+        /** Discard the new event. */
+        DROP_NEWEST,
+        /** Discard the oldest waiting event. */
+        DROP_OLDEST,
+        /** Wait until there is space in the queue. */
+        BLOCK
+    }
+
+    @Property(value="DROP_NEWEST")
+    private static final String CONFIG_PROPERTY_QUEUE_OVERFLOW = "queue.overflow";
+
     /** We remove everything which is older than 15min by default. */
     private int cleanupPeriod = DEFAULT_CLEANUP_PERIOD;
 
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private long batchTime = DEFAULT_BATCH_TIME;
+
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
     /** The path in the resource tree. */
     private String rootPath;
 
@@ -67,6 +106,18 @@ public class DistributedEventAdminConfiguration {
     @Activate
     protected void activate(final Map<String, Object> props) {
         this.cleanupPeriod = PropertiesUtil.toInteger(props.get(CONFIG_PROPERTY_CLEANUP_PERIOD), DEFAULT_CLEANUP_PERIOD);
+        this.batchSize = Math.max(1, PropertiesUtil.toInteger(props.get(CONFIG_PROPERTY_BATCH_SIZE), DEFAULT_BATCH_SIZE));
+        this.batchTime = Math.max(0, PropertiesUtil.toLong(props.get(CONFIG_PROPERTY_BATCH_TIME), DEFAULT_BATCH_TIME));
+        this.queueSize = PropertiesUtil.toInteger(props.get(CONFIG_PROPERTY_QUEUE_SIZE), DEFAULT_QUEUE_SIZE);
+        if ( this.queueSize < 1 ) {
+            this.queueSize = Integer.MAX_VALUE;
+        }
+        try {
+            this.overflowPolicy = OverflowPolicy.valueOf(PropertiesUtil.toString(props.get(CONFIG_PROPERTY_QUEUE_OVERFLOW),
+                    OverflowPolicy.DROP_NEWEST.name()));
+        } catch (final IllegalArgumentException iae) {
+            this.overflowPolicy = OverflowPolicy.DROP_NEWEST;
+        }
         this.rootPath = PropertiesUtil.toString(props.get(
                 CONFIG_PROPERTY_REPOSITORY_PATH), DEFAULT_REPOSITORY_PATH);
         this.rootPathWithSlash = this.rootPath.concat("/");
@@ -109,4 +160,34 @@ public class DistributedEventAdminConfiguration {
     public int getCleanupPeriod() {
         return this.cleanupPeriod;
     }
+
+    /**
+     * The maximum number of events written with a single commit
+     * or read with a single resource resolver.
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * The time in milliseconds the writer waits for more events
+     * before committing a batch.
+     */
+    public long getBatchTime() {
+        return this.batchTime;
+    }
+
+    /**
+     * The maximum number of events waiting to be written.
+     */
+    public int getQueueSize() {
+        return this.queueSize;
+    }
+
+    /**
+     * The policy if the write queue is full.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
 }
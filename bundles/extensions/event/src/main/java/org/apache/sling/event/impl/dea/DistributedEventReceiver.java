@@ -18,15 +18,18 @@
  */
 package org.apache.sling.event.impl.dea;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -86,7 +89,10 @@ public class DistributedEventReceiver
     private volatile boolean running;
 
     /** A local queue for writing received events into the repository. */
-    private final BlockingQueue<Event> writeQueue = new LinkedBlockingQueue<Event>();
+    private volatile BlockingQueue<Event> writeQueue;
+
+    /** Number of events dropped as the write queue was full. */
+    private final AtomicLong droppedEvents = new AtomicLong(0);
 
     @Reference
     private ResourceResolverFactory resourceResolverFactory;
@@ -99,6 +105,7 @@ public class DistributedEventReceiver
 
     @Activate
     protected void activate() {
+        this.writeQueue = new LinkedBlockingQueue<Event>(this.config.getQueueSize());
         this.running = true;
         // start writer thread
         final Thread writerThread = new Thread(new Runnable() {
@@ -134,17 +141,24 @@ public class DistributedEventReceiver
     protected void deactivate() {
         // stop background threads by putting empty objects into the queue
         this.running = false;
-        try {
-            this.writeQueue.put(new Event(Utility.TOPIC_STOPPED, (Dictionary<String, Object>)null));
-        } catch (final InterruptedException e) {
-            this.ignoreException(e);
+        // the queue might be full, so make room for the stop marker
+        final Event stopEvent = new Event(Utility.TOPIC_STOPPED, (Dictionary<String, Object>)null);
+        while ( !this.writeQueue.offer(stopEvent) ) {
+            this.writeQueue.poll();
         }
     }
 
     /**
      * Background thread writing events into the queue.
+     * Events are collected into batches which are persisted with a
+     * single commit: a batch is written once it contains the configured
+     * number of events or once the configured batch time elapsed
+     * after the first event of the batch has been taken from the queue.
      */
     private void processWriteQueue() {
+        final int batchSize = this.config.getBatchSize();
+        final long batchTime = this.config.getBatchTime();
+        final List<Event> batch = new ArrayList<Event>(Math.min(batchSize, 1024));
         while ( this.running ) {
             // so let's wait/get the next event from the queue
             Event event = null;
@@ -155,10 +169,68 @@ public class DistributedEventReceiver
                 this.ignoreException(e);
             }
             if ( event != null && this.running ) {
+                batch.add(event);
+                final long endTime = System.currentTimeMillis() + batchTime;
+                while ( this.running && batch.size() < batchSize ) {
+                    // first take everything which is already available
+                    if ( this.writeQueue.drainTo(batch, batchSize - batch.size()) > 0 ) {
+                        continue;
+                    }
+                    final long waitTime = endTime - System.currentTimeMillis();
+                    if ( waitTime <= 0 ) {
+                        break;
+                    }
+                    Event next = null;
+                    try {
+                        next = this.writeQueue.poll(waitTime, TimeUnit.MILLISECONDS);
+                    } catch (final InterruptedException e) {
+                        this.ignoreException(e);
+                    }
+                    if ( next == null ) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if ( this.running ) {
+                    this.writeEvents(batch);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write a batch of events to the resource tree and commit them
+     * together. If the commit fails, the changes are reverted and
+     * the events are written one by one so a single bad event does
+     * not discard the whole batch.
+     * @param events The events
+     */
+    private void writeEvents(final List<Event> events) {
+        if ( events.size() > 1 ) {
+            try {
+                for(final Event event : events) {
+                    if ( !Utility.TOPIC_STOPPED.equals(event.getTopic()) ) {
+                        this.writeEvent(event);
+                    }
+                }
+                this.writerResolver.commit();
+                return;
+            } catch (final Exception e) {
+                this.logger.warn("Exception during writing a batch of " + events.size() + " events to the resource tree. Retrying each event.", e);
+                this.writerResolver.revert();
+                this.writerResolver.refresh();
+            }
+        }
+        for(final Event event : events) {
+            if ( !Utility.TOPIC_STOPPED.equals(event.getTopic()) ) {
                 try {
                     this.writeEvent(event);
+                    this.writerResolver.commit();
                 } catch (final Exception e) {
                     this.logger.error("Exception during writing the event to the resource tree.", e);
+                    this.writerResolver.revert();
+                    this.writerResolver.refresh();
                 }
             }
         }
@@ -169,6 +241,7 @@ public class DistributedEventReceiver
 
     /**
      * Write an event to the resource tree.
+     * The changes are not committed.
      * @param event The event
      * @throws PersistenceException
      */
@@ -206,7 +279,7 @@ public class DistributedEventReceiver
         properties.put(EventUtil.PROPERTY_APPLICATION, Environment.APPLICATION_ID);
         properties.put(ResourceResolver.PROPERTY_RESOURCE_TYPE, ResourceHelper.RESOURCE_TYPE_EVENT);
 
-        ResourceHelper.getOrCreateResource(this.writerResolver,
+        ResourceHelper.createResourceWithoutCommit(this.writerResolver,
                 sb.toString(),
                 properties);
     }
@@ -216,11 +289,36 @@ public class DistributedEventReceiver
      */
     @Override
     public void handleEvent(final Event event) {
-        try {
-            this.writeQueue.put(event);
-        } catch (final InterruptedException ex) {
-            // we ignore this
-            this.ignoreException(ex);
+        final BlockingQueue<Event> queue = this.writeQueue;
+        switch ( this.config.getOverflowPolicy() ) {
+            case BLOCK : try {
+                             queue.put(event);
+                         } catch (final InterruptedException ex) {
+                             // we ignore this
+                             this.ignoreException(ex);
+                         }
+                         break;
+            case DROP_OLDEST : while ( !queue.offer(event) ) {
+                                   if ( queue.poll() != null ) {
+                                       this.dropped();
+                                   }
+                               }
+                               break;
+            default : if ( !queue.offer(event) ) {
+                          this.dropped();
+                      }
+        }
+    }
+
+    /**
+     * An event has been dropped as the write queue is full.
+     * We log the first drop and then every thousandth one.
+     */
+    private void dropped() {
+        final long count = this.droppedEvents.incrementAndGet();
+        if ( count % 1000 == 1 ) {
+            this.logger.warn("Write queue for distributed events is full (capacity {}) - {} events dropped so far.",
+                    this.config.getQueueSize(), count);
         }
     }
 
@@ -18,6 +18,7 @@
  */
 package org.apache.sling.event.impl.dea;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
@@ -151,8 +152,12 @@ public class DistributedEventSender
 
     /**
      * Background thread
+     * All paths already waiting in the queue (up to the configured batch size)
+     * are read with a single resource resolver.
      */
     private void runInBackground() {
+        final int batchSize = this.config.getBatchSize();
+        final List<String> paths = new ArrayList<String>(Math.min(batchSize, 1024));
         while ( this.running ) {
             // so let's wait/get the next event from the queue
             String path = null;
@@ -162,20 +167,28 @@ public class DistributedEventSender
                 // we ignore this
                 this.ignoreException(e);
             }
-            if ( path != null && path.length() > 0 && this.running ) {
+            if ( path != null && this.running ) {
+                paths.add(path);
+                this.queue.drainTo(paths, batchSize - 1);
+
                 ResourceResolver resolver = null;
                 try {
                     resolver = this.resourceResolverFactory.getAdministrativeResourceResolver(null);
-                    final Resource eventResource = resolver.getResource(path);
-                    if ( eventResource.isResourceType(ResourceHelper.RESOURCE_TYPE_EVENT) ) {
-                        final Event e = this.readEvent(eventResource);
-                        if ( e != null ) {
-                            // we check event admin as processing is async
-                            final EventAdmin localEA = this.eventAdmin;
-                            if ( localEA != null ) {
-                                localEA.postEvent(e);
-                            } else {
-                                this.logger.error("Unable to post event as no event admin is available.");
+                    for(final String eventPath : paths) {
+                        if ( eventPath.length() == 0 || !this.running ) {
+                            continue;
+                        }
+                        final Resource eventResource = resolver.getResource(eventPath);
+                        if ( eventResource != null && eventResource.isResourceType(ResourceHelper.RESOURCE_TYPE_EVENT) ) {
+                            final Event e = this.readEvent(eventResource);
+                            if ( e != null ) {
+                                // we check event admin as processing is async
+                                final EventAdmin localEA = this.eventAdmin;
+                                if ( localEA != null ) {
+                                    localEA.postEvent(e);
+                                } else {
+                                    this.logger.error("Unable to post event as no event admin is available.");
+                                }
                             }
                         }
                     }
@@ -186,6 +199,7 @@ public class DistributedEventSender
                         resolver.close();
                     }
                 }
+                paths.clear();
             }
         }
     }
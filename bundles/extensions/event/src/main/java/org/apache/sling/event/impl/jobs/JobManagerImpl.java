@@ -64,6 +64,7 @@ import org.apache.sling.event.impl.jobs.jmx.QueuesMBeanImpl;
 import org.apache.sling.event.impl.jobs.queues.AbstractJobQueue;
 import org.apache.sling.event.impl.jobs.queues.OrderedJobQueue;
 import org.apache.sling.event.impl.jobs.queues.ParallelJobQueue;
+import org.apache.sling.event.impl.jobs.queues.PriorityJobQueue;
 import org.apache.sling.event.impl.jobs.queues.TopicRoundRobinJobQueue;
 import org.apache.sling.event.impl.jobs.stats.StatisticsImpl;
 import org.apache.sling.event.impl.jobs.stats.TopicStatisticsImpl;
@@ -335,6 +336,9 @@ public class JobManagerImpl
                     if ( queue == null ) {
                         if ( config.getType() == QueueConfiguration.Type.ORDERED ) {
                             queue = new OrderedJobQueue(queueInfo.queueName, config, this.jobConsumerManager, this.eventAdmin);
+                        } else if ( config.getType() == QueueConfiguration.Type.UNORDERED
+                                && config.getOrdering() == InternalQueueConfiguration.Ordering.PRIORITY ) {
+                            queue = new PriorityJobQueue(queueInfo.queueName, config, this.jobConsumerManager, this.eventAdmin, this.scheduler);
                         } else if ( config.getType() == QueueConfiguration.Type.UNORDERED ) {
                             queue = new ParallelJobQueue(queueInfo.queueName, config, this.jobConsumerManager, this.eventAdmin, this.scheduler);
                         } else if ( config.getType() == QueueConfiguration.Type.TOPIC_ROUND_ROBIN ) {
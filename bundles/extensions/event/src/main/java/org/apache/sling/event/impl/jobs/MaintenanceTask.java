@@ -38,6 +38,7 @@ import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.discovery.InstanceDescription;
 import org.apache.sling.event.impl.jobs.config.QueueConfigurationManager;
 import org.apache.sling.event.impl.jobs.config.QueueConfigurationManager.QueueInfo;
+import org.apache.sling.event.impl.support.BatchResourceRemover;
 import org.apache.sling.event.impl.support.Environment;
 import org.apache.sling.event.impl.support.ResourceHelper;
 import org.apache.sling.event.jobs.Job;
@@ -52,6 +53,15 @@ import org.slf4j.LoggerFactory;
  */
 public class MaintenanceTask {
 
+    /** Maximum number of changes per commit. */
+    private static final int BATCH_SIZE = 100;
+
+    /** Maximum time in milliseconds changes are kept uncommitted. */
+    private static final long BATCH_TIME = 1000;
+
+    /** The date folder levels below a topic. */
+    private static final int YEAR = 0, HOUR = 3, MINUTE = 4;
+
     /** Logger. */
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -78,7 +88,8 @@ public class MaintenanceTask {
     }
 
     private void reassignJobs(final TopologyCapabilities caps,
-            final QueueConfigurationManager queueManager) {
+            final QueueConfigurationManager queueManager,
+            final BatchResourceRemover brr) {
         if ( caps != null && caps.isLeader() ) {
             this.logger.debug("Checking for stopped instances...");
             ResourceResolver resolver = null;
@@ -96,10 +107,13 @@ public class MaintenanceTask {
                         final String instanceId = instanceResource.getName();
                         if ( !caps.isActive(instanceId) ) {
                             logger.debug("Found stopped instance {}", instanceId);
-                            assignJobs(caps, queueManager, instanceResource, true);
+                            assignJobs(caps, queueManager, instanceResource, true, brr);
                         }
                     }
                 }
+                brr.commit();
+            } catch ( final PersistenceException pe ) {
+                this.ignoreException(pe);
             } catch ( final LoginException le ) {
                 this.ignoreException(le);
             } finally {
@@ -117,7 +131,8 @@ public class MaintenanceTask {
      * - capabilities
      */
     private void assignUnassignedJobs(final TopologyCapabilities caps,
-            final QueueConfigurationManager queueManager) {
+            final QueueConfigurationManager queueManager,
+            final BatchResourceRemover brr) {
         if ( caps != null && caps.isLeader() ) {
             logger.debug("Checking unassigned jobs...");
             ResourceResolver resolver = null;
@@ -128,8 +143,11 @@ public class MaintenanceTask {
 
                 // this resource should exist, but we check anyway
                 if ( unassignedRoot != null ) {
-                    assignJobs(caps, queueManager, unassignedRoot, false);
+                    assignJobs(caps, queueManager, unassignedRoot, false, brr);
                 }
+                brr.commit();
+            } catch ( final PersistenceException pe ) {
+                this.ignoreException(pe);
             } catch ( final LoginException le ) {
                 this.ignoreException(le);
             } finally {
@@ -143,11 +161,16 @@ public class MaintenanceTask {
     /**
      * Try to assign all jobs from the jobs root.
      * The jobs are stored by topic
+     * A job is moved by creating the new resource and deleting the old one
+     * without committing, the batch remover commits both together.
+     * If a batch of moves can't be committed, all moves of the batch
+     * are reverted and retried during the next run.
      */
     private void assignJobs(final TopologyCapabilities caps,
             final QueueConfigurationManager queueManager,
             final Resource jobsRoot,
-            final boolean unassign) {
+            final boolean unassign,
+            final BatchResourceRemover brr) {
         final ResourceResolver resolver = jobsRoot.getResourceResolver();
 
         final Iterator<Resource> topicIter = jobsRoot.listChildren();
@@ -175,11 +198,9 @@ public class MaintenanceTask {
                     while ( caps.isActive() && i.hasNext() ) {
                         final Resource rsrc = i.next();
                         try {
-                            resolver.delete(rsrc);
-                            resolver.commit();
+                            brr.delete(rsrc);
                         } catch ( final PersistenceException pe ) {
                             this.ignoreException(pe);
-                            resolver.refresh();
                         }
                     }
                 } else if ( info.queueConfiguration.getType() != QueueConfiguration.Type.IGNORE ) {
@@ -206,12 +227,11 @@ public class MaintenanceTask {
                                                     props.put(Job.PROPERTY_JOB_TARGET_INSTANCE, targetId);
                                                     props.remove(Job.PROPERTY_JOB_STARTED_TIME);
                                                     try {
-                                                        ResourceHelper.getOrCreateResource(resolver, newPath, props);
+                                                        ResourceHelper.createResourceWithoutCommit(resolver, newPath, props);
                                                         resolver.delete(rsrc);
-                                                        resolver.commit();
+                                                        brr.changed(resolver);
                                                     } catch ( final PersistenceException pe ) {
                                                         this.ignoreException(pe);
-                                                        resolver.refresh();
                                                     }
                                                 }
                                             } catch (final InstantiationException ie) {
@@ -249,12 +269,11 @@ public class MaintenanceTask {
                                             props.remove(Job.PROPERTY_JOB_STARTED_TIME);
 
                                             try {
-                                                ResourceHelper.getOrCreateResource(resolver, newPath, props);
+                                                ResourceHelper.createResourceWithoutCommit(resolver, newPath, props);
                                                 resolver.delete(rsrc);
-                                                resolver.commit();
+                                                brr.changed(resolver);
                                             } catch ( final PersistenceException pe ) {
                                                 this.ignoreException(pe);
-                                                resolver.refresh();
                                             }
                                         } catch (final InstantiationException ie) {
                                             // something happened with the resource in the meantime
@@ -304,17 +323,20 @@ public class MaintenanceTask {
     public void run(final TopologyCapabilities topologyCapabilities,
             final QueueConfigurationManager queueManager,
             final long cleanUpCounter) {
+        final long startTime = System.currentTimeMillis();
+        final BatchResourceRemover brr = new BatchResourceRemover(BATCH_SIZE, BATCH_TIME);
+
         // check topology and config change during each invocation
         final boolean topologyChanged = this.topologyHasChanged(topologyCapabilities);
         final boolean configChanged = this.queueConfigurationHasChanged(topologyCapabilities, queueManager);
 
         // if topology changed, reschedule assigned jobs for stopped instances
         if ( topologyChanged ) {
-            this.reassignJobs(topologyCapabilities, queueManager);
+            this.reassignJobs(topologyCapabilities, queueManager, brr);
         }
         // try to assign unassigned jobs
         if ( topologyChanged || configChanged ) {
-            this.assignUnassignedJobs(topologyCapabilities, queueManager);
+            this.assignUnassignedJobs(topologyCapabilities, queueManager, brr);
         }
 
         if ( topologyChanged && !this.checkedForPreviousVersion && topologyCapabilities != null && topologyCapabilities.isLeader() ) {
@@ -331,21 +353,29 @@ public class MaintenanceTask {
             }
 
             if ( cleanUpCounter % 60 == 0 ) { // full clean up is done every hour
-                this.fullEmptyFolderCleanup(topologyCapabilities, this.configuration.getLocalJobsPath());
+                this.fullEmptyFolderCleanup(topologyCapabilities, this.configuration.getLocalJobsPath(), brr);
                 if ( cleanUpAssignedPath != null ) {
-                    this.fullEmptyFolderCleanup(topologyCapabilities, cleanUpAssignedPath);
+                    this.fullEmptyFolderCleanup(topologyCapabilities, cleanUpAssignedPath, brr);
                 }
             } else if ( cleanUpCounter % 5 == 0 ) { // simple clean up every 5 minutes
-                this.simpleEmptyFolderCleanup(topologyCapabilities, this.configuration.getLocalJobsPath());
+                this.simpleEmptyFolderCleanup(topologyCapabilities, this.configuration.getLocalJobsPath(), brr);
                 if ( cleanUpAssignedPath != null ) {
-                    this.simpleEmptyFolderCleanup(topologyCapabilities, cleanUpAssignedPath);
+                    this.simpleEmptyFolderCleanup(topologyCapabilities, cleanUpAssignedPath, brr);
                 }
             }
         }
 
         // lock cleanup is done every 3 minutes
         if ( cleanUpCounter % 3 == 0 ) {
-            this.lockCleanup(topologyCapabilities);
+            this.lockCleanup(topologyCapabilities, brr);
+        }
+
+        final long duration = System.currentTimeMillis() - startTime;
+        if ( brr.getCommitCount() > 0 ) {
+            this.logger.info("Maintenance run #{} removed {} resources and moved {} jobs with {} commits in {}ms",
+                    new Object[] {cleanUpCounter, brr.getDeleteCount(), brr.getChangeCount(), brr.getCommitCount(), duration});
+        } else {
+            this.logger.debug("Maintenance run #{} finished without changes in {}ms", cleanUpCounter, duration);
         }
     }
 
@@ -353,7 +383,7 @@ public class MaintenanceTask {
      * Clean up the locks
      * All locks older than three minutes are removed
      */
-    private void lockCleanup(final TopologyCapabilities caps) {
+    private void lockCleanup(final TopologyCapabilities caps, final BatchResourceRemover brr) {
         if ( caps != null && caps.isLeader() ) {
             this.logger.debug("Cleaning up job resource tree: removing obsolete locks");
             ResourceResolver resolver = null;
@@ -380,14 +410,15 @@ public class MaintenanceTask {
                     // sanity check for the path
                     if ( this.configuration.isLock(lockResource.getPath()) ) {
                         try {
-                            resolver.delete(lockResource);
-                            resolver.commit();
+                            brr.delete(lockResource);
                         } catch ( final PersistenceException pe) {
                             this.ignoreException(pe);
-                            resolver.refresh();
                         }
                     }
                 }
+                brr.commit();
+            } catch (final PersistenceException pe) {
+                this.ignoreException(pe);
             } catch (final QuerySyntaxException qse) {
                 this.ignoreException(qse);
             } catch (final LoginException le) {
@@ -405,13 +436,15 @@ public class MaintenanceTask {
      * from an hour ago!
      * If folder for minute 59 is removed, we check the hour folder as well.
      */
-    private void simpleEmptyFolderCleanup(final TopologyCapabilities caps, final String basePath) {
+    private void simpleEmptyFolderCleanup(final TopologyCapabilities caps,
+            final String basePath,
+            final BatchResourceRemover brr) {
         this.logger.debug("Cleaning up job resource tree: looking for empty folders");
         ResourceResolver resolver = null;
         try {
             resolver = this.resourceResolverFactory.getAdministrativeResourceResolver(null);
             final Calendar cleanUpDate = Calendar.getInstance();
-            // go back ten minutes
+            // go back one hour
             cleanUpDate.add(Calendar.HOUR, -1);
 
             final Resource baseResource = resolver.getResource(basePath);
@@ -421,38 +454,39 @@ public class MaintenanceTask {
                 while ( caps.isActive() && topicIter.hasNext() ) {
                     final Resource topicResource = topicIter.next();
 
+                    final Calendar minuteDate = (Calendar) cleanUpDate.clone();
                     for(int i = 0; i < 5; i++) {
                         if ( caps.isActive() ) {
                             final StringBuilder sb = new StringBuilder(topicResource.getPath());
                             sb.append('/');
-                            sb.append(cleanUpDate.get(Calendar.YEAR));
+                            sb.append(minuteDate.get(Calendar.YEAR));
                             sb.append('/');
-                            sb.append(cleanUpDate.get(Calendar.MONTH) + 1);
+                            sb.append(minuteDate.get(Calendar.MONTH) + 1);
                             sb.append('/');
-                            sb.append(cleanUpDate.get(Calendar.DAY_OF_MONTH));
+                            sb.append(minuteDate.get(Calendar.DAY_OF_MONTH));
                             sb.append('/');
-                            sb.append(cleanUpDate.get(Calendar.HOUR_OF_DAY));
-                            final String path = sb.toString();
+                            sb.append(minuteDate.get(Calendar.HOUR_OF_DAY));
+                            final String hourPath = sb.toString();
+                            sb.append('/');
+                            sb.append(minuteDate.get(Calendar.MINUTE));
 
-                            final Resource dateResource = resolver.getResource(path);
+                            final Resource dateResource = resolver.getResource(sb.toString());
                             if ( dateResource != null && !dateResource.listChildren().hasNext() ) {
-                                resolver.delete(dateResource);
-                                resolver.commit();
-                            }
-                            // check hour folder
-                            if ( path.endsWith("59") ) {
-                                final String hourPath = path.substring(0, path.length() - 3);
-                                final Resource hourResource = resolver.getResource(hourPath);
-                                if ( hourResource != null && !hourResource.listChildren().hasNext() ) {
-                                    resolver.delete(hourResource);
-                                    resolver.commit();
+                                brr.delete(dateResource);
+                                // check hour folder
+                                if ( minuteDate.get(Calendar.MINUTE) == 59 ) {
+                                    final Resource hourResource = resolver.getResource(hourPath);
+                                    if ( hourResource != null && !hourResource.listChildren().hasNext() ) {
+                                        brr.delete(hourResource);
+                                    }
                                 }
                             }
-                            cleanUpDate.add(Calendar.MINUTE, -1);
+                            minuteDate.add(Calendar.MINUTE, -1);
                         }
                     }
                 }
             }
+            brr.commit();
 
         } catch (final PersistenceException pe) {
             // in the case of an error, we just log this as a warning
@@ -467,9 +501,12 @@ public class MaintenanceTask {
     }
 
     /**
-     * Full cleanup - this scans all directories!
+     * Full cleanup - this scans the directories of all topics, but only
+     * descends into date folders which are older than one hour.
      */
-    private void fullEmptyFolderCleanup(final TopologyCapabilities caps, final String basePath) {
+    private void fullEmptyFolderCleanup(final TopologyCapabilities caps,
+            final String basePath,
+            final BatchResourceRemover brr) {
         this.logger.debug("Cleaning up job resource tree: removing ALL empty folders");
         ResourceResolver resolver = null;
         try {
@@ -478,82 +515,27 @@ public class MaintenanceTask {
             final Resource baseResource = resolver.getResource(basePath);
             // sanity check - should never be null
             if ( baseResource != null ) {
-                final Calendar now = Calendar.getInstance();
+                // folders for the last hour are kept
+                final Calendar cleanUpDate = Calendar.getInstance();
+                cleanUpDate.add(Calendar.HOUR, -1);
+                final int[] cleanUpPath = new int[] {
+                        cleanUpDate.get(Calendar.YEAR),
+                        cleanUpDate.get(Calendar.MONTH) + 1,
+                        cleanUpDate.get(Calendar.DAY_OF_MONTH),
+                        cleanUpDate.get(Calendar.HOUR_OF_DAY)
+                };
 
                 final Iterator<Resource> topicIter = baseResource.listChildren();
                 while ( caps.isActive() && topicIter.hasNext() ) {
                     final Resource topicResource = topicIter.next();
 
-                    // now years
                     final Iterator<Resource> yearIter = topicResource.listChildren();
                     while ( caps.isActive() && yearIter.hasNext() ) {
-                        final Resource yearResource = yearIter.next();
-                        final int year = Integer.valueOf(yearResource.getName());
-                        final boolean oldYear = year < now.get(Calendar.YEAR);
-
-                        // months
-                        final Iterator<Resource> monthIter = yearResource.listChildren();
-                        while ( caps.isActive() && monthIter.hasNext() ) {
-                            final Resource monthResource = monthIter.next();
-                            final int month = Integer.valueOf(monthResource.getName());
-                            final boolean oldMonth = oldYear || month < (now.get(Calendar.MONTH) + 1);
-
-                            // days
-                            final Iterator<Resource> dayIter = monthResource.listChildren();
-                            while ( caps.isActive() && dayIter.hasNext() ) {
-                                final Resource dayResource = dayIter.next();
-                                final int day = Integer.valueOf(dayResource.getName());
-                                final boolean oldDay = oldMonth || day < now.get(Calendar.DAY_OF_MONTH);
-
-                                // hours
-                                final Iterator<Resource> hourIter = dayResource.listChildren();
-                                while ( caps.isActive() && hourIter.hasNext() ) {
-                                    final Resource hourResource = hourIter.next();
-                                    final int hour = Integer.valueOf(hourResource.getName());
-                                    final boolean oldHour = (oldDay && (oldMonth || now.get(Calendar.HOUR_OF_DAY) > 0)) || hour < (now.get(Calendar.HOUR_OF_DAY) -1);
-
-                                    // we only remove minutes if the hour is old
-                                    if ( oldHour ) {
-                                        final Iterator<Resource> minuteIter = hourResource.listChildren();
-                                        while ( caps.isActive() && minuteIter.hasNext() ) {
-                                            final Resource minuteResource = minuteIter.next();
-
-                                            // check if we can delete the minute
-                                            if ( !minuteResource.listChildren().hasNext() ) {
-                                                resolver.delete(minuteResource);
-                                                resolver.commit();
-                                            }
-                                        }
-                                    }
-
-                                    // check if we can delete the hour
-                                    if ( caps.isActive() && oldHour && !hourResource.listChildren().hasNext()) {
-                                        resolver.delete(hourResource);
-                                        resolver.commit();
-                                    }
-                                }
-                                // check if we can delete the day
-                                if ( caps.isActive() && oldDay && !dayResource.listChildren().hasNext()) {
-                                    resolver.delete(dayResource);
-                                    resolver.commit();
-                                }
-                            }
-
-                            // check if we can delete the month
-                            if ( caps.isActive() && oldMonth && !monthResource.listChildren().hasNext() ) {
-                                resolver.delete(monthResource);
-                                resolver.commit();
-                            }
-                        }
-
-                        // check if we can delete the year
-                        if ( caps.isActive() && oldYear && !yearResource.listChildren().hasNext() ) {
-                            resolver.delete(yearResource);
-                            resolver.commit();
-                        }
+                        this.removeEmptyFolders(caps, yearIter.next(), YEAR, false, cleanUpPath, brr);
                     }
                 }
             }
+            brr.commit();
 
         } catch (final PersistenceException pe) {
             // in the case of an error, we just log this as a warning
@@ -567,6 +549,70 @@ public class MaintenanceTask {
         }
     }
 
+    /**
+     * Remove a date folder and its sub folders if they are empty.
+     * Folders which are not older than the clean up date are skipped
+     * without listing their children.
+     * @param caps The topology capabilities
+     * @param folder The date folder
+     * @param level The level of the folder (year, month, day, hour or minute)
+     * @param isOld Whether the parent folder is older than the clean up date
+     * @param cleanUpPath The date path of the clean up date down to the hour
+     * @param brr The batch remover
+     * @return <code>true</code> if the folder has been removed
+     */
+    private boolean removeEmptyFolders(final TopologyCapabilities caps,
+            final Resource folder,
+            final int level,
+            final boolean isOld,
+            final int[] cleanUpPath,
+            final BatchResourceRemover brr)
+    throws PersistenceException {
+        boolean old = isOld;
+        if ( !old ) {
+            final int value;
+            try {
+                value = Integer.parseInt(folder.getName());
+            } catch (final NumberFormatException nfe) {
+                // not a date folder
+                return false;
+            }
+            if ( value > cleanUpPath[level] ) {
+                return false;
+            }
+            if ( value == cleanUpPath[level] ) {
+                // the folder for the clean up hour is kept
+                if ( level < HOUR ) {
+                    final Iterator<Resource> iter = folder.listChildren();
+                    while ( caps.isActive() && iter.hasNext() ) {
+                        this.removeEmptyFolders(caps, iter.next(), level + 1, false, cleanUpPath, brr);
+                    }
+                }
+                return false;
+            }
+            old = true;
+        }
+        boolean isEmpty = true;
+        if ( level < MINUTE ) {
+            final Iterator<Resource> iter = folder.listChildren();
+            while ( iter.hasNext() ) {
+                if ( !caps.isActive() ) {
+                    return false;
+                }
+                if ( !this.removeEmptyFolders(caps, iter.next(), level + 1, old, cleanUpPath, brr) ) {
+                    isEmpty = false;
+                }
+            }
+        } else {
+            isEmpty = !folder.listChildren().hasNext();
+        }
+        if ( isEmpty && caps.isActive() ) {
+            brr.delete(folder);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Reassign a job to a different target
      * @param job The job
@@ -592,10 +638,12 @@ public class MaintenanceTask {
                     props.remove(Job.PROPERTY_JOB_STARTED_TIME);
 
                     try {
-                        ResourceHelper.getOrCreateResource(resolver, newPath, props);
+                        // create and delete are committed together
+                        ResourceHelper.createResourceWithoutCommit(resolver, newPath, props);
                         resolver.delete(jobResource);
                         resolver.commit();
                     } catch ( final PersistenceException pe ) {
+                        resolver.revert();
                         this.ignoreException(pe);
                     }
                 } catch (final InstantiationException ie) {
@@ -31,6 +31,10 @@ public abstract class ConfigurationConstants {
     public static final long DEFAULT_RETRY_DELAY = 2000;
     public static final int DEFAULT_MAX_PARALLEL = 15;
     public static final boolean DEFAULT_KEEP_JOBS = false;
+    public static final String DEFAULT_ORDERING = "FIFO";
+    public static final String DEFAULT_PRIORITY_PROPERTY = "job.priority";
+    public static final long DEFAULT_AGING_INTERVAL = 60000;
+    public static final boolean DEFAULT_VIRTUAL_THREADS = false;
 
     public static final String PROP_NAME = "queue.name";
     public static final String PROP_TYPE = "queue.type";
@@ -40,4 +44,10 @@ public abstract class ConfigurationConstants {
     public static final String PROP_RETRY_DELAY = "queue.retrydelay";
     public static final String PROP_PRIORITY = "queue.priority";
     public static final String PROP_KEEP_JOBS = "queue.keepJobs";
+    public static final String PROP_ORDERING = "queue.ordering";
+    public static final String PROP_PRIORITY_PROPERTY = "queue.priorityProperty";
+    public static final String PROP_AGING_INTERVAL = "queue.agingInterval";
+    public static final String PROP_FAIRNESS_PROPERTY = "queue.fairnessProperty";
+    public static final String PROP_FAIRNESS_WEIGHTS = "queue.fairnessWeights";
+    public static final String PROP_VIRTUAL_THREADS = "queue.virtualThreads";
 }
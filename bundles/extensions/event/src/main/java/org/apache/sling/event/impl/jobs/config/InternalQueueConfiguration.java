@@ -19,6 +19,8 @@
 package org.apache.sling.event.impl.jobs.config;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -64,12 +66,35 @@ import org.osgi.framework.Constants;
                      @PropertyOption(name="MAX",value="Max")}),
     @Property(name=ConfigurationConstants.PROP_KEEP_JOBS,
               boolValue=ConfigurationConstants.DEFAULT_KEEP_JOBS),
+    @Property(name=ConfigurationConstants.PROP_ORDERING,
+            value=ConfigurationConstants.DEFAULT_ORDERING,
+            options={@PropertyOption(name="FIFO",value="First In First Out"),
+                     @PropertyOption(name="PRIORITY",value="Priority")}),
+    @Property(name=ConfigurationConstants.PROP_PRIORITY_PROPERTY,
+            value=ConfigurationConstants.DEFAULT_PRIORITY_PROPERTY),
+    @Property(name=ConfigurationConstants.PROP_AGING_INTERVAL,
+            longValue=ConfigurationConstants.DEFAULT_AGING_INTERVAL),
+    @Property(name=ConfigurationConstants.PROP_FAIRNESS_PROPERTY),
+    @Property(name=ConfigurationConstants.PROP_FAIRNESS_WEIGHTS,
+            unbounded=PropertyUnbounded.ARRAY),
+    @Property(name=ConfigurationConstants.PROP_VIRTUAL_THREADS,
+            boolValue=ConfigurationConstants.DEFAULT_VIRTUAL_THREADS),
     @Property(name=Constants.SERVICE_RANKING, intValue=0, propertyPrivate=false,
               label="%queue.ranking.name", description="%queue.ranking.description")
 })
 public class InternalQueueConfiguration
     implements QueueConfiguration, Comparable<InternalQueueConfiguration> {
 
+    /**
+     * The order in which a parallel queue hands out waiting jobs.
+     */
+    public enum Ordering {
+        /** Jobs are processed in the order they arrive. */
+        FIFO,
+        /** Jobs are processed by priority, waiting jobs age to avoid starvation. */
+        PRIORITY
+    }
+
     /** The name of the queue. */
     private String name;
 
@@ -100,6 +125,24 @@ public class InternalQueueConfiguration
     /** Keep jobs. */
     private boolean keepJobs;
 
+    /** The job ordering (for parallel queues) */
+    private Ordering ordering;
+
+    /** The job property holding the priority of a job. */
+    private String priorityProperty;
+
+    /** Waiting time after which a job is raised by one priority level. */
+    private long agingInterval;
+
+    /** The job property used to share the queue fairly, or <code>null</code>. */
+    private String fairnessProperty;
+
+    /** The weights for the values of the fairness property. */
+    private Map<String, Integer> fairnessWeights;
+
+    /** Use virtual threads for the jobs. */
+    private boolean useVirtualThreads;
+
     /** Valid flag. */
     private boolean valid = false;
 
@@ -138,11 +181,45 @@ public class InternalQueueConfiguration
             this.topics = topicsParam;
         }
         this.keepJobs = PropertiesUtil.toBoolean(params.get(ConfigurationConstants.PROP_KEEP_JOBS), ConfigurationConstants.DEFAULT_KEEP_JOBS);
+        this.ordering = Ordering.valueOf(PropertiesUtil.toString(params.get(ConfigurationConstants.PROP_ORDERING), ConfigurationConstants.DEFAULT_ORDERING));
+        this.priorityProperty = PropertiesUtil.toString(params.get(ConfigurationConstants.PROP_PRIORITY_PROPERTY), ConfigurationConstants.DEFAULT_PRIORITY_PROPERTY);
+        this.agingInterval = PropertiesUtil.toLong(params.get(ConfigurationConstants.PROP_AGING_INTERVAL), ConfigurationConstants.DEFAULT_AGING_INTERVAL);
+        this.fairnessProperty = PropertiesUtil.toString(params.get(ConfigurationConstants.PROP_FAIRNESS_PROPERTY), null);
+        if ( this.fairnessProperty != null && this.fairnessProperty.trim().length() == 0 ) {
+            this.fairnessProperty = null;
+        }
+        this.fairnessWeights = parseWeights(PropertiesUtil.toStringArray(params.get(ConfigurationConstants.PROP_FAIRNESS_WEIGHTS)));
+        this.useVirtualThreads = PropertiesUtil.toBoolean(params.get(ConfigurationConstants.PROP_VIRTUAL_THREADS), ConfigurationConstants.DEFAULT_VIRTUAL_THREADS);
         this.serviceRanking = PropertiesUtil.toInteger(params.get(Constants.SERVICE_RANKING), 0);
         this.pid = (String)params.get(Constants.SERVICE_PID);
         this.valid = this.checkIsValid();
     }
 
+    /**
+     * Parse the fairness weights. Each entry has the form "value=weight",
+     * entries without a positive weight are ignored.
+     */
+    private static Map<String, Integer> parseWeights(final String[] entries) {
+        if ( entries == null || entries.length == 0 ) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Integer> weights = new HashMap<String, Integer>();
+        for(final String entry : entries) {
+            final int pos = (entry == null ? -1 : entry.lastIndexOf('='));
+            if ( pos > 0 ) {
+                try {
+                    final int weight = Integer.parseInt(entry.substring(pos + 1).trim());
+                    if ( weight > 0 ) {
+                        weights.put(entry.substring(0, pos).trim(), weight);
+                    }
+                } catch (final NumberFormatException nfe) {
+                    // ignore invalid weight
+                }
+            }
+        }
+        return Collections.unmodifiableMap(weights);
+    }
+
     /**
      * Check if this configuration is valid,
      * If it is invalid, it is ignored.
@@ -171,6 +248,9 @@ public class InternalQueueConfiguration
                 return false;
             }
         }
+        if ( agingInterval < 0 ) {
+            return false;
+        }
         return true;
     }
 
@@ -281,6 +361,53 @@ public class InternalQueueConfiguration
         return this.keepJobs;
     }
 
+    /**
+     * The ordering of waiting jobs in a parallel queue.
+     */
+    public Ordering getOrdering() {
+        return this.ordering;
+    }
+
+    /**
+     * The name of the job property holding the (integer) priority
+     * of a job. Jobs without this property have priority 0.
+     */
+    public String getPriorityProperty() {
+        return this.priorityProperty;
+    }
+
+    /**
+     * The time in milliseconds a job has to wait to be raised by
+     * one priority level. 0 disables aging.
+     */
+    public long getAgingInterval() {
+        return this.agingInterval;
+    }
+
+    /**
+     * The name of the job property whose values share the queue,
+     * or <code>null</code> if fair sharing is disabled.
+     */
+    public String getFairnessProperty() {
+        return this.fairnessProperty;
+    }
+
+    /**
+     * The weight for a value of the fairness property, 1 if not configured.
+     */
+    public int getFairnessWeight(final String value) {
+        final Integer weight = (value == null ? null : this.fairnessWeights.get(value));
+        return weight == null ? 1 : weight;
+    }
+
+    /**
+     * Whether jobs should be processed by virtual threads instead
+     * of the eventing thread pool, if supported by the JVM.
+     */
+    public boolean isUseVirtualThreads() {
+        return this.useVirtualThreads;
+    }
+
     @Override
     public String toString() {
         return "Queue-Configuration(" + this.hashCode() + ") : {" +
@@ -291,6 +418,12 @@ public class InternalQueueConfiguration
             ", retries=" + this.retries +
             ", retryDelayInMs=" + this.retryDelay +
             ", keepJobs=" + this.keepJobs +
+            ", ordering=" + this.ordering +
+            ", priorityProperty=" + this.priorityProperty +
+            ", agingInterval=" + this.agingInterval +
+            ", fairnessProperty=" + this.fairnessProperty +
+            ", fairnessWeights=" + this.fairnessWeights +
+            ", useVirtualThreads=" + this.useVirtualThreads +
             ", serviceRanking=" + this.serviceRanking +
             ", pid=" + this.pid +
             ", isValid=" + this.isValid() + "}";
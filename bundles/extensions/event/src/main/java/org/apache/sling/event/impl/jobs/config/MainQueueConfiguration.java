@@ -27,6 +27,7 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.PropertyOption;
+import org.apache.felix.scr.annotations.PropertyUnbounded;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.slf4j.Logger;
@@ -53,7 +54,20 @@ import org.slf4j.LoggerFactory;
     @Property(name=ConfigurationConstants.PROP_RETRY_DELAY,
             longValue=ConfigurationConstants.DEFAULT_RETRY_DELAY),
     @Property(name=ConfigurationConstants.PROP_MAX_PARALLEL,
-            intValue=ConfigurationConstants.DEFAULT_MAX_PARALLEL)
+            intValue=ConfigurationConstants.DEFAULT_MAX_PARALLEL),
+    @Property(name=ConfigurationConstants.PROP_ORDERING,
+            value=ConfigurationConstants.DEFAULT_ORDERING,
+            options={@PropertyOption(name="FIFO",value="First In First Out"),
+            @PropertyOption(name="PRIORITY",value="Priority")}),
+    @Property(name=ConfigurationConstants.PROP_PRIORITY_PROPERTY,
+            value=ConfigurationConstants.DEFAULT_PRIORITY_PROPERTY),
+    @Property(name=ConfigurationConstants.PROP_AGING_INTERVAL,
+            longValue=ConfigurationConstants.DEFAULT_AGING_INTERVAL),
+    @Property(name=ConfigurationConstants.PROP_FAIRNESS_PROPERTY),
+    @Property(name=ConfigurationConstants.PROP_FAIRNESS_WEIGHTS,
+            unbounded=PropertyUnbounded.ARRAY),
+    @Property(name=ConfigurationConstants.PROP_VIRTUAL_THREADS,
+            boolValue=ConfigurationConstants.DEFAULT_VIRTUAL_THREADS)
 })
 public class MainQueueConfiguration {
 
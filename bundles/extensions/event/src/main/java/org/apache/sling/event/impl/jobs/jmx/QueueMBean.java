@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The SF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.apache.sling.event.impl.jobs.jmx;
+
+import org.apache.sling.event.jobs.jmx.StatisticsMBean;
+
+/**
+ * The MBean for a single queue, adding information about
+ * the scheduling decisions of the queue.
+ */
+public interface QueueMBean extends StatisticsMBean {
+
+    /**
+     * The ordering of waiting jobs, FIFO or PRIORITY.
+     */
+    String getOrdering();
+
+    /**
+     * The maximum time in milliseconds a job has been waiting before being started.
+     */
+    long getMaxWaitingTime();
+
+    /**
+     * The number of jobs started while a job with a higher priority was waiting.
+     */
+    long getNumberOfPromotedJobs();
+
+    /**
+     * Dispatched jobs and waiting times per priority.
+     */
+    String[] getPriorityStatistics();
+
+    /**
+     * Waiting and dispatched jobs and waiting times per share of the queue.
+     */
+    String[] getShareStatistics();
+}
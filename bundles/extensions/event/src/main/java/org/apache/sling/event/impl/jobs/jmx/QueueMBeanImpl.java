@@ -17,25 +17,38 @@
  */
 package org.apache.sling.event.impl.jobs.jmx;
 
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+import org.apache.sling.event.impl.jobs.queues.PriorityJobQueue;
+import org.apache.sling.event.impl.jobs.queues.SchedulingStatistics;
 import org.apache.sling.event.jobs.Queue;
 import org.apache.sling.event.jobs.Statistics;
 
 /**
  * An MBean that provides statistics from
  */
-public class QueueMBeanImpl extends AbstractJobStatistics {
+public class QueueMBeanImpl extends AbstractJobStatistics implements QueueMBean {
+
+    private static final String[] EMPTY = new String[0];
 
     private final String name;
 
     private final Statistics statistics;
 
+    private final SchedulingStatistics schedulingStatistics;
+
     public QueueMBeanImpl(Queue queue) {
+        super(QueueMBean.class);
         this.name = queue.getName();
         if (queue instanceof Statistics) {
             this.statistics = (Statistics) queue;
         } else {
             this.statistics = new EmptyStatistics();
         }
+        if (queue instanceof PriorityJobQueue) {
+            this.schedulingStatistics = ((PriorityJobQueue) queue).getSchedulingStatistics();
+        } else {
+            this.schedulingStatistics = null;
+        }
     }
 
     @Override
@@ -47,4 +60,39 @@ public class QueueMBeanImpl extends AbstractJobStatistics {
     public String getName() {
         return name;
     }
+
+    public String getOrdering() {
+        if (schedulingStatistics == null) {
+            return InternalQueueConfiguration.Ordering.FIFO.name();
+        }
+        return InternalQueueConfiguration.Ordering.PRIORITY.name();
+    }
+
+    public long getMaxWaitingTime() {
+        if (schedulingStatistics == null) {
+            return 0;
+        }
+        return schedulingStatistics.getMaxWaitingTime();
+    }
+
+    public long getNumberOfPromotedJobs() {
+        if (schedulingStatistics == null) {
+            return 0;
+        }
+        return schedulingStatistics.getNumberOfPromotedJobs();
+    }
+
+    public String[] getPriorityStatistics() {
+        if (schedulingStatistics == null) {
+            return EMPTY;
+        }
+        return schedulingStatistics.getPriorityStatistics();
+    }
+
+    public String[] getShareStatistics() {
+        if (schedulingStatistics == null) {
+            return EMPTY;
+        }
+        return schedulingStatistics.getShareStatistics();
+    }
 }
@@ -26,6 +26,7 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -108,7 +109,7 @@ public abstract class AbstractJobQueue
     private final AtomicBoolean isOutdated = new AtomicBoolean(false);
 
     /** Marker flag if the queue is waiting for another element (= empty) */
-    protected boolean isWaitingForNext = false;
+    protected volatile boolean isWaitingForNext = false;
 
     private final AtomicBoolean closeMarker = new AtomicBoolean(false);
 
@@ -146,27 +147,7 @@ public abstract class AbstractJobQueue
     /**
      * Start the job queue.
      */
-    public void start() {
-        final Thread queueThread = new Thread(new Runnable() {
-
-            @Override
-            public void run() {
-                while ( running ) {
-                    logger.info("Starting job queue {}", queueName);
-                    logger.debug("Configuration for job queue={}", configuration);
-
-                    try {
-                        runJobQueue();
-                    } catch (final Throwable t) { //NOSONAR
-                        logger.error("Job queue " + queueName + " stopped with exception: " + t.getMessage() + ". Restarting.", t);
-                    }
-                }
-            }
-
-        }, "Apache Sling Job Queue " + queueName);
-        queueThread.setDaemon(true);
-        queueThread.start();
-    }
+    public abstract void start();
 
     /**
      * Return the queue configuration
@@ -459,7 +440,7 @@ public abstract class AbstractJobQueue
     /**
      * Check if the queue is suspended and go into suspend mode
      */
-    private void checkSuspended() {
+    protected void checkSuspended() {
         synchronized ( this.suspendLock ) {
             while ( this.suspendedSince != -1 ) {
                 try {
@@ -475,21 +456,12 @@ public abstract class AbstractJobQueue
     }
 
     /**
-     * Execute the queue
+     * Resume the queue if it has been suspended for longer than the maximum suspend time.
      */
-    private void runJobQueue() {
-        JobHandler info = null;
-        while ( this.running ) {
-            if ( info == null ) {
-                // so let's wait/get the next job from the queue
-                info = this.take();
-            }
-
-            if ( this.running ) {
-                checkSuspended();
-            }
-            if ( info != null && this.running ) {
-                info = this.start(info);
+    protected void resumeIfSuspendedTooLong() {
+        synchronized ( this.suspendLock ) {
+            if ( this.suspendedSince != -1 && System.currentTimeMillis() > this.suspendedSince + MAX_SUSPEND_TIME ) {
+                this.resume();
             }
         }
     }
@@ -661,9 +633,13 @@ public abstract class AbstractJobQueue
                             }
 
                         };
+                        // check if virtual threads should and can be used
+                        final Executor virtualThreads = (configuration.isUseVirtualThreads() ? Environment.VIRTUAL_THREADS : null);
                         // check if the thread pool is available
                         final ThreadPool pool = Environment.THREAD_POOL;
-                        if ( pool != null ) {
+                        if ( virtualThreads != null ) {
+                            virtualThreads.execute(task);
+                        } else if ( pool != null ) {
                             pool.execute(task);
                         } else {
                             // if we don't have a thread pool, we create the thread directly
@@ -883,8 +859,6 @@ public abstract class AbstractJobQueue
      */
     protected abstract Collection<JobHandler> removeAllJobs();
 
-    protected abstract JobHandler start(final JobHandler event);
-
     protected abstract void notifyFinished(final JobHandler rescheduleInfo);
 
     public boolean stopJob(final JobImpl job) {
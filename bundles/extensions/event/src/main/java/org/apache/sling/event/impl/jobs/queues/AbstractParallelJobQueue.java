@@ -19,24 +19,55 @@
 package org.apache.sling.event.impl.jobs.queues;
 
 import java.util.Date;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.event.impl.jobs.JobConsumerManager;
 import org.apache.sling.event.impl.jobs.JobHandler;
 import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+import org.apache.sling.event.impl.support.Environment;
 import org.osgi.service.event.EventAdmin;
 
 /**
  * Abstract base class for a parallel processing job queue.
+ *
+ * A parallel queue does not use a thread of its own: whenever a job
+ * is added or a processing slot is freed, the queue is dispatched
+ * using the shared eventing thread pool. The slots are managed by a
+ * semaphore and dispatching is serialized by a counter, so a dispatch
+ * request arriving while the queue is being dispatched is never lost.
+ * {@link #take()} must not block for parallel queues and returns
+ * <code>null</code> if no job is waiting.
  */
 public abstract class AbstractParallelJobQueue extends AbstractJobQueue {
 
-    protected volatile int jobCount;
-
     /** The scheduler for rescheduling. */
     private final Scheduler scheduler;
 
-    private final Object syncLock = new Object();
+    /** The free processing slots. */
+    private final Semaphore slots;
+
+    /** Number of pending dispatch requests. */
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+
+    /** The dispatcher starting jobs as long as slots and jobs are available. */
+    private final Runnable dispatcher = new Runnable() {
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                try {
+                    startJobs();
+                } catch (final Throwable t) { //NOSONAR
+                    logger.error("Job queue " + queueName + " failed to dispatch jobs: " + t.getMessage(), t);
+                }
+                missed = dispatchRequests.addAndGet(-missed);
+            } while ( missed != 0 );
+        }
+    };
 
     public AbstractParallelJobQueue(final String name,
                            final InternalQueueConfiguration config,
@@ -45,48 +76,68 @@ public abstract class AbstractParallelJobQueue extends AbstractJobQueue {
                            final Scheduler scheduler) {
         super(name, config, jobConsumerManager, eventAdmin);
         this.scheduler = scheduler;
+        this.slots = new Semaphore(config.getMaxParallel(), true);
     }
 
     @Override
     public String getStateInfo() {
-        return super.getStateInfo() + ", jobCount=" + this.jobCount;
+        return super.getStateInfo() + ", jobCount=" + this.getJobCount();
     }
 
+    /**
+     * The number of jobs currently holding a processing slot.
+     */
+    protected int getJobCount() {
+        return this.configuration.getMaxParallel() - this.slots.availablePermits();
+    }
+
+    /**
+     * Start the job queue.
+     * No thread is started, jobs are dispatched when they arrive.
+     */
     @Override
-    protected JobHandler start(final JobHandler processInfo) {
-        // acquire a slot
-        this.acquireSlot();
-
-        // check if we got outdated in the meantime
-        if ( this.isOutdated() ) {
-            this.freeSlot();
-            return null;
-        }
-        if ( !this.executeJob(processInfo) ) {
-            this.freeSlot();
+    public void start() {
+        this.logger.info("Starting job queue {}", queueName);
+        this.logger.debug("Configuration for job queue={}", configuration);
+        this.dispatch();
+    }
+
+    /**
+     * Request a dispatch of this queue.
+     * If the queue is currently dispatched, the running dispatcher
+     * takes care of the request, otherwise a new dispatcher is started.
+     */
+    protected void dispatch() {
+        if ( this.dispatchRequests.getAndIncrement() == 0 ) {
+            final ThreadPool pool = Environment.THREAD_POOL;
+            if ( pool != null ) {
+                pool.execute(this.dispatcher);
+            } else {
+                this.dispatcher.run();
+            }
         }
-        return null;
     }
 
     /**
-     * Acquire a processing slot.
-     * This method is called if the queue is not ordered.
+     * Start jobs as long as there are free slots and waiting jobs.
      */
-    private void acquireSlot() {
-        synchronized ( this.syncLock ) {
-            if ( jobCount >= this.configuration.getMaxParallel() ) {
-                this.isWaiting = true;
-                this.logger.debug("Job queue {} is processing {} jobs - waiting for a free slot.", this.queueName, jobCount);
-                while ( this.isWaiting ) {
-                    try {
-                        this.syncLock.wait();
-                    } catch (final InterruptedException e) {
-                        this.ignoreException(e);
-                    }
+    private void startJobs() {
+        while ( this.running && !this.isSuspended() ) {
+            if ( !this.slots.tryAcquire() ) {
+                if ( this.logger.isDebugEnabled() ) {
+                    this.logger.debug("Job queue {} is processing {} jobs - waiting for a free slot.", this.queueName, this.getJobCount());
                 }
-                this.logger.debug("Job queue {} is continuing.", this.queueName);
+                return;
+            }
+            final JobHandler handler = this.take();
+            if ( handler == null ) {
+                this.slots.release();
+                return;
+            }
+            // check if we got outdated in the meantime
+            if ( this.isOutdated() || !this.executeJob(handler) ) {
+                this.slots.release();
             }
-            jobCount++;
         }
     }
 
@@ -94,13 +145,22 @@ public abstract class AbstractParallelJobQueue extends AbstractJobQueue {
      * Free a slot when a job processing is finished.
      */
     private void freeSlot() {
-        synchronized ( this.syncLock ) {
-            jobCount--;
-            if ( this.isWaiting ) {
-                this.logger.debug("Notifying job queue {} to continue processing.", this.queueName);
-                this.isWaiting = false;
-                this.syncLock.notify();
-            }
+        this.slots.release();
+        this.dispatch();
+    }
+
+    @Override
+    public void resume() {
+        super.resume();
+        this.dispatch();
+    }
+
+    @Override
+    public void checkForUnprocessedJobs() {
+        super.checkForUnprocessedJobs();
+        if ( this.running ) {
+            this.resumeIfSuspendedTooLong();
+            this.dispatch();
         }
     }
 
@@ -108,7 +168,7 @@ public abstract class AbstractParallelJobQueue extends AbstractJobQueue {
     protected boolean canBeClosed() {
         boolean result = super.canBeClosed();
         if ( result ) {
-            result = this.jobCount == 0;
+            result = this.getJobCount() == 0;
         }
         return result;
     }
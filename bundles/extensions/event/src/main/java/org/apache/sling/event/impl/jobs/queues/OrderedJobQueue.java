@@ -77,8 +77,59 @@ public final class OrderedJobQueue extends AbstractJobQueue {
         return super.getStateInfo() + ", isSleepingUntil=" + this.sleepLock.sleepingSince;
     }
 
+    /**
+     * Start the job queue.
+     * An ordered queue uses a thread of its own which takes
+     * the next job and waits for its processing to finish.
+     */
     @Override
-    protected JobHandler start(final JobHandler handler) {
+    public void start() {
+        final Thread queueThread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                while ( running ) {
+                    logger.info("Starting job queue {}", queueName);
+                    logger.debug("Configuration for job queue={}", configuration);
+
+                    try {
+                        runJobQueue();
+                    } catch (final Throwable t) { //NOSONAR
+                        logger.error("Job queue " + queueName + " stopped with exception: " + t.getMessage() + ". Restarting.", t);
+                    }
+                }
+            }
+
+        }, "Apache Sling Job Queue " + queueName);
+        queueThread.setDaemon(true);
+        queueThread.start();
+    }
+
+    /**
+     * Execute the queue
+     */
+    private void runJobQueue() {
+        JobHandler info = null;
+        while ( this.running ) {
+            if ( info == null ) {
+                // so let's wait/get the next job from the queue
+                info = this.take();
+            }
+
+            if ( this.running ) {
+                checkSuspended();
+            }
+            if ( info != null && this.running ) {
+                info = this.start(info);
+            }
+        }
+    }
+
+    /**
+     * Execute the job and wait for its processing to finish.
+     * @return The job handler to process next if the job is rescheduled.
+     */
+    private JobHandler start(final JobHandler handler) {
         JobHandler rescheduleHandler = null;
 
         // if we are ordered we simply wait for the finish
@@ -21,8 +21,8 @@ package org.apache.sling.event.impl.jobs.queues;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.sling.commons.scheduler.Scheduler;
 import org.apache.sling.event.impl.jobs.JobConsumerManager;
@@ -37,7 +37,7 @@ import org.osgi.service.event.EventAdmin;
 public final class ParallelJobQueue extends AbstractParallelJobQueue {
 
     /** The queue. */
-    private final BlockingQueue<JobHandler> queue = new LinkedBlockingQueue<JobHandler>();
+    private final Queue<JobHandler> queue = new ConcurrentLinkedQueue<JobHandler>();
 
     public ParallelJobQueue(final String name,
                            final InternalQueueConfiguration config,
@@ -49,27 +49,19 @@ public final class ParallelJobQueue extends AbstractParallelJobQueue {
 
     @Override
     protected void put(final JobHandler event) {
-        try {
+        // is this a close?
+        if ( event.getJob() != null ) {
             this.isWaitingForNext = false;
-            this.queue.put(event);
-        } catch (final InterruptedException e) {
-            // this should never happen
-            this.ignoreException(e);
+            this.queue.offer(event);
         }
+        this.dispatch();
     }
 
     @Override
     protected JobHandler take() {
-        try {
-            this.isWaitingForNext = true;
-            return this.queue.take();
-        } catch (final InterruptedException e) {
-            // this should never happen
-            this.ignoreException(e);
-        } finally {
-            this.isWaitingForNext = false;
-        }
-        return null;
+        final JobHandler handler = this.queue.poll();
+        this.isWaitingForNext = (handler == null);
+        return handler;
     }
 
     @Override
@@ -89,7 +81,10 @@ public final class ParallelJobQueue extends AbstractParallelJobQueue {
     @Override
     protected Collection<JobHandler> removeAllJobs() {
         final List<JobHandler> events = new ArrayList<JobHandler>();
-        this.queue.drainTo(events);
+        JobHandler handler;
+        while ( (handler = this.queue.poll()) != null ) {
+            events.add(handler);
+        }
         return events;
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+
+/**
+ * The waiting jobs of a {@link PriorityJobQueue}.
+ *
+ * Jobs are ordered by priority, jobs with the same priority are
+ * ordered by arrival. If aging is enabled, a waiting job is raised by
+ * one priority level per aging interval. As all waiting jobs age at the
+ * same rate, this does not change the relative order of two jobs over
+ * time and can be expressed as a static sort key, therefore a plain
+ * heap can be used.
+ *
+ * If fair sharing is enabled, jobs are grouped by the value of the
+ * fairness property and the groups are served by stride scheduling:
+ * each group advances its pass by a stride inversely proportional to
+ * its weight and the group with the lowest pass is served next. Within
+ * a group the priority order is used.
+ *
+ * This class is not thread safe.
+ */
+final class PriorityJobList<T> {
+
+    /** The stride for a weight of 1. */
+    private static final long STRIDE = 1L << 20;
+
+    private static final class Entry<T> {
+        public final T element;
+        public final int priority;
+        public final long key;
+        public final long sequence;
+        public final long queued;
+
+        public Entry(final T element, final int priority, final long key, final long sequence, final long queued) {
+            this.element = element;
+            this.priority = priority;
+            this.key = key;
+            this.sequence = sequence;
+            this.queued = queued;
+        }
+    }
+
+    private static final class Group<T> {
+        public final String name;
+        public final int weight;
+        public final PriorityQueue<Entry<T>> entries = new PriorityQueue<Entry<T>>(11, ENTRY_ORDER);
+        /** Number of waiting entries per priority. */
+        public final TreeMap<Integer, Integer> priorities = new TreeMap<Integer, Integer>();
+        public long pass;
+        public long activated;
+
+        public Group(final String name, final int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+
+    /** Higher key first, then arrival order. */
+    @SuppressWarnings("rawtypes")
+    private static final Comparator<Entry> ENTRY_ORDER = new Comparator<Entry>() {
+
+        @Override
+        public int compare(final Entry o1, final Entry o2) {
+            if ( o1.key != o2.key ) {
+                return o1.key > o2.key ? -1 : 1;
+            }
+            return o1.sequence < o2.sequence ? -1 : (o1.sequence == o2.sequence ? 0 : 1);
+        }
+    };
+
+    /** Lowest pass first, then activation order. */
+    @SuppressWarnings("rawtypes")
+    private static final Comparator<Group> GROUP_ORDER = new Comparator<Group>() {
+
+        @Override
+        public int compare(final Group o1, final Group o2) {
+            if ( o1.pass != o2.pass ) {
+                return o1.pass < o2.pass ? -1 : 1;
+            }
+            return o1.activated < o2.activated ? -1 : (o1.activated == o2.activated ? 0 : 1);
+        }
+    };
+
+    private final InternalQueueConfiguration configuration;
+
+    private final SchedulingStatistics statistics;
+
+    private final boolean fair;
+
+    /** All groups with waiting jobs by name. */
+    private final Map<String, Group<T>> groups = new HashMap<String, Group<T>>();
+
+    /** All groups with waiting jobs by pass. */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private final PriorityQueue<Group<T>> active = new PriorityQueue(11, GROUP_ORDER);
+
+    /** The pass of the last served group. */
+    private long virtualTime;
+
+    private long sequence;
+
+    private int size;
+
+    public PriorityJobList(final InternalQueueConfiguration configuration,
+            final SchedulingStatistics statistics) {
+        this.configuration = configuration;
+        this.statistics = statistics;
+        this.fair = configuration.getFairnessProperty() != null;
+    }
+
+    /**
+     * Add an element.
+     * @param element The element
+     * @param priority The priority of the element
+     * @param share The value of the fairness property, might be <code>null</code>
+     * @param queued The time the element has been queued
+     */
+    public void add(final T element, final int priority, final String share, final long queued) {
+        final String name = (this.fair ? (share == null ? "" : share) : "");
+        Group<T> group = this.groups.get(name);
+        if ( group == null ) {
+            group = new Group<T>(name, this.fair ? this.configuration.getFairnessWeight(name) : 1);
+            this.groups.put(name, group);
+        }
+        if ( group.entries.isEmpty() ) {
+            // a group can't save up credit while it has nothing to do
+            group.pass = Math.max(group.pass, this.virtualTime);
+            group.activated = this.sequence++;
+            this.active.add(group);
+        }
+        final long aging = this.configuration.getAgingInterval();
+        final long key = (aging > 0 ? priority * aging - queued : priority);
+        group.entries.add(new Entry<T>(element, priority, key, this.sequence++, queued));
+        final Integer count = group.priorities.get(priority);
+        group.priorities.put(priority, count == null ? 1 : count + 1);
+        this.size++;
+        if ( this.fair ) {
+            this.statistics.queued(name, group.weight);
+        }
+    }
+
+    /**
+     * Remove the next element.
+     * @param now The current time
+     * @return The element or <code>null</code> if the list is empty.
+     */
+    public T take(final long now) {
+        final Group<T> group = this.active.poll();
+        if ( group == null ) {
+            return null;
+        }
+        final Entry<T> entry = group.entries.poll();
+        final boolean promoted = entry.priority < group.priorities.lastKey();
+        final int count = group.priorities.get(entry.priority);
+        if ( count == 1 ) {
+            group.priorities.remove(entry.priority);
+        } else {
+            group.priorities.put(entry.priority, count - 1);
+        }
+        this.virtualTime = group.pass;
+        group.pass += STRIDE / group.weight;
+        if ( group.entries.isEmpty() ) {
+            this.groups.remove(group.name);
+        } else {
+            this.active.add(group);
+        }
+        this.size--;
+        this.statistics.dispatched(entry.priority,
+                this.fair ? group.name : null,
+                group.weight,
+                Math.max(0, now - entry.queued),
+                promoted);
+        return entry.element;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Remove all elements
+     * @return The removed elements
+     */
+    public List<T> clear() {
+        final List<T> result = new ArrayList<T>(this.size);
+        for(final Group<T> group : this.groups.values()) {
+            for(final Entry<T> entry : group.entries) {
+                result.add(entry.element);
+            }
+        }
+        this.groups.clear();
+        this.active.clear();
+        this.size = 0;
+        this.statistics.cleared();
+        return result;
+    }
+}
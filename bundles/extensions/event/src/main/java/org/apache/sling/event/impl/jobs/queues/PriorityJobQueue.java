@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import java.util.Collection;
+
+import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.event.impl.jobs.JobConsumerManager;
+import org.apache.sling.event.impl.jobs.JobHandler;
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * A parallel job queue processing the entries by priority.
+ * The priority of a job is read from the configured priority property,
+ * waiting jobs age to avoid starvation and the queue can be shared fairly
+ * between the values of a job property.
+ * Failing jobs are rescheduled and put back into the queue.
+ */
+public final class PriorityJobQueue extends AbstractParallelJobQueue {
+
+    /** The scheduling statistics. */
+    private final SchedulingStatistics schedulingStatistics = new SchedulingStatistics();
+
+    /** The waiting jobs. */
+    private final PriorityJobList<JobHandler> jobs;
+
+    public PriorityJobQueue(final String name,
+                           final InternalQueueConfiguration config,
+                           final JobConsumerManager jobConsumerManager,
+                           final EventAdmin eventAdmin,
+                           final Scheduler scheduler) {
+        super(name, config, jobConsumerManager, eventAdmin, scheduler);
+        this.jobs = new PriorityJobList<JobHandler>(config, this.schedulingStatistics);
+    }
+
+    @Override
+    public String getStateInfo() {
+        synchronized ( this.jobs ) {
+            return super.getStateInfo() + ", waitingJobs=" + this.jobs.size();
+        }
+    }
+
+    /**
+     * Return the scheduling statistics of this queue.
+     */
+    public SchedulingStatistics getSchedulingStatistics() {
+        return this.schedulingStatistics;
+    }
+
+    @Override
+    protected void put(final JobHandler event) {
+        synchronized ( this.jobs ) {
+            // is this a close?
+            if ( event.getJob() != null ) {
+                final Integer priority = event.getJob().getProperty(this.configuration.getPriorityProperty(), Integer.class);
+                final String share = (this.configuration.getFairnessProperty() == null ? null
+                        : event.getJob().getProperty(this.configuration.getFairnessProperty(), String.class));
+                final long queued = (event.queued == -1 ? System.currentTimeMillis() : event.queued);
+                this.jobs.add(event, priority == null ? 0 : priority, share, queued);
+                this.isWaitingForNext = false;
+            }
+        }
+        this.dispatch();
+    }
+
+    @Override
+    protected JobHandler take() {
+        synchronized ( this.jobs ) {
+            final JobHandler handler = this.jobs.take(System.currentTimeMillis());
+            this.isWaitingForNext = (handler == null);
+            return handler;
+        }
+    }
+
+    @Override
+    protected boolean isEmpty() {
+        synchronized ( this.jobs ) {
+            return this.jobs.isEmpty();
+        }
+    }
+
+    /**
+     * @see org.apache.sling.event.jobs.Queue#clear()
+     */
+    @Override
+    public void clear() {
+        synchronized ( this.jobs ) {
+            this.jobs.clear();
+        }
+        super.clear();
+    }
+
+    @Override
+    protected Collection<JobHandler> removeAllJobs() {
+        synchronized ( this.jobs ) {
+            return this.jobs.clear();
+        }
+    }
+
+    /**
+     * @see org.apache.sling.event.jobs.Statistics#reset()
+     */
+    @Override
+    public synchronized void reset() {
+        super.reset();
+        this.schedulingStatistics.reset();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics about the scheduling decisions of a {@link PriorityJobQueue}.
+ * The data is collected per job priority and, if fair sharing is enabled,
+ * per value of the fairness property.
+ */
+public class SchedulingStatistics {
+
+    private static final class Counter {
+        public int weight;
+        public long waiting;
+        public long dispatched;
+        public long waitingTime;
+        public long maxWaitingTime;
+
+        public void dispatched(final long waitTime) {
+            this.dispatched++;
+            this.waitingTime += waitTime;
+            if ( waitTime > this.maxWaitingTime ) {
+                this.maxWaitingTime = waitTime;
+            }
+        }
+
+        public long getAverageWaitingTime() {
+            return this.dispatched == 0 ? 0 : this.waitingTime / this.dispatched;
+        }
+    }
+
+    /** Statistics per priority. */
+    private final Map<Integer, Counter> priorities = new TreeMap<Integer, Counter>();
+
+    /** Statistics per value of the fairness property. */
+    private final Map<String, Counter> shares = new TreeMap<String, Counter>();
+
+    /** Number of jobs started before a job with a higher priority. */
+    private long promotedJobs;
+
+    /** Maximum time a job has been waiting. */
+    private long maxWaitingTime;
+
+    private Counter getPriorityCounter(final int priority) {
+        Counter c = this.priorities.get(priority);
+        if ( c == null ) {
+            c = new Counter();
+            this.priorities.put(priority, c);
+        }
+        return c;
+    }
+
+    private Counter getShareCounter(final String value, final int weight) {
+        Counter c = this.shares.get(value);
+        if ( c == null ) {
+            c = new Counter();
+            this.shares.put(value, c);
+        }
+        c.weight = weight;
+        return c;
+    }
+
+    /**
+     * A job has been added to the queue.
+     * @param share The value of the fairness property or <code>null</code>
+     * @param weight The weight of the share
+     */
+    public synchronized void queued(final String share, final int weight) {
+        if ( share != null ) {
+            this.getShareCounter(share, weight).waiting++;
+        }
+    }
+
+    /**
+     * A job has been taken from the queue.
+     * @param priority The priority of the job
+     * @param share The value of the fairness property or <code>null</code>
+     * @param weight The weight of the share
+     * @param waitTime The time the job has been waiting in the queue
+     * @param promoted Whether a job with a higher priority was waiting
+     */
+    public synchronized void dispatched(final int priority,
+            final String share,
+            final int weight,
+            final long waitTime,
+            final boolean promoted) {
+        this.getPriorityCounter(priority).dispatched(waitTime);
+        if ( share != null ) {
+            final Counter c = this.getShareCounter(share, weight);
+            if ( c.waiting > 0 ) {
+                c.waiting--;
+            }
+            c.dispatched(waitTime);
+        }
+        if ( promoted ) {
+            this.promotedJobs++;
+        }
+        if ( waitTime > this.maxWaitingTime ) {
+            this.maxWaitingTime = waitTime;
+        }
+    }
+
+    /**
+     * All waiting jobs have been removed from the queue.
+     */
+    public synchronized void cleared() {
+        for(final Counter c : this.shares.values()) {
+            c.waiting = 0;
+        }
+    }
+
+    /**
+     * The maximum time in milliseconds a job has been waiting before being started.
+     */
+    public synchronized long getMaxWaitingTime() {
+        return this.maxWaitingTime;
+    }
+
+    /**
+     * The number of jobs which have been started although a job
+     * with a higher priority was waiting because they aged.
+     */
+    public synchronized long getNumberOfPromotedJobs() {
+        return this.promotedJobs;
+    }
+
+    /**
+     * Return the statistics per priority, highest priority first.
+     */
+    public synchronized String[] getPriorityStatistics() {
+        final List<String> result = new ArrayList<String>();
+        for(final Map.Entry<Integer, Counter> entry : this.priorities.entrySet()) {
+            final Counter c = entry.getValue();
+            result.add(0, "priority=" + entry.getKey() +
+                    ", dispatched=" + c.dispatched +
+                    ", averageWaitingTime=" + c.getAverageWaitingTime() +
+                    ", maxWaitingTime=" + c.maxWaitingTime);
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Return the statistics per value of the fairness property.
+     */
+    public synchronized String[] getShareStatistics() {
+        final List<String> result = new ArrayList<String>();
+        for(final Map.Entry<String, Counter> entry : this.shares.entrySet()) {
+            final Counter c = entry.getValue();
+            result.add("share=" + entry.getKey() +
+                    ", weight=" + c.weight +
+                    ", waiting=" + c.waiting +
+                    ", dispatched=" + c.dispatched +
+                    ", averageWaitingTime=" + c.getAverageWaitingTime() +
+                    ", maxWaitingTime=" + c.maxWaitingTime);
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Reset the statistics, the number of waiting jobs is kept.
+     */
+    public synchronized void reset() {
+        this.priorities.clear();
+        this.promotedJobs = 0;
+        this.maxWaitingTime = 0;
+        final Iterator<Counter> i = this.shares.values().iterator();
+        while ( i.hasNext() ) {
+            final Counter c = i.next();
+            if ( c.waiting == 0 ) {
+                i.remove();
+            } else {
+                c.dispatched = 0;
+                c.waitingTime = 0;
+                c.maxWaitingTime = 0;
+            }
+        }
+    }
+}
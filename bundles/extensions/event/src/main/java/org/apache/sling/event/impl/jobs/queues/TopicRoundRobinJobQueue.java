@@ -66,42 +66,27 @@ public final class TopicRoundRobinJobQueue extends AbstractParallelJobQueue {
     @Override
     protected void put(final JobHandler event) {
         // is this a close?
-        if ( event.getJob() == null ) {
-            return;
-        }
-        final String topic = event.getJob().getTopic();
-        synchronized ( this.topicMap ) {
-            List<JobHandler> events = this.topicMap.get(topic);
-            if ( events == null ) {
-                events = new LinkedList<JobHandler>();
-                this.topicMap.put(topic, events);
-                this.topics.add(topic);
-            }
-            events.add(event);
-            this.eventCount++;
-            if ( this.isWaitingForNext ) {
+        if ( event.getJob() != null ) {
+            final String topic = event.getJob().getTopic();
+            synchronized ( this.topicMap ) {
+                List<JobHandler> events = this.topicMap.get(topic);
+                if ( events == null ) {
+                    events = new LinkedList<JobHandler>();
+                    this.topicMap.put(topic, events);
+                    this.topics.add(topic);
+                }
+                events.add(event);
+                this.eventCount++;
                 this.isWaitingForNext = false;
-                // wake up take()
-                this.topicMap.notify();
             }
         }
+        this.dispatch();
     }
 
     @Override
     protected JobHandler take() {
         JobHandler e = null;
         synchronized ( this.topicMap ) {
-            if ( this.eventCount == 0 ) {
-                // wait for a new event
-                this.isWaitingForNext = true;
-                while ( this.isWaitingForNext ) {
-                    try {
-                        this.topicMap.wait();
-                    } catch (final InterruptedException ie) {
-                        this.ignoreException(ie);
-                    }
-                }
-            }
             if ( this.eventCount > 0 ) {
                 while ( e == null ) {
                     final String topic = this.topics.get(this.topicIndex);
@@ -116,6 +101,7 @@ public final class TopicRoundRobinJobQueue extends AbstractParallelJobQueue {
                 }
                 this.eventCount--;
             }
+            this.isWaitingForNext = (e == null);
         }
         return e;
     }
@@ -23,33 +23,137 @@ import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 
 /**
- * This class can be used for batch removal of resources
+ * This class can be used for batch removal of resources.
+ *
+ * Changes are committed in groups: a commit is done once the
+ * configured number of changes is reached or the oldest uncommitted
+ * change is older than the configured time. Callers must invoke
+ * {@link #commit()} at the end to commit outstanding changes.
+ * If a commit fails, all changes of the batch are reverted.
  */
 public class BatchResourceRemover {
 
     private final int max;
 
+    private final long maxTime;
+
     private int count;
 
+    private int pendingDeletes;
+
+    /** Start of the current batch. */
+    private long batchStart;
+
+    /** The resolver of the current batch. */
+    private ResourceResolver resolver;
+
+    private int deleteCount;
+
+    private int changeCount;
+
+    private int commitCount;
+
     public BatchResourceRemover() {
         this(50);
     }
 
     public BatchResourceRemover(final int batchSize) {
+        this(batchSize, -1);
+    }
+
+    /**
+     * @param batchSize The maximum number of changes per commit
+     * @param maxBatchTime The maximum time in milliseconds changes are kept
+     *                     uncommitted, -1 for no limit.
+     */
+    public BatchResourceRemover(final int batchSize, final long maxBatchTime) {
         this.max = batchSize;
+        this.maxTime = maxBatchTime;
     }
 
     public void delete(final Resource rsrc )
     throws PersistenceException {
         final ResourceResolver resolver = rsrc.getResourceResolver();
+        this.use(resolver);
         for(final Resource child : rsrc.getChildren()) {
             delete(child);
         }
         resolver.delete(rsrc);
+        pendingDeletes++;
+        this.added();
+    }
+
+    /**
+     * Add another change which has been made through the resolver
+     * to the current batch.
+     */
+    public void changed(final ResourceResolver resolver)
+    throws PersistenceException {
+        this.use(resolver);
+        this.added();
+    }
+
+    private void use(final ResourceResolver resolver)
+    throws PersistenceException {
+        if ( this.resolver != resolver ) {
+            // a different resolver, commit the changes of the previous one
+            this.commit();
+            this.resolver = resolver;
+        }
+    }
+
+    private void added()
+    throws PersistenceException {
+        if ( count == 0 ) {
+            batchStart = System.currentTimeMillis();
+        }
         count++;
-        if ( count >= max ) {
-            resolver.commit();
+        if ( count >= max || (maxTime >= 0 && System.currentTimeMillis() - batchStart >= maxTime) ) {
+            this.commit();
+        }
+    }
+
+    /**
+     * Commit outstanding changes.
+     */
+    public void commit()
+    throws PersistenceException {
+        if ( count > 0 && resolver != null ) {
+            final int changes = count - pendingDeletes;
+            final int deletes = pendingDeletes;
             count = 0;
+            pendingDeletes = 0;
+            try {
+                resolver.commit();
+                commitCount++;
+                deleteCount += deletes;
+                changeCount += changes;
+            } catch ( final PersistenceException pe ) {
+                resolver.revert();
+                resolver.refresh();
+                throw pe;
+            }
         }
     }
+
+    /**
+     * The number of removed resources which have been committed.
+     */
+    public int getDeleteCount() {
+        return this.deleteCount;
+    }
+
+    /**
+     * The number of other changes which have been committed.
+     */
+    public int getChangeCount() {
+        return this.changeCount;
+    }
+
+    /**
+     * The number of commits.
+     */
+    public int getCommitCount() {
+        return this.commitCount;
+    }
 }
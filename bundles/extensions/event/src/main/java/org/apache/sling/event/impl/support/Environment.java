@@ -18,6 +18,8 @@
  */
 package org.apache.sling.event.impl.support;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.sling.commons.threads.ThreadPool;
 
 /**
@@ -32,4 +34,7 @@ public class Environment {
 
     /** Global thread pool. */
     public static volatile ThreadPool THREAD_POOL;
+
+    /** Executor starting a virtual thread per job, <code>null</code> if not supported by the JVM. */
+    public static volatile ExecutorService VIRTUAL_THREADS;
 }
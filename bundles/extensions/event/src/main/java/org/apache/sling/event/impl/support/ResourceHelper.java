@@ -268,6 +268,20 @@ public abstract class ResourceHelper {
         throw new PersistenceException("Unable to create resource with path " + path);
     }
 
+    /**
+     * Create the resource without committing the changes.
+     * The caller is responsible for committing (or reverting) the changes.
+     */
+    public static Resource createResourceWithoutCommit(final ResourceResolver resolver,
+            final String path, final Map<String, Object> props)
+    throws PersistenceException {
+        return ResourceUtil.getOrCreateResource(resolver,
+                path,
+                props,
+                ResourceHelper.RESOURCE_TYPE_FOLDER,
+                false);
+    }
+
     public static Resource getOrCreateResource(final ResourceResolver resolver,
             final String path, final Map<String, Object> props)
     throws PersistenceException {
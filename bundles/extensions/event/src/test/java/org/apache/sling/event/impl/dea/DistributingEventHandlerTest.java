@@ -153,4 +153,43 @@ public class DistributingEventHandlerTest {
 
         resolver.commit();
     }
+
+    private int countEvents(final Resource rsrc) {
+        if ( rsrc.getName().startsWith("event-") ) {
+            return 1;
+        }
+        int count = 0;
+        for(final Resource child : rsrc.getChildren()) {
+            count += countEvents(child);
+        }
+        return count;
+    }
+
+    @org.junit.Test public void testWriteEventBatches() throws Exception {
+        final String topic = "write/event/test";
+        for(int i = 0; i < 250; i++) {
+            final Dictionary<String, Object> props = new Hashtable<String, Object>();
+            props.put("index", i);
+            this.receiver.handleEvent(new Event(topic, props));
+        }
+
+        // the events are written asynchronously in batches, wait until all are stored
+        final long deadline = System.currentTimeMillis() + 10000;
+        ResourceResolver resolver;
+        Resource rootResource;
+        int count;
+        do {
+            Thread.sleep(50);
+            resolver = this.factory.getAdministrativeResourceResolver(null);
+            rootResource = resolver.getResource(this.config.getOwnRootPath());
+            count = (rootResource == null ? 0 : countEvents(rootResource));
+        } while ( count < 250 && System.currentTimeMillis() < deadline );
+        assertNotNull(rootResource);
+        assertEquals(250, count);
+
+        for(final Resource yearResource : rootResource.getChildren()) {
+            resolver.delete(yearResource);
+        }
+        resolver.commit();
+    }
 }
@@ -149,4 +149,31 @@ public class InternalQueueConfigurationTest {
         InternalQueueConfiguration c = InternalQueueConfiguration.fromConfiguration(p);
         assertFalse(c.isValid());
     }
+
+    @org.junit.Test public void testOrdering() {
+        final Map<String, Object> p = new HashMap<String, Object>();
+        p.put(ConfigurationConstants.PROP_TOPICS, new String[] {"a"});
+        p.put(ConfigurationConstants.PROP_NAME, "test");
+
+        InternalQueueConfiguration c = InternalQueueConfiguration.fromConfiguration(p);
+        assertEquals(InternalQueueConfiguration.Ordering.FIFO, c.getOrdering());
+        assertNull(c.getFairnessProperty());
+
+        p.put(ConfigurationConstants.PROP_ORDERING, "PRIORITY");
+        p.put(ConfigurationConstants.PROP_FAIRNESS_PROPERTY, "tenant");
+        p.put(ConfigurationConstants.PROP_FAIRNESS_WEIGHTS, new String[] {"a=3", "b=0", "c", "d=x"});
+        c = InternalQueueConfiguration.fromConfiguration(p);
+        assertTrue(c.isValid());
+        assertEquals(InternalQueueConfiguration.Ordering.PRIORITY, c.getOrdering());
+        assertEquals("tenant", c.getFairnessProperty());
+        assertEquals(3, c.getFairnessWeight("a"));
+        assertEquals(1, c.getFairnessWeight("b"));
+        assertEquals(1, c.getFairnessWeight("c"));
+        assertEquals(1, c.getFairnessWeight("d"));
+        assertEquals(1, c.getFairnessWeight(null));
+
+        p.put(ConfigurationConstants.PROP_AGING_INTERVAL, -1);
+        c = InternalQueueConfiguration.fromConfiguration(p);
+        assertFalse(c.isValid());
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.event.impl.jobs.JobConsumerManager;
+import org.apache.sling.event.impl.jobs.JobExecutionResultImpl;
+import org.apache.sling.event.impl.jobs.JobHandler;
+import org.apache.sling.event.impl.jobs.JobImpl;
+import org.apache.sling.event.impl.jobs.config.ConfigurationConstants;
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.Queue;
+import org.apache.sling.event.jobs.consumer.JobExecutionContext;
+import org.apache.sling.event.jobs.consumer.JobExecutionResult;
+import org.apache.sling.event.jobs.consumer.JobExecutor;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ParallelJobQueueTest {
+
+    private static final String TOPIC = "sling/test";
+
+    private JobHandler createHandler(final int index) {
+        final JobImpl job = new JobImpl(TOPIC, null, "job-" + index, new HashMap<String, Object>());
+        final JobHandler handler = Mockito.mock(JobHandler.class);
+        Mockito.when(handler.getJob()).thenReturn(job);
+        Mockito.when(handler.startProcessing(Mockito.any(Queue.class))).thenReturn(true);
+        return handler;
+    }
+
+    @Test public void testMaxParallel() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Semaphore block = new Semaphore(0);
+        final CountDownLatch finished = new CountDownLatch(5);
+
+        final JobExecutor executor = new JobExecutor() {
+
+            @Override
+            public JobExecutionResult process(final Job job, final JobExecutionContext context) {
+                final int current = running.incrementAndGet();
+                synchronized ( maxRunning ) {
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                }
+                block.acquireUninterruptibly();
+                running.decrementAndGet();
+                finished.countDown();
+                return JobExecutionResultImpl.SUCCEEDED;
+            }
+        };
+        final JobConsumerManager consumerManager = Mockito.mock(JobConsumerManager.class);
+        Mockito.when(consumerManager.getExecutor(TOPIC)).thenReturn(executor);
+
+        final Map<String, Object> p = new HashMap<String, Object>();
+        p.put(ConfigurationConstants.PROP_NAME, "test");
+        p.put(ConfigurationConstants.PROP_TOPICS, new String[] {TOPIC});
+        p.put(ConfigurationConstants.PROP_MAX_PARALLEL, 2);
+        final ParallelJobQueue queue = new ParallelJobQueue("test",
+                InternalQueueConfiguration.fromConfiguration(p), consumerManager, null, null);
+        queue.start();
+        for(int i = 0; i < 5; i++) {
+            queue.process(createHandler(i));
+        }
+
+        // release the jobs one by one
+        for(int i = 0; i < 5; i++) {
+            Thread.sleep(50);
+            block.release();
+        }
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+
+        // wait until the last slot has been freed
+        final long end = System.currentTimeMillis() + 5000;
+        while ( !queue.canBeClosed() && System.currentTimeMillis() < end ) {
+            Thread.sleep(10);
+        }
+        assertTrue(queue.canBeClosed());
+        assertEquals(5, queue.getNumberOfFinishedJobs());
+        queue.close();
+    }
+
+    @Test public void testSuspendAndResume() throws Exception {
+        final CountDownLatch finished = new CountDownLatch(3);
+        final JobExecutor executor = new JobExecutor() {
+
+            @Override
+            public JobExecutionResult process(final Job job, final JobExecutionContext context) {
+                finished.countDown();
+                return JobExecutionResultImpl.SUCCEEDED;
+            }
+        };
+        final JobConsumerManager consumerManager = Mockito.mock(JobConsumerManager.class);
+        Mockito.when(consumerManager.getExecutor(TOPIC)).thenReturn(executor);
+
+        final Map<String, Object> p = new HashMap<String, Object>();
+        p.put(ConfigurationConstants.PROP_NAME, "test");
+        p.put(ConfigurationConstants.PROP_TOPICS, new String[] {TOPIC});
+        final ParallelJobQueue queue = new ParallelJobQueue("test",
+                InternalQueueConfiguration.fromConfiguration(p), consumerManager, null, null);
+        queue.start();
+        queue.suspend();
+        for(int i = 0; i < 3; i++) {
+            queue.process(createHandler(i));
+        }
+        Thread.sleep(100);
+        assertEquals(3, finished.getCount());
+        assertEquals(3, queue.getNumberOfQueuedJobs());
+
+        queue.resume();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        queue.close();
+    }
+}
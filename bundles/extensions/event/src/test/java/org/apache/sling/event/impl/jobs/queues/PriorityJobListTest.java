@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.event.impl.jobs.config.ConfigurationConstants;
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+import org.junit.Test;
+
+public class PriorityJobListTest {
+
+    private PriorityJobList<String> createList(final long aging, final String fairness, final String... weights) {
+        final Map<String, Object> p = new HashMap<String, Object>();
+        p.put(ConfigurationConstants.PROP_NAME, "test");
+        p.put(ConfigurationConstants.PROP_TOPICS, new String[] {"a"});
+        p.put(ConfigurationConstants.PROP_ORDERING, "PRIORITY");
+        p.put(ConfigurationConstants.PROP_AGING_INTERVAL, aging);
+        if ( fairness != null ) {
+            p.put(ConfigurationConstants.PROP_FAIRNESS_PROPERTY, fairness);
+            p.put(ConfigurationConstants.PROP_FAIRNESS_WEIGHTS, weights);
+        }
+        return new PriorityJobList<String>(InternalQueueConfiguration.fromConfiguration(p), new SchedulingStatistics());
+    }
+
+    @Test public void testPriorityOrder() {
+        final PriorityJobList<String> list = createList(0, null);
+        list.add("low-1", 0, null, 1);
+        list.add("high", 5, null, 2);
+        list.add("low-2", 0, null, 3);
+        list.add("mid", 1, null, 4);
+
+        assertEquals("high", list.take(10));
+        assertEquals("mid", list.take(10));
+        assertEquals("low-1", list.take(10));
+        assertEquals("low-2", list.take(10));
+        assertNull(list.take(10));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test public void testAging() {
+        final PriorityJobList<String> list = createList(100, null);
+        // the old job is raised by one level every 100ms
+        list.add("old", 0, null, 0);
+        list.add("newer", 2, null, 150);
+        list.add("newest", 2, null, 250);
+
+        assertEquals("newer", list.take(250));
+        assertEquals("old", list.take(250));
+        assertEquals("newest", list.take(250));
+    }
+
+    @Test public void testFairSharing() {
+        final PriorityJobList<String> list = createList(0, "tenant", "b=2");
+        for(int i = 0; i < 100; i++) {
+            list.add("a", 0, "a", i);
+        }
+        for(int i = 0; i < 10; i++) {
+            list.add("b", 0, "b", 100 + i);
+        }
+        int b = 0;
+        for(int i = 0; i < 15; i++) {
+            if ( "b".equals(list.take(200)) ) {
+                b++;
+            }
+        }
+        // b has twice the weight of a
+        assertEquals(10, b);
+        assertEquals(95, list.size());
+    }
+
+    @Test public void testClear() {
+        final SchedulingStatistics stats = new SchedulingStatistics();
+        final Map<String, Object> p = new HashMap<String, Object>();
+        p.put(ConfigurationConstants.PROP_FAIRNESS_PROPERTY, "tenant");
+        final PriorityJobList<String> list = new PriorityJobList<String>(InternalQueueConfiguration.fromConfiguration(p), stats);
+        list.add("a", 0, "a", 0);
+        list.add("b", 3, "b", 0);
+        list.add("c", 1, null, 0);
+        // shares are served in turn, regardless of the priority
+        assertEquals("a", list.take(10));
+
+        final List<String> removed = list.clear();
+        assertEquals(2, removed.size());
+        assertTrue(list.isEmpty());
+        assertNull(list.take(10));
+        assertEquals(10, stats.getMaxWaitingTime());
+        assertEquals(1, stats.getPriorityStatistics().length);
+    }
+}
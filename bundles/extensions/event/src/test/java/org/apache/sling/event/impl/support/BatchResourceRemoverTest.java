@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class BatchResourceRemoverTest {
+
+    private Resource createResource(final ResourceResolver resolver) {
+        final Resource rsrc = Mockito.mock(Resource.class);
+        Mockito.when(rsrc.getResourceResolver()).thenReturn(resolver);
+        Mockito.when(rsrc.getChildren()).thenReturn(Collections.<Resource>emptyList());
+        return rsrc;
+    }
+
+    @Test public void testBatchSize() throws Exception {
+        final ResourceResolver resolver = Mockito.mock(ResourceResolver.class);
+        final BatchResourceRemover brr = new BatchResourceRemover(3);
+        for(int i = 0; i < 7; i++) {
+            brr.delete(createResource(resolver));
+        }
+        Mockito.verify(resolver, Mockito.times(2)).commit();
+        assertEquals(6, brr.getDeleteCount());
+
+        brr.changed(resolver);
+        brr.commit();
+        Mockito.verify(resolver, Mockito.times(3)).commit();
+        assertEquals(7, brr.getDeleteCount());
+        assertEquals(1, brr.getChangeCount());
+        assertEquals(3, brr.getCommitCount());
+
+        // nothing left to commit
+        brr.commit();
+        Mockito.verify(resolver, Mockito.times(3)).commit();
+    }
+
+    @Test public void testBatchTime() throws Exception {
+        final ResourceResolver resolver = Mockito.mock(ResourceResolver.class);
+        final BatchResourceRemover brr = new BatchResourceRemover(100, 0);
+        brr.delete(createResource(resolver));
+        brr.delete(createResource(resolver));
+        Mockito.verify(resolver, Mockito.times(2)).commit();
+    }
+
+    @Test public void testResolverSwitch() throws Exception {
+        final ResourceResolver first = Mockito.mock(ResourceResolver.class);
+        final ResourceResolver second = Mockito.mock(ResourceResolver.class);
+        final BatchResourceRemover brr = new BatchResourceRemover(100);
+        brr.delete(createResource(first));
+        brr.delete(createResource(second));
+        Mockito.verify(first).commit();
+        Mockito.verify(second, Mockito.never()).commit();
+        brr.commit();
+        Mockito.verify(second).commit();
+    }
+
+    @Test public void testFailedCommit() throws Exception {
+        final ResourceResolver resolver = Mockito.mock(ResourceResolver.class);
+        Mockito.doThrow(new PersistenceException("failed")).when(resolver).commit();
+        final BatchResourceRemover brr = new BatchResourceRemover(100);
+        brr.delete(createResource(resolver));
+        try {
+            brr.commit();
+            fail("Commit should fail");
+        } catch ( final PersistenceException expected ) {
+            // expected
+        }
+        Mockito.verify(resolver).revert();
+        assertEquals(0, brr.getDeleteCount());
+        assertEquals(0, brr.getCommitCount());
+    }
+}
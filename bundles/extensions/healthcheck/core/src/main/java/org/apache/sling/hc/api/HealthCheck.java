@@ -53,6 +53,15 @@ public interface HealthCheck {
      */
     String TAGS = "hc.tags";
 
+    /**
+     * Optional service property: the time in milliseconds the result of
+     * this health check is cached when executed by the
+     * {@link org.apache.sling.hc.api.execution.HealthCheckExecutor}, overriding
+     * the default time configured for the executor.
+     * The value of this property must be of type Long or String.
+     */
+    String RESULT_CACHE_TTL_IN_MS = "hc.resultCacheTtlInMs";
+
     /**
      * Execute this health check and return a {@link Result}
      * This is meant to execute quickly, access to external
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.hc.api.execution;
+
+import java.util.Date;
+
+import org.apache.sling.hc.api.Result;
+
+import aQute.bnd.annotation.ProviderType;
+
+/** The result of executing a health check with the {@link HealthCheckExecutor} */
+@ProviderType
+public interface HealthCheckExecutionResult {
+
+    /** The name of the health check, the value of its <code>hc.name</code>
+     *  property or <code>null</code> if it has none.
+     */
+    String getHealthCheckName();
+
+    /** The result returned by the health check */
+    Result getHealthCheckResult();
+
+    /** The time the health check took to execute, in milliseconds */
+    long getElapsedTimeInMs();
+
+    /** The time the health check finished executing - this is earlier
+     *  than the time of the call if the result has been cached.
+     */
+    Date getFinishedAt();
+
+    /** True if the health check did not finish within the timeout
+     *  of the executor, in which case the result is the last known one.
+     */
+    boolean hasTimedOut();
+}
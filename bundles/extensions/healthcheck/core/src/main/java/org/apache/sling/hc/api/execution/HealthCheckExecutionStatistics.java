@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.hc.api.execution;
+
+import aQute.bnd.annotation.ProviderType;
+
+/** Statistics about the executions of a health check by the {@link HealthCheckExecutor} */
+@ProviderType
+public interface HealthCheckExecutionStatistics {
+
+    /** Number of times the health check has been executed, cached results are not counted */
+    long getExecutionCount();
+
+    /** Number of times the health check did not finish within the timeout */
+    long getTimeoutCount();
+
+    /** Execution time of the last execution, in milliseconds */
+    long getLastExecutionTimeInMs();
+
+    /** Average execution time, in milliseconds */
+    long getAverageExecutionTimeInMs();
+
+    /** Maximum execution time, in milliseconds */
+    long getMaxExecutionTimeInMs();
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.hc.api.execution;
+
+import java.util.List;
+
+import org.osgi.framework.ServiceReference;
+
+import aQute.bnd.annotation.ProviderType;
+
+/**
+ * Executes {@link org.apache.sling.hc.api.HealthCheck} services in parallel,
+ * with a timeout and caching of their results.
+ * <p>
+ * A health check which does not finish within the timeout keeps running in
+ * the background, it is not started again while it is running. Until it finishes
+ * its last known result is returned, marked as timed out.
+ */
+@ProviderType
+public interface HealthCheckExecutor {
+
+    /**
+     * Execute all health checks having one of the supplied tags, as
+     * selected by the {@link org.apache.sling.hc.util.HealthCheckFilter}.
+     * @return The results, in the order of the health check services -
+     *         might be the empty list if no health check matches
+     */
+    List<HealthCheckExecutionResult> execute(String... tags);
+
+    /**
+     * Execute the health checks with the supplied service references.
+     * @return The results, in the order of the references
+     */
+    List<HealthCheckExecutionResult> execute(List<ServiceReference> healthCheckReferences);
+
+    /**
+     * Get the statistics of the executions of a health check.
+     * @return The statistics or <code>null</code> if the health check
+     *         has not been executed by this executor yet
+     */
+    HealthCheckExecutionStatistics getStatistics(ServiceReference healthCheckReference);
+}
@@ -17,7 +17,9 @@
  */
 package org.apache.sling.hc.core.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -26,20 +28,28 @@ import org.apache.felix.scr.annotations.ConfigurationPolicy;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.PropertyUnbounded;
+import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.apache.sling.hc.api.HealthCheck;
 import org.apache.sling.hc.api.Result;
 import org.apache.sling.hc.api.ResultLog;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionResult;
+import org.apache.sling.hc.api.execution.HealthCheckExecutor;
 import org.apache.sling.hc.util.FormattingResultLog;
 import org.apache.sling.hc.util.HealthCheckFilter;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** {@link HealthCheck} that executes a number of other HealthChecks,
  *  selected by their tags, and merges their Results.
+ *  The HealthChecks are executed by the {@link HealthCheckExecutor}, in
+ *  parallel or, if this HealthCheck is itself executed by the executor,
+ *  in the thread executing this HealthCheck.
  */
 @Component(
         configurationFactory=true,
@@ -48,13 +58,18 @@ import org.slf4j.LoggerFactory;
 @Properties({
     @Property(name=HealthCheck.NAME),
     @Property(name=HealthCheck.TAGS, unbounded=PropertyUnbounded.ARRAY),
-    @Property(name=HealthCheck.MBEAN_NAME)
+    @Property(name=HealthCheck.MBEAN_NAME),
+    @Property(name=HealthCheck.RESULT_CACHE_TTL_IN_MS)
 })
 @Service(value=HealthCheck.class)
 public class CompositeHealthCheck implements HealthCheck {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
     private BundleContext bundleContext;
+    private ComponentContext componentContext;
+
+    @Reference
+    private HealthCheckExecutor healthCheckExecutor;
 
     @Property(unbounded=PropertyUnbounded.ARRAY)
     private static final String PROP_FILTER_TAGS = "filter.tags";
@@ -63,6 +78,7 @@ public class CompositeHealthCheck implements HealthCheck {
     @Activate
     public void activate(ComponentContext ctx) {
         bundleContext = ctx.getBundleContext();
+        componentContext = ctx;
         filterTags = PropertiesUtil.toStringArray(ctx.getProperties().get(PROP_FILTER_TAGS), new String[] {});
         log.info("Activated, will select HealthCheck having tags {}", Arrays.asList(filterTags));
     }
@@ -70,41 +86,43 @@ public class CompositeHealthCheck implements HealthCheck {
     @Override
     public Result execute() {
         final FormattingResultLog resultLog = new FormattingResultLog();
-        final HealthCheckFilter filter = new HealthCheckFilter(bundleContext);
-        try {
-            final List<HealthCheck> checks = filter.getTaggedHealthChecks(filterTags);
-            if(checks.size() == 0) {
-                resultLog.warn("HealthCheckFilter returns no HealthCheck for tags {}", Arrays.asList(filterTags));
-                return new Result(resultLog);
-            }
+        final ServiceReference [] refs = new HealthCheckFilter(bundleContext).getTaggedHealthCheckServiceReferences(filterTags);
+        if(refs.length == 0) {
+            resultLog.warn("HealthCheckFilter returns no HealthCheck for tags {}", Arrays.asList(filterTags));
+            return new Result(resultLog);
+        }
 
-            int executed = 0;
-            resultLog.debug("Executing {} HealthCheck selected by the {} tags", checks.size(), Arrays.asList(filterTags));
-            int failures = 0;
-            for(HealthCheck hc : checks) {
-                if(hc == this) {
-                    resultLog.info("Cowardly forfeiting execution of this HealthCheck in an infinite loop, ignoring it");
-                    continue;
-                }
-                resultLog.debug("Executing {}", hc);
-                executed++;
-                final Result sub = hc.execute();
-                if(!sub.isOk()) {
-                    failures++;
-                }
-                for(ResultLog.Entry e : sub) {
-                    resultLog.add(e);
-                }
+        final List<ServiceReference> sortedRefs = Arrays.asList(refs);
+        Collections.sort(sortedRefs);
+        final Object ownId = componentContext.getServiceReference() == null ? null
+                : componentContext.getServiceReference().getProperty(Constants.SERVICE_ID);
+        final List<ServiceReference> toExecute = new ArrayList<ServiceReference>();
+        for(ServiceReference ref : sortedRefs) {
+            if(ownId != null && ownId.equals(ref.getProperty(Constants.SERVICE_ID))) {
+                resultLog.info("Cowardly forfeiting execution of this HealthCheck in an infinite loop, ignoring it");
+                continue;
             }
+            toExecute.add(ref);
+        }
 
-            if(failures == 0) {
-                resultLog.debug("{} HealthCheck executed, all ok", executed);
-            } else {
-                resultLog.warn("{} HealthCheck executed, {} failures", executed, failures);
+        resultLog.debug("Executing {} HealthCheck selected by the {} tags", toExecute.size(), Arrays.asList(filterTags));
+        int failures = 0;
+        for(HealthCheckExecutionResult executionResult : healthCheckExecutor.execute(toExecute)) {
+            final Result sub = executionResult.getHealthCheckResult();
+            resultLog.debug("Executed {} in {}ms", executionResult.getHealthCheckName(), executionResult.getElapsedTimeInMs());
+            if(!sub.isOk()) {
+                failures++;
             }
-        } finally {
-            filter.dispose();
+            for(ResultLog.Entry e : sub) {
+                resultLog.add(e);
+            }
+        }
+
+        if(failures == 0) {
+            resultLog.debug("{} HealthCheck executed, all ok", toExecute.size());
+        } else {
+            resultLog.warn("{} HealthCheck executed, {} failures", toExecute.size(), failures);
         }
         return new Result(resultLog);
     }
-}
\ No newline at end of file
+}
@@ -46,7 +46,8 @@ import org.slf4j.LoggerFactory;
 @Properties({
     @Property(name=HealthCheck.NAME),
     @Property(name=HealthCheck.TAGS, unbounded=PropertyUnbounded.ARRAY),
-    @Property(name=HealthCheck.MBEAN_NAME)
+    @Property(name=HealthCheck.MBEAN_NAME),
+    @Property(name=HealthCheck.RESULT_CACHE_TTL_IN_MS)
 })
 @Service(value=HealthCheck.class)
 public class JmxAttributeHealthCheck implements HealthCheck {
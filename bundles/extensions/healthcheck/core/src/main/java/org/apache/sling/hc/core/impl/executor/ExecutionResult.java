@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The SF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.apache.sling.hc.core.impl.executor;
+
+import java.util.Date;
+
+import org.apache.sling.hc.api.Result;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionResult;
+
+/** Immutable {@link HealthCheckExecutionResult} */
+class ExecutionResult implements HealthCheckExecutionResult {
+
+    private final String healthCheckName;
+    private final Result result;
+    private final long elapsedTimeInMs;
+    private final Date finishedAt;
+    private final boolean timedOut;
+
+    ExecutionResult(final String healthCheckName, final Result result, final long elapsedTimeInMs,
+            final Date finishedAt, final boolean timedOut) {
+        this.healthCheckName = healthCheckName;
+        this.result = result;
+        this.elapsedTimeInMs = elapsedTimeInMs;
+        this.finishedAt = finishedAt;
+        this.timedOut = timedOut;
+    }
+
+    @Override
+    public String getHealthCheckName() {
+        return healthCheckName;
+    }
+
+    @Override
+    public Result getHealthCheckResult() {
+        return result;
+    }
+
+    @Override
+    public long getElapsedTimeInMs() {
+        return elapsedTimeInMs;
+    }
+
+    @Override
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    @Override
+    public boolean hasTimedOut() {
+        return timedOut;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionResult [healthCheckName=" + healthCheckName + ", result=" + result
+                + ", elapsedTimeInMs=" + elapsedTimeInMs + ", timedOut=" + timedOut + "]";
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The SF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.apache.sling.hc.core.impl.executor;
+
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.sling.hc.api.HealthCheck;
+import org.apache.sling.hc.api.Result;
+import org.apache.sling.hc.api.ResultLog;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionResult;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionStatistics;
+import org.apache.sling.hc.util.FormattingResultLog;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Keeps track of the executions of a single health check: its
+ *  last result, the execution currently running if any, and the
+ *  execution statistics.
+ */
+class HealthCheckExecution implements HealthCheckExecutionStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(HealthCheckExecution.class);
+
+    private final String name;
+
+    private ExecutionResult lastResult;
+    private Future<HealthCheckExecutionResult> running;
+    private long runningSince;
+    private boolean runningTimedOut;
+
+    private long executionCount;
+    private long timeoutCount;
+    private long totalExecutionTime;
+    private long lastExecutionTime;
+    private long maxExecutionTime;
+
+    HealthCheckExecution(final ServiceReference ref) {
+        final Object nameObj = ref.getProperty(HealthCheck.NAME);
+        this.name = nameObj == null ? null : nameObj.toString();
+    }
+
+    /** Start executing the health check unless its last result is still valid.
+     *  While the health check is running, it is not started again.
+     *  @return The execution to wait for, or <code>null</code> if the last
+     *          known result is to be used
+     */
+    synchronized Future<HealthCheckExecutionResult> start(final Executor executor,
+            final BundleContext bundleContext, final ServiceReference ref, final long resultCacheTtlInMs) {
+        if(running != null) {
+            // refresh already in flight, only wait for it if there is no result yet
+            return lastResult == null ? running : null;
+        }
+        if(lastResult != null && lastResult.getFinishedAt().getTime() + resultCacheTtlInMs > System.currentTimeMillis()) {
+            return null;
+        }
+        try {
+            runningSince = System.currentTimeMillis();
+            runningTimedOut = false;
+            final FutureTask<HealthCheckExecutionResult> task = new FutureTask<HealthCheckExecutionResult>(
+                    new Callable<HealthCheckExecutionResult>() {
+                @Override
+                public HealthCheckExecutionResult call() {
+                    return executeHealthCheck(bundleContext, ref);
+                }
+            });
+            executor.execute(task);
+            running = task;
+        } catch(RejectedExecutionException ree) {
+            // executor is shutting down
+            return null;
+        }
+        return running;
+    }
+
+    private HealthCheckExecutionResult executeHealthCheck(final BundleContext bundleContext, final ServiceReference ref) {
+        final long start = System.currentTimeMillis();
+        Result result;
+        final HealthCheck hc = (HealthCheck)bundleContext.getService(ref);
+        if(hc == null) {
+            result = new Result(Result.Status.HEALTH_CHECK_ERROR, "HealthCheck service is not available: " + ref);
+        } else {
+            try {
+                result = hc.execute();
+            } catch(Exception e) {
+                log.warn("Exception executing HealthCheck " + hc, e);
+                final FormattingResultLog resultLog = new FormattingResultLog();
+                resultLog.healthCheckError("Exception during execution of {}: {}", hc, e);
+                result = new Result(resultLog);
+            } finally {
+                bundleContext.ungetService(ref);
+            }
+        }
+        final long elapsed = System.currentTimeMillis() - start;
+        final ExecutionResult executionResult = new ExecutionResult(name, result, elapsed, new Date(), false);
+        synchronized (this) {
+            lastResult = executionResult;
+            running = null;
+            executionCount++;
+            totalExecutionTime += elapsed;
+            lastExecutionTime = elapsed;
+            maxExecutionTime = Math.max(maxExecutionTime, elapsed);
+        }
+        log.debug("HealthCheck {} executed in {}ms", name, elapsed);
+        return executionResult;
+    }
+
+    /** Wait for the execution until the deadline
+     *  @param execution The execution returned by {@link #start}
+     *  @return The result of the execution, or the last known result
+     *          marked as timed out if the execution does not finish in time
+     */
+    HealthCheckExecutionResult getResult(final Future<HealthCheckExecutionResult> execution, final long deadline, final long timeoutInMs) {
+        if(execution != null) {
+            try {
+                return execution.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch(TimeoutException te) {
+                // fall through to the timeout result
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch(ExecutionException ee) {
+                // not expected as executeHealthCheck catches all exceptions
+                log.warn("Unexpected exception executing HealthCheck " + name, ee);
+            }
+            return timedOut(timeoutInMs);
+        }
+        synchronized (this) {
+            if(lastResult == null
+                    || (running != null && System.currentTimeMillis() - runningSince > timeoutInMs)) {
+                return timedOut(timeoutInMs);
+            }
+            return lastResult;
+        }
+    }
+
+    private synchronized HealthCheckExecutionResult timedOut(final long timeoutInMs) {
+        // count each execution which exceeds the timeout once only
+        if(running != null && !runningTimedOut) {
+            runningTimedOut = true;
+            timeoutCount++;
+        }
+        final FormattingResultLog resultLog = new FormattingResultLog();
+        if(lastResult == null) {
+            resultLog.critical("Timeout: HealthCheck did not finish within {}ms", timeoutInMs);
+            return new ExecutionResult(name, new Result(resultLog), timeoutInMs, new Date(), true);
+        }
+        for(final ResultLog.Entry e : lastResult.getHealthCheckResult()) {
+            resultLog.add(e);
+        }
+        resultLog.warn("Timeout: HealthCheck still running after {}ms, showing result from {}",
+                timeoutInMs, lastResult.getFinishedAt());
+        return new ExecutionResult(name, new Result(resultLog), lastResult.getElapsedTimeInMs(),
+                lastResult.getFinishedAt(), true);
+    }
+
+    @Override
+    public synchronized long getExecutionCount() {
+        return executionCount;
+    }
+
+    @Override
+    public synchronized long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    @Override
+    public synchronized long getLastExecutionTimeInMs() {
+        return lastExecutionTime;
+    }
+
+    @Override
+    public synchronized long getAverageExecutionTimeInMs() {
+        return executionCount == 0 ? 0 : totalExecutionTime / executionCount;
+    }
+
+    @Override
+    public synchronized long getMaxExecutionTimeInMs() {
+        return maxExecutionTime;
+    }
+}
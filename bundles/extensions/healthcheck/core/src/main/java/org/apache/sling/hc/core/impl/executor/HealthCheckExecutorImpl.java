@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The SF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.apache.sling.hc.core.impl.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.sling.commons.osgi.PropertiesUtil;
+import org.apache.sling.hc.api.HealthCheck;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionResult;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionStatistics;
+import org.apache.sling.hc.api.execution.HealthCheckExecutor;
+import org.apache.sling.hc.util.HealthCheckFilter;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** {@link HealthCheckExecutor} that runs the health checks on a
+ *  dedicated thread pool, so that a slow or hanging health check
+ *  cannot block the caller for longer than the configured timeout.
+ *  Health checks executed by a health check which itself runs on
+ *  the pool, like the {@link org.apache.sling.hc.core.impl.CompositeHealthCheck},
+ *  run in the calling pool thread, as waiting for other pool threads
+ *  could exhaust the pool.
+ */
+@Component(metatype=true)
+@Service(value=HealthCheckExecutor.class)
+public class HealthCheckExecutorImpl implements HealthCheckExecutor, ServiceListener {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final long DEFAULT_TIMEOUT_IN_MS = 2000;
+
+    @Property(longValue=DEFAULT_TIMEOUT_IN_MS)
+    public static final String PROP_TIMEOUT_IN_MS = "timeoutInMs";
+
+    private static final long DEFAULT_RESULT_CACHE_TTL_IN_MS = 2000;
+
+    @Property(longValue=DEFAULT_RESULT_CACHE_TTL_IN_MS)
+    public static final String PROP_RESULT_CACHE_TTL_IN_MS = "resultCacheTtlInMs";
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 10;
+
+    @Property(intValue=DEFAULT_THREAD_POOL_SIZE)
+    public static final String PROP_THREAD_POOL_SIZE = "threadPoolSize";
+
+    private BundleContext bundleContext;
+    private ExecutorService executor;
+
+    /** Set for the threads of the pool */
+    private final ThreadLocal<Boolean> isPoolThread = new ThreadLocal<Boolean>();
+    private long timeoutInMs;
+    private long resultCacheTtlInMs;
+
+    /** The executions by service id of the health check */
+    private final Map<Long, HealthCheckExecution> executions = new HashMap<Long, HealthCheckExecution>();
+
+    @Activate
+    protected void activate(final ComponentContext ctx) {
+        bundleContext = ctx.getBundleContext();
+        timeoutInMs = PropertiesUtil.toLong(ctx.getProperties().get(PROP_TIMEOUT_IN_MS), DEFAULT_TIMEOUT_IN_MS);
+        resultCacheTtlInMs = PropertiesUtil.toLong(ctx.getProperties().get(PROP_RESULT_CACHE_TTL_IN_MS), DEFAULT_RESULT_CACHE_TTL_IN_MS);
+        final int threadPoolSize = Math.max(1,
+                PropertiesUtil.toInteger(ctx.getProperties().get(PROP_THREAD_POOL_SIZE), DEFAULT_THREAD_POOL_SIZE));
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threadPoolSize, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        isPoolThread.set(Boolean.TRUE);
+                        r.run();
+                    }
+                }, "HealthCheck executor #" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        try {
+            bundleContext.addServiceListener(this, "(" + Constants.OBJECTCLASS + "=" + HealthCheck.class.getName() + ")");
+        } catch(Exception e) {
+            // only happens for an invalid filter
+            log.warn("Unable to register service listener", e);
+        }
+        log.info("Activated, timeout={}ms, resultCacheTtl={}ms, threadPoolSize={}",
+                new Object[] { timeoutInMs, resultCacheTtlInMs, threadPoolSize });
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        bundleContext.removeServiceListener(this);
+        // health checks which are still running are interrupted
+        executor.shutdownNow();
+        executor = null;
+        synchronized (executions) {
+            executions.clear();
+        }
+    }
+
+    /** Forget about health checks which go away */
+    @Override
+    public void serviceChanged(final ServiceEvent event) {
+        if(event.getType() == ServiceEvent.UNREGISTERING) {
+            synchronized (executions) {
+                executions.remove(event.getServiceReference().getProperty(Constants.SERVICE_ID));
+            }
+        }
+    }
+
+    @Override
+    public List<HealthCheckExecutionResult> execute(final String... tags) {
+        final ServiceReference[] refs = new HealthCheckFilter(bundleContext).getTaggedHealthCheckServiceReferences(tags);
+        final List<ServiceReference> sortedRefs = Arrays.asList(refs);
+        Collections.sort(sortedRefs);
+        return execute(sortedRefs);
+    }
+
+    @Override
+    public List<HealthCheckExecutionResult> execute(final List<ServiceReference> healthCheckReferences) {
+        // all health checks share the same deadline, so the caller waits
+        // for the timeout at most, no matter how many health checks are selected
+        final long deadline = System.currentTimeMillis() + timeoutInMs;
+
+        // if called from a pool thread, the health checks are run by
+        // the calling thread once they are all started
+        final List<Runnable> callerRuns = new ArrayList<Runnable>();
+        final Executor target;
+        if(Boolean.TRUE.equals(isPoolThread.get())) {
+            target = new Executor() {
+                @Override
+                public void execute(final Runnable command) {
+                    callerRuns.add(command);
+                }
+            };
+        } else {
+            target = executor;
+        }
+
+        final List<HealthCheckExecution> started = new ArrayList<HealthCheckExecution>(healthCheckReferences.size());
+        final List<Future<HealthCheckExecutionResult>> futures = new ArrayList<Future<HealthCheckExecutionResult>>(healthCheckReferences.size());
+        for(final ServiceReference ref : healthCheckReferences) {
+            final HealthCheckExecution execution = getExecution(ref);
+            started.add(execution);
+            futures.add(execution.start(target, bundleContext, ref, getResultCacheTtlInMs(ref)));
+        }
+        for(final Runnable r : callerRuns) {
+            r.run();
+        }
+
+        final List<HealthCheckExecutionResult> results = new ArrayList<HealthCheckExecutionResult>(started.size());
+        for(int i = 0; i < started.size(); i++) {
+            results.add(started.get(i).getResult(futures.get(i), deadline, timeoutInMs));
+        }
+        return results;
+    }
+
+    @Override
+    public HealthCheckExecutionStatistics getStatistics(final ServiceReference healthCheckReference) {
+        synchronized (executions) {
+            return executions.get(healthCheckReference.getProperty(Constants.SERVICE_ID));
+        }
+    }
+
+    private HealthCheckExecution getExecution(final ServiceReference ref) {
+        final Long id = (Long)ref.getProperty(Constants.SERVICE_ID);
+        synchronized (executions) {
+            HealthCheckExecution execution = executions.get(id);
+            if(execution == null) {
+                execution = new HealthCheckExecution(ref);
+                executions.put(id, execution);
+            }
+            return execution;
+        }
+    }
+
+    /** The cache TTL configured for the health check or the default one */
+    private long getResultCacheTtlInMs(final ServiceReference ref) {
+        return PropertiesUtil.toLong(ref.getProperty(HealthCheck.RESULT_CACHE_TTL_IN_MS), resultCacheTtlInMs);
+    }
+}
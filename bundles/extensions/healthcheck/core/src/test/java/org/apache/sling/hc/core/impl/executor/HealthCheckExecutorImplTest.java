@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The SF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.apache.sling.hc.core.impl.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.hc.api.HealthCheck;
+import org.apache.sling.hc.api.Result;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.ComponentContext;
+
+public class HealthCheckExecutorImplTest {
+
+    private HealthCheckExecutorImpl executor;
+    private BundleContext bundleContext;
+    private long nextServiceId = 1;
+
+    /** HealthCheck which takes some time to execute */
+    private static class SlowHealthCheck implements HealthCheck {
+        private final long delay;
+        private final AtomicInteger executions = new AtomicInteger();
+
+        SlowHealthCheck(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public Result execute() {
+            executions.incrementAndGet();
+            try {
+                Thread.sleep(delay);
+            } catch(InterruptedException ignore) {
+                // executor is shutting down
+            }
+            return new Result(Result.Status.OK, "Executed");
+        }
+    }
+
+    /** HealthCheck which executes other health checks, like the CompositeHealthCheck */
+    private class NestingHealthCheck implements HealthCheck {
+        private final List<ServiceReference> refs;
+        private volatile Thread thread;
+
+        NestingHealthCheck(List<ServiceReference> refs) {
+            this.refs = refs;
+        }
+
+        @Override
+        public Result execute() {
+            thread = Thread.currentThread();
+            for(HealthCheckExecutionResult r : executor.execute(refs)) {
+                if(!r.getHealthCheckResult().isOk() || r.hasTimedOut()) {
+                    return r.getHealthCheckResult();
+                }
+            }
+            return new Result(Result.Status.OK, "Executed");
+        }
+    }
+
+    /** HealthCheck recording the executing thread */
+    private static class ThreadHealthCheck implements HealthCheck {
+        private volatile Thread thread;
+
+        @Override
+        public Result execute() {
+            thread = Thread.currentThread();
+            return new Result(Result.Status.OK, "Executed");
+        }
+    }
+
+    private ServiceReference register(HealthCheck hc, Long ttl) {
+        final ServiceReference ref = Mockito.mock(ServiceReference.class);
+        Mockito.when(ref.getProperty(Constants.SERVICE_ID)).thenReturn(nextServiceId++);
+        Mockito.when(ref.getProperty(HealthCheck.NAME)).thenReturn("hc" + nextServiceId);
+        Mockito.when(ref.getProperty(HealthCheck.RESULT_CACHE_TTL_IN_MS)).thenReturn(ttl);
+        Mockito.when(bundleContext.getService(ref)).thenReturn(hc);
+        return ref;
+    }
+
+    private void activate(Integer threadPoolSize) {
+        bundleContext = Mockito.mock(BundleContext.class);
+        final ComponentContext ctx = Mockito.mock(ComponentContext.class);
+        final Dictionary<String, Object> props = new Hashtable<String, Object>();
+        props.put(HealthCheckExecutorImpl.PROP_TIMEOUT_IN_MS, 200L);
+        props.put(HealthCheckExecutorImpl.PROP_RESULT_CACHE_TTL_IN_MS, 10000L);
+        if(threadPoolSize != null) {
+            props.put(HealthCheckExecutorImpl.PROP_THREAD_POOL_SIZE, threadPoolSize);
+        }
+        Mockito.when(ctx.getProperties()).thenReturn(props);
+        Mockito.when(ctx.getBundleContext()).thenReturn(bundleContext);
+        executor = new HealthCheckExecutorImpl();
+        executor.activate(ctx);
+    }
+
+    @Before
+    public void setup() {
+        activate(null);
+    }
+
+    @After
+    public void cleanup() {
+        executor.deactivate();
+    }
+
+    @Test
+    public void testParallelExecution() {
+        final List<ServiceReference> refs = Arrays.asList(
+                register(new SlowHealthCheck(100), null),
+                register(new SlowHealthCheck(100), null),
+                register(new SlowHealthCheck(100), null));
+        final long start = System.currentTimeMillis();
+        final List<HealthCheckExecutionResult> results = executor.execute(refs);
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(3, results.size());
+        for(HealthCheckExecutionResult r : results) {
+            assertTrue(r.getHealthCheckResult().isOk());
+            assertFalse(r.hasTimedOut());
+        }
+        assertTrue("Expecting parallel execution, took " + elapsed + "ms", elapsed < 200);
+    }
+
+    @Test
+    public void testResultCache() {
+        final SlowHealthCheck cached = new SlowHealthCheck(0);
+        final SlowHealthCheck notCached = new SlowHealthCheck(0);
+        final ServiceReference cachedRef = register(cached, null);
+        final ServiceReference notCachedRef = register(notCached, 0L);
+
+        final HealthCheckExecutionResult first = executor.execute(Collections.singletonList(cachedRef)).get(0);
+        executor.execute(Arrays.asList(cachedRef, notCachedRef));
+        executor.execute(Arrays.asList(cachedRef, notCachedRef));
+
+        assertEquals(1, cached.executions.get());
+        assertEquals(2, notCached.executions.get());
+        assertSame(first, executor.execute(Collections.singletonList(cachedRef)).get(0));
+        assertEquals(1, executor.getStatistics(cachedRef).getExecutionCount());
+        assertEquals(2, executor.getStatistics(notCachedRef).getExecutionCount());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final SlowHealthCheck hanging = new SlowHealthCheck(1000);
+        final ServiceReference ref = register(hanging, null);
+
+        long start = System.currentTimeMillis();
+        HealthCheckExecutionResult r = executor.execute(Collections.singletonList(ref)).get(0);
+        assertTrue("Expecting timeout", r.hasTimedOut());
+        assertEquals(Result.Status.CRITICAL, r.getHealthCheckResult().getStatus());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        // the running execution is not started again
+        r = executor.execute(Collections.singletonList(ref)).get(0);
+        assertTrue(r.hasTimedOut());
+        assertEquals(1, hanging.executions.get());
+        assertEquals(1, executor.getStatistics(ref).getTimeoutCount());
+
+        // once finished, the result is available
+        Thread.sleep(1000);
+        r = executor.execute(Collections.singletonList(ref)).get(0);
+        assertEquals(Result.Status.OK, r.getHealthCheckResult().getStatus());
+        assertEquals(1, executor.getStatistics(ref).getExecutionCount());
+    }
+
+    @Test
+    public void testLastResultWhileRefreshing() throws Exception {
+        final SlowHealthCheck slow = new SlowHealthCheck(100);
+        final ServiceReference ref = register(slow, 0L);
+        final HealthCheckExecutionResult first = executor.execute(Collections.singletonList(ref)).get(0);
+        assertFalse(first.hasTimedOut());
+
+        // start a refresh in the background
+        final Thread t = new Thread() {
+            @Override
+            public void run() {
+                executor.execute(Collections.singletonList(ref));
+            }
+        };
+        t.start();
+        Thread.sleep(30);
+
+        final long start = System.currentTimeMillis();
+        assertSame(first, executor.execute(Collections.singletonList(ref)).get(0));
+        assertTrue(System.currentTimeMillis() - start < 100);
+        t.join();
+        assertEquals(2, slow.executions.get());
+    }
+
+    @Test
+    public void testNestedExecution() {
+        // the nested health checks would wait for the two busy pool
+        // threads until the timeout if they were queued
+        executor.deactivate();
+        activate(2);
+        final ThreadHealthCheck inner = new ThreadHealthCheck();
+        final List<ServiceReference> innerRefs = Arrays.asList(
+                register(inner, null), register(new SlowHealthCheck(0), null));
+        final NestingHealthCheck first = new NestingHealthCheck(innerRefs);
+        final NestingHealthCheck second = new NestingHealthCheck(innerRefs.subList(1, 2));
+        final List<HealthCheckExecutionResult> results = executor.execute(Arrays.asList(
+                register(first, null), register(second, null)));
+
+        for(HealthCheckExecutionResult r : results) {
+            assertTrue(r.getHealthCheckResult().isOk());
+            assertFalse(r.hasTimedOut());
+        }
+        assertNotSame(Thread.currentThread(), first.thread);
+        assertSame(first.thread, inner.thread);
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.sling.hc.jmx.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +46,8 @@ import javax.management.openmbean.TabularType;
 import org.apache.sling.hc.api.HealthCheck;
 import org.apache.sling.hc.api.Result;
 import org.apache.sling.hc.api.ResultLog;
+import org.apache.sling.hc.api.execution.HealthCheckExecutionStatistics;
+import org.apache.sling.hc.api.execution.HealthCheckExecutor;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceReference;
 
@@ -58,6 +61,12 @@ public class HealthCheckMBean implements DynamicMBean {
     public static final String HC_STATUS_ATTRIBUTE_NAME = "status";
     public static final String HC_LOG_ATTRIBUTE_NAME = "log";
 
+    public static final String HC_EXECUTION_COUNT_ATTRIBUTE_NAME = "executionCount";
+    public static final String HC_TIMEOUT_COUNT_ATTRIBUTE_NAME = "timeoutCount";
+    public static final String HC_LAST_EXECUTION_TIME_ATTRIBUTE_NAME = "lastExecutionTimeInMs";
+    public static final String HC_AVERAGE_EXECUTION_TIME_ATTRIBUTE_NAME = "averageExecutionTimeInMs";
+    public static final String HC_MAX_EXECUTION_TIME_ATTRIBUTE_NAME = "maxExecutionTimeInMs";
+
     private static CompositeType LOG_ROW_TYPE;
     private static TabularType LOG_TABLE_TYPE;
 
@@ -71,6 +80,12 @@ public class HealthCheckMBean implements DynamicMBean {
     /** The health check service to call. */
     private final HealthCheck healthCheck;
 
+    /** The reference to the health check service. */
+    private final ServiceReference healthCheckReference;
+
+    /** The executor for the health check, if any. */
+    private final HealthCheckExecutor healthCheckExecutor;
+
     /** The mbean info. */
     private final MBeanInfo mbeanInfo;
 
@@ -99,7 +114,18 @@ public class HealthCheckMBean implements DynamicMBean {
     }
 
     public HealthCheckMBean(final ServiceReference ref, final HealthCheck hc) {
+        this(ref, hc, null);
+    }
+
+    /**
+     * Create an mbean executing the health check with the executor, which
+     * also provides the execution statistics. If the executor is
+     * <code>null</code> the health check is called directly.
+     */
+    public HealthCheckMBean(final ServiceReference ref, final HealthCheck hc, final HealthCheckExecutor executor) {
         this.healthCheck = hc;
+        this.healthCheckReference = ref;
+        this.healthCheckExecutor = executor;
         this.mbeanInfo = this.createMBeanInfo(ref);
         this.defaultAttributes = this.createDefaultAttributes(ref);
     }
@@ -140,6 +166,8 @@ public class HealthCheckMBean implements DynamicMBean {
                 final Object defaultValue = this.defaultAttributes.get(key);
                 if ( defaultValue != null ) {
                     result.add(new Attribute(key, defaultValue));
+                } else if ( this.isStatisticsAttribute(key) ) {
+                    result.add(new Attribute(key, this.getStatisticsValue(key)));
                 } else {
                     // we assume that a valid attribute name is used
                     // which is requesting a hc result
@@ -188,6 +216,15 @@ public class HealthCheckMBean implements DynamicMBean {
 
         attrs.add(new OpenMBeanAttributeInfoSupport(HC_LOG_ATTRIBUTE_NAME, "The health check result log", LOG_TABLE_TYPE, true, false, false));
 
+        // add execution statistics
+        if ( this.healthCheckExecutor != null ) {
+            attrs.add(new MBeanAttributeInfo(HC_EXECUTION_COUNT_ATTRIBUTE_NAME, Long.class.getName(), "The number of executions of the health check", true, false, false));
+            attrs.add(new MBeanAttributeInfo(HC_TIMEOUT_COUNT_ATTRIBUTE_NAME, Long.class.getName(), "The number of executions exceeding the timeout", true, false, false));
+            attrs.add(new MBeanAttributeInfo(HC_LAST_EXECUTION_TIME_ATTRIBUTE_NAME, Long.class.getName(), "The time of the last execution in ms", true, false, false));
+            attrs.add(new MBeanAttributeInfo(HC_AVERAGE_EXECUTION_TIME_ATTRIBUTE_NAME, Long.class.getName(), "The average execution time in ms", true, false, false));
+            attrs.add(new MBeanAttributeInfo(HC_MAX_EXECUTION_TIME_ATTRIBUTE_NAME, Long.class.getName(), "The maximum execution time in ms", true, false, false));
+        }
+
         final String description;
         if ( serviceReference.getProperty(Constants.SERVICE_DESCRIPTION) != null ) {
             description = serviceReference.getProperty(Constants.SERVICE_DESCRIPTION).toString();
@@ -249,7 +286,37 @@ public class HealthCheckMBean implements DynamicMBean {
         return "HealthCheckMBean [healthCheck=" + healthCheck + "]";
     }
 
+    private boolean isStatisticsAttribute(final String key) {
+        return this.healthCheckExecutor != null
+                && (HC_EXECUTION_COUNT_ATTRIBUTE_NAME.equals(key)
+                    || HC_TIMEOUT_COUNT_ATTRIBUTE_NAME.equals(key)
+                    || HC_LAST_EXECUTION_TIME_ATTRIBUTE_NAME.equals(key)
+                    || HC_AVERAGE_EXECUTION_TIME_ATTRIBUTE_NAME.equals(key)
+                    || HC_MAX_EXECUTION_TIME_ATTRIBUTE_NAME.equals(key));
+    }
+
+    private Long getStatisticsValue(final String key) {
+        final HealthCheckExecutionStatistics stats = this.healthCheckExecutor.getStatistics(this.healthCheckReference);
+        if ( stats == null ) {
+            // not executed yet
+            return 0L;
+        } else if ( HC_EXECUTION_COUNT_ATTRIBUTE_NAME.equals(key) ) {
+            return stats.getExecutionCount();
+        } else if ( HC_TIMEOUT_COUNT_ATTRIBUTE_NAME.equals(key) ) {
+            return stats.getTimeoutCount();
+        } else if ( HC_LAST_EXECUTION_TIME_ATTRIBUTE_NAME.equals(key) ) {
+            return stats.getLastExecutionTimeInMs();
+        } else if ( HC_AVERAGE_EXECUTION_TIME_ATTRIBUTE_NAME.equals(key) ) {
+            return stats.getAverageExecutionTimeInMs();
+        }
+        return stats.getMaxExecutionTimeInMs();
+    }
+
     private Result getHealthCheckResult() {
+        if ( this.healthCheckExecutor != null ) {
+            // the executor takes care of caching the result
+            return this.healthCheckExecutor.execute(Collections.singletonList(this.healthCheckReference)).get(0).getHealthCheckResult();
+        }
         synchronized ( this ) {
             if ( this.healthCheckResult == null || this.healthCheckInvocationTime < System.currentTimeMillis() ) {
                 this.healthCheckResult = this.healthCheck.execute();
@@ -55,6 +55,20 @@ public abstract class ImportOptions {
 		return true;
 	}
 
+	/**
+	 * Specifies after how many created nodes the pending changes are saved
+	 * during the import. Saving regularly keeps the transient space and
+	 * thus the memory required for importing large content bounded, but the
+	 * import is not atomic anymore.
+	 * @return the number of nodes after which the changes are saved, 0 to
+	 *         save the changes only at the end of the import or a negative
+	 *         value to use the default of the importer
+	 * @since 2.1.7
+	 */
+	public long getAutoSaveThreshold() {
+		return -1;
+	}
+
 	/**
 	 * Check if the import provider for the given file extension should
 	 * be ignored.
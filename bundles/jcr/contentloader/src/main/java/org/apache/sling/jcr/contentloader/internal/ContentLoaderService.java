@@ -37,6 +37,7 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.sling.commons.mime.MimeTypeService;
+import org.apache.sling.commons.osgi.OsgiUtil;
 import org.apache.sling.engine.SlingSettingsService;
 import org.apache.sling.jcr.api.SlingRepository;
 import org.osgi.framework.Bundle;
@@ -58,7 +59,8 @@ import org.slf4j.LoggerFactory;
 @Component(metatype=false)
 @Properties({
     @Property(name="service.vendor", value="The Apache Software Foundation"),
-    @Property(name="service.description", value="Apache Sling Content Loader Implementation")
+    @Property(name="service.description", value="Apache Sling Content Loader Implementation"),
+    @Property(name=ContentLoaderService.PROPERTY_LOADER_THREADS, intValue=ContentLoaderService.DEFAULT_LOADER_THREADS)
 })
 public class ContentLoaderService implements SynchronousBundleListener, JcrContentHelper {
 
@@ -68,6 +70,16 @@ public class ContentLoaderService implements SynchronousBundleListener, JcrConte
     private static final String PROPERTY_CONTENT_UNLOADED_AT = "content-unload-time";
     private static final String PROPERTY_CONTENT_UNLOADED_BY = "content-unloaded-by";
     public static final String PROPERTY_UNINSTALL_PATHS = "uninstall-paths";
+    public static final String PROPERTY_CONTENT_HASHES = "content-hashes";
+
+    /**
+     * The maximum number of threads used to load independent content roots
+     * of a bundle in parallel. A value of 1 loads all content in the thread
+     * delivering the bundle event.
+     */
+    public static final String PROPERTY_LOADER_THREADS = "loader.threads";
+
+    public static final int DEFAULT_LOADER_THREADS = 4;
 
     public static final String BUNDLE_CONTENT_NODE = "/var/sling/bundle-content";
 
@@ -210,7 +222,8 @@ public class ContentLoaderService implements SynchronousBundleListener, JcrConte
     /** Activates this component, called by SCR before registering as a service */
     protected void activate(ComponentContext componentContext) {
         this.slingId = this.settingsService.getSlingId();
-        this.initialContentLoader = new Loader(this);
+        this.initialContentLoader = new Loader(this,
+            OsgiUtil.toInteger(componentContext.getProperties().get(PROPERTY_LOADER_THREADS), DEFAULT_LOADER_THREADS));
 
         componentContext.getBundleContext().addBundleListener(this);
 
@@ -350,13 +363,54 @@ public class ContentLoaderService implements SynchronousBundleListener, JcrConte
             }
             info.put(ContentLoaderService.PROPERTY_UNINSTALL_PATHS, s);
         }
+        final String[] hashes = getContentHashes(bcNode);
+        if ( hashes != null ) {
+            info.put(ContentLoaderService.PROPERTY_CONTENT_HASHES, hashes);
+        }
         return info;
     }
 
+    /**
+     * Return the content hashes of the path entries of the bundle whose content
+     * is currently loaded without locking the bundle content info.
+     * @param session
+     * @param bundle
+     * @return The content hashes or null if the content is not loaded.
+     * @throws RepositoryException
+     */
+    public String[] getLoadedContentHashes(final Session session, final Bundle bundle)
+    throws RepositoryException {
+        final String nodeName = bundle.getSymbolicName();
+        final Node parentNode = (Node)session.getItem(BUNDLE_CONTENT_NODE);
+        if ( !parentNode.hasNode(nodeName) ) {
+            return null;
+        }
+        final Node bcNode = parentNode.getNode(nodeName);
+        if ( !bcNode.hasProperty(ContentLoaderService.PROPERTY_CONTENT_LOADED)
+             || !bcNode.getProperty(ContentLoaderService.PROPERTY_CONTENT_LOADED).getBoolean() ) {
+            return null;
+        }
+        return getContentHashes(bcNode);
+    }
+
+    private String[] getContentHashes(final Node bcNode)
+    throws RepositoryException {
+        if ( bcNode.hasProperty(ContentLoaderService.PROPERTY_CONTENT_HASHES) ) {
+            final Value[] values = bcNode.getProperty(PROPERTY_CONTENT_HASHES).getValues();
+            final String[] s = new String[values.length];
+            for(int i=0; i<values.length; i++) {
+                s[i] = values[i].getString();
+            }
+            return s;
+        }
+        return null;
+    }
+
     public void unlockBundleContentInfo(final Session session,
                                         final Bundle  bundle,
                                         final boolean contentLoaded,
-                                        final List<String> createdNodes)
+                                        final List<String> createdNodes,
+                                        final String[] contentHashes)
     throws RepositoryException {
         final String nodeName = bundle.getSymbolicName();
         final Node parentNode = (Node)session.getItem(BUNDLE_CONTENT_NODE);
@@ -370,6 +424,14 @@ public class ContentLoaderService implements SynchronousBundleListener, JcrConte
             if ( createdNodes != null && createdNodes.size() > 0 ) {
                 bcNode.setProperty(PROPERTY_UNINSTALL_PATHS, createdNodes.toArray(new String[createdNodes.size()]));
             }
+            if ( contentHashes != null ) {
+                bcNode.setProperty(PROPERTY_CONTENT_HASHES, contentHashes);
+            }
+            bcNode.save();
+        } else if ( createdNodes != null && createdNodes.size() > 0 ) {
+            // some content has been saved before loading failed, keep its
+            // nodes so that they are removed on uninstall
+            bcNode.setProperty(PROPERTY_UNINSTALL_PATHS, createdNodes.toArray(new String[createdNodes.size()]));
             bcNode.save();
         }
         bcNode.unlock();
@@ -386,6 +448,7 @@ public class ContentLoaderService implements SynchronousBundleListener, JcrConte
                 bcNode.setProperty(PROPERTY_CONTENT_UNLOADED_AT, Calendar.getInstance());
                 bcNode.setProperty(PROPERTY_CONTENT_UNLOADED_BY, this.slingId);
                 bcNode.setProperty(PROPERTY_UNINSTALL_PATHS, (String[])null);
+                bcNode.setProperty(PROPERTY_CONTENT_HASHES, (String[])null);
                 bcNode.save();
             }
         } catch (RepositoryException re) {
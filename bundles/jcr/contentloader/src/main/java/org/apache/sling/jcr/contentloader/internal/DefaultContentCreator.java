@@ -57,6 +57,7 @@ import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.Value;
 import javax.jcr.ValueFactory;
+import javax.jcr.nodetype.ConstraintViolationException;
 
 /**
  * The <code>ContentLoader</code> creates the nodes and properties.
@@ -103,6 +104,18 @@ public class DefaultContentCreator implements ContentCreator {
 
     /** Optional listener to get notified about changes */
     private ContentImportListener importListener;
+
+    /** Number of created nodes after which the changes are saved, 0 to disable. */
+    private long autoSaveThreshold;
+
+    /** Number of nodes created since the last {@link #init} call. */
+    private long createdNodeCount;
+
+    /** Number of nodes created since the last save. */
+    private long unsavedNodeCount;
+
+    /** Start time of the import for progress reporting. */
+    private long importStart;
     
     /**
      * A one time use seed to randomize the user location.
@@ -144,6 +157,26 @@ public class DefaultContentCreator implements ContentCreator {
         }
         this.createdNodes = createdNodes;
         this.importListener = importListener;
+        this.autoSaveThreshold = Math.max(0, configuration.getAutoSaveThreshold());
+        this.createdNodeCount = 0;
+        this.unsavedNodeCount = 0;
+        this.importStart = System.currentTimeMillis();
+    }
+
+    /**
+     * Set the number of created nodes after which the pending changes are
+     * saved. This overwrites the threshold of the import options.
+     * @param threshold The number of nodes or 0 to only save at the end
+     */
+    public void setAutoSaveThreshold(final long threshold) {
+        this.autoSaveThreshold = Math.max(0, threshold);
+    }
+
+    /**
+     * Get the number of nodes created since this creator has been initialized.
+     */
+    public long getCreatedNodeCount() {
+        return this.createdNodeCount;
     }
 
     /**
@@ -268,6 +301,8 @@ public class DefaultContentCreator implements ContentCreator {
             	checkoutIfNecessary(parentNode);
                 node = parentNode.addNode(name);
                 addNodeToCreatedList(node);
+                this.createdNodeCount++;
+                this.unsavedNodeCount++;
                 if ( this.importListener != null ) {
                 	this.importListener.onCreate(node.getPath());
                 }
@@ -277,6 +312,8 @@ public class DefaultContentCreator implements ContentCreator {
             	checkoutIfNecessary(parentNode);
                 node = parentNode.addNode(name, primaryNodeType);
                 addNodeToCreatedList(node);
+                this.createdNodeCount++;
+                this.unsavedNodeCount++;
                 if ( this.importListener != null ) {
                 	this.importListener.onCreate(node.getPath());
                 }
@@ -480,6 +517,31 @@ public class DefaultContentCreator implements ContentCreator {
         final Node node = this.parentNodeStack.pop();
         // resolve REFERENCE property values pointing to this node
         resolveReferences(node);
+
+        if ( this.autoSaveThreshold > 0 && this.unsavedNodeCount >= this.autoSaveThreshold ) {
+            autoSave(node.getSession());
+        }
+    }
+
+    /**
+     * Save the pending changes of a large import. Saving is only done once a
+     * node is finished, if the content is still not valid (for example a
+     * mandatory child node is created later) saving is postponed to the
+     * next finished node.
+     */
+    private void autoSave(final Session session) throws RepositoryException {
+        try {
+            session.save();
+        } catch (ConstraintViolationException cve) {
+            log.debug("Postponing auto save of imported content: {}", cve.getMessage());
+            return;
+        }
+        this.unsavedNodeCount = 0;
+        if ( log.isInfoEnabled() ) {
+            final long elapsed = Math.max(1, System.currentTimeMillis() - this.importStart);
+            log.info("Imported {} nodes in {} ms ({} nodes/s)",
+                new Object[] {this.createdNodeCount, elapsed, this.createdNodeCount * 1000 / elapsed});
+        }
     }
 
     private void addNodeToCreatedList(Node node) throws RepositoryException {
@@ -22,8 +22,6 @@ import static javax.jcr.ImportUUIDBehavior.*;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.jcr.InvalidSerializedDataException;
 import javax.jcr.Node;
@@ -36,9 +34,11 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.commons.mime.MimeTypeService;
+import org.apache.sling.commons.osgi.OsgiUtil;
 import org.apache.sling.jcr.contentloader.ContentImportListener;
 import org.apache.sling.jcr.contentloader.ContentImporter;
 import org.apache.sling.jcr.contentloader.ImportOptions;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,7 +52,8 @@ import org.slf4j.LoggerFactory;
 @Component(metatype=true, immediate=false, label="%content.import.service.name", description="%content.import.service.description")
 @Properties({
     @Property(name="service.vendor", value="The Apache Software Foundation"),
-    @Property(name="service.description", value="Apache Sling JCR Content Import Service")
+    @Property(name="service.description", value="Apache Sling JCR Content Import Service"),
+    @Property(name=DefaultContentImporter.PROP_AUTO_SAVE_THRESHOLD, longValue=DefaultContentImporter.DEFAULT_AUTO_SAVE_THRESHOLD)
 })
 @Service(ContentImporter.class)
 public class DefaultContentImporter extends BaseImportLoader implements JcrContentHelper, ContentImporter {
@@ -60,6 +61,16 @@ public class DefaultContentImporter extends BaseImportLoader implements JcrConte
     /** default log */
     private final Logger log = LoggerFactory.getLogger(DefaultContentImporter.class);
 
+    public static final String PROP_AUTO_SAVE_THRESHOLD = "autosave.threshold";
+
+    public static final long DEFAULT_AUTO_SAVE_THRESHOLD = 0;
+
+    /**
+     * The number of created nodes after which the changes are saved if not
+     * specified by the import options.
+     */
+    private long autoSaveThreshold = DEFAULT_AUTO_SAVE_THRESHOLD;
+
     /**
      * The MimeTypeService used by the initial content initialContentLoader to
      * resolve MIME types for files to be installed.
@@ -89,8 +100,10 @@ public class DefaultContentImporter extends BaseImportLoader implements JcrConte
         }
 
     	DefaultContentCreator contentCreator = new DefaultContentCreator(this);
-        List<String> createdPaths = new ArrayList<String>();
-        contentCreator.init(importOptions, this.defaultImportProviders, createdPaths, importListener);
+        contentCreator.init(importOptions, this.defaultImportProviders, null, importListener);
+        if (importOptions.getAutoSaveThreshold() < 0) {
+            contentCreator.setAutoSaveThreshold(this.autoSaveThreshold);
+        }
 
         contentCreator.prepareParsing(parent, toPlainName(contentCreator, name));
 
@@ -101,6 +114,7 @@ public class DefaultContentImporter extends BaseImportLoader implements JcrConte
 		//save changes
         Session session = parent.getSession();
 		session.save();
+        log.debug("Imported {} nodes below {}", contentCreator.getCreatedNodeCount(), parent.getPath());
 
         // finally checkin versionable nodes
         for (final Node versionable : contentCreator.getVersionables()) {
@@ -111,6 +125,11 @@ public class DefaultContentImporter extends BaseImportLoader implements JcrConte
         }
     }
 
+    protected void activate(final ComponentContext context) {
+        this.autoSaveThreshold = OsgiUtil.toLong(context.getProperties().get(PROP_AUTO_SAVE_THRESHOLD),
+            DEFAULT_AUTO_SAVE_THRESHOLD);
+    }
+
     private String toPlainName(DefaultContentCreator contentCreator, String name) {
         final String providerExt = contentCreator.getImportProviderExtension(name);
         if (providerExt != null) {
@@ -25,15 +25,27 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jcr.InvalidSerializedDataException;
 import javax.jcr.Item;
@@ -55,17 +67,41 @@ public class Loader extends BaseImportLoader {
 
     public static final String PARENT_DESCRIPTOR = "ROOT";
 
+    /** The manifest header of bundles registering node types. */
+    private static final String NODETYPES_HEADER = "Sling-Nodetypes";
+
+    /** The manifest header of bundles registering namespaces. */
+    private static final String NAMESPACES_HEADER = "Sling-Namespaces";
+
     private final Logger log = LoggerFactory.getLogger(Loader.class);
 
     private ContentLoaderService contentLoaderService;
 
     // bundles whose registration failed and should be retried
-    private List<Bundle> delayedBundles;
+    private List<DelayedBundle> delayedBundles;
 
-    public Loader(ContentLoaderService contentLoaderService) {
+    // pool to install independent content roots of a bundle in parallel
+    private ThreadPoolExecutor loaderPool;
+
+    public Loader(ContentLoaderService contentLoaderService, final int loaderThreads) {
         super();
         this.contentLoaderService = contentLoaderService;
-        this.delayedBundles = new LinkedList<Bundle>();
+        this.delayedBundles = new LinkedList<DelayedBundle>();
+        if (loaderThreads > 1) {
+            // the thread installing the bundle installs one content root
+            // itself, if all pool threads are busy it installs the others, too
+            this.loaderPool = new ThreadPoolExecutor(0, loaderThreads - 1, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    public Thread newThread(final Runnable r) {
+                        final Thread t = new Thread(r, "Sling Content Loader #" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
     }
 
     public void dispose() {
@@ -73,6 +109,10 @@ public class Loader extends BaseImportLoader {
             delayedBundles.clear();
             delayedBundles = null;
         }
+        if (loaderPool != null) {
+            loaderPool.shutdown();
+            loaderPool = null;
+        }
         contentLoaderService = null;
         super.dispose();
     }
@@ -87,31 +127,103 @@ public class Loader extends BaseImportLoader {
     public void registerBundle(final Session metadataSession, final Bundle bundle, final boolean isUpdate) throws RepositoryException {
 
         // if this is an update, we have to uninstall the old content first
+        // unless the content provided by the bundle did not change at all
+        boolean reinstall = isUpdate;
         if (isUpdate) {
-            this.unregisterBundle(metadataSession, bundle);
+            if (isContentUnchanged(metadataSession, bundle)) {
+                log.info("Content of updated bundle {} is unchanged.", bundle.getSymbolicName());
+                reinstall = false;
+            } else {
+                this.unregisterBundle(metadataSession, bundle);
+            }
         }
 
         log.debug("Registering bundle {} for content loading.", bundle.getSymbolicName());
 
-        if (registerBundleInternal(metadataSession, bundle, false, isUpdate)) {
+        if (registerBundleInternal(metadataSession, bundle, false, reinstall)) {
             // handle delayed bundles, might help now
-            int currentSize = -1;
-            for (int i = delayedBundles.size(); i > 0 && currentSize != delayedBundles.size() && !delayedBundles.isEmpty(); i--) {
-                for (Iterator<Bundle> di = delayedBundles.iterator(); di.hasNext(); ) {
-                    Bundle delayed = di.next();
-                    if (registerBundleInternal(metadataSession, delayed, true, false)) {
-                        di.remove();
+            retryDelayedBundles(metadataSession, bundle);
+        } else if (!isUpdate) {
+            // add to delayed bundles - if this is not an update!
+            delayedBundles.add(new DelayedBundle(bundle));
+        }
+    }
+
+    /**
+     * Retry the delayed bundles which might depend on the given bundle. Each
+     * bundle whose content is loaded by the retry might in turn help other
+     * delayed bundles, so the loaded bundles are processed as a work list and
+     * a delayed bundle is first only retried for the bundles it might depend
+     * on. As not every dependency is detected this way, all delayed bundles
+     * which have not been retried since the last bundle was loaded are
+     * retried once the work list is empty.
+     */
+    private void retryDelayedBundles(final Session metadataSession, final Bundle bundle) {
+        final LinkedList<Bundle> loaded = new LinkedList<Bundle>();
+        loaded.add(bundle);
+        // the delayed bundles which failed since the last bundle was loaded
+        final Set<DelayedBundle> failed = new HashSet<DelayedBundle>();
+        while (!delayedBundles.isEmpty()) {
+            if (loaded.isEmpty()) {
+                for (Iterator<DelayedBundle> di = delayedBundles.iterator(); di.hasNext(); ) {
+                    final DelayedBundle delayed = di.next();
+                    if (!failed.contains(delayed)) {
+                        retryDelayedBundle(metadataSession, delayed, di, loaded, failed);
                     }
                 }
-                currentSize = delayedBundles.size();
+                if (loaded.isEmpty()) {
+                    break;
+                }
             }
-        } else if (!isUpdate) {
-            // add to delayed bundles - if this is not an update!
-            delayedBundles.add(bundle);
+            final DelayedBundle provider = new DelayedBundle(loaded.removeFirst());
+            for (Iterator<DelayedBundle> di = delayedBundles.iterator(); di.hasNext(); ) {
+                final DelayedBundle delayed = di.next();
+                if (delayed.dependsOn(provider)) {
+                    retryDelayedBundle(metadataSession, delayed, di, loaded, failed);
+                }
+            }
+        }
+    }
+
+    private void retryDelayedBundle(final Session metadataSession,
+            final DelayedBundle delayed,
+            final Iterator<DelayedBundle> di,
+            final List<Bundle> loaded,
+            final Set<DelayedBundle> failed) {
+        if (registerBundleInternal(metadataSession, delayed.bundle, true, false)) {
+            di.remove();
+            loaded.add(delayed.bundle);
+            failed.clear();
+        } else {
+            failed.add(delayed);
         }
     }
 
-    private boolean registerBundleInternal(final Session metadataSession, final Bundle bundle, final boolean isRetry, final boolean isUpdate) {
+    /**
+     * Checks whether the content hashes of all path entries of the bundle are
+     * the same as the ones of the currently loaded content.
+     */
+    private boolean isContentUnchanged(final Session metadataSession, final Bundle bundle) throws RepositoryException {
+        final Iterator<PathEntry> pathIter = PathEntry.getContentPaths(bundle);
+        if (pathIter == null) {
+            return false;
+        }
+        contentLoaderService.createRepositoryPath(metadataSession, ContentLoaderService.BUNDLE_CONTENT_NODE);
+        final String[] loadedHashes = contentLoaderService.getLoadedContentHashes(metadataSession, bundle);
+        if (loadedHashes == null) {
+            return false;
+        }
+        final Set<String> hashes = new HashSet<String>(Arrays.asList(loadedHashes));
+        while (pathIter.hasNext()) {
+            final String hash = pathIter.next().getContentHash(bundle);
+            if (hash == null || !hashes.contains(hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean registerBundleInternal(final Session metadataSession, final Bundle bundle, final boolean isRetry, final boolean isUpdate) {
 
         // check if bundle has initial content
         final Iterator<PathEntry> pathIter = PathEntry.getContentPaths(bundle);
@@ -133,6 +245,8 @@ public class Loader extends BaseImportLoader {
 
             boolean success = false;
             List<String> createdNodes = null;
+            // the hashes are only computed if content is installed, otherwise the loaded ones are kept
+            String[] contentHashes = null;
             try {
                 final boolean contentAlreadyLoaded = ((Boolean) bundleContentInfo.get(ContentLoaderService.PROPERTY_CONTENT_LOADED)).booleanValue();
                 boolean isBundleUpdated = false;
@@ -146,7 +260,39 @@ public class Loader extends BaseImportLoader {
                 if (!isUpdate && !isBundleUpdated && contentAlreadyLoaded) {
                     log.info("Content of bundle already loaded {}.", bundle.getSymbolicName());
                 } else {
-                    createdNodes = installContent(metadataSession, bundle, pathIter, contentAlreadyLoaded);
+                    final List<PathEntry> pathEntries = new ArrayList<PathEntry>();
+                    final List<String> hashes = new ArrayList<String>();
+                    while (pathIter.hasNext()) {
+                        final PathEntry pathEntry = pathIter.next();
+                        pathEntries.add(pathEntry);
+                        final String hash = pathEntry.getContentHash(bundle);
+                        if (hash != null) {
+                            hashes.add(hash);
+                        }
+                    }
+                    contentHashes = hashes.toArray(new String[hashes.size()]);
+                    if (contentAlreadyLoaded) {
+                        // skip the entries whose content has been loaded before
+                        final String[] loadedHashes = (String[]) bundleContentInfo.get(ContentLoaderService.PROPERTY_CONTENT_HASHES);
+                        if (loadedHashes != null) {
+                            final Set<String> loaded = new HashSet<String>(Arrays.asList(loadedHashes));
+                            for (final Iterator<PathEntry> i = pathEntries.iterator(); i.hasNext(); ) {
+                                final PathEntry pathEntry = i.next();
+                                if (loaded.contains(pathEntry.getContentHash(bundle))) {
+                                    log.debug("Content of {} in bundle {} is unchanged.", pathEntry.getPath(), bundle.getSymbolicName());
+                                    i.remove();
+                                }
+                            }
+                        }
+                    }
+                    try {
+                        createdNodes = installContent(metadataSession, bundle, pathEntries, contentAlreadyLoaded,
+                            (String[]) bundleContentInfo.get(ContentLoaderService.PROPERTY_UNINSTALL_PATHS));
+                    } catch (PartialContentException pce) {
+                        // remember the nodes of the content which has been saved
+                        createdNodes = pce.getCreatedNodes();
+                        throw pce;
+                    }
                     if (isRetry) {
                         // log success of retry
                         log.info("Retrying to load initial content for bundle {} succeeded.", bundle.getSymbolicName());
@@ -156,7 +302,8 @@ public class Loader extends BaseImportLoader {
                 success = true;
                 return true;
             } finally {
-                contentLoaderService.unlockBundleContentInfo(metadataSession, bundle, success, createdNodes);
+                contentLoaderService.unlockBundleContentInfo(metadataSession, bundle, success, createdNodes,
+                    contentHashes);
             }
 
         } catch (RepositoryException re) {
@@ -176,50 +323,279 @@ public class Loader extends BaseImportLoader {
      */
     public void unregisterBundle(final Session session, final Bundle bundle) {
 
-        if (delayedBundles.contains(bundle)) {
-            delayedBundles.remove(bundle);
-        } else {
-            try {
-                contentLoaderService.createRepositoryPath(session, ContentLoaderService.BUNDLE_CONTENT_NODE);
+        for (Iterator<DelayedBundle> di = delayedBundles.iterator(); di.hasNext(); ) {
+            if (di.next().bundle == bundle) {
+                di.remove();
+                return;
+            }
+        }
 
-                final Map<String, Object> bundleContentInfo = contentLoaderService.getBundleContentInfo(session, bundle, false);
+        try {
+            contentLoaderService.createRepositoryPath(session, ContentLoaderService.BUNDLE_CONTENT_NODE);
 
-                // if we don't get an info, someone else is currently loading or unloading
-                // or the bundle is already uninstalled
-                if (bundleContentInfo == null) {
-                    return;
-                }
+            final Map<String, Object> bundleContentInfo = contentLoaderService.getBundleContentInfo(session, bundle, false);
 
-                try {
-                    uninstallContent(session, bundle, (String[]) bundleContentInfo.get(ContentLoaderService.PROPERTY_UNINSTALL_PATHS));
-                    contentLoaderService.contentIsUninstalled(session, bundle);
-                } finally {
-                    contentLoaderService.unlockBundleContentInfo(session, bundle, false, null);
-                }
-            } catch (RepositoryException re) {
-                log.error("Cannot remove initial content for bundle " + bundle.getSymbolicName() + " : " + re.getMessage(), re);
+            // if we don't get an info, someone else is currently loading or unloading
+            // or the bundle is already uninstalled
+            if (bundleContentInfo == null) {
+                return;
             }
+
+            try {
+                uninstallContent(session, bundle, (String[]) bundleContentInfo.get(ContentLoaderService.PROPERTY_UNINSTALL_PATHS));
+                contentLoaderService.contentIsUninstalled(session, bundle);
+            } finally {
+                contentLoaderService.unlockBundleContentInfo(session, bundle, false, null, null);
+            }
+        } catch (RepositoryException re) {
+            log.error("Cannot remove initial content for bundle " + bundle.getSymbolicName() + " : " + re.getMessage(), re);
         }
     }
 
     // ---------- internal -----------------------------------------------------
 
     /**
-     * Install the content from the bundle.
+     * Install the content from the bundle. Path entries whose target nodes
+     * don't overlap are installed in parallel, each with its own sessions,
+     * otherwise all entries are saved at once.
      *
      * @return If the content should be removed on uninstall, a list of top nodes
+     * @throws PartialContentException If the content of some entries has been
+     *         saved before the installation of other entries failed
      */
-    private List<String> installContent(final Session defaultSession, final Bundle bundle, final Iterator<PathEntry> pathIter, final boolean contentAlreadyLoaded) throws RepositoryException {
+    List<String> installContent(final Session defaultSession,
+            final Bundle bundle,
+            final List<PathEntry> pathEntries,
+            final boolean contentAlreadyLoaded,
+            final String[] uninstallPaths) throws RepositoryException {
 
         final List<String> createdNodes = new ArrayList<String>();
-        final Map<String, Session> createdSessions = new HashMap<String, Session>();
+        if (uninstallPaths != null) {
+            // keep the nodes created by the entries which are not reinstalled
+            // and the ones saved by a previous attempt which failed
+            createdNodes.addAll(Arrays.asList(uninstallPaths));
+        }
 
         log.debug("Installing initial content from bundle {}", bundle.getSymbolicName());
-        final DefaultContentCreator contentCreator = new DefaultContentCreator(this.contentLoaderService);
-        try {
-            while (pathIter.hasNext()) {
-                final PathEntry pathEntry = pathIter.next();
-                if (!contentAlreadyLoaded || pathEntry.isOverwrite()) {
+        final List<PathEntry> installEntries = new ArrayList<PathEntry>();
+        final List<ContentRoot> roots = new ArrayList<ContentRoot>();
+        for (final PathEntry pathEntry : pathEntries) {
+            if (!contentAlreadyLoaded || pathEntry.isOverwrite()) {
+                installEntries.add(pathEntry);
+                addContentRoot(roots, pathEntry);
+            }
+        }
+        // merged roots install their entries in manifest order
+        for (final ContentRoot root : roots) {
+            Collections.sort(root.entries, new Comparator<PathEntry>() {
+
+                public int compare(final PathEntry a, final PathEntry b) {
+                    return pathEntries.indexOf(a) - pathEntries.indexOf(b);
+                }
+            });
+        }
+
+        if (roots.size() > 1 && loaderPool != null) {
+            // create the target nodes upfront, otherwise the roots would
+            // concurrently create common parent nodes
+            for (final ContentRoot root : roots) {
+                if (root.workspace == null) {
+                    getTargetNode(defaultSession, root.target);
+                }
+            }
+            defaultSession.save();
+
+            final List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+            for (final ContentRoot root : roots.subList(1, roots.size())) {
+                futures.add(loaderPool.submit(new ContentInstaller(bundle, root.entries, null)));
+            }
+            RepositoryException failure = null;
+            try {
+                createdNodes.addAll(new ContentInstaller(bundle, roots.get(0).entries, defaultSession).call());
+            } catch (RepositoryException re) {
+                failure = re;
+            }
+            for (final Future<List<String>> future : futures) {
+                try {
+                    createdNodes.addAll(future.get());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    failure = new RepositoryException("Interrupted while installing initial content", ie);
+                } catch (ExecutionException ee) {
+                    if (failure == null) {
+                        failure = (ee.getCause() instanceof RepositoryException)
+                            ? (RepositoryException) ee.getCause()
+                            : new RepositoryException(ee.getCause().getMessage(), ee.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                // the roots installed successfully have been saved
+                throw new PartialContentException(failure, optimize(createdNodes));
+            }
+        } else if (!installEntries.isEmpty()) {
+            // a single save, so either all or none of the content is persisted
+            createdNodes.addAll(new ContentInstaller(bundle, installEntries, defaultSession).call());
+        }
+
+        optimize(createdNodes);
+        log.debug("Done installing initial content from bundle {}", bundle.getSymbolicName());
+
+        return createdNodes;
+    }
+
+    /**
+     * Sort the list of created nodes and remove the nodes below other nodes.
+     */
+    private static List<String> optimize(final List<String> createdNodes) {
+        Collections.sort(createdNodes);
+        if (createdNodes.size() > 1) {
+            final Iterator<String> i = createdNodes.iterator();
+            String previous = i.next();
+            while (i.hasNext()) {
+                final String current = i.next();
+                if (current.equals(previous) || current.startsWith(previous + '/')) {
+                    i.remove();
+                } else {
+                    previous = current;
+                }
+            }
+        }
+        return createdNodes;
+    }
+
+    /**
+     * Thrown if installing content failed after some content roots had
+     * already been saved.
+     */
+    static final class PartialContentException extends RepositoryException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> createdNodes;
+
+        PartialContentException(final RepositoryException cause, final List<String> createdNodes) {
+            super(cause.getMessage(), cause);
+            this.createdNodes = createdNodes;
+        }
+
+        /**
+         * The top nodes created by the saved content which should be removed
+         * on uninstall.
+         */
+        List<String> getCreatedNodes() {
+            return createdNodes;
+        }
+    }
+
+    /**
+     * Add the path entry to the content root whose target overlaps with the
+     * target of the entry. If the entry overlaps with more than one root, these
+     * roots are merged. Entries of another workspace all share one root.
+     */
+    private void addContentRoot(final List<ContentRoot> roots, final PathEntry pathEntry) {
+        final ContentRoot entryRoot = new ContentRoot(pathEntry);
+        ContentRoot root = null;
+        for (final Iterator<ContentRoot> i = roots.iterator(); i.hasNext(); ) {
+            final ContentRoot current = i.next();
+            if (current.overlaps(entryRoot)) {
+                if (root == null) {
+                    root = current;
+                } else {
+                    root.merge(current);
+                    i.remove();
+                }
+            }
+        }
+        if (root == null) {
+            roots.add(entryRoot);
+        } else {
+            root.merge(entryRoot);
+        }
+    }
+
+    /**
+     * The path entries of a bundle which have to be installed together as
+     * their target nodes overlap.
+     */
+    private static final class ContentRoot {
+
+        /** The workspace or <code>null</code> for the default workspace. */
+        final String workspace;
+
+        /** The common target path of all entries. */
+        String target;
+
+        /** The path entries in manifest order. */
+        final List<PathEntry> entries = new ArrayList<PathEntry>();
+
+        ContentRoot(final PathEntry pathEntry) {
+            this.workspace = pathEntry.getWorkspace();
+            this.target = getTargetPath(pathEntry);
+            this.entries.add(pathEntry);
+        }
+
+        boolean overlaps(final ContentRoot root) {
+            if (this.workspace != null || root.workspace != null) {
+                return this.workspace != null && this.workspace.equals(root.workspace);
+            }
+            return isAncestorOrSelf(this.target, root.target) || isAncestorOrSelf(root.target, this.target);
+        }
+
+        void merge(final ContentRoot root) {
+            if (isAncestorOrSelf(root.target, this.target)) {
+                this.target = root.target;
+            } else if (!isAncestorOrSelf(this.target, root.target)) {
+                this.target = "/";
+            }
+            this.entries.addAll(root.entries);
+        }
+    }
+
+    static String getTargetPath(final PathEntry pathEntry) {
+        String path = pathEntry.getTarget();
+        if (path == null || path.length() == 0) {
+            return "/";
+        }
+        if (!path.startsWith("/")) {
+            path = "/" + path;
+        }
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    static boolean isAncestorOrSelf(final String ancestor, final String path) {
+        return ancestor.equals("/") || path.equals(ancestor) || path.startsWith(ancestor + '/');
+    }
+
+    /**
+     * Installs path entries and saves them. If no session is given, the
+     * installer uses its own sessions.
+     */
+    private final class ContentInstaller implements Callable<List<String>> {
+
+        private final Bundle bundle;
+
+        private final List<PathEntry> entries;
+
+        private final Session sharedSession;
+
+        ContentInstaller(final Bundle bundle, final List<PathEntry> entries, final Session sharedSession) {
+            this.bundle = bundle;
+            this.entries = entries;
+            this.sharedSession = sharedSession;
+        }
+
+        public List<String> call() throws RepositoryException {
+            final List<String> createdNodes = new ArrayList<String>();
+            final Map<String, Session> createdSessions = new HashMap<String, Session>();
+            final Session defaultSession = (sharedSession != null) ? sharedSession : createSession(null);
+
+            final DefaultContentCreator contentCreator = new DefaultContentCreator(contentLoaderService);
+            try {
+                for (final PathEntry pathEntry : entries) {
                     String workspace = pathEntry.getWorkspace();
                     final Session targetSession;
                     if (workspace != null) {
@@ -239,57 +615,103 @@ public class Loader extends BaseImportLoader {
                         installFromPath(bundle, pathEntry.getPath(), pathEntry, targetNode, pathEntry.isUninstall() ? createdNodes : null, contentCreator);
                     }
                 }
-            }
 
-            // now optimize created nodes list
-            Collections.sort(createdNodes);
-            if (createdNodes.size() > 1) {
-                final Iterator<String> i = createdNodes.iterator();
-                String previous = i.next() + '/';
-                while (i.hasNext()) {
-                    final String current = i.next();
-                    if (current.startsWith(previous)) {
-                        i.remove();
-                    } else {
-                        previous = current + '/';
+                // persist modifications now
+                defaultSession.refresh(true);
+                defaultSession.save();
+
+                for (Session session : createdSessions.values()) {
+                    session.refresh(true);
+                    session.save();
+                }
+
+                // finally check in versionable nodes
+                for (final Node versionable : contentCreator.getVersionables()) {
+                    versionable.checkin();
+                }
+            } finally {
+                try {
+                    if (defaultSession.hasPendingChanges()) {
+                        defaultSession.refresh(false);
+                    }
+                    for (Session session : createdSessions.values()) {
+                        if (session.hasPendingChanges()) {
+                            session.refresh(false);
+                        }
                     }
+                } catch (RepositoryException re) {
+                    log.warn("Failure to rollback partial initial content for bundle {}", bundle.getSymbolicName(), re);
+                }
+                contentCreator.clear();
+                for (Session session : createdSessions.values()) {
+                    session.logout();
+                }
+                if (sharedSession == null) {
+                    defaultSession.logout();
                 }
             }
+            return createdNodes;
+        }
+    }
 
-            // persist modifications now
-            defaultSession.refresh(true);
-            defaultSession.save();
+    /**
+     * A bundle whose registration failed together with the information needed
+     * to find out which other bundles might help loading its content.
+     */
+    private static final class DelayedBundle {
 
-            for (Session session : createdSessions.values()) {
-                session.refresh(true);
-                session.save();
+        final Bundle bundle;
+
+        /** The target paths of the content or null if no content is provided. */
+        final List<String> targets;
+
+        DelayedBundle(final Bundle bundle) {
+            this.bundle = bundle;
+            final Iterator<PathEntry> pathIter = PathEntry.getContentPaths(bundle);
+            if (pathIter == null) {
+                this.targets = null;
+            } else {
+                this.targets = new ArrayList<String>();
+                while (pathIter.hasNext()) {
+                    final PathEntry pathEntry = pathIter.next();
+                    this.targets.add((pathEntry.getWorkspace() == null ? "" : pathEntry.getWorkspace() + ':') + getTargetPath(pathEntry));
+                }
             }
+        }
 
-            // finally check in versionable nodes
-            for (final Node versionable : contentCreator.getVersionables()) {
-                versionable.checkin();
+        /**
+         * Checks whether the content of the provider might be required to load
+         * the content of this bundle. This is the case if the provider registers
+         * node types or namespaces or if the provided content overlaps.
+         */
+        boolean dependsOn(final DelayedBundle provider) {
+            if (provider.bundle.getHeaders().get(NODETYPES_HEADER) != null
+                    || provider.bundle.getHeaders().get(NAMESPACES_HEADER) != null) {
+                return true;
             }
-        } finally {
-            try {
-                if (defaultSession.hasPendingChanges()) {
-                    defaultSession.refresh(false);
-                }
-                for (Session session : createdSessions.values()) {
-                    if (session.hasPendingChanges()) {
-                        session.refresh(false);
+            if (this.targets == null || provider.targets == null) {
+                return false;
+            }
+            for (final String target : this.targets) {
+                for (final String providedTarget : provider.targets) {
+                    if (overlaps(target, providedTarget)) {
+                        return true;
                     }
                 }
-            } catch (RepositoryException re) {
-                log.warn("Failure to rollback partial initial content for bundle {}", bundle.getSymbolicName(), re);
-            }
-            contentCreator.clear();
-            for (Session session : createdSessions.values()) {
-                session.logout();
             }
+            return false;
         }
-        log.debug("Done installing initial content from bundle {}", bundle.getSymbolicName());
 
-        return createdNodes;
+        private static boolean overlaps(final String a, final String b) {
+            final int wsA = a.indexOf(':');
+            final int wsB = b.indexOf(':');
+            if (!a.substring(0, wsA + 1).equals(b.substring(0, wsB + 1))) {
+                return false;
+            }
+            final String pathA = a.substring(wsA + 1);
+            final String pathB = b.substring(wsB + 1);
+            return isAncestorOrSelf(pathA, pathB) || isAncestorOrSelf(pathB, pathA);
+        }
     }
 
     /**
@@ -793,7 +1215,7 @@ public class Loader extends BaseImportLoader {
         return name;
     }
 
-    private Session createSession(String workspace) throws RepositoryException {
+    Session createSession(String workspace) throws RepositoryException {
         try {
             return contentLoaderService.getRepository().loginAdministrative(workspace);
         } catch (NoSuchWorkspaceException e) {
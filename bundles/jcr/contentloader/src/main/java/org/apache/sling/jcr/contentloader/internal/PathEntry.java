@@ -18,7 +18,15 @@
  */
 package org.apache.sling.jcr.contentloader.internal;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -113,6 +121,9 @@ public class PathEntry extends ImportOptions {
 
     private long lastModified;
 
+    /** The hash over the directives and the bundle entries, calculated lazily. */
+    private String contentHash;
+
     public static Iterator<PathEntry> getContentPaths(final Bundle bundle) {
         final List<PathEntry> entries = new ArrayList<PathEntry>();
         String bundleLastModifiedStamp = (String) bundle.getHeaders().get("Bnd-LastModified");
@@ -267,4 +278,102 @@ public class PathEntry extends ImportOptions {
     public String getWorkspace() {
         return workspace;
     }
+
+    /**
+     * Returns a hash over the directives of this entry and the names and
+     * contents of all bundle entries below its path. Two path entries with
+     * the same hash install the same content, which allows to skip entries
+     * whose content has already been loaded from a previous version of the
+     * bundle.
+     *
+     * @param bundle The bundle providing the content
+     * @return The hash as a hex string or <code>null</code> if the content
+     *         of the bundle can't be read.
+     */
+    public String getContentHash(final Bundle bundle) {
+        if (this.contentHash == null) {
+            try {
+                final MessageDigest md = MessageDigest.getInstance("MD5");
+                update(md, this.path);
+                update(md, this.target);
+                update(md, this.workspace);
+                update(md, String.valueOf(this.overwrite));
+                update(md, String.valueOf(this.overwriteProperties));
+                update(md, String.valueOf(this.uninstall));
+                update(md, String.valueOf(this.checkin));
+                update(md, String.valueOf(this.autoCheckout));
+                update(md, this.ignoreImportProviders.toString());
+                digestEntries(md, bundle, this.path);
+
+                final byte[] digest = md.digest();
+                final StringBuilder sb = new StringBuilder(digest.length * 2);
+                for (final byte b : digest) {
+                    sb.append(Character.forDigit((b >> 4) & 15, 16));
+                    sb.append(Character.forDigit(b & 15, 16));
+                }
+                this.contentHash = sb.toString();
+            } catch (NoSuchAlgorithmException nsae) {
+                // MD5 is required to be supported by every platform
+                return null;
+            } catch (IOException ioe) {
+                return null;
+            }
+        }
+        return this.contentHash;
+    }
+
+    private static void digestEntries(final MessageDigest md, final Bundle bundle, final String entryPath)
+    throws IOException {
+        @SuppressWarnings("unchecked")
+        final Enumeration<String> entries = bundle.getEntryPaths(entryPath);
+        if (entries == null) {
+            // single file content
+            digestFile(md, bundle, entryPath);
+            return;
+        }
+
+        // sort the entries to get a stable hash
+        final List<String> names = Collections.list(entries);
+        Collections.sort(names);
+        for (final String name : names) {
+            if (name.endsWith("/")) {
+                update(md, name);
+                if (bundle.getEntryPaths(name) != null) {
+                    digestEntries(md, bundle, name);
+                }
+            } else {
+                digestFile(md, bundle, name);
+            }
+        }
+    }
+
+    private static void digestFile(final MessageDigest md, final Bundle bundle, final String entryPath)
+    throws IOException {
+        final URL url = bundle.getEntry(entryPath);
+        if (url != null) {
+            update(md, entryPath);
+            final InputStream ins = url.openStream();
+            try {
+                final byte[] buffer = new byte[8192];
+                int l;
+                while ((l = ins.read(buffer)) >= 0) {
+                    md.update(buffer, 0, l);
+                }
+            } finally {
+                ins.close();
+            }
+        }
+    }
+
+    private static void update(final MessageDigest md, final String value) {
+        if (value != null) {
+            try {
+                md.update(value.getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException uee) {
+                // UTF-8 is required by the spec
+            }
+        }
+        // separate the values
+        md.update((byte) 0);
+    }
 }
@@ -19,11 +19,15 @@
 package org.apache.sling.jcr.contentloader.internal.readers;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -34,9 +38,12 @@ import javax.jcr.RepositoryException;
 import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONException;
 import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.commons.json.JSONTokener;
 import org.apache.sling.jcr.contentloader.internal.ContentCreator;
 import org.apache.sling.jcr.contentloader.internal.ContentReader;
 import org.apache.sling.jcr.contentloader.internal.ImportProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The <code>JsonReader</code> Parses a Json document on content load and creates the
@@ -86,9 +93,23 @@ import org.apache.sling.jcr.contentloader.internal.ImportProvider;
  *   }
  *
  * </pre>
+ *
+ * Documents larger than {@link #STREAMING_THRESHOLD} characters are not
+ * parsed into a JSON object tree but streamed: nodes are created as soon as
+ * their properties up to the first child node have been read. In this case
+ * the <code>jcr:primaryType</code> and <code>jcr:mixinTypes</code> of a node
+ * must be specified before its child nodes.
  */
 public class JsonReader implements ContentReader {
 
+    /**
+     * Maximum number of characters of documents which are completely read
+     * into memory and parsed into a JSON object tree.
+     */
+    static final int STREAMING_THRESHOLD = 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonReader.class);
+
     private static final Pattern jsonDate = Pattern.compile("^[0-9]{4}-[0-9]{2}-[0-9]{2}T[0-9]{2}:[0-9]{2}:[0-9]{2}\\.[0-9]{3}[-+]{1}[0-9]{2}[:]{0,1}[0-9]{2}$");
     private static final String REFERENCE = "jcr:reference:";
     private static final String PATH = "jcr:path:";
@@ -118,6 +139,9 @@ public class JsonReader implements ContentReader {
     private static final String SECURITY_PRINCIPLES = "security:principals";
     private static final String SECURITY_ACL = "security:acl";
 
+    /** Documents with more characters are streamed. */
+    private final int streamingThreshold;
+
     public static final ImportProvider PROVIDER = new ImportProvider() {
         private JsonReader jsonReader;
 
@@ -129,6 +153,14 @@ public class JsonReader implements ContentReader {
         }
     };
 
+    public JsonReader() {
+        this(STREAMING_THRESHOLD);
+    }
+
+    protected JsonReader(final int streamingThreshold) {
+        this.streamingThreshold = streamingThreshold;
+    }
+
     /**
      * @see org.apache.sling.jcr.contentloader.internal.ContentReader#parse(java.net.URL, org.apache.sling.jcr.contentloader.internal.ContentCreator)
      */
@@ -150,7 +182,26 @@ public class JsonReader implements ContentReader {
 
     public void parse(InputStream ins, ContentCreator contentCreator) throws IOException, RepositoryException {
         try {
-            String jsonString = toString(ins).trim();
+            final BufferedReader reader = new BufferedReader(getReader(ins));
+            reader.mark(streamingThreshold + 1);
+            final StringBuilder sb = new StringBuilder();
+            final char[] buf = new char[1024];
+            int rd;
+            // don't read beyond the mark to be able to reset the reader
+            while (sb.length() <= streamingThreshold
+                   && (rd = reader.read(buf, 0, Math.min(buf.length, streamingThreshold + 1 - sb.length()))) >= 0) {
+                sb.append(buf, 0, rd);
+            }
+
+            if (sb.length() > streamingThreshold) {
+                // large document, create the nodes while parsing
+                reader.reset();
+                sb.setLength(0);
+                this.streamDocument(new Tokenizer(reader), contentCreator);
+                return;
+            }
+
+            String jsonString = sb.toString().trim();
             if (!jsonString.startsWith("{")) {
                 jsonString = "{" + jsonString + "}";
             }
@@ -162,6 +213,126 @@ public class JsonReader implements ContentReader {
         }
     }
 
+    private void streamDocument(final Tokenizer x, final ContentCreator contentCreator)
+    throws JSONException, IOException, RepositoryException {
+        final int c = x.nextClean();
+        if (c == '{') {
+            this.streamNode(null, x, contentCreator, false);
+        } else {
+            // the document is the content of the root object
+            x.back(c);
+            this.streamNode(null, x, contentCreator, true);
+        }
+    }
+
+    /**
+     * Create the node from the object whose opening brace has just been read.
+     * Properties are collected until the first child node, the security
+     * settings or the end of the object is reached and are then created
+     * together with the node.
+     */
+    private void streamNode(final String name, final Tokenizer x, final ContentCreator contentCreator, final boolean implicit)
+    throws JSONException, IOException, RepositoryException {
+        String primaryType = null;
+        String[] mixinTypes = null;
+        final List<String> names = new ArrayList<String>();
+        final List<Object> values = new ArrayList<Object>();
+        boolean created = false;
+
+        int c = x.nextClean();
+        while (!(implicit ? c == Tokenizer.EOF : c == '}')) {
+            if (c == Tokenizer.EOF) {
+                throw new JSONException("A JSONObject text must end with '}'");
+            }
+            x.back(c);
+            final String n = x.nextValue().toString();
+
+            // the key is followed by ':', '=' or '=>'
+            c = x.nextClean();
+            if (c == '=') {
+                c = x.nextClean();
+                if (c != '>') {
+                    x.back(c);
+                }
+            } else if (c != ':') {
+                throw new JSONException("Expected a ':' after key " + n);
+            }
+
+            c = x.nextClean();
+            if ("jcr:primaryType".equals(n) || "jcr:mixinTypes".equals(n)) {
+                x.back(c);
+                final Object o = x.nextValue();
+                if (created) {
+                    logger.warn("Ignoring {} of node {} as it follows its child nodes", n, name);
+                } else if ("jcr:primaryType".equals(n)) {
+                    primaryType = String.valueOf(o);
+                } else if (o instanceof JSONArray) {
+                    final JSONArray mixins = (JSONArray) o;
+                    mixinTypes = new String[mixins.length()];
+                    for (int i = 0; i < mixins.length(); i++) {
+                        mixinTypes[i] = mixins.getString(i);
+                    }
+                }
+            } else if (ignoredNames.contains(n)) {
+                // skip well known objects
+                x.back(c);
+                x.nextRawValue();
+            } else if (c == '{' && !SECURITY_PRINCIPLES.equals(n) && !SECURITY_ACL.equals(n)) {
+                if (!created) {
+                    created = createNode(name, primaryType, mixinTypes, names, values, contentCreator);
+                }
+                this.streamNode(n, x, contentCreator, false);
+            } else {
+                x.back(c);
+                final Object o = x.nextValue();
+                if (SECURITY_PRINCIPLES.equals(n) || SECURITY_ACL.equals(n)) {
+                    if (!created) {
+                        created = createNode(name, primaryType, mixinTypes, names, values, contentCreator);
+                    }
+                    if (SECURITY_PRINCIPLES.equals(n)) {
+                        this.createPrincipals(o, contentCreator);
+                    } else {
+                        this.createAcl(o, contentCreator);
+                    }
+                } else if (created) {
+                    this.createProperty(n, o, contentCreator);
+                } else {
+                    names.add(n);
+                    values.add(o);
+                }
+            }
+
+            // members are separated by ',' or ';'
+            c = x.nextClean();
+            if (c == ',' || c == ';') {
+                c = x.nextClean();
+            } else if (!(implicit ? c == Tokenizer.EOF : c == '}')) {
+                throw new JSONException("Expected a ',' or '}'");
+            }
+        }
+
+        if (!created) {
+            createNode(name, primaryType, mixinTypes, names, values, contentCreator);
+        }
+        contentCreator.finishNode();
+    }
+
+    private boolean createNode(final String name,
+            final String primaryType,
+            final String[] mixinTypes,
+            final List<String> names,
+            final List<Object> values,
+            final ContentCreator contentCreator)
+    throws JSONException, RepositoryException {
+        contentCreator.createNode(name, primaryType, mixinTypes);
+        for (int i = 0; i < names.size(); i++) {
+            this.createProperty(names.get(i), values.get(i), contentCreator);
+        }
+        names.clear();
+        values.clear();
+        return true;
+    }
+
     protected void createNode(String name, JSONObject obj, ContentCreator contentCreator)
     throws JSONException, RepositoryException {
         Object primaryTypeObj = obj.opt("jcr:primaryType");
@@ -254,7 +425,7 @@ public class JsonReader implements ContentReader {
         return name;
     }
 
-    private String toString(InputStream ins) throws IOException {
+    private Reader getReader(InputStream ins) throws IOException {
         if (!ins.markSupported()) {
             ins = new BufferedInputStream(ins);
         }
@@ -274,17 +445,137 @@ public class JsonReader implements ContentReader {
             encoding = "UTF-8";
         }
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
-        int rd;
-        while ( (rd = ins.read(buf)) >= 0) {
-            bos.write(buf, 0, rd);
+        return new InputStreamReader(ins, encoding);
+    }
+
+    /**
+     * Minimal tokenizer reading a JSON document from a reader without
+     * keeping it in memory. Values except objects are read as raw text
+     * and converted by a {@link JSONTokener}, so they are parsed the same
+     * way as in a {@link JSONObject}.
+     */
+    private static final class Tokenizer {
+
+        static final int EOF = -1;
+
+        private final Reader reader;
+
+        /** Pushed back characters, at most two are required. */
+        private final int[] pushback = new int[2];
+
+        private int pushed;
+
+        Tokenizer(final Reader reader) {
+            this.reader = reader;
         }
-        bos.close(); // just to comply with the contract
 
-        return new String(bos.toByteArray(), encoding);
-    }
+        int next() throws IOException {
+            if (pushed > 0) {
+                return pushback[--pushed];
+            }
+            return reader.read();
+        }
+
+        void back(final int c) {
+            pushback[pushed++] = c;
+        }
+
+        /**
+         * Get the next char, skipping whitespace and comments.
+         */
+        int nextClean() throws IOException, JSONException {
+            for (;;) {
+                int c = next();
+                if (c == '/') {
+                    final int n = next();
+                    if (n == '/') {
+                        do {
+                            c = next();
+                        } while (c != '\n' && c != '\r' && c != EOF);
+                    } else if (n == '*') {
+                        int p = 0;
+                        for (c = next(); !(p == '*' && c == '/'); p = c, c = next()) {
+                            if (c == EOF) {
+                                throw new JSONException("Unclosed comment");
+                            }
+                        }
+                    } else {
+                        back(n);
+                        return c;
+                    }
+                } else if (c == '#') {
+                    do {
+                        c = next();
+                    } while (c != '\n' && c != '\r' && c != EOF);
+                } else if (c == EOF || c > ' ') {
+                    return c;
+                }
+            }
+        }
 
+        Object nextValue() throws IOException, JSONException {
+            return new JSONTokener(nextRawValue()).nextValue();
+        }
+
+        /**
+         * Read the text of the next value: a quoted string, an array or
+         * object including all nested values or an unquoted text.
+         */
+        String nextRawValue() throws IOException, JSONException {
+            final StringBuilder sb = new StringBuilder();
+            int c = nextClean();
+            if (c == '"' || c == '\'') {
+                readString(c, sb);
+            } else if (c == '[' || c == '{') {
+                int depth = 0;
+                do {
+                    if (c == EOF) {
+                        throw new JSONException("Unterminated array or object");
+                    }
+                    if (c == '"' || c == '\'') {
+                        readString(c, sb);
+                    } else {
+                        sb.append((char) c);
+                        if (c == '[' || c == '{') {
+                            depth++;
+                        } else if (c == ']' || c == '}') {
+                            depth--;
+                        }
+                    }
+                    if (depth > 0) {
+                        c = next();
+                    }
+                } while (depth > 0);
+            } else {
+                while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
+                    sb.append((char) c);
+                    c = next();
+                }
+                back(c);
+            }
+            return sb.toString();
+        }
+
+        private void readString(final int quote, final StringBuilder sb) throws IOException, JSONException {
+            sb.append((char) quote);
+            for (;;) {
+                final int c = next();
+                if (c == EOF || c == '\n' || c == '\r') {
+                    throw new JSONException("Unterminated string");
+                }
+                sb.append((char) c);
+                if (c == '\\') {
+                    final int e = next();
+                    if (e == EOF) {
+                        throw new JSONException("Unterminated string");
+                    }
+                    sb.append((char) e);
+                } else if (c == quote) {
+                    return;
+                }
+            }
+        }
+    }
 
     /**
      * Create or update one or more user and/or groups
@@ -127,6 +127,9 @@ public class XmlReader implements ContentReader {
 
     private static final String HREF_ATTRIBUTE = "href";
 
+    /** Maximum size of the XML prolog which may contain an XSL stylesheet reference. */
+    private static final int PROLOG_MARK_LIMIT = 1024 * 1024;
+
     private static final String ELEM_FILE_NAMESPACE = "http://www.jcp.org/jcr/nt/1.0";
     private static final String ELEM_FILE_NAME = "file";
 
@@ -201,8 +204,9 @@ public class XmlReader implements ContentReader {
         final StringBuilder contentBuffer = new StringBuilder();
         // Mark the beginning of the stream. We assume that if there's an XSL processing instruction,
         // it will occur in the first gulp - which makes sense, as processing instructions must be
-        // specified before the root element of an XML file.
-        bufferedInput.mark(bufferedInput.available());
+        // specified before the root element of an XML file. The mark is limited to not keep
+        // the whole document in the buffer of the stream when importing large files.
+        bufferedInput.mark(PROLOG_MARK_LIMIT);
         // set the parser input, use null encoding to force detection with
         // <?xml?>
         this.xmlParser.setInput(bufferedInput, null);
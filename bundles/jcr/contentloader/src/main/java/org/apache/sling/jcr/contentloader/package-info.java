@@ -18,7 +18,7 @@
  */
 
 @Export(optional = "provide:=true")
-@Version("0.1")
+@Version("0.2")
 package org.apache.sling.jcr.contentloader;
 
 import aQute.bnd.annotation.Export;
@@ -294,7 +294,7 @@ public class JsonReaderTest {
 
     //---------- internal helper ----------------------------------------------
 
-    private void parse(String json) throws IOException, RepositoryException {
+    protected void parse(String json) throws IOException, RepositoryException {
         String charSet = "ISO-8859-1";
         json = "#" + charSet + "\r\n" + json;
         InputStream ins = new ByteArrayInputStream(json.getBytes(charSet));
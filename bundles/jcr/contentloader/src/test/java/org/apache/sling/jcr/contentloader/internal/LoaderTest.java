@@ -0,0 +1,430 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.contentloader.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.sling.commons.osgi.ManifestHeader;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+public class LoaderTest {
+
+    private Loader loader;
+
+    @After
+    public void tearDown() {
+        if (loader != null) {
+            loader.dispose();
+        }
+    }
+
+    /** Create a thread safe proxy answering the given methods and defaults otherwise */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> type, final Map<String, Object> answers, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(LoaderTest.class.getClassLoader(), new Class<?>[] { type },
+            new InvocationHandler() {
+
+                public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    } else if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    } else if (method.getName().equals("toString")) {
+                        return type.getSimpleName() + answers;
+                    }
+                    if (handler != null) {
+                        final Object result = handler.invoke(proxy, method, args);
+                        if (result != null) {
+                            return result;
+                        }
+                    }
+                    if (answers.containsKey(method.getName())) {
+                        return answers.get(method.getName());
+                    }
+                    final Class<?> returnType = method.getReturnType();
+                    if (returnType == boolean.class) {
+                        return Boolean.FALSE;
+                    } else if (returnType == long.class) {
+                        return 0L;
+                    } else if (returnType == int.class) {
+                        return 0;
+                    }
+                    return null;
+                }
+            });
+    }
+
+    private static Bundle bundle(final String name, final String content, final String... headers) {
+        final Hashtable<String, String> dict = new Hashtable<String, String>();
+        if (content != null) {
+            dict.put(PathEntry.CONTENT_HEADER, content);
+        }
+        for (final String header : headers) {
+            dict.put(header, "SLING-INF/" + header);
+        }
+        final Map<String, Object> answers = new HashMap<String, Object>();
+        answers.put("getSymbolicName", name);
+        answers.put("getHeaders", dict);
+        return proxy(Bundle.class, answers, null);
+    }
+
+    private static PathEntry entry(final String header) {
+        return new PathEntry(ManifestHeader.parse(header).getEntries()[0], 0);
+    }
+
+    /**
+     * Loader which does not install content but loads a bundle once the
+     * bundle it requires has been loaded.
+     */
+    private static final class RetryLoader extends Loader {
+
+        final Map<String, String> requires = new HashMap<String, String>();
+
+        final Set<String> loaded = new HashSet<String>();
+
+        final List<String> attempts = new ArrayList<String>();
+
+        RetryLoader() {
+            super(null, 1);
+        }
+
+        @Override
+        boolean registerBundleInternal(final Session metadataSession, final Bundle bundle, final boolean isRetry, final boolean isUpdate) {
+            final String name = bundle.getSymbolicName();
+            attempts.add(name);
+            final String required = requires.get(name);
+            if (required == null || loaded.contains(required)) {
+                loaded.add(name);
+                return true;
+            }
+            return false;
+        }
+
+        int attempts(final String name) {
+            return Collections.frequency(attempts, name);
+        }
+    }
+
+    @Test
+    public void testRetryOverlappingContent() throws Exception {
+        final RetryLoader retryLoader = new RetryLoader();
+        loader = retryLoader;
+        retryLoader.requires.put("b", "a");
+
+        retryLoader.registerBundle(null, bundle("b", "SLING-INF/b;path:=/apps/b"), false);
+        assertEquals(Collections.emptySet(), retryLoader.loaded);
+
+        retryLoader.registerBundle(null, bundle("a", "SLING-INF/a;path:=/apps"), false);
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b")), retryLoader.loaded);
+        assertEquals(2, retryLoader.attempts("b"));
+    }
+
+    @Test
+    public void testRetryUndetectedDependency() throws Exception {
+        final RetryLoader retryLoader = new RetryLoader();
+        loader = retryLoader;
+        // c depends on a although neither their content overlaps nor
+        // a registers node types or namespaces
+        retryLoader.requires.put("c", "a");
+        retryLoader.requires.put("d", "c");
+
+        retryLoader.registerBundle(null, bundle("d", "SLING-INF/d;path:=/content/d"), false);
+        retryLoader.registerBundle(null, bundle("c", "SLING-INF/c;path:=/libs/c"), false);
+        assertEquals(Collections.emptySet(), retryLoader.loaded);
+
+        retryLoader.registerBundle(null, bundle("a", "SLING-INF/a;path:=/apps"), false);
+        assertEquals(new HashSet<String>(Arrays.asList("a", "c", "d")), retryLoader.loaded);
+    }
+
+    @Test
+    public void testRetryWithoutProgress() throws Exception {
+        final RetryLoader retryLoader = new RetryLoader();
+        loader = retryLoader;
+        retryLoader.requires.put("e", "missing");
+
+        retryLoader.registerBundle(null, bundle("e", "SLING-INF/e;path:=/apps/e"), false);
+        assertEquals(1, retryLoader.attempts("e"));
+
+        // retried once by the fallback
+        retryLoader.registerBundle(null, bundle("f", "SLING-INF/f;path:=/libs/f"), false);
+        assertEquals(2, retryLoader.attempts("e"));
+
+        // retried once as it might depend on the node types, the fallback
+        // does not retry it again
+        retryLoader.registerBundle(null, bundle("n", null, "Sling-Nodetypes"), false);
+        assertEquals(3, retryLoader.attempts("e"));
+        assertEquals(new HashSet<String>(Arrays.asList("f", "n")), retryLoader.loaded);
+    }
+
+    /**
+     * Loader recording the sessions used to install content. Each installer
+     * waits in <code>Session.refresh(true)</code> until all expected
+     * installers are running, so the test fails unless they run in parallel.
+     */
+    private static final class InstallLoader extends Loader {
+
+        final CountDownLatch running;
+
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+        final List<Session> sessions = Collections.synchronizedList(new ArrayList<Session>());
+
+        final Map<Session, List<String>> targets = Collections.synchronizedMap(new HashMap<Session, List<String>>());
+
+        final Set<Session> loggedOut = Collections.synchronizedSet(new HashSet<Session>());
+
+        final List<Session> saves = Collections.synchronizedList(new ArrayList<Session>());
+
+        /** Whether saving the sessions created by the loader fails. */
+        volatile boolean failCreatedSessions;
+
+        InstallLoader(final int threads, final int parallelRoots) {
+            this(null, threads, parallelRoots);
+        }
+
+        InstallLoader(final ContentLoaderService contentLoaderService, final int threads, final int parallelRoots) {
+            super(contentLoaderService, threads);
+            this.running = new CountDownLatch(parallelRoots);
+        }
+
+        Session session() {
+            final List<String> paths = Collections.synchronizedList(new ArrayList<String>());
+            final Map<String, Object> nodeAnswers = new HashMap<String, Object>();
+            nodeAnswers.put("isNode", Boolean.TRUE);
+            final Node node = proxy(Node.class, nodeAnswers, null);
+            final Map<String, Object> answers = new HashMap<String, Object>();
+            answers.put("itemExists", Boolean.TRUE);
+            answers.put("getItem", node);
+            answers.put("getRootNode", node);
+            final Session session = proxy(Session.class, answers, new InvocationHandler() {
+
+                public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                    if (method.getName().equals("itemExists")) {
+                        paths.add((String) args[0]);
+                    } else if (method.getName().equals("logout")) {
+                        loggedOut.add((Session) proxy);
+                    } else if (method.getName().equals("save")) {
+                        if (failCreatedSessions && sessions.contains(proxy)) {
+                            throw new RepositoryException("Save failed");
+                        }
+                        saves.add((Session) proxy);
+                    } else if (method.getName().equals("refresh") && Boolean.TRUE.equals(args[0])) {
+                        threads.add(Thread.currentThread());
+                        running.countDown();
+                        if (!running.await(10, TimeUnit.SECONDS)) {
+                            throw new RepositoryException("Content roots are not installed in parallel");
+                        }
+                    }
+                    return null;
+                }
+            });
+            targets.put(session, paths);
+            return session;
+        }
+
+        @Override
+        Session createSession(final String workspace) {
+            final Session session = session();
+            sessions.add(session);
+            return session;
+        }
+    }
+
+    @Test
+    public void testParallelInstall() throws Exception {
+        final InstallLoader installLoader = new InstallLoader(3, 3);
+        loader = installLoader;
+        final Session defaultSession = installLoader.session();
+
+        installLoader.installContent(defaultSession, bundle("p", null), Arrays.asList(
+            entry("SLING-INF/a;path:=/apps/a"),
+            entry("SLING-INF/b;path:=/apps/b"),
+            entry("SLING-INF/c;path:=/libs/c")), false, null);
+
+        // one root is installed by the calling thread with the default session
+        assertEquals(3, installLoader.threads.size());
+        assertTrue(installLoader.threads.contains(Thread.currentThread()));
+        assertEquals(2, installLoader.sessions.size());
+        assertEquals(new HashSet<Session>(installLoader.sessions), installLoader.loggedOut);
+    }
+
+    @Test
+    public void testOverlappingEntriesInstalledTogether() throws Exception {
+        final InstallLoader installLoader = new InstallLoader(4, 2);
+        loader = installLoader;
+        final Session defaultSession = installLoader.session();
+
+        installLoader.installContent(defaultSession, bundle("p", null), Arrays.asList(
+            entry("SLING-INF/apps;path:=/apps"),
+            entry("SLING-INF/libs;path:=/libs"),
+            entry("SLING-INF/b;path:=/apps/b")), false, null);
+
+        assertEquals(2, installLoader.threads.size());
+        assertEquals(1, installLoader.sessions.size());
+        assertEquals(Arrays.asList("/libs"), installLoader.targets.get(installLoader.sessions.get(0)));
+        // the target nodes are created upfront, then the entries
+        // below /apps are installed in manifest order
+        assertEquals(Arrays.asList("/apps", "/libs", "/apps", "/apps/b"), installLoader.targets.get(defaultSession));
+    }
+
+    @Test
+    public void testSequentialInstall() throws Exception {
+        final InstallLoader installLoader = new InstallLoader(1, 1);
+        loader = installLoader;
+        final Session defaultSession = installLoader.session();
+
+        installLoader.installContent(defaultSession, bundle("p", null), Arrays.asList(
+            entry("SLING-INF/a;path:=/apps/a"),
+            entry("SLING-INF/c;path:=/libs/c")), false, null);
+
+        assertEquals(Collections.singleton(Thread.currentThread()), installLoader.threads);
+        assertEquals(0, installLoader.sessions.size());
+        assertEquals(Arrays.asList("/apps/a", "/libs/c"), installLoader.targets.get(defaultSession));
+        // all content is saved at once
+        assertEquals(Arrays.asList(defaultSession), installLoader.saves);
+    }
+
+    @Test
+    public void testFailedParallelInstallKeepsSavedNodes() throws Exception {
+        final InstallLoader installLoader = new InstallLoader(2, 2);
+        loader = installLoader;
+        installLoader.failCreatedSessions = true;
+        final Session defaultSession = installLoader.session();
+
+        try {
+            installLoader.installContent(defaultSession, bundle("p", null), Arrays.asList(
+                entry("SLING-INF/a;path:=/apps/a"),
+                entry("SLING-INF/c;path:=/libs/c")), false, new String[] {"/libs/old", "/apps/old"});
+            fail("Expected the installation to fail");
+        } catch (Loader.PartialContentException pce) {
+            // nodes saved by a previous attempt are still recorded
+            assertEquals(Arrays.asList("/apps/old", "/libs/old"), pce.getCreatedNodes());
+        }
+    }
+
+    /**
+     * Content loader service answering a fixed bundle content info and
+     * recording the unlock.
+     */
+    private static final class ContentInfoService extends ContentLoaderService {
+
+        final Map<String, Object> info = new HashMap<String, Object>();
+
+        boolean unlocked;
+
+        boolean loaded;
+
+        List<String> createdNodes;
+
+        String[] contentHashes;
+
+        @Override
+        protected void createRepositoryPath(final Session writerSession, final String repositoryPath) {
+            // nothing to do
+        }
+
+        @Override
+        public Map<String, Object> getBundleContentInfo(final Session session, final Bundle bundle, final boolean create) {
+            return info;
+        }
+
+        @Override
+        public void unlockBundleContentInfo(final Session session, final Bundle bundle, final boolean contentLoaded,
+                final List<String> createdNodes, final String[] contentHashes) {
+            this.unlocked = true;
+            this.loaded = contentLoaded;
+            this.createdNodes = createdNodes;
+            this.contentHashes = contentHashes;
+        }
+    }
+
+    @Test
+    public void testLoadedContentIsNotHashed() throws Exception {
+        final ContentInfoService service = new ContentInfoService();
+        service.info.put(ContentLoaderService.PROPERTY_CONTENT_LOADED, Boolean.TRUE);
+        service.info.put(ContentLoaderService.PROPERTY_CONTENT_LOADED_AT, Calendar.getInstance());
+        loader = new Loader(service, 1);
+
+        final List<String> entryCalls = new ArrayList<String>();
+        final Hashtable<String, String> headers = new Hashtable<String, String>();
+        headers.put(PathEntry.CONTENT_HEADER, "SLING-INF/a;path:=/apps/a");
+        final Map<String, Object> answers = new HashMap<String, Object>();
+        answers.put("getSymbolicName", "p");
+        answers.put("getHeaders", headers);
+        final Bundle bundle = proxy(Bundle.class, answers, new InvocationHandler() {
+
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                if (method.getName().startsWith("getEntry")) {
+                    entryCalls.add((String) args[0]);
+                }
+                return null;
+            }
+        });
+
+        assertTrue(loader.registerBundleInternal(null, bundle, false, false));
+
+        assertEquals(Collections.emptyList(), entryCalls);
+        assertTrue(service.unlocked);
+        // the hashes of the loaded content are kept
+        assertNull(service.contentHashes);
+    }
+
+    @Test
+    public void testFailedInstallRecordsSavedNodes() throws Exception {
+        final ContentInfoService service = new ContentInfoService();
+        service.info.put(ContentLoaderService.PROPERTY_CONTENT_LOADED, Boolean.FALSE);
+        service.info.put(ContentLoaderService.PROPERTY_UNINSTALL_PATHS, new String[] {"/apps/old"});
+        final InstallLoader installLoader = new InstallLoader(service, 2, 2);
+        loader = installLoader;
+        installLoader.failCreatedSessions = true;
+
+        assertFalse(installLoader.registerBundleInternal(installLoader.session(),
+            bundle("p", "SLING-INF/a;path:=/apps/a,SLING-INF/c;path:=/libs/c"), false, false));
+
+        assertTrue(service.unlocked);
+        assertFalse(service.loaded);
+        assertEquals(Arrays.asList("/apps/old"), service.createdNodes);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.contentloader.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.sling.commons.osgi.ManifestHeader;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Invocation;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+public class PathEntryTest {
+
+    private final Mockery mockery = new JUnit4Mockery();
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("pathentry", "");
+        dir.delete();
+        dir.mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        for (final File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    private File write(final String name, final String content) throws IOException {
+        final File f = new File(dir, name);
+        final FileWriter w = new FileWriter(f);
+        w.write(content);
+        w.close();
+        return f;
+    }
+
+    private Bundle bundle(final File a, final File b) throws IOException {
+        final Bundle bundle = mockery.mock(Bundle.class);
+        mockery.checking(new Expectations() {{
+            // entries are returned in an arbitrary order
+            allowing(bundle).getEntryPaths("SLING-INF/content");
+            will(new CustomAction("entries") {
+                public Object invoke(final Invocation invocation) {
+                    return Collections.enumeration(Arrays.asList("SLING-INF/content/b.json", "SLING-INF/content/a.json"));
+                }
+            });
+            allowing(bundle).getEntryPaths(with(any(String.class)));
+            will(returnValue(null));
+            allowing(bundle).getEntry("SLING-INF/content/a.json");
+            will(returnValue(a.toURI().toURL()));
+            allowing(bundle).getEntry("SLING-INF/content/b.json");
+            will(returnValue(b.toURI().toURL()));
+        }});
+        return bundle;
+    }
+
+    private PathEntry entry(final String header) {
+        return new PathEntry(ManifestHeader.parse(header).getEntries()[0], 0);
+    }
+
+    @Test
+    public void testContentHash() throws IOException {
+        final File a = write("a.json", "{ \"title\" : \"a\" }");
+        final File b = write("b.json", "{ \"title\" : \"b\" }");
+        final Bundle bundle = bundle(a, b);
+
+        final String hash = entry("SLING-INF/content;path:=/apps/test").getContentHash(bundle);
+        assertNotNull(hash);
+        assertEquals(hash, entry("SLING-INF/content;path:=/apps/test").getContentHash(bundle));
+
+        // different directives install different content
+        assertFalse(hash.equals(entry("SLING-INF/content;path:=/apps/other").getContentHash(bundle)));
+        assertFalse(hash.equals(entry("SLING-INF/content;path:=/apps/test;overwrite:=true").getContentHash(bundle)));
+
+        // changed file content
+        write("b.json", "{ \"title\" : \"changed\" }");
+        assertFalse(hash.equals(entry("SLING-INF/content;path:=/apps/test").getContentHash(bundle)));
+    }
+
+    @Test
+    public void testTargetPaths() {
+        assertEquals("/", Loader.getTargetPath(entry("SLING-INF/content")));
+        assertEquals("/apps/test", Loader.getTargetPath(entry("SLING-INF/content;path:=apps/test/")));
+
+        assertTrue(Loader.isAncestorOrSelf("/", "/apps"));
+        assertTrue(Loader.isAncestorOrSelf("/apps", "/apps"));
+        assertTrue(Loader.isAncestorOrSelf("/apps", "/apps/test"));
+        assertFalse(Loader.isAncestorOrSelf("/apps", "/apps2"));
+        assertFalse(Loader.isAncestorOrSelf("/apps/test", "/apps"));
+    }
+}
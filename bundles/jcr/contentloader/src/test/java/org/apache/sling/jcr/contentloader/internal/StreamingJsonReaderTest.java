@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.contentloader.internal;
+
+import javax.jcr.PropertyType;
+
+import org.apache.sling.jcr.contentloader.internal.readers.JsonReader;
+import org.jmock.Expectations;
+import org.jmock.integration.junit4.JMock;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the {@link JsonReaderTest} tests with a reader streaming all documents.
+ */
+@RunWith(JMock.class)
+public class StreamingJsonReaderTest extends JsonReaderTest {
+
+    @Override
+    @org.junit.Before public void setUp() throws Exception {
+        super.setUp();
+        this.jsonReader = new JsonReader(0) {};
+    }
+
+    @org.junit.Test public void testCommentsAndSeparators() throws Exception {
+        this.mockery.checking(new Expectations() {{
+            allowing(creator).createNode(null, "nt:unstructured", null); inSequence(mySequence);
+            allowing(creator).createProperty("p1", PropertyType.UNDEFINED, "v1"); inSequence(mySequence);
+            allowing(creator).createProperty("p2", PropertyType.LONG, "2"); inSequence(mySequence);
+            allowing(creator).createNode("c1", null, null); inSequence(mySequence);
+            allowing(creator).createProperty("p3", PropertyType.UNDEFINED, "a}b"); inSequence(mySequence);
+            allowing(creator).finishNode(); inSequence(mySequence);
+            allowing(creator).finishNode(); inSequence(mySequence);
+        }});
+        final String json = "{ // comment\n \"p1\" : 'v1'; /* \"x\" : 1 */ \"jcr:primaryType\" = \"nt:unstructured\","
+            + " p2 => 2, # comment\n \"c1\" : { \"p3\" : \"a}b\" } }";
+        this.parse(json);
+    }
+
+    @org.junit.Test public void testPrimaryTypeAfterChild() throws Exception {
+        this.mockery.checking(new Expectations() {{
+            allowing(creator).createNode(null, null, null); inSequence(mySequence);
+            allowing(creator).createNode("c1", null, null); inSequence(mySequence);
+            allowing(creator).finishNode(); inSequence(mySequence);
+            allowing(creator).finishNode(); inSequence(mySequence);
+        }});
+        this.parse("{ \"c1\" : {}, \"jcr:primaryType\" : \"nt:folder\" }");
+    }
+}
@@ -145,6 +145,7 @@ public final class JcrModifiablePropertyMap
         this.cache.clear();
         this.valueCache.clear();
         this.fullyRead = false;
+        this.deferredProperties = null;
     }
 
     /**
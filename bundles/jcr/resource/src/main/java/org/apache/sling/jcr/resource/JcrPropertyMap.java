@@ -71,6 +71,16 @@ public class JcrPropertyMap
     /** Has the node been read completly? */
     boolean fullyRead;
 
+    /** Are all properties read on the first access? */
+    private final boolean prefetch;
+
+    /**
+     * The binary and multi value properties found while prefetching, which
+     * are only put into the cache once they are accessed. This is
+     * <code>null</code> as long as the properties have not been prefetched.
+     */
+    Map<String, Property> deferredProperties;
+
     private final ClassLoader dynamicClassLoader;
 
     /**
@@ -88,10 +98,25 @@ public class JcrPropertyMap
      * @since 2.0.8
      */
     public JcrPropertyMap(final Node node, final ClassLoader dynamicCL) {
+        this(node, dynamicCL, false);
+    }
+
+    /**
+     * Constructor
+     * @param node The underlying node.
+     * @param dynamicCL Dynamic class loader for loading serialized objects.
+     * @param prefetch If <code>true</code> all properties of the node are
+     *                 read with a single <code>Node.getProperties()</code> call
+     *                 on the first access to a property. Binary and multi value
+     *                 properties are only converted once they are accessed.
+     * @since 2.3
+     */
+    public JcrPropertyMap(final Node node, final ClassLoader dynamicCL, final boolean prefetch) {
         this.node = node;
         this.cache = new LinkedHashMap<String, JcrPropertyMapCacheEntry>();
         this.valueCache = new LinkedHashMap<String, Object>();
         this.fullyRead = false;
+        this.prefetch = prefetch;
         this.dynamicClassLoader = dynamicCL;
     }
 
@@ -256,20 +281,7 @@ public class JcrPropertyMap
      */
     private JcrPropertyMapCacheEntry cacheProperty(final Property prop) {
         try {
-            // calculate the key
-            final String name = prop.getName();
-            String key = null;
-            if ( name.indexOf("_x") != -1 ) {
-                // for compatibility with older versions we use the (wrong)
-                // ISO9075 path encoding
-                key = ISO9075.decode(name);
-                if ( key.equals(name) ) {
-                    key = null;
-                }
-            }
-            if ( key == null ) {
-                key = Text.unescapeIllegalJcrChars(name);
-            }
+            final String key = getKey(prop.getName());
             JcrPropertyMapCacheEntry entry = cache.get(key);
             if ( entry == null ) {
                 entry = new JcrPropertyMapCacheEntry(prop);
@@ -286,6 +298,25 @@ public class JcrPropertyMap
         }
     }
 
+    /**
+     * Calculate the key for a property name.
+     */
+    private String getKey(final String name) {
+        String key = null;
+        if ( name.indexOf("_x") != -1 ) {
+            // for compatibility with older versions we use the (wrong)
+            // ISO9075 path encoding
+            key = ISO9075.decode(name);
+            if ( key.equals(name) ) {
+                key = null;
+            }
+        }
+        if ( key == null ) {
+            key = Text.unescapeIllegalJcrChars(name);
+        }
+        return key;
+    }
+
     /**
      * Read a single property.
      * @throws IllegalArgumentException if a repository exception occurs
@@ -341,6 +372,16 @@ public class JcrPropertyMap
             return cache.get(name);
         }
 
+        if ( prefetch ) {
+            prefetch();
+            final JcrPropertyMapCacheEntry entry = cache.get(name);
+            if ( entry != null ) {
+                return entry;
+            }
+            final Property prop = deferredProperties.remove(name);
+            return prop == null ? null : cacheProperty(prop);
+        }
+
         try {
             final String key = escapeKeyName(name);
             if (node.hasProperty(key)) {
@@ -398,6 +439,15 @@ public class JcrPropertyMap
      */
     void readFully() {
         if (!fullyRead) {
+            if (deferredProperties != null) {
+                // all other properties are already in the cache
+                for (final Property prop : deferredProperties.values()) {
+                    this.cacheProperty(prop);
+                }
+                deferredProperties = null;
+                fullyRead = true;
+                return;
+            }
             try {
                 final PropertyIterator pi = node.getProperties();
                 while (pi.hasNext()) {
@@ -411,6 +461,34 @@ public class JcrPropertyMap
         }
     }
 
+    /**
+     * Read all properties with a single call, but defer the conversion of
+     * binary and multi value properties until they are accessed.
+     * @throws IllegalArgumentException if a repository exception occurs
+     */
+    private void prefetch() {
+        if (deferredProperties == null) {
+            try {
+                final Map<String, Property> deferred = new LinkedHashMap<String, Property>();
+                final PropertyIterator pi = node.getProperties();
+                while (pi.hasNext()) {
+                    final Property prop = pi.nextProperty();
+                    if (prop.isMultiple() || prop.getType() == PropertyType.BINARY) {
+                        final String key = getKey(prop.getName());
+                        if (!cache.containsKey(key)) {
+                            deferred.put(key, prop);
+                        }
+                    } else {
+                        this.cacheProperty(prop);
+                    }
+                }
+                deferredProperties = deferred;
+            } catch (final RepositoryException re) {
+                throw new IllegalArgumentException(re);
+            }
+        }
+    }
+
     // ---------- Unsupported Modification methods
 
     public void clear() {
@@ -433,7 +511,10 @@ public class JcrPropertyMap
 
     @SuppressWarnings("unchecked")
     private <T> T convertToType(final JcrPropertyMapCacheEntry entry, Class<T> type) {
-        T result = null;
+        T result = entry.getConvertedValue(type);
+        if ( result != null ) {
+            return result;
+        }
 
         try {
             final boolean array = type.isArray();
@@ -464,6 +545,7 @@ public class JcrPropertyMap
 
                 }
             }
+            entry.setConvertedValue(type, result);
 
         } catch (ValueFormatException vfe) {
             LOGGER.info("converToType: Cannot convert value of " + entry.getDefaultValueOrNull()
@@ -21,6 +21,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.jcr.Property;
 import javax.jcr.PropertyType;
@@ -38,6 +44,9 @@ public class JcrPropertyMapCacheEntry {
 
     private final Object defaultValue;
 
+    /** Values converted to other types, keyed by the requested type. */
+    private Map<Class<?>, Object> convertedValues;
+
     /**
      * Create a value for the object.
      * If the value type is supported directly through a jcr property type,
@@ -151,5 +160,70 @@ public class JcrPropertyMapCacheEntry {
         return property.getType() != PropertyType.BINARY;
     }
 
+    /**
+     * Return a value previously converted to the given type.
+     * Dates, calendars and arrays are copied, so callers can't modify the
+     * cached value.
+     * @param type The requested type
+     * @return The converted value or <code>null</code> if the value has
+     *         not been converted to this type yet.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getConvertedValue(final Class<T> type) {
+        if ( this.convertedValues == null ) {
+            return null;
+        }
+        final Object value = this.convertedValues.get(type);
+        return value == null ? null : (T) copy(value);
+    }
 
+    /**
+     * Cache the value converted to the given type.
+     * Values of binary properties and of types which are not plain values
+     * (like streams or the property itself) are not cached.
+     * @param type The requested type
+     * @param value The converted value
+     */
+    public <T> void setConvertedValue(final Class<T> type, final T value) {
+        if ( value != null && isConversionCacheable(type) ) {
+            if ( this.convertedValues == null ) {
+                this.convertedValues = new HashMap<Class<?>, Object>(4);
+            }
+            this.convertedValues.put(type, copy(value));
+        }
+    }
+
+    private boolean isConversionCacheable(final Class<?> type) {
+        final Class<?> valueType = type.isArray() ? type.getComponentType() : type;
+        if ( valueType != String.class
+             && valueType != Byte.class
+             && valueType != Short.class
+             && valueType != Integer.class
+             && valueType != Long.class
+             && valueType != Float.class
+             && valueType != Double.class
+             && valueType != BigDecimal.class
+             && valueType != Boolean.class
+             && valueType != Date.class
+             && valueType != Calendar.class ) {
+            return false;
+        }
+        return this.values.length == 0 || this.values[0].getType() != PropertyType.BINARY;
+    }
+
+    private static Object copy(final Object value) {
+        if ( value instanceof Calendar ) {
+            return ((Calendar)value).clone();
+        } else if ( value instanceof Date ) {
+            return ((Date)value).clone();
+        } else if ( value instanceof Object[] ) {
+            final Object[] src = (Object[])value;
+            final Object[] result = (Object[])Array.newInstance(src.getClass().getComponentType(), src.length);
+            for(int i=0; i<src.length; i++) {
+                result[i] = copy(src[i]);
+            }
+            return result;
+        }
+        return value;
+    }
 }
\ No newline at end of file
@@ -128,7 +128,7 @@ public class JcrNodeResource extends JcrItemResource {
         } else if (type == URL.class) {
             return (Type) getURL(); // unchecked cast
         } else if (type == Map.class || type == ValueMap.class) {
-            return (Type) new JcrPropertyMap(getNode(), this.dynamicClassLoader); // unchecked cast
+            return (Type) new JcrPropertyMap(getNode(), this.dynamicClassLoader, true); // unchecked cast
         } else if (type == PersistableValueMap.class ) {
             // check write
             try {
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Calendar;
+
+import javax.jcr.Node;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.jcr.resource.JcrPropertyMap;
+
+/**
+ * Runs the {@link JcrPropertyMapTest} with a property map prefetching
+ * all properties.
+ */
+public class JcrPropertyMapPrefetchTest extends JcrPropertyMapTest {
+
+    private Node rootNode;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        rootNode = getSession().getRootNode().addNode("test_prefetch" + System.currentTimeMillis(),
+            "nt:unstructured");
+        session.save();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (rootNode != null) {
+            rootNode.remove();
+            session.save();
+        }
+
+        super.tearDown();
+    }
+
+    @Override
+    protected JcrPropertyMap createPropertyMap(final Node node) {
+        return new JcrPropertyMap(node, null, true);
+    }
+
+    public void testDeferredProperties() throws Exception {
+        rootNode.setProperty("title", "Title");
+        rootNode.setProperty("tags", new String[] {"a", "b"});
+        rootNode.setProperty("bin", rootNode.getSession().getValueFactory().createBinary(
+            new ByteArrayInputStream("binary".getBytes())));
+        rootNode.getSession().save();
+
+        final ValueMap map = createPropertyMap(rootNode);
+        assertEquals("Title", map.get("title", String.class));
+        assertNull(map.get("missing", String.class));
+
+        final String[] tags = map.get("tags", String[].class);
+        assertEquals(2, tags.length);
+        assertEquals("b", tags[1]);
+
+        final InputStream stream = map.get("bin", InputStream.class);
+        assertEquals("binary", IOUtils.toString(stream));
+
+        assertTrue(map.keySet().contains("jcr:primaryType"));
+        assertTrue(map.keySet().contains("title"));
+        assertTrue(map.keySet().contains("tags"));
+        assertTrue(map.keySet().contains("bin"));
+        assertEquals(4, map.size());
+    }
+
+    public void testConvertedValueCache() throws Exception {
+        rootNode.setProperty("date", "2013-01-01T12:00:00.000Z");
+        rootNode.setProperty("dates", new String[] {"2013-01-01T12:00:00.000Z"});
+        rootNode.getSession().save();
+
+        final ValueMap map = createPropertyMap(rootNode);
+        final Calendar first = map.get("date", Calendar.class);
+        assertNotNull(first);
+        first.add(Calendar.YEAR, 1);
+
+        // the cached value is not modified through the returned value
+        final Calendar second = map.get("date", Calendar.class);
+        assertNotSame(first, second);
+        assertEquals(2013, second.get(Calendar.YEAR));
+
+        final Calendar[] firstArray = map.get("dates", Calendar[].class);
+        firstArray[0].add(Calendar.YEAR, 1);
+        final Calendar[] secondArray = map.get("dates", Calendar[].class);
+        assertNotSame(firstArray, secondArray);
+        assertEquals(2013, secondArray[0].get(Calendar.YEAR));
+
+        assertEquals("2013-01-01T12:00:00.000Z", map.get("date", String.class));
+    }
+}
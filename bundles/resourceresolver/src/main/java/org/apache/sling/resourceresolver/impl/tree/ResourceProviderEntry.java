@@ -26,7 +26,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.apache.commons.collections.FastTreeMap;
 import org.apache.sling.api.resource.ModifyingResourceProvider;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceMetadata;
@@ -48,6 +47,13 @@ import org.slf4j.LoggerFactory;
  * by rootProvider.get("a").get("b").get("c").get("d")  assuming the final get("d") was not null. If it was, then the list
  * of ProviderHanders would be rootProvider.get("a").get("b").get("c").
  * <p>
+ * The child entries are kept in an array sorted by their path which is
+ * replaced as a whole whenever a child is added, so lookups never see a
+ * partially updated tree and don't need any locking. Resource paths are
+ * matched segment by segment directly against the path string, and the
+ * matched entries are walked back up through their parent links, so
+ * resolving a resource does not create any temporary objects.
+ * <p>
  * This class is comparable to itself to help keep the child entries list sorted by their prefix.
  */
 public class ResourceProviderEntry implements Comparable<ResourceProviderEntry> {
@@ -64,13 +70,17 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
     // slash to be used as a prefix match resource paths to resolve
     private final String prefix;
 
+    // the parent entry or null if this is the root of the tree
+    private final ResourceProviderEntry parent;
+
     // the resource provider kept in this entry supporting resources at and
     // below the path of this entry.
-    private ProviderHandler[] providers = new ProviderHandler[0];
+    private volatile ProviderHandler[] providers = new ProviderHandler[0];
 
-    private final FastTreeMap storageMap = new FastTreeMap();
+    // the child entries sorted by their path, replaced on every change
+    private volatile ResourceProviderEntry[] children = EMPTY_CHILDREN;
 
-    private Collection<ResourceProviderEntry> storageMapValues = new ArrayList<ResourceProviderEntry>();
+    private static final ResourceProviderEntry[] EMPTY_CHILDREN = new ResourceProviderEntry[0];
 
     /**
      * Creates an instance of this class with the given path relative to the
@@ -83,6 +93,16 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
      *            The resource provider to encapsulate by this entry.
      */
     public ResourceProviderEntry(final String path, final ProviderHandler[] providerList) {
+        this(null, path, providerList);
+    }
+
+    /**
+     * Creates an instance of this class as a child of the given entry.
+     */
+    private ResourceProviderEntry(final ResourceProviderEntry parent,
+            final String path,
+            final ProviderHandler[] providerList) {
+        this.parent = parent;
         if (path.endsWith("/")) {
             this.path = path.substring(0, path.length() - 1);
             this.prefix = path;
@@ -96,10 +116,6 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
                 providers[i] = providerList[i];
             }
         }
-
-        // this will consume slightly more memory but ensures read is fast.
-        storageMap.setFast(true);
-
     }
 
     public String getPath() {
@@ -133,24 +149,123 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
 
     // ------------------ Map methods, here so that we can delegate 2 maps
     // together
-    @SuppressWarnings("unchecked")
-    public void put(final String key, final ResourceProviderEntry value) {
-        storageMap.put(key, value);
-        // get a thread safe copy, the ArrayList constructor does a toArray
-        // which is thread safe.
-        storageMapValues = new ArrayList<ResourceProviderEntry>(storageMap.values());
+
+    /**
+     * Add or replace the child entry with the given name.
+     *
+     * No sync required as this is called by a sync method!
+     */
+    private void put(final String key, final ResourceProviderEntry value) {
+        final ResourceProviderEntry[] current = this.children;
+        final int index = indexOf(current, key, 0, key.length());
+        final ResourceProviderEntry[] updated;
+        if (index >= 0) {
+            updated = current.clone();
+            updated[index] = value;
+        } else {
+            final int insert = -(index + 1);
+            updated = new ResourceProviderEntry[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insert);
+            updated[insert] = value;
+            System.arraycopy(current, insert, updated, insert + 1, current.length - insert);
+        }
+        this.children = updated;
     }
 
     public boolean containsKey(final String key) {
-        return storageMap.containsKey(key);
+        return get(key) != null;
     }
 
     public ResourceProviderEntry get(final String key) {
-        return (ResourceProviderEntry) storageMap.get(key);
+        return getChild(key, 0, key.length());
     }
 
     public Collection<ResourceProviderEntry> values() {
-        return storageMapValues;
+        return Collections.unmodifiableList(Arrays.asList(this.children));
+    }
+
+    /**
+     * Returns the child entry whose path equals the region of the given
+     * string or <code>null</code>.
+     */
+    private ResourceProviderEntry getChild(final String name, final int start, final int end) {
+        final ResourceProviderEntry[] current = this.children;
+        final int index = indexOf(current, name, start, end);
+        return index >= 0 ? current[index] : null;
+    }
+
+    /**
+     * Binary search of the region of the given string in the sorted child
+     * entries.
+     * @return The index of the entry or <code>-(insertion point) - 1</code>
+     */
+    private static int indexOf(final ResourceProviderEntry[] entries,
+            final String name, final int start, final int end) {
+        int low = 0;
+        int high = entries.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = compareRegion(entries[mid].path, name, start, end);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Compares the string with the region of the other string like
+     * {@link String#compareTo(String)} without creating a substring.
+     */
+    private static int compareRegion(final String value, final String other,
+            final int start, final int end) {
+        final int len = end - start;
+        final int n = Math.min(value.length(), len);
+        for (int i = 0; i < n; i++) {
+            final char c1 = value.charAt(i);
+            final char c2 = other.charAt(start + i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return value.length() - len;
+    }
+
+    /**
+     * Walk down the tree along the segments of the path.
+     * @param path The path
+     * @param exact Whether all segments of the path must be matched
+     * @return The deepest matching entry, this entry if not even the first
+     *         segment is matched. If <code>exact</code> is <code>true</code>
+     *         and not all segments are matched, <code>null</code> is returned.
+     */
+    private ResourceProviderEntry findEntry(final String path, final boolean exact) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == SPLIT_SEP) {
+            start++;
+        }
+        while (start < end && path.charAt(end - 1) == SPLIT_SEP) {
+            end--;
+        }
+        ResourceProviderEntry base = this;
+        while (start < end) {
+            int segmentEnd = path.indexOf(SPLIT_SEP, start);
+            if (segmentEnd == -1 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            final ResourceProviderEntry child = base.getChild(path, start, segmentEnd);
+            if (child == null) {
+                return exact ? null : base;
+            }
+            base = child;
+            start = segmentEnd + 1;
+        }
+        return base;
     }
 
     /**
@@ -206,22 +321,18 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
 	 */
     protected synchronized boolean addResourceProvider(final String prefix, final ProviderHandler provider) {
         final String[] elements = split(prefix);
-        final List<ResourceProviderEntry> entries = new ArrayList<ResourceProviderEntry>();
-        this.populateProviderPath(entries, elements);
-
-        // add this=root to the start so if the list is empty
-        // we have a position to add, this will shift other entries
-        // down the list.
-        entries.add(0, this);
-        // the list may not be complete, so add blank entries from the current size to the end of this path.
-        for (int i = entries.size() - 1; i < elements.length; i++) {
-            final String stubPrefix = elements[i];
-            final ResourceProviderEntry rpe2 = new ResourceProviderEntry(stubPrefix, new ProviderHandler[0]);
-            entries.get(i).put(stubPrefix, rpe2);
-            entries.add(rpe2);
+        ResourceProviderEntry entry = this;
+        // walk down the path and add blank entries where the tree ends
+        for (final String element : elements) {
+            ResourceProviderEntry child = entry.get(element);
+            if (child == null) {
+                child = new ResourceProviderEntry(entry, element, new ProviderHandler[0]);
+                entry.put(element, child);
+            }
+            entry = child;
         }
-        // finally add this provider to the last in the list. This might be a new entry, or an existing entry.
-        return entries.get(elements.length).addInternalProvider(provider);
+        // finally add this provider to the last entry. This might be a new entry, or an existing entry.
+        return entry.addInternalProvider(provider);
     }
 
     /**
@@ -229,16 +340,13 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
      */
     protected synchronized boolean removeResourceProvider(final String prefix, final ProviderHandler resourceProvider) {
         boolean result = false;
-        final String[] elements = split(prefix);
-        final List<ResourceProviderEntry> entries = new ArrayList<ResourceProviderEntry>();
-        this.populateProviderPath(entries, elements);
-
-        if(entries.size() == 0) {
+        final ResourceProviderEntry entry = this.findEntry(prefix, false);
+        if (entry == this) {
             // might be a root provider, try to remove it on this entry
             result = this.removeInternalProvider(resourceProvider);
-        } else if (entries.size() > 0 && entries.size() == elements.length) {
+        } else if (entry == this.findEntry(prefix, true)) {
             // the last element is a perfect match;
-            result = entries.get(entries.size() - 1).removeInternalProvider(resourceProvider);
+            result = entry.removeInternalProvider(resourceProvider);
         }
 
         if(!result) {
@@ -261,34 +369,6 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
         return providerList.toArray(new ProviderHandler[providerList.size()]);
     }
 
-	/**
-	 * Get a list of resource provider entries navigating down the tree starting
-	 * from this provider until there are no providers left in the tree. Given a
-	 * sequence of path elements a/b/c/d this function will inspect this
-	 * ResourceProviderEntry for a child entry of "a" and if present add it to
-	 * the list, then it will inspect that child entry for a child "b", then
-	 * child "b" for child "c" etc until the list of elements is exhausted or
-	 * the child does not exist.
-	 * 
-	 * @param entries
-	 *            List to add the entries to.
-	 * @param elements
-	 *            The path already split into segments.
-	 */
-    private void populateProviderPath(final List<ResourceProviderEntry> entries, final String[] elements) {
-        ResourceProviderEntry base = this;
-        for (final String element : elements) {
-            if (element != null) {
-                if (base.containsKey(element)) {
-                    base = base.get(element);
-                    entries.add(base);
-                } else {
-                    break;
-                }
-            }
-        }
-    }
-
     /**
      * Resolve a resource from a path into a Resource
      *
@@ -306,15 +386,16 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
                 logger.debug("Not absolute {}", fullPath);
                 return null; // fullpath must be absolute
             }
-            final String[] elements = split(fullPath);
-            final List<ResourceProviderEntry> entries = new ArrayList<ResourceProviderEntry>();
-            this.populateProviderPath(entries, elements);
+            // fast path: only providers mounted at the root
+            if (this.children.length == 0) {
+                return getResourceFromProviders(ctx, resourceResolver, fullPath);
+            }
 
             Resource fallbackResource = null;
 
-            // the path is in reverse order end first
-            for (int i = entries.size() - 1; i >= 0; i--) {
-                final ProviderHandler[] rps = entries.get(i).getResourceProviders();
+            // walk up from the deepest matching entry
+            for (ResourceProviderEntry entry = this.findEntry(fullPath, false); entry != this; entry = entry.parent) {
+                final ProviderHandler[] rps = entry.getResourceProviders();
                 for (final ProviderHandler rp : rps) {
 
                     boolean foundFallback = false;
@@ -356,8 +437,9 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
             // resource Provider: libs/sling/servlet/default/GET.servlet
             // list will match libs, sling, servlet, default
             // and there will be no resource provider at the end
-            if (entries.size() > 0 && entries.size() == elements.length) {
-                if (entries.get(entries.size() - 1).getResourceProviders().length == 0) {
+            final ResourceProviderEntry entry = this.findEntry(fullPath, true);
+            if (entry != null && entry != this) {
+                if (entry.getResourceProviders().length == 0) {
                     logger.debug("Resolved Synthetic {}", fullPath);
                     return new SyntheticResource(resourceResolver, fullPath, ResourceProvider.RESOURCE_TYPE_SYNTHETIC);
                 }
@@ -402,12 +484,8 @@ public class ResourceProviderEntry implements Comparable<ResourceProviderEntry>
     public ModifyingResourceProvider getModifyingProvider(final ResourceResolverContext ctx,
             final ResourceResolver resourceResolver,
             final String fullPath) {
-        final String[] elements = split(fullPath);
-        final List<ResourceProviderEntry> entries = new ArrayList<ResourceProviderEntry>();
-        this.populateProviderPath(entries, elements);
-
-        for (int i = entries.size() - 1; i >= 0; i--) {
-            final ProviderHandler[] rps = entries.get(i).getResourceProviders();
+        for (ResourceProviderEntry entry = this.findEntry(fullPath, false); entry != this; entry = entry.parent) {
+            final ProviderHandler[] rps = entry.getResourceProviders();
             for (final ProviderHandler rp : rps) {
                 final ResourceProvider provider = rp.getResourceProvider(ctx);
                 if ( provider instanceof ModifyingResourceProvider ) {
@@ -21,9 +21,12 @@ package org.apache.sling.resourceresolver.impl.tree;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.apache.sling.api.resource.AbstractResource;
@@ -238,6 +241,54 @@ public class ResourceProviderEntryTest {
         }
     }
 
+    @Test public void testSegmentMatching() {
+        final ResourceResolver resolver = Mockito.mock(ResourceResolver.class);
+        final ResourceProvider p = Mockito.mock(ResourceProvider.class);
+        Mockito.when(p.getResource(Mockito.any(ResourceResolver.class), Mockito.anyString())).thenReturn(new TestResource(resolver));
+        final Map<String, Object> props = new HashMap<String, Object>();
+        props.put(Constants.SERVICE_ID, (long)1);
+        root.addResourceProvider("/rootel", new ResourceProviderHandler(p, props));
+
+        assertEqualsResolver(resolver, root.getResource(null, null, "/rootel/"));
+        assertEqualsResolver(resolver, root.getResource(null, null, "//rootel/child"));
+        // only complete segments match
+        assertEqualsResolver(this.rootResolver, root.getResource(null, null, "/rootel2/child"));
+        assertEqualsResolver(this.rootResolver, root.getResource(null, null, "/root"));
+    }
+
+    @Test public void testChildrenSorted() {
+        long counter = 1;
+        for(String path : new String[] { "/c", "/a", "/b", "/a/x" }) {
+            final Map<String, Object> props = new HashMap<String, Object>();
+            props.put(Constants.SERVICE_ID, ++counter);
+            root.addResourceProvider(path, new ResourceProviderHandler(Mockito.mock(ResourceProvider.class), props));
+        }
+
+        final Iterator<ResourceProviderEntry> i = root.values().iterator();
+        assertEquals("a", i.next().getPath());
+        assertEquals("b", i.next().getPath());
+        assertEquals("c", i.next().getPath());
+        assertFalse(i.hasNext());
+        assertSame(root.get("a").get("x"), root.get("a").values().iterator().next());
+        assertNull(root.get("d"));
+    }
+
+    @Test public void testSyntheticResource() {
+        final ResourceProviderEntry e = new ResourceProviderEntry("/", null);
+        final ResourceResolver resolver = Mockito.mock(ResourceResolver.class);
+        final ResourceProvider p = Mockito.mock(ResourceProvider.class);
+        Mockito.when(p.getResource(Mockito.any(ResourceResolver.class), Mockito.anyString())).thenReturn(new TestResource(resolver));
+        final Map<String, Object> props = new HashMap<String, Object>();
+        props.put(Constants.SERVICE_ID, (long)1);
+        e.addResourceProvider("/libs/sling/servlet/default/GET.servlet", new ResourceProviderHandler(p, props));
+
+        assertEqualsResolver(resolver, e.getResource(null, null, "/libs/sling/servlet/default/GET.servlet"));
+        assertTrue(e.getResource(null, null, "/libs/sling/servlet/default") instanceof SyntheticResource);
+        assertTrue(e.getResource(null, null, "/libs/sling/") instanceof SyntheticResource);
+        assertNull(e.getResource(null, null, "/libs/sling/servlet/other"));
+        assertNull(e.getResource(null, null, "/"));
+    }
+
     private void assertEqualsResolver(final ResourceResolver resolver, final Resource res) {
         assertEquals(resolver, res.getResourceResolver());
     }
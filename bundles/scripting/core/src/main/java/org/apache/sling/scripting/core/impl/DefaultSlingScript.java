@@ -46,9 +46,12 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 import javax.script.SimpleBindings;
 import javax.servlet.Servlet;
@@ -116,6 +119,9 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
     /** The cache for services. */
     private final ServiceCache cache;
 
+    /** The cache for compiled scripts, might be <code>null</code>. */
+    private final ScriptCache scriptCache;
+
     /**
      * Constructor
      * @param bundleContext The bundle context
@@ -123,13 +129,16 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
      * @param scriptEngine The script engine
      * @param bindingsValuesProviders additional bindings values providers
      * @param cache serviceCache
+     * @param scriptCache cache for compiled scripts or <code>null</code>
      */
     DefaultSlingScript(final BundleContext bundleContext,
             final Resource scriptResource,
             final ScriptEngine scriptEngine,
             final Collection<BindingsValuesProvider> bindingsValuesProviders,
-            final ServiceCache cache) {
+            final ServiceCache cache,
+            final ScriptCache scriptCache) {
         this.scriptResource = scriptResource;
+        this.scriptCache = scriptCache;
         this.scriptEngine = scriptEngine;
         this.bundleContext = bundleContext;
         this.bindingsValuesProviders = bindingsValuesProviders;
@@ -352,13 +361,19 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
             ctx.setAttribute(SlingScriptConstants.ATTR_SCRIPT_RESOURCE_RESOLVER,
                     this.scriptResource.getResourceResolver(), SlingScriptConstants.SLING_SCOPE);
 
-            reader = getScriptReader();
-            if ( method != null && !(this.scriptEngine instanceof Invocable)) {
-                reader = getWrapperReader(reader, method, args);
-            }
+            // evaluate the script - use the compiled script if available
+            final Object result;
+            final CompiledScript compiledScript = (method == null) ? getCompiledScript() : null;
+            if ( compiledScript != null ) {
+                result = compiledScript.eval(ctx);
+            } else {
+                reader = getScriptReader();
+                if ( method != null && !(this.scriptEngine instanceof Invocable)) {
+                    reader = getWrapperReader(reader, method, args);
+                }
 
-            // evaluate the script
-            final Object result = scriptEngine.eval(reader, ctx);
+                result = scriptEngine.eval(reader, ctx);
+            }
 
             // call method - if supplied and script engine supports direct invocation
             if ( method != null && (this.scriptEngine instanceof Invocable)) {
@@ -413,6 +428,39 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
         }
     }
 
+    /**
+     * Returns the compiled script from the script cache, compiling and
+     * caching it first if required. If the script engine does not support
+     * compilation or the modification time of the script is not known,
+     * <code>null</code> is returned and the script is evaluated directly.
+     */
+    private CompiledScript getCompiledScript() throws IOException, ScriptException {
+        if ( this.scriptCache == null || !(this.scriptEngine instanceof Compilable) ) {
+            return null;
+        }
+        final long lastModified = this.scriptResource.getResourceMetadata().getModificationTime();
+        if ( lastModified <= 0 ) {
+            return null;
+        }
+        final ScriptEngineFactory factory = this.scriptEngine.getFactory();
+        CompiledScript compiledScript = this.scriptCache.get(this.scriptName, lastModified, factory);
+        if ( compiledScript == null ) {
+            final Reader reader = getScriptReader();
+            try {
+                this.scriptEngine.put(ScriptEngine.FILENAME, this.scriptName);
+                compiledScript = ((Compilable) this.scriptEngine).compile(reader);
+            } finally {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // don't care
+                }
+            }
+            this.scriptCache.put(this.scriptName, lastModified, factory, compiledScript);
+        }
+        return compiledScript;
+    }
+
     /**
      * @see javax.servlet.Servlet#init(javax.servlet.ServletConfig)
      */
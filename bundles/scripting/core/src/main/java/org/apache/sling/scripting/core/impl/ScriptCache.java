@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptEngineFactory;
+
+import org.apache.sling.api.SlingConstants;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * The <code>ScriptCache</code> keeps the compiled scripts of script engines
+ * implementing <code>javax.script.Compilable</code>.
+ * <p>
+ * Entries are keyed by the script path and are only valid for the
+ * modification time of the script resource and the script engine factory
+ * they have been compiled with. Entries are removed if the script resource
+ * is changed or removed and the least recently used entries are evicted
+ * once the maximum number of entries is reached.
+ */
+public class ScriptCache implements EventHandler {
+
+    private static final String CONTENT_SUFFIX = "/jcr:content";
+
+    private final Map<String, Entry> cache;
+
+    private ServiceRegistration eventHandlerRegistration;
+
+    public ScriptCache(final BundleContext ctx, final int maxEntries) {
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        if ( ctx != null ) {
+            final Dictionary<String, Object> props = new Hashtable<String, Object>();
+            props.put(Constants.SERVICE_DESCRIPTION, "Compiled Script Cache Invalidation");
+            props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+            props.put(EventConstants.EVENT_TOPIC, new String[] {
+                    SlingConstants.TOPIC_RESOURCE_CHANGED,
+                    SlingConstants.TOPIC_RESOURCE_REMOVED });
+            this.eventHandlerRegistration = ctx.registerService(EventHandler.class.getName(), this, props);
+        }
+    }
+
+    public void dispose() {
+        if ( this.eventHandlerRegistration != null ) {
+            this.eventHandlerRegistration.unregister();
+            this.eventHandlerRegistration = null;
+        }
+        this.clear();
+    }
+
+    /**
+     * Return the compiled script for the given script.
+     * @param path The script path
+     * @param lastModified The modification time of the script resource
+     * @param factory The factory of the script engine
+     * @return The compiled script or <code>null</code>
+     */
+    public CompiledScript get(final String path,
+            final long lastModified,
+            final ScriptEngineFactory factory) {
+        final Entry entry;
+        synchronized ( this.cache ) {
+            entry = this.cache.get(path);
+        }
+        if ( entry != null && entry.lastModified == lastModified && entry.factory == factory ) {
+            return entry.script;
+        }
+        return null;
+    }
+
+    /**
+     * Add a compiled script to the cache.
+     * @param path The script path
+     * @param lastModified The modification time of the script resource
+     * @param factory The factory of the script engine
+     * @param script The compiled script
+     */
+    public void put(final String path,
+            final long lastModified,
+            final ScriptEngineFactory factory,
+            final CompiledScript script) {
+        final Entry entry = new Entry(lastModified, factory, script);
+        synchronized ( this.cache ) {
+            this.cache.put(path, entry);
+        }
+    }
+
+    /**
+     * Remove the script and all scripts below the path.
+     * @param path The path
+     */
+    public void remove(final String path) {
+        final String prefix = path.endsWith("/") ? path : path.concat("/");
+        synchronized ( this.cache ) {
+            this.cache.remove(path);
+            final Iterator<String> i = this.cache.keySet().iterator();
+            while ( i.hasNext() ) {
+                if ( i.next().startsWith(prefix) ) {
+                    i.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized ( this.cache ) {
+            this.cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized ( this.cache ) {
+            return this.cache.size();
+        }
+    }
+
+    /**
+     * @see org.osgi.service.event.EventHandler#handleEvent(org.osgi.service.event.Event)
+     */
+    public void handleEvent(final Event event) {
+        final Object pathObject = event.getProperty(SlingConstants.PROPERTY_PATH);
+        if ( pathObject != null ) {
+            String path = pathObject.toString();
+            // changes of a file are reported for its content node
+            if ( path.endsWith(CONTENT_SUFFIX) ) {
+                path = path.substring(0, path.length() - CONTENT_SUFFIX.length());
+            }
+            if ( SlingConstants.TOPIC_RESOURCE_REMOVED.equals(event.getTopic()) ) {
+                this.remove(path);
+            } else {
+                synchronized ( this.cache ) {
+                    this.cache.remove(path);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        public final long lastModified;
+        public final ScriptEngineFactory factory;
+        public final CompiledScript script;
+
+        public Entry(final long lastModified, final ScriptEngineFactory factory, final CompiledScript script) {
+            this.lastModified = lastModified;
+            this.factory = factory;
+            this.script = script;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.api.adapter.AdapterFactory;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.commons.mime.MimeTypeProvider;
+import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.apache.sling.scripting.api.BindingsValuesProvider;
 import org.apache.sling.scripting.api.BindingsValuesProvidersByContext;
 import org.apache.sling.scripting.core.impl.helper.SlingScriptEngineManager;
@@ -61,6 +62,21 @@ public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvid
      */
     private ServiceCache serviceCache;
 
+    /** The default maximum number of compiled scripts cached. */
+    private static final int DEFAULT_SCRIPT_CACHE_SIZE = 1000;
+
+    /**
+     * The maximum number of compiled scripts cached. A value of zero or
+     * less disables the cache.
+     */
+    @Property(intValue = DEFAULT_SCRIPT_CACHE_SIZE)
+    private static final String PROP_SCRIPT_CACHE_SIZE = "script.cache.size";
+
+    /**
+     * The cache for compiled scripts.
+     */
+    private ScriptCache scriptCache;
+
     /**
      * The script engine manager.
      */
@@ -88,7 +104,7 @@ public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvid
                     bindingsValuesProviderTracker.getBindingsValuesProviders(engine.getFactory(), BINDINGS_CONTEXT);
             // unchecked cast
             return (AdapterType) new DefaultSlingScript(this.bundleContext,
-                    resource, engine, bindingsValuesProviders, this.serviceCache);
+                    resource, engine, bindingsValuesProviders, this.serviceCache, this.scriptCache);
         }
 
         return null;
@@ -147,9 +163,19 @@ public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvid
     protected void activate(ComponentContext context) {
         bundleContext = context.getBundleContext();
         this.serviceCache = new ServiceCache(this.bundleContext);
+
+        final int scriptCacheSize = PropertiesUtil.toInteger(context.getProperties().get(PROP_SCRIPT_CACHE_SIZE),
+                DEFAULT_SCRIPT_CACHE_SIZE);
+        if (scriptCacheSize > 0) {
+            this.scriptCache = new ScriptCache(this.bundleContext, scriptCacheSize);
+        }
     }
 
     protected void deactivate(ComponentContext context) {
+        if (this.scriptCache != null) {
+            this.scriptCache.dispose();
+            this.scriptCache = null;
+        }
         this.serviceCache.dispose();
         this.serviceCache = null;
         this.bundleContext = null;
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+import junit.framework.TestCase;
+
+import org.apache.sling.api.SlingConstants;
+import org.osgi.service.event.Event;
+
+public class ScriptCacheTest extends TestCase {
+
+    private final ScriptEngineFactory factory = new DummyScriptEngineFactory();
+
+    private CompiledScript script() {
+        return new CompiledScript() {
+            public Object eval(ScriptContext context) {
+                return null;
+            }
+
+            public ScriptEngine getEngine() {
+                return null;
+            }
+        };
+    }
+
+    private Event event(final String topic, final String path) {
+        final Dictionary<String, Object> props = new Hashtable<String, Object>();
+        props.put(SlingConstants.PROPERTY_PATH, path);
+        return new Event(topic, props);
+    }
+
+    public void testValidity() {
+        final ScriptCache cache = new ScriptCache(null, 10);
+        final CompiledScript script = script();
+        cache.put("/apps/a/a.ftl", 1000, factory, script);
+
+        assertSame(script, cache.get("/apps/a/a.ftl", 1000, factory));
+        // modified script
+        assertNull(cache.get("/apps/a/a.ftl", 2000, factory));
+        // different engine
+        assertNull(cache.get("/apps/a/a.ftl", 1000, new DummyScriptEngineFactory()));
+        assertNull(cache.get("/apps/a/b.ftl", 1000, factory));
+    }
+
+    public void testEviction() {
+        final ScriptCache cache = new ScriptCache(null, 2);
+        cache.put("/apps/a.ftl", 1, factory, script());
+        cache.put("/apps/b.ftl", 1, factory, script());
+        // access a, so b is the least recently used
+        assertNotNull(cache.get("/apps/a.ftl", 1, factory));
+        cache.put("/apps/c.ftl", 1, factory, script());
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("/apps/a.ftl", 1, factory));
+        assertNull(cache.get("/apps/b.ftl", 1, factory));
+        assertNotNull(cache.get("/apps/c.ftl", 1, factory));
+    }
+
+    public void testInvalidation() {
+        final ScriptCache cache = new ScriptCache(null, 10);
+        cache.put("/apps/a/a.ftl", 1, factory, script());
+        cache.put("/apps/a/b.ftl", 1, factory, script());
+        cache.put("/apps/ab/c.ftl", 1, factory, script());
+
+        // change of the file content
+        cache.handleEvent(event(SlingConstants.TOPIC_RESOURCE_CHANGED, "/apps/a/a.ftl/jcr:content"));
+        assertNull(cache.get("/apps/a/a.ftl", 1, factory));
+        assertEquals(2, cache.size());
+
+        // changing a folder does not invalidate the scripts below
+        cache.handleEvent(event(SlingConstants.TOPIC_RESOURCE_CHANGED, "/apps/a"));
+        assertEquals(2, cache.size());
+
+        // removing a folder invalidates all scripts below
+        cache.handleEvent(event(SlingConstants.TOPIC_RESOURCE_REMOVED, "/apps/a"));
+        assertNull(cache.get("/apps/a/b.ftl", 1, factory));
+        assertNotNull(cache.get("/apps/ab/c.ftl", 1, factory));
+
+        cache.handleEvent(new Event(SlingConstants.TOPIC_RESOURCE_REMOVED, (Dictionary<String, Object>) new Hashtable<String, Object>()));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.servlets.get.impl.helpers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.sling.api.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>ContentSource</code> provides the bytes of a streamed resource to
+ * the {@link StreamRendererServlet}, either completely or as ranges. Resources
+ * backed by a file, such as file system resources or binaries whose stream is
+ * a <code>FileInputStream</code>, are sent using positional
+ * <code>FileChannel</code> transfers, so ranges never read the bytes before
+ * their start. Other resources are read from their stream with a buffer sized
+ * to the content, reopening the stream only if a range starts before the
+ * current position.
+ * <p>
+ * The Servlet API only provides the response as an <code>OutputStream</code>,
+ * so the transfers go through a channel wrapping that stream and the bytes
+ * are still copied through a buffer. Neither the kernel level transfer to
+ * a socket nor memory mapping the file would avoid that copy, which is why
+ * files are not memory mapped.
+ */
+abstract class ContentSource implements Closeable {
+
+    static final int MIN_BUFFER_SIZE = 2048;
+
+    static final int MAX_BUFFER_SIZE = 64 * 1024;
+
+    /** default log */
+    private static final Logger log = LoggerFactory.getLogger(ContentSource.class);
+
+    /**
+     * Creates the source for the resource.
+     *
+     * @param resource The resource to send
+     * @param stream The stream the resource has been adapted to, owned by the
+     *            returned source from now on
+     */
+    static ContentSource create(final Resource resource, final InputStream stream) {
+        final File file = resource.adaptTo(File.class);
+        if (file != null && file.isFile() && file.canRead()) {
+            try {
+                final FileInputStream fileStream = new FileInputStream(file);
+                closeSilently(stream);
+                return new ChannelSource(fileStream);
+            } catch (IOException ioe) {
+                log.debug("create: Cannot open {}, using the resource stream",
+                    file, ioe);
+            }
+        }
+        if (stream instanceof FileInputStream) {
+            return new ChannelSource((FileInputStream) stream);
+        }
+        return new StreamSource(resource, stream,
+            bufferSize(resource.getResourceMetadata().getContentLength()));
+    }
+
+    /**
+     * Returns a buffer size in the range {@link #MIN_BUFFER_SIZE} to
+     * {@link #MAX_BUFFER_SIZE} large enough to hold the given length.
+     */
+    static int bufferSize(final long length) {
+        if (length <= 0) {
+            return MAX_BUFFER_SIZE / 4;
+        }
+        return (int) Math.min(MAX_BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, length));
+    }
+
+    /**
+     * Copies bytes of the content to the output stream.
+     *
+     * @param ostream The output stream to write to
+     * @param start The position of the first byte to copy
+     * @param length The number of bytes to copy or -1 to copy up to the end
+     * @exception IOException if an input/output error occurs
+     */
+    abstract void copy(OutputStream ostream, long start, long length)
+            throws IOException;
+
+    /**
+     * Closes the source without throwing.
+     */
+    public abstract void close();
+
+    static void closeSilently(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Content read through a <code>FileChannel</code> at the position of each
+     * range.
+     */
+    static class ChannelSource extends ContentSource {
+
+        private final FileInputStream fileStream;
+
+        private final FileChannel channel;
+
+        private OutputStream target;
+
+        private WritableByteChannel targetChannel;
+
+        ChannelSource(final FileInputStream fileStream) {
+            this.fileStream = fileStream;
+            this.channel = fileStream.getChannel();
+        }
+
+        @Override
+        void copy(final OutputStream ostream, final long start, final long length)
+                throws IOException {
+            if (target != ostream) {
+                target = ostream;
+                targetChannel = Channels.newChannel(ostream);
+            }
+
+            long position = start;
+            long remaining = (length < 0) ? channel.size() - start : length;
+            while (remaining > 0) {
+                final long transferred = channel.transferTo(position, remaining,
+                    targetChannel);
+                if (transferred <= 0) {
+                    throw new IOException("Failed to transfer " + remaining
+                        + " bytes at position " + position + " of "
+                        + channel.size() + " bytes");
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+
+        @Override
+        public void close() {
+            closeSilently(fileStream);
+        }
+    }
+
+    /**
+     * Content read from the stream of the resource.
+     */
+    static class StreamSource extends ContentSource {
+
+        private final Resource resource;
+
+        private final byte[] buffer;
+
+        private InputStream stream;
+
+        private long position;
+
+        StreamSource(final Resource resource, final InputStream stream,
+                final int bufferSize) {
+            this.resource = resource;
+            this.stream = stream;
+            this.buffer = new byte[bufferSize];
+        }
+
+        @Override
+        void copy(final OutputStream ostream, final long start, final long length)
+                throws IOException {
+            log.debug("copy: Serving {} bytes from {}", length, start);
+
+            if (start < position || stream == null) {
+                // ranges out of order, start from the beginning
+                closeSilently(stream);
+                stream = resource.adaptTo(InputStream.class);
+                position = 0;
+                if (stream == null) {
+                    throw new IOException("Cannot reopen stream of " + resource);
+                }
+            }
+
+            while (position < start) {
+                final long skipped = stream.skip(start - position);
+                if (skipped <= 0) {
+                    // skip may return 0 before the end, check by reading
+                    if (stream.read() < 0) {
+                        throw new IOException("Failed to skip " + start
+                            + " bytes; only skipped " + position + " bytes");
+                    }
+                    position++;
+                } else {
+                    position += skipped;
+                }
+            }
+
+            long remaining = (length < 0) ? Long.MAX_VALUE : length;
+            while (remaining > 0) {
+                final int rd = stream.read(buffer, 0,
+                    (int) Math.min(buffer.length, remaining));
+                if (rd < 0) {
+                    break;
+                }
+                ostream.write(buffer, 0, rd);
+                position += rd;
+                remaining -= rd;
+            }
+        }
+
+        @Override
+        public void close() {
+            closeSilently(stream);
+            stream = null;
+        }
+    }
+}
@@ -20,11 +20,9 @@ import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static org.apache.sling.api.servlets.HttpConstants.HEADER_IF_MODIFIED_SINCE;
 import static org.apache.sling.api.servlets.HttpConstants.HEADER_LAST_MODIFIED;
 
-import java.io.BufferedInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Date;
@@ -73,8 +71,6 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
      */
     private static ArrayList<Range> FULL = new ArrayList<Range>(0);
 
-    private static final int IO_BUFFER_SIZE = 2048;
-
     /** default log */
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -195,7 +191,9 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
             final SlingHttpServletRequest request,
             final SlingHttpServletResponse response) throws IOException {
         // finally stream the resource
+        ContentSource source = null;
         try {
+            source = ContentSource.create(resource, stream);
 
             final ArrayList<Range> ranges;
             if (included) {
@@ -225,11 +223,7 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                 // return full resource
                 setContentLength(response,
                     resource.getResourceMetadata().getContentLength());
-                byte[] buf = new byte[IO_BUFFER_SIZE];
-                int rd;
-                while ((rd = stream.read(buf)) >= 0) {
-                    out.write(buf, 0, rd);
-                }
+                source.copy(out, 0, -1);
 
             } else {
 
@@ -243,20 +237,24 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                         + "-" + range.end + "/" + range.length);
                     setContentLength(response, range.end - range.start + 1);
 
-                    copy(stream, out, range);
+                    source.copy(out, range.start, range.end - range.start + 1);
 
                 } else {
 
                     response.setContentType("multipart/byteranges; boundary="
                         + mimeSeparation);
 
-                    copy(resource, out, ranges.iterator());
+                    copy(resource, source, out, ranges.iterator());
                 }
 
             }
 
         } finally {
-            closeSilently(stream);
+            if (source != null) {
+                source.close();
+            } else {
+                closeSilently(stream);
+            }
         }
     }
 
@@ -446,46 +444,42 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
     /**
      * Copies a number of ranges from the given resource to the output stream.
-     * Copy the contents of the specified input stream to the specified output
-     * stream, and ensure that both streams are closed before returning (even in
-     * the face of an exception).
+     * All ranges are read from the same content source, which is closed by
+     * the caller.
      *
      * @param resource The resource from which to send ranges
+     * @param source The content of the resource
      * @param ostream The output stream to write to
      * @param ranges Iterator of the ranges the client wanted to retrieve
-     * @param contentType Content type of the resource
      * @exception IOException if an input/output error occurs
      */
-    private void copy(Resource resource, ServletOutputStream ostream,
-            Iterator<Range> ranges) throws IOException {
+    private void copy(Resource resource, ContentSource source,
+            ServletOutputStream ostream, Iterator<Range> ranges)
+            throws IOException {
 
         String contentType = resource.getResourceMetadata().getContentType();
         IOException exception = null;
 
         while ((exception == null) && (ranges.hasNext())) {
 
-            InputStream resourceInputStream = resource.adaptTo(InputStream.class);
-            InputStream istream = new BufferedInputStream(resourceInputStream,
-                IO_BUFFER_SIZE);
+            Range currentRange = ranges.next();
 
-            try {
-                Range currentRange = ranges.next();
+            // Writing MIME header.
+            ostream.println();
+            ostream.println("--" + mimeSeparation);
+            if (contentType != null) {
+                ostream.println("Content-Type: " + contentType);
+            }
+            ostream.println("Content-Range: bytes " + currentRange.start + "-"
+                + currentRange.end + "/" + currentRange.length);
+            ostream.println();
 
-                // Writing MIME header.
-                ostream.println();
-                ostream.println("--" + mimeSeparation);
-                if (contentType != null) {
-                    ostream.println("Content-Type: " + contentType);
-                }
-                ostream.println("Content-Range: bytes " + currentRange.start + "-"
-                    + currentRange.end + "/" + currentRange.length);
-                ostream.println();
-
-                // Printing content
-                exception = copyRange(istream, ostream, currentRange.start,
-                    currentRange.end);
-            } finally {
-                closeSilently(istream);
+            // Printing content
+            try {
+                source.copy(ostream, currentRange.start, currentRange.end
+                    - currentRange.start + 1);
+            } catch (IOException ioe) {
+                exception = ioe;
             }
 
         }
@@ -498,79 +492,6 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
     }
 
-    /**
-    * Copy the contents of the specified input stream to the specified
-    * output stream.
-    *
-    * @param cacheEntry The cache entry for the source resource
-    * @param ostream The output stream to write to
-    * @param range Range the client wanted to retrieve
-    * @exception IOException if an input/output error occurs
-    */
-    private void copy(InputStream resourceInputStream, OutputStream ostream,
-            Range range) throws IOException {
-
-        InputStream istream = new BufferedInputStream(resourceInputStream, IO_BUFFER_SIZE);
-        IOException exception = copyRange(istream, ostream, range.start, range.end);
-
-        // Rethrow any exception that has occurred
-        if (exception != null) {
-            throw exception;
-        }
-    }
-
-    /**
-     * Copy the contents of the specified input stream to the specified output
-     * stream.
-     *
-     * @param istream The input stream to read from
-     * @param ostream The output stream to write to
-     * @param start Start of the range which will be copied
-     * @param end End of the range which will be copied
-     * @return Exception which occurred during processing
-     */
-    private IOException copyRange(InputStream istream,
-            OutputStream ostream, long start, long end) {
-
-        log.debug("copyRange: Serving bytes: {}-{}", start, end);
-
-        try {
-            long skipped = istream.skip(start);
-            if (skipped < start) {
-                return new IOException("Failed to skip " + start
-                    + " bytes; only skipped " + skipped + " bytes");
-            }
-        } catch (IOException e) {
-            return e;
-        }
-
-        IOException exception = null;
-        long bytesToRead = end - start + 1;
-
-        byte buffer[] = new byte[IO_BUFFER_SIZE];
-        int len = buffer.length;
-        while ((bytesToRead > 0) && (len >= buffer.length)) {
-            try {
-                len = istream.read(buffer);
-                if (bytesToRead >= len) {
-                    ostream.write(buffer, 0, len);
-                    bytesToRead -= len;
-                } else {
-                    ostream.write(buffer, 0, (int) bytesToRead);
-                    bytesToRead = 0;
-                }
-            } catch (IOException e) {
-                exception = e;
-                len = -1;
-            }
-            if (len < buffer.length) {
-                break;
-            }
-        }
-
-        return exception;
-    }
-
     /**
      * Parse the range header.
      *
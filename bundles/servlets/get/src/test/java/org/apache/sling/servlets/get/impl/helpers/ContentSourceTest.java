@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.get.impl.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.sling.api.resource.SyntheticResource;
+
+public class ContentSourceTest extends TestCase {
+
+    private static final byte[] CONTENT = new byte[100000];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) (i % 251);
+        }
+    }
+
+    private File file;
+
+    private int streamsOpened;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("contentsource", ".bin");
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(CONTENT);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+        super.tearDown();
+    }
+
+    public void testFileResource() throws IOException {
+        final ContentSource source = ContentSource.create(new TestResource(
+            true), new ByteArrayInputStream(CONTENT));
+        assertTrue(source instanceof ContentSource.ChannelSource);
+        assertRanges(source);
+    }
+
+    public void testFileInputStream() throws IOException {
+        final ContentSource source = ContentSource.create(new TestResource(
+            false), new FileInputStream(file));
+        assertTrue(source instanceof ContentSource.ChannelSource);
+        assertRanges(source);
+    }
+
+    public void testStream() throws IOException {
+        final TestResource resource = new TestResource(false);
+        final ContentSource source = ContentSource.create(resource,
+            resource.adaptTo(InputStream.class));
+        assertTrue(source instanceof ContentSource.StreamSource);
+        assertRanges(source);
+        // ranges in ascending order share the stream, going back reopens it
+        assertEquals(3, streamsOpened);
+    }
+
+    public void testBufferSize() {
+        assertEquals(ContentSource.MIN_BUFFER_SIZE, ContentSource.bufferSize(10));
+        assertEquals(5000, ContentSource.bufferSize(5000));
+        assertEquals(ContentSource.MAX_BUFFER_SIZE,
+            ContentSource.bufferSize(1L << 32));
+    }
+
+    private void assertRanges(final ContentSource source) throws IOException {
+        try {
+            assertCopy(source, 0, -1);
+            assertCopy(source, 10, 90);
+            assertCopy(source, 50000, 1);
+            assertCopy(source, 99000, 1000);
+            assertCopy(source, 5, 70000);
+        } finally {
+            source.close();
+        }
+    }
+
+    private void assertCopy(final ContentSource source, final long start,
+            final long length) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        source.copy(out, start, length);
+        final byte[] result = out.toByteArray();
+        final int expected = (int) ((length < 0) ? CONTENT.length - start : length);
+        assertEquals(expected, result.length);
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(CONTENT[(int) start + i], result[i]);
+        }
+    }
+
+    private class TestResource extends SyntheticResource {
+
+        private final boolean adaptToFile;
+
+        TestResource(final boolean adaptToFile) {
+            super(null, "/content/file.bin", "nt:file");
+            this.adaptToFile = adaptToFile;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <AdapterType> AdapterType adaptTo(Class<AdapterType> type) {
+            if (type == File.class && adaptToFile) {
+                return (AdapterType) file;
+            } else if (type == InputStream.class) {
+                streamsOpened++;
+                return (AdapterType) new ByteArrayInputStream(CONTENT);
+            }
+            return null;
+        }
+    }
+}
@@ -139,6 +139,11 @@ public class SlingPostServlet extends SlingAllMethodsServlet {
     @Property(value = DEFAULT_IGNORED_PARAMETER_NAME_PATTERN)
     private static final String PROP_IGNORED_PARAMETER_NAME_PATTERN = "servlet.post.ignorePattern";
 
+    private static final boolean DEFAULT_STREAM_CHUNK_ASSEMBLY = true;
+
+    @Property(boolValue = DEFAULT_STREAM_CHUNK_ASSEMBLY)
+    private static final String PROP_STREAM_CHUNK_ASSEMBLY = "servlet.post.streamChunkAssembly";
+
     private final ModifyOperation modifyOperation = new ModifyOperation();
 
     private ServiceRegistration[] internalOperations;
@@ -454,6 +459,9 @@ public class SlingPostServlet extends SlingAllMethodsServlet {
         this.importOperation.setDefaultNodeNameGenerator(nodeNameGenerator);
         this.modifyOperation.setIgnoredParameterNamePattern(paramMatchPattern);
         this.importOperation.setIgnoredParameterNamePattern(paramMatchPattern);
+        this.modifyOperation.setStreamChunkAssembly(OsgiUtil.toBoolean(
+            configuration.get(PROP_STREAM_CHUNK_ASSEMBLY),
+            DEFAULT_STREAM_CHUNK_ASSEMBLY));
     }
 
     @Override
@@ -25,13 +25,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
+import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
@@ -111,10 +114,20 @@ public class SlingFileUploadHandler {
      */
     private ServletContext servletContext;
 
+    /**
+     * Whether the last chunk streams all chunks straight into the final
+     * binary instead of merging them through a temporary file.
+     */
+    private boolean streamChunkAssembly = true;
+
     public void setServletContext(ServletContext servletContext) {
         this.servletContext = servletContext;
     }
 
+    public void setStreamChunkAssembly(boolean streamChunkAssembly) {
+        this.streamChunkAssembly = streamChunkAssembly;
+    }
+
     /**
      * Uses the file(s) in the request parameter for creation of new nodes.
      * if the parent node is a nt:folder a new nt:file is created. otherwise
@@ -309,33 +322,20 @@ public class SlingFileUploadHandler {
             String nodeName = SlingPostConstants.CHUNK_NODE_NAME + "_"
                 + String.valueOf(chunkOffset) + "_"
                 + String.valueOf(chunkOffset + value.getSize() - 1);
-            if (totalLength == (currentLength + value.getSize())
-                || prop.getChunk().isCompleted()) {
+            final boolean lastChunk = totalLength == (currentLength + value.getSize())
+                || prop.getChunk().isCompleted();
+            if (lastChunk && streamChunkAssembly) {
+                assembleChunks(res, value.getInputStream(), currentLength,
+                    value.getSize(), changes);
+            } else if (lastChunk) {
                 File file = null;
                 InputStream fileIns = null;
                 try {
-                    file = mergeChunks(res, value.getInputStream());
+                    file = mergeChunks(res, value.getInputStream(), currentLength);
                     fileIns = new FileInputStream(file);
                     changes.add(Modification.onModified(res.setProperty(
                         JCR_DATA, fileIns).getPath()));
-                    NodeIterator nodeItr = res.getNodes(SlingPostConstants.CHUNK_NODE_NAME
-                        + "*");
-                    while (nodeItr.hasNext()) {
-                        Node nodeRange = nodeItr.nextNode();
-                        changes.add(Modification.onDeleted(nodeRange.getPath()));
-                        nodeRange.remove();
-                    }
-                    if (res.hasProperty(SlingPostConstants.NT_SLING_FILE_LENGTH)) {
-                        javax.jcr.Property expLenProp = res.getProperty(SlingPostConstants.NT_SLING_FILE_LENGTH);
-                        changes.add(Modification.onDeleted(expLenProp.getPath()));
-                        expLenProp.remove();
-                    }
-                    if (res.hasProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH)) {
-                        javax.jcr.Property currLenProp = res.getProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH);
-                        changes.add(Modification.onDeleted(currLenProp.getPath()));
-                        currLenProp.remove();
-                    }
-                    res.removeMixin(SlingPostConstants.NT_SLING_CHUNK_MIXIN);
+                    removeChunks(res, changes);
                 } finally {
                     try {
                         fileIns.close();
@@ -363,46 +363,72 @@ public class SlingFileUploadHandler {
         }
     }
 
+    /**
+     * Stream all previous chunks followed by the last chunk's stream into the
+     * <code>jcr:data</code> property of the node and remove the chunks once
+     * the binary has been set.
+     */
+    private void assembleChunks(final Node res,
+            final InputStream lastChunkStream, final long currentLength,
+            final long lastChunkLength, final List<Modification> changes)
+            throws RepositoryException, IOException {
+        final List<Node> chunks = getOrderedChunks(res, currentLength);
+        final long fileLength = currentLength + lastChunkLength;
+        final InputStream merged = new SequenceInputStream(
+            new ChunkStreams(chunks, lastChunkStream));
+        try {
+            changes.add(Modification.onModified(res.setProperty(JCR_DATA,
+                merged).getPath()));
+        } finally {
+            IOUtils.closeQuietly(merged);
+        }
+        removeChunks(res, changes);
+        log.debug("assembled {} chunks of {} bytes into {}", new Object[] {
+            chunks.size() + 1, fileLength, res.getPath() });
+    }
+
+    /**
+     * Remove the chunk nodes, the chunk length properties and the
+     * sling:chunks mixin of a node whose upload has been completed.
+     */
+    private void removeChunks(final Node res, final List<Modification> changes)
+            throws RepositoryException {
+        NodeIterator nodeItr = res.getNodes(SlingPostConstants.CHUNK_NODE_NAME
+            + "*");
+        while (nodeItr.hasNext()) {
+            Node nodeRange = nodeItr.nextNode();
+            changes.add(Modification.onDeleted(nodeRange.getPath()));
+            nodeRange.remove();
+        }
+        if (res.hasProperty(SlingPostConstants.NT_SLING_FILE_LENGTH)) {
+            javax.jcr.Property expLenProp = res.getProperty(SlingPostConstants.NT_SLING_FILE_LENGTH);
+            changes.add(Modification.onDeleted(expLenProp.getPath()));
+            expLenProp.remove();
+        }
+        if (res.hasProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH)) {
+            javax.jcr.Property currLenProp = res.getProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH);
+            changes.add(Modification.onDeleted(currLenProp.getPath()));
+            currLenProp.remove();
+        }
+        res.removeMixin(SlingPostConstants.NT_SLING_CHUNK_MIXIN);
+    }
+
     /**
      * Merge all previous chunks with last chunk's stream into a temporary file
      * and return it.
      */
     private File mergeChunks(final Node parentNode,
-            final InputStream lastChunkStream) throws PersistenceException,
-            RepositoryException {
+            final InputStream lastChunkStream, final long currentLength)
+            throws PersistenceException, RepositoryException {
         OutputStream out = null;
         SequenceInputStream  mergeStrm = null;
         File file = null;
         try {
+            final List<Node> chunks = getOrderedChunks(parentNode, currentLength);
             file = File.createTempFile("tmp-", "-mergechunk");
             out = new FileOutputStream(file);
-            String startPattern = SlingPostConstants.CHUNK_NODE_NAME + "_"
-                + "0_*";
-            NodeIterator nodeItr = parentNode.getNodes(startPattern);
-            InputStream ins = null;
-            int i = 0;
-            Set<InputStream> inpStrmSet = new LinkedHashSet<InputStream>();
-            while (nodeItr.hasNext()) {
-                if (nodeItr.getSize() > 1) {
-                    throw new RepositoryException(
-                        "more than one node found for pattern: " + startPattern);
-                }
-                Node rangeNode = nodeItr.nextNode();
-
-                inpStrmSet.add(rangeNode.getProperty(
-                    javax.jcr.Property.JCR_DATA).getBinary().getStream());
-                log.debug("added chunk {} to merge stream", rangeNode.getName());
-                String[] indexBounds = rangeNode.getName().substring(
-                    (SlingPostConstants.CHUNK_NODE_NAME + "_").length()).split(
-                    "_");
-                startPattern = SlingPostConstants.CHUNK_NODE_NAME + "_"
-                    + String.valueOf(Long.valueOf(indexBounds[1]) + 1) + "_*";
-                nodeItr = parentNode.getNodes(startPattern);
-            }
-
-            inpStrmSet.add(lastChunkStream);
-            mergeStrm = new SequenceInputStream(
-                Collections.enumeration(inpStrmSet));
+            mergeStrm = new SequenceInputStream(new ChunkStreams(chunks,
+                lastChunkStream));
             IOUtils.copyLarge(mergeStrm, out);
         } catch (IOException e) {
             throw new PersistenceException("excepiton occured", e);
@@ -415,20 +441,95 @@ public class SlingFileUploadHandler {
     }
 
     /**
-     * Delete all chunks saved within a node. If no chunks exist, it is no-op.
+     * Returns the chunk nodes of the node ordered by offset, read from a
+     * single listing of the children.
+     *
+     * @param parentNode the node containing the chunks
+     * @param expectedLength the cumulative length the chunks must cover
+     *            without gaps, or -1 not to check the chunks
+     * @throws RepositoryException if the chunks have gaps or overlap
      */
-    public void deleteChunks(final Node node) throws RepositoryException {
-        // parent node containing all chunks and has mixin sling:chunks applied
-        // on it.
-        Node chunkParent = null;
-        Node jcrContentNode = null;
-        if (hasChunks(node)) {
-            chunkParent = node;
-        } else if (node.hasNode(JCR_CONTENT)
-            && hasChunks((jcrContentNode = node.getNode(JCR_CONTENT)))) {
-            chunkParent = jcrContentNode;
+    private List<Node> getOrderedChunks(final Node parentNode,
+            final long expectedLength) throws RepositoryException {
+        final String prefix = SlingPostConstants.CHUNK_NODE_NAME + "_";
+        final SortedMap<Long, Node> chunks = new TreeMap<Long, Node>();
+        final Map<Long, Long> ends = new HashMap<Long, Long>();
+        final NodeIterator nodeItr = parentNode.getNodes(prefix + "*");
+        while (nodeItr.hasNext()) {
+            final Node chunk = nodeItr.nextNode();
+            final String[] indexBounds = chunk.getName().substring(
+                prefix.length()).split("_");
+            try {
+                final Long start = Long.valueOf(indexBounds[0]);
+                chunks.put(start, chunk);
+                ends.put(start, Long.valueOf(indexBounds[1]));
+            } catch (RuntimeException re) {
+                throw new RepositoryException("Invalid chunk name "
+                    + chunk.getPath());
+            }
+        }
+        if (expectedLength < 0) {
+            return new ArrayList<Node>(chunks.values());
+        }
+        long next = 0;
+        for (final Map.Entry<Long, Node> entry : chunks.entrySet()) {
+            if (entry.getKey().longValue() != next) {
+                throw new RepositoryException("Expected chunk at offset {"
+                    + next + "} but found {" + entry.getValue().getPath() + "}");
+            }
+            next = ends.get(entry.getKey()).longValue() + 1;
+        }
+        if (next != expectedLength) {
+            throw new RepositoryException("Chunks at {" + parentNode.getPath()
+                + "} cover {" + next + "} bytes, expected {" + expectedLength
+                + "}");
+        }
+        return new ArrayList<Node>(chunks.values());
+    }
+
+    /**
+     * Opens the stream of each chunk only when the previous one has been
+     * consumed, finishing with the last chunk's stream.
+     */
+    private static final class ChunkStreams implements Enumeration<InputStream> {
+
+        private final Iterator<Node> chunks;
 
+        private InputStream lastChunkStream;
+
+        ChunkStreams(final List<Node> chunks, final InputStream lastChunkStream) {
+            this.chunks = chunks.iterator();
+            this.lastChunkStream = lastChunkStream;
         }
+
+        public boolean hasMoreElements() {
+            return chunks.hasNext() || lastChunkStream != null;
+        }
+
+        public InputStream nextElement() {
+            if (chunks.hasNext()) {
+                final Node chunk = chunks.next();
+                try {
+                    return chunk.getProperty(JCR_DATA).getBinary().getStream();
+                } catch (RepositoryException re) {
+                    throw new IllegalStateException("Cannot read chunk "
+                        + chunk, re);
+                }
+            }
+            if (lastChunkStream == null) {
+                throw new NoSuchElementException();
+            }
+            final InputStream result = lastChunkStream;
+            lastChunkStream = null;
+            return result;
+        }
+    }
+
+    /**
+     * Delete all chunks saved within a node. If no chunks exist, it is no-op.
+     */
+    public void deleteChunks(final Node node) throws RepositoryException {
+        final Node chunkParent = getChunkParent(node);
         if (chunkParent != null) {
             NodeIterator nodeItr = chunkParent.getNodes(SlingPostConstants.CHUNK_NODE_NAME
                 + "*");
@@ -459,34 +560,29 @@ public class SlingFileUploadHandler {
      * @throws RepositoryException
      */
     public Node getLastChunk(Node node) throws RepositoryException {
-        // parent node containing all chunks and has mixin sling:chunks applied
-        // on it.
-        Node chunkParent = null;
-        Node jcrContentNode = null;
-        if (hasChunks(node)) {
-            chunkParent = node;
-        } else if (node.hasNode(JCR_CONTENT)
-            && hasChunks((jcrContentNode = node.getNode(JCR_CONTENT)))) {
-            chunkParent = jcrContentNode;
+        final Node chunkParent = getChunkParent(node);
+        if (chunkParent == null) {
+            return null;
+        }
+        final List<Node> chunks = getOrderedChunks(chunkParent, -1);
+        return chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+    }
 
+    /**
+     * Return the node or its jcr:content child having the sling:chunks mixin
+     * applied, or null if neither has.
+     */
+    private Node getChunkParent(final Node node) throws RepositoryException {
+        if (hasChunks(node)) {
+            return node;
         }
-        String startPattern = SlingPostConstants.CHUNK_NODE_NAME + "_" + "0_*";
-        NodeIterator nodeItr = chunkParent.getNodes(startPattern);
-        Node chunkNode = null;
-        while (nodeItr.hasNext()) {
-            if (nodeItr.getSize() > 1) {
-                throw new RepositoryException(
-                    "more than one node found for pattern: " + startPattern);
+        if (node.hasNode(JCR_CONTENT)) {
+            final Node jcrContentNode = node.getNode(JCR_CONTENT);
+            if (hasChunks(jcrContentNode)) {
+                return jcrContentNode;
             }
-            chunkNode = nodeItr.nextNode();
-
-            String[] indexBounds = chunkNode.getName().substring(
-                (SlingPostConstants.CHUNK_NODE_NAME + "_").length()).split("_");
-            startPattern = SlingPostConstants.CHUNK_NODE_NAME + "_"
-                + String.valueOf(Long.valueOf(indexBounds[1]) + 1) + "_*";
-            nodeItr = chunkParent.getNodes(startPattern);
         }
-        return chunkNode;
+        return null;
     }
 
     /**
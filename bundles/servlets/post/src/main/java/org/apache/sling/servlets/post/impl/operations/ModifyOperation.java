@@ -70,6 +70,10 @@ public class ModifyOperation extends AbstractCreateOperation {
         this.uploadHandler.setServletContext(servletContext);
     }
 
+    public void setStreamChunkAssembly(final boolean streamChunkAssembly) {
+        this.uploadHandler.setStreamChunkAssembly(streamChunkAssembly);
+    }
+
     public void setDateParser(final DateParser dateParser) {
         this.dateParser = dateParser;
     }
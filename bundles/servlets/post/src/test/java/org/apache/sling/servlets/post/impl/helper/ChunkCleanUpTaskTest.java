@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.post.impl.helper;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jcr.Node;
+
+import junitx.util.PrivateAccessor;
+
+import org.apache.sling.commons.testing.jcr.RepositoryTestBase;
+import org.apache.sling.commons.testing.jcr.RepositoryUtil;
+import org.apache.sling.servlets.post.SlingPostConstants;
+
+public class ChunkCleanUpTaskTest extends RepositoryTestBase {
+
+    private Node root;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        RepositoryUtil.registerNodeType(getSession(),
+            getClass().getResourceAsStream("/SLING-INF/nodetypes/chunk.cnd"));
+        root = getSession().getRootNode().addNode(
+            "chunks" + System.currentTimeMillis(), "nt:unstructured");
+        session.save();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (root != null) {
+            session.refresh(false);
+            root.remove();
+            session.save();
+        }
+        super.tearDown();
+    }
+
+    public void testAbandonedUploadRemoved() throws Exception {
+        final Node upload = addUpload("abandoned");
+        session.save();
+        Thread.sleep(10);
+
+        createTask(0).run();
+
+        session.refresh(false);
+        assertFalse(upload.hasNodes());
+        assertFalse(upload.isNodeType(SlingPostConstants.NT_SLING_CHUNK_MIXIN));
+        assertFalse(upload.hasProperty(SlingPostConstants.NT_SLING_FILE_LENGTH));
+        assertFalse(upload.hasProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH));
+    }
+
+    public void testActiveUploadKept() throws Exception {
+        final Node upload = addUpload("active");
+        session.save();
+
+        createTask(60).run();
+
+        session.refresh(false);
+        assertTrue(upload.hasNode("chunk_0_9"));
+        assertTrue(upload.hasNode("chunk_10_19"));
+        assertTrue(upload.isNodeType(SlingPostConstants.NT_SLING_CHUNK_MIXIN));
+        assertEquals(20, upload.getProperty(
+            SlingPostConstants.NT_SLING_CHUNKS_LENGTH).getLong());
+    }
+
+    private ChunkCleanUpTask createTask(final int age) throws Exception {
+        final ChunkCleanUpTask task = new ChunkCleanUpTask();
+        PrivateAccessor.setField(task, "repository", getRepository());
+        final Map<String, Object> config = new HashMap<String, Object>();
+        config.put("chunk.cleanup.age", age);
+        task.activate(null, config);
+        return task;
+    }
+
+    private Node addUpload(final String name) throws Exception {
+        final Node upload = root.addNode(name, "nt:unstructured");
+        upload.addMixin(SlingPostConstants.NT_SLING_CHUNK_MIXIN);
+        upload.setProperty(SlingPostConstants.NT_SLING_FILE_LENGTH, 25);
+        upload.setProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH, 20);
+        addChunk(upload, 0, 10);
+        addChunk(upload, 10, 10);
+        return upload;
+    }
+
+    private void addChunk(final Node upload, final long offset, final int length)
+            throws Exception {
+        final Node chunk = upload.addNode(SlingPostConstants.CHUNK_NODE_NAME
+            + "_" + offset + "_" + (offset + length - 1),
+            SlingPostConstants.NT_SLING_CHUNK_NODETYPE);
+        chunk.setProperty(SlingPostConstants.NT_SLING_CHUNK_OFFSET, offset);
+        chunk.setProperty(SlingFileUploadHandler.JCR_DATA,
+            session.getValueFactory().createBinary(
+                new ByteArrayInputStream(new byte[length])));
+    }
+}
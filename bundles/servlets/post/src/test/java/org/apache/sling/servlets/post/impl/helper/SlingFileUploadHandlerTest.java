@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.post.impl.helper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.apache.sling.commons.testing.jcr.RepositoryTestBase;
+import org.apache.sling.commons.testing.jcr.RepositoryUtil;
+import org.apache.sling.servlets.post.Modification;
+import org.apache.sling.servlets.post.SlingPostConstants;
+
+public class SlingFileUploadHandlerTest extends RepositoryTestBase {
+
+    private static final String FILE_NAME = "file.bin";
+
+    private SlingFileUploadHandler handler;
+
+    private Node folder;
+
+    private Node content;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        RepositoryUtil.registerNodeType(getSession(),
+            getClass().getResourceAsStream("/SLING-INF/nodetypes/chunk.cnd"));
+
+        handler = new SlingFileUploadHandler();
+        folder = getSession().getRootNode().addNode(
+            "upload" + System.currentTimeMillis(), "nt:folder");
+        content = folder.addNode(FILE_NAME, "nt:file").addNode(
+            SlingFileUploadHandler.JCR_CONTENT, "nt:resource");
+        content.setProperty(SlingFileUploadHandler.JCR_DATA,
+            getSession().getValueFactory().createBinary(
+                new ByteArrayInputStream(new byte[0])));
+        content.setProperty(SlingFileUploadHandler.JCR_LASTMODIFIED,
+            Calendar.getInstance());
+        session.save();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (folder != null) {
+            session.refresh(false);
+            folder.remove();
+            session.save();
+        }
+        super.tearDown();
+    }
+
+    public void testStreamedChunkUpload() throws Exception {
+        upload(0, "0123456789", 25);
+        upload(10, "abcdefghij", 25);
+        upload(20, "ABCDE", 25);
+
+        assertEquals("0123456789abcdefghijABCDE", getData());
+        assertChunksRemoved();
+    }
+
+    public void testMergedChunkUpload() throws Exception {
+        handler.setStreamChunkAssembly(false);
+        upload(0, "0123456789", 25);
+        upload(10, "abcdefghij", 25);
+        upload(20, "ABCDE", 25);
+
+        assertEquals("0123456789abcdefghijABCDE", getData());
+        assertChunksRemoved();
+    }
+
+    public void testCompletedChunkUpload() throws Exception {
+        upload(0, "0123456789", 0);
+        final Chunk chunk = new Chunk();
+        chunk.setOffsetValue(10);
+        chunk.setCompleted(true);
+        upload(chunk, "abc");
+
+        assertEquals("0123456789abc", getData());
+        assertChunksRemoved();
+    }
+
+    public void testChunkUploadAfterCompletedUpload() throws Exception {
+        upload(0, "0123456789", 15);
+        upload(10, "abcde", 15);
+        upload(0, "9876543210", 12);
+        upload(10, "xy", 12);
+
+        assertEquals("9876543210xy", getData());
+        assertChunksRemoved();
+    }
+
+    public void testOutOfOrderChunk() throws Exception {
+        upload(0, "0123456789", 25);
+        try {
+            upload(20, "ABCDE", 25);
+            fail("Expected chunk ahead of the expected offset to be rejected");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+        upload(10, "abcdefghij", 25);
+        upload(20, "ABCDE", 25);
+
+        assertEquals("0123456789abcdefghijABCDE", getData());
+        assertChunksRemoved();
+    }
+
+    public void testChunksAssembledByOffset() throws Exception {
+        // the listing of the chunk nodes is not in the order of the offsets
+        startChunks(25, 20);
+        addChunk(10, "abcdefghij");
+        addChunk(0, "0123456789");
+        session.save();
+
+        upload(20, "ABCDE", 25);
+
+        assertEquals("0123456789abcdefghijABCDE", getData());
+        assertChunksRemoved();
+    }
+
+    public void testMergedChunksAssembledByOffset() throws Exception {
+        handler.setStreamChunkAssembly(false);
+        startChunks(25, 20);
+        addChunk(10, "abcdefghij");
+        addChunk(0, "0123456789");
+        session.save();
+
+        upload(20, "ABCDE", 25);
+
+        assertEquals("0123456789abcdefghijABCDE", getData());
+        assertChunksRemoved();
+    }
+
+    public void testMissingChunk() throws Exception {
+        startChunks(25, 20);
+        addChunk(0, "0123456789");
+        addChunk(15, "fghij");
+        session.save();
+
+        try {
+            upload(20, "ABCDE", 25);
+            fail("Expected assembly with a missing chunk to fail");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+        assertEquals("", getData());
+        assertTrue(content.hasNode("chunk_0_9"));
+        assertTrue(content.hasNode("chunk_15_19"));
+    }
+
+    public void testMissingLastChunks() throws Exception {
+        // the cumulative length claims more bytes than the chunks hold
+        startChunks(25, 20);
+        addChunk(0, "0123456789");
+        session.save();
+
+        try {
+            upload(20, "ABCDE", 25);
+            fail("Expected assembly with missing chunks to fail");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+        assertEquals("", getData());
+    }
+
+    public void testOverlappingChunks() throws Exception {
+        startChunks(25, 20);
+        addChunk(0, "0123456789");
+        addChunk(5, "56789abcde");
+        addChunk(15, "fghij");
+        session.save();
+
+        try {
+            upload(20, "ABCDE", 25);
+            fail("Expected assembly with overlapping chunks to fail");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+        assertEquals("", getData());
+    }
+
+    public void testDuplicateChunk() throws Exception {
+        upload(0, "0123456789", 25);
+        upload(10, "abcdefghij", 25);
+        try {
+            upload(10, "abcdefghij", 25);
+            fail("Expected repeated chunk to be rejected");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+        try {
+            upload(0, "0123456789", 25);
+            fail("Expected repeated first chunk to be rejected");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+        upload(20, "ABCDE", 25);
+
+        assertEquals("0123456789abcdefghijABCDE", getData());
+        assertChunksRemoved();
+    }
+
+    public void testChunkAlreadyPresent() throws Exception {
+        // the cumulative length lags behind a chunk already stored
+        startChunks(25, 10);
+        addChunk(0, "0123456789");
+        addChunk(10, "abcdefghij");
+        session.save();
+
+        try {
+            upload(10, "abcdefghij", 25);
+            fail("Expected chunk at an offset already present to be rejected");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+        assertTrue(content.hasNode("chunk_10_19"));
+    }
+
+    public void testFileLengthMismatch() throws Exception {
+        upload(0, "0123456789", 25);
+        try {
+            upload(10, "abcdefghij", 30);
+            fail("Expected chunk with a different file length to be rejected");
+        } catch (RepositoryException re) {
+            session.refresh(false);
+        }
+    }
+
+    public void testGetLastChunk() throws Exception {
+        assertNull(handler.getLastChunk(content));
+
+        startChunks(25, 20);
+        addChunk(10, "abcdefghij");
+        addChunk(0, "0123456789");
+
+        assertEquals("chunk_10_19", handler.getLastChunk(content).getName());
+        assertEquals("chunk_10_19",
+            handler.getLastChunk(content.getParent()).getName());
+    }
+
+    public void testDeleteChunks() throws Exception {
+        startChunks(25, 20);
+        addChunk(0, "0123456789");
+        addChunk(10, "abcdefghij");
+
+        handler.deleteChunks(content.getParent());
+
+        assertChunksRemoved();
+    }
+
+    private void upload(final long offset, final String data,
+            final long length) throws Exception {
+        final Chunk chunk = new Chunk();
+        chunk.setOffsetValue(offset);
+        chunk.setLength(length);
+        upload(chunk, data);
+    }
+
+    private void upload(final Chunk chunk, final String data)
+            throws Exception {
+        final RequestProperty prop = new RequestProperty(folder.getPath() + "/"
+            + FILE_NAME);
+        prop.setValues(new RequestParameter[] { new BytesParameter(
+            data.getBytes("UTF-8")) });
+        prop.setChunk(chunk);
+        final List<Modification> changes = new ArrayList<Modification>();
+        handler.setFile(resource(folder), prop, changes);
+        session.save();
+    }
+
+    private void startChunks(final long fileLength, final long chunksLength)
+            throws RepositoryException {
+        content.addMixin(SlingPostConstants.NT_SLING_CHUNK_MIXIN);
+        content.setProperty(SlingPostConstants.NT_SLING_FILE_LENGTH, fileLength);
+        content.setProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH,
+            chunksLength);
+    }
+
+    private void addChunk(final long offset, final String data)
+            throws Exception {
+        final byte[] bytes = data.getBytes("UTF-8");
+        final Node chunk = content.addNode(SlingPostConstants.CHUNK_NODE_NAME
+            + "_" + offset + "_" + (offset + bytes.length - 1),
+            SlingPostConstants.NT_SLING_CHUNK_NODETYPE);
+        chunk.setProperty(SlingPostConstants.NT_SLING_CHUNK_OFFSET, offset);
+        chunk.setProperty(SlingFileUploadHandler.JCR_DATA,
+            session.getValueFactory().createBinary(
+                new ByteArrayInputStream(bytes)));
+    }
+
+    private String getData() throws Exception {
+        final InputStream in = content.getProperty(
+            SlingFileUploadHandler.JCR_DATA).getBinary().getStream();
+        try {
+            return IOUtils.toString(in, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    private void assertChunksRemoved() throws RepositoryException {
+        assertFalse(content.getNodes(SlingPostConstants.CHUNK_NODE_NAME + "*").hasNext());
+        assertFalse(content.isNodeType(SlingPostConstants.NT_SLING_CHUNK_MIXIN));
+        assertFalse(content.hasProperty(SlingPostConstants.NT_SLING_FILE_LENGTH));
+        assertFalse(content.hasProperty(SlingPostConstants.NT_SLING_CHUNKS_LENGTH));
+    }
+
+    private static Resource resource(final Node node) throws RepositoryException {
+        return new SyntheticResource(null, node.getPath(), node.getPrimaryNodeType().getName()) {
+
+            @Override
+            public Resource getChild(final String relPath) {
+                try {
+                    return node.hasNode(relPath) ? resource(node.getNode(relPath)) : null;
+                } catch (RepositoryException re) {
+                    throw new IllegalStateException(re);
+                }
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <AdapterType> AdapterType adaptTo(final Class<AdapterType> type) {
+                if (type == Node.class) {
+                    return (AdapterType) node;
+                }
+                return super.adaptTo(type);
+            }
+        };
+    }
+
+    private static final class BytesParameter implements RequestParameter {
+
+        private final byte[] bytes;
+
+        BytesParameter(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public boolean isFormField() {
+            return false;
+        }
+
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+
+        public long getSize() {
+            return bytes.length;
+        }
+
+        public byte[] get() {
+            return bytes;
+        }
+
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        public String getFileName() {
+            return FILE_NAME;
+        }
+
+        public String getString() {
+            return new String(bytes);
+        }
+
+        public String getString(final String encoding) {
+            return getString();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.api;
+
+/**
+ * A Cache that can expire individual entries. Implementations that support
+ * a time to live per entry implement this interface in addition to
+ * {@link Cache}, callers should test for it before use.
+ */
+public interface ExpiringCache<V> extends Cache<V> {
+
+	/**
+	 * Cache an object for a limited time.
+	 * 
+	 * @param key
+	 *            The key with which to find the object.
+	 * @param payload
+	 *            The object to cache.
+	 * @param duration
+	 *            The time to cache the object (seconds), 0 or less to use the
+	 *            default of the cache.
+	 * @return the previous non expired payload, or null if there was none.
+	 */
+	V put(String key, V payload, int duration);
+
+}
@@ -0,0 +1,544 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.sling.commons.cache.api.ExpiringCache;
+
+/**
+ * A bounded, thread safe, in memory cache.
+ * <p>
+ * Entries are held in a {@link ConcurrentHashMap} so gets never block. The
+ * eviction order, the frequency sketch and the path index are maintained under
+ * a single lock. Writes always take the lock, reads only record the access if
+ * the lock is free, losing some access information under contention rather
+ * than making readers wait.
+ * <p>
+ * The eviction policy is W-TinyLFU: new entries enter a small LRU window,
+ * entries leaving the window compete with the least recently used entry of the
+ * probation segment of a segmented LRU and are only admitted if their
+ * estimated frequency is higher. Entries used again while in probation are
+ * promoted to the protected segment.
+ */
+public class BoundedCacheImpl<V> implements ExpiringCache<V>,
+		CacheStatisticsMBean {
+
+	private static final int REMOVED = -1;
+	private static final int WINDOW = 0;
+	private static final int PROBATION = 1;
+	private static final int PROTECTED = 2;
+
+	/**
+	 * A cache entry, also the link in the access order queue it is in.
+	 */
+	static final class Node<V> {
+		private final String key;
+		private final V value;
+		private final int weight;
+		private final long expires;
+		private int queue;
+		private Node<V> prev;
+		private Node<V> next;
+
+		private Node(String key, V value, int weight, long expires) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.expires = expires;
+		}
+
+		private boolean isExpired(long now) {
+			return expires != 0 && now - expires >= 0;
+		}
+	}
+
+	/**
+	 * A doubly linked access order queue, least recently used first.
+	 */
+	private static final class AccessOrderQueue<V> {
+		private final Node<V> head = new Node<V>(null, null, 0, 0);
+		private int size;
+
+		private AccessOrderQueue() {
+			head.prev = head;
+			head.next = head;
+		}
+
+		private Node<V> first() {
+			return (head.next == head) ? null : head.next;
+		}
+
+		private Node<V> last() {
+			return (head.prev == head) ? null : head.prev;
+		}
+
+		private void addLast(Node<V> node) {
+			node.prev = head.prev;
+			node.next = head;
+			head.prev.next = node;
+			head.prev = node;
+			size++;
+		}
+
+		private void remove(Node<V> node) {
+			node.prev.next = node.next;
+			node.next.prev = node.prev;
+			node.prev = null;
+			node.next = null;
+			size--;
+		}
+
+		private void moveToLast(Node<V> node) {
+			remove(node);
+			addLast(node);
+		}
+
+		private void clear() {
+			head.prev = head;
+			head.next = head;
+			size = 0;
+		}
+	}
+
+	private final String name;
+	private final int maxEntries;
+	private final long maxWeight;
+	private final int timeToLive;
+	private final Weigher weigher;
+
+	private final ConcurrentHashMap<String, Node<V>> data;
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final FrequencySketch sketch;
+	private final PathIndex pathIndex = new PathIndex();
+	private final AccessOrderQueue<V> window = new AccessOrderQueue<V>();
+	private final AccessOrderQueue<V> probation = new AccessOrderQueue<V>();
+	private final AccessOrderQueue<V> protectedQueue = new AccessOrderQueue<V>();
+	private final int maxWindow;
+	private final int maxProtected;
+	private long weight;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+
+	/**
+	 * @param name
+	 *            the name of the cache.
+	 * @param maxEntries
+	 *            the maximum number of entries, at least 1.
+	 * @param maxWeight
+	 *            the maximum total weight of the entries, 0 for no bound.
+	 * @param timeToLive
+	 *            the default time to live of an entry in seconds, 0 for no
+	 *            expiry.
+	 * @param weigher
+	 *            the weigher used when a maximum weight is set.
+	 */
+	public BoundedCacheImpl(String name, int maxEntries, long maxWeight,
+			int timeToLive, Weigher weigher) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException(
+					"Maximum number of entries must be at least 1, was "
+							+ maxEntries);
+		}
+		this.name = name;
+		this.maxEntries = maxEntries;
+		this.maxWeight = Math.max(0, maxWeight);
+		this.timeToLive = Math.max(0, timeToLive);
+		this.weigher = weigher;
+		this.data = new ConcurrentHashMap<String, Node<V>>(Math.min(
+				maxEntries, 1024));
+		this.sketch = new FrequencySketch(maxEntries);
+		this.maxWindow = Math.max(1, maxEntries / 100);
+		this.maxProtected = (int) ((maxEntries - maxWindow) * 0.8d);
+	}
+
+	/**
+	 * @return the current time in nano seconds, overridden by tests.
+	 */
+	long now() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#put(java.lang.String,
+	 *      java.lang.Object)
+	 */
+	public V put(String key, V payload) {
+		return put(key, payload, 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.ExpiringCache#put(java.lang.String,
+	 *      java.lang.Object, int)
+	 */
+	public V put(String key, V payload, int duration) {
+		if (key == null) {
+			throw new IllegalArgumentException("Cache keys must not be null");
+		}
+		int seconds = (duration > 0) ? duration : timeToLive;
+		long now = now();
+		long expires = 0;
+		if (seconds > 0) {
+			expires = now + TimeUnit.SECONDS.toNanos(seconds);
+			if (expires == 0) {
+				expires = 1;
+			}
+		}
+		int w = (maxWeight > 0) ? Math.max(1, weigher.weigh(key, payload)) : 1;
+		Node<V> node = new Node<V>(key, payload, w, expires);
+		V previous = null;
+		evictionLock.lock();
+		try {
+			Node<V> old = data.put(key, node);
+			if (old == null) {
+				pathIndex.add(key);
+			} else {
+				unlink(old);
+				if (!old.isExpired(now)) {
+					previous = old.value;
+				}
+			}
+			sketch.increment(key);
+			node.queue = WINDOW;
+			window.addLast(node);
+			weight += w;
+			evict();
+		} finally {
+			evictionLock.unlock();
+		}
+		return previous;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#containsKey(java.lang.String)
+	 */
+	public boolean containsKey(String key) {
+		Node<V> node = data.get(key);
+		return node != null && !node.isExpired(now());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#get(java.lang.String)
+	 */
+	public V get(String key) {
+		Node<V> node = data.get(key);
+		if (node == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		if (node.isExpired(now())) {
+			misses.incrementAndGet();
+			expire(node);
+			return null;
+		}
+		hits.incrementAndGet();
+		if (evictionLock.tryLock()) {
+			try {
+				onAccess(node);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+		return node.value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#remove(java.lang.String)
+	 */
+	public boolean remove(String key) {
+		evictionLock.lock();
+		try {
+			Node<V> node = data.get(key);
+			if (node == null) {
+				return false;
+			}
+			removeNode(node);
+			return !node.isExpired(now());
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc} Only the removed keys are visited.
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#removeChildren(java.lang.String)
+	 */
+	public void removeChildren(String key) {
+		evictionLock.lock();
+		try {
+			for (String k : pathIndex.subtree(key)) {
+				Node<V> node = data.get(k);
+				if (node != null) {
+					removeNode(node);
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#clear()
+	 */
+	public void clear() {
+		evictionLock.lock();
+		try {
+			data.clear();
+			pathIndex.clear();
+			window.clear();
+			probation.clear();
+			protectedQueue.clear();
+			weight = 0;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#values()
+	 */
+	public Collection<V> values() {
+		long now = now();
+		List<V> values = new ArrayList<V>();
+		for (Node<V> node : data.values()) {
+			if (!node.isExpired(now)) {
+				values.add(node.value);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.api.Cache#keys()
+	 */
+	public Collection<String> keys() {
+		long now = now();
+		List<String> keys = new ArrayList<String>();
+		for (Node<V> node : data.values()) {
+			if (!node.isExpired(now)) {
+				keys.add(node.key);
+			}
+		}
+		return keys;
+	}
+
+	private void expire(Node<V> node) {
+		evictionLock.lock();
+		try {
+			if (data.get(node.key) == node) {
+				removeNode(node);
+				expirations.incrementAndGet();
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Record an access, must hold the eviction lock.
+	 */
+	private void onAccess(Node<V> node) {
+		if (data.get(node.key) != node) {
+			return;
+		}
+		sketch.increment(node.key);
+		switch (node.queue) {
+		case WINDOW:
+			window.moveToLast(node);
+			break;
+		case PROBATION:
+			probation.remove(node);
+			node.queue = PROTECTED;
+			protectedQueue.addLast(node);
+			while (protectedQueue.size > maxProtected) {
+				Node<V> demoted = protectedQueue.first();
+				protectedQueue.remove(demoted);
+				demoted.queue = PROBATION;
+				probation.addLast(demoted);
+			}
+			break;
+		case PROTECTED:
+			protectedQueue.moveToLast(node);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Move entries out of the window and evict until the cache is within its
+	 * bounds, must hold the eviction lock.
+	 */
+	private void evict() {
+		while (window.size > maxWindow) {
+			Node<V> node = window.first();
+			window.remove(node);
+			node.queue = PROBATION;
+			probation.addLast(node);
+		}
+		long now = now();
+		while (window.size + probation.size + protectedQueue.size > maxEntries
+				|| (maxWeight > 0 && weight > maxWeight)) {
+			Node<V> victim = probation.first();
+			Node<V> candidate = probation.last();
+			if (victim == null) {
+				victim = protectedQueue.first();
+				if (victim == null) {
+					victim = window.first();
+				}
+				if (victim == null) {
+					return;
+				}
+				evictNode(victim, now);
+			} else if (candidate == victim || candidate.isExpired(now)
+					|| sketch.frequency(candidate.key) <= sketch
+							.frequency(victim.key)) {
+				evictNode(victim.isExpired(now) ? victim : candidate, now);
+			} else {
+				evictNode(victim, now);
+			}
+		}
+	}
+
+	private void evictNode(Node<V> node, long now) {
+		removeNode(node);
+		if (node.isExpired(now)) {
+			expirations.incrementAndGet();
+		} else {
+			evictions.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Remove an entry from the map, the queues and the index, must hold the
+	 * eviction lock.
+	 */
+	private void removeNode(Node<V> node) {
+		data.remove(node.key, node);
+		pathIndex.remove(node.key);
+		unlink(node);
+	}
+
+	/**
+	 * Remove an entry from its queue, must hold the eviction lock.
+	 */
+	private void unlink(Node<V> node) {
+		switch (node.queue) {
+		case WINDOW:
+			window.remove(node);
+			break;
+		case PROBATION:
+			probation.remove(node);
+			break;
+		case PROTECTED:
+			protectedQueue.remove(node);
+			break;
+		default:
+			return;
+		}
+		node.queue = REMOVED;
+		weight -= node.weight;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return (total == 0) ? 0 : (100.0d * h) / total;
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	public long getExpirationCount() {
+		return expirations.get();
+	}
+
+	public long getSize() {
+		return data.size();
+	}
+
+	public long getWeight() {
+		evictionLock.lock();
+		try {
+			return weight;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public long getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	public int getTimeToLive() {
+		return timeToLive;
+	}
+
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+		expirations.set(0);
+	}
+
+}
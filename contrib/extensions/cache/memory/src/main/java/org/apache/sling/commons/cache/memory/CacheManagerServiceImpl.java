@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.PropertyUnbounded;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.sling.commons.cache.api.Cache;
+import org.apache.sling.commons.cache.api.CacheManagerService;
+import org.apache.sling.commons.cache.impl.AbstractCacheManagerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>CacheManagerServiceImpl</code> keeps instance caches in memory,
+ * each bounded in size and registered with JMX for statistics.
+ */
+@Component(immediate = true, metatype = true)
+@Service(value = CacheManagerService.class)
+public class CacheManagerServiceImpl extends AbstractCacheManagerService {
+
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	@Property(intValue = DEFAULT_MAX_ENTRIES)
+	public static final String MAX_ENTRIES = "max-entries";
+
+	@Property(longValue = 0)
+	public static final String MAX_WEIGHT = "max-weight";
+
+	@Property(intValue = 0)
+	public static final String TIME_TO_LIVE = "time-to-live";
+
+	@Property(unbounded = PropertyUnbounded.ARRAY)
+	public static final String CACHE_OVERRIDES = "cache-overrides";
+
+	@Property(value = "The Apache Software Foundation")
+	static final String SERVICE_VENDOR = "service.vendor";
+
+	@Property(value = "Cache Manager Service Implementation")
+	static final String SERVICE_DESCRIPTION = "service.description";
+
+	private static final String DEFAULT_CACHE_NAME = "default";
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(CacheManagerServiceImpl.class);
+
+	private final Map<String, BoundedCacheImpl<?>> caches = new ConcurrentHashMap<String, BoundedCacheImpl<?>>();
+	private final Map<String, ObjectName> registrations = new ConcurrentHashMap<String, ObjectName>();
+	private final Map<String, int[]> overrides = new HashMap<String, int[]>();
+	private final Weigher weigher = new EstimatingWeigher();
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+	private long maxWeight;
+	private int timeToLive;
+	private MBeanServer mBeanServer;
+
+	public CacheManagerServiceImpl() throws IOException {
+	}
+
+	@Activate
+	public void activate(Map<String, Object> properties) {
+		maxEntries = toInt(properties.get(MAX_ENTRIES), DEFAULT_MAX_ENTRIES);
+		maxWeight = toLong(properties.get(MAX_WEIGHT), 0);
+		timeToLive = toInt(properties.get(TIME_TO_LIVE), 0);
+		overrides.clear();
+		for (String override : toStringArray(properties.get(CACHE_OVERRIDES))) {
+			String[] parts = override.split(":");
+			if (parts.length != 3) {
+				LOGGER.warn(
+						"Ignoring cache override {}, expected <cache name>:<max entries>:<time to live>",
+						override);
+				continue;
+			}
+			overrides.put(parts[0].trim(), new int[] {
+					toInt(parts[1].trim(), maxEntries),
+					toInt(parts[2].trim(), timeToLive) });
+		}
+		mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		LOGGER.info(
+				"Configured memory caches with max entries {}, max weight {}, time to live {}s",
+				new Object[] { maxEntries, maxWeight, timeToLive });
+	}
+
+	/**
+	 * Unregister the statistics and drop all instance caches.
+	 */
+	@Deactivate
+	public void deactivate() {
+		if (mBeanServer != null) {
+			for (ObjectName objectName : registrations.values()) {
+				try {
+					mBeanServer.unregisterMBean(objectName);
+				} catch (JMException e) {
+					LOGGER.debug(e.getMessage(), e);
+				}
+			}
+			mBeanServer = null;
+		}
+		registrations.clear();
+		for (Cache<?> cache : caches.values()) {
+			cache.clear();
+		}
+		caches.clear();
+	}
+
+	/**
+	 * @param name
+	 * @return
+	 */
+	@Override
+	protected <V> Cache<V> getInstanceCache(String name) {
+		String cacheName = (name == null) ? DEFAULT_CACHE_NAME : name;
+		@SuppressWarnings("unchecked")
+		Cache<V> c = (Cache<V>) caches.get(cacheName);
+		if (c == null) {
+			synchronized (caches) {
+				@SuppressWarnings("unchecked")
+				Cache<V> existing = (Cache<V>) caches.get(cacheName);
+				if (existing != null) {
+					return existing;
+				}
+				int[] override = overrides.get(cacheName);
+				BoundedCacheImpl<V> cache = new BoundedCacheImpl<V>(cacheName,
+						override == null ? maxEntries : override[0], maxWeight,
+						override == null ? timeToLive : override[1], weigher);
+				caches.put(cacheName, cache);
+				register(cache);
+				c = cache;
+			}
+		}
+		return c;
+	}
+
+	private void register(BoundedCacheImpl<?> cache) {
+		if (mBeanServer == null) {
+			return;
+		}
+		try {
+			ObjectName objectName = new ObjectName(
+					"org.apache.sling:type=Cache,service=MemoryCacheManager,name="
+							+ ObjectName.quote(cache.getName()));
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+			mBeanServer.registerMBean(new StandardMBean(cache,
+					CacheStatisticsMBean.class), objectName);
+			registrations.put(cache.getName(), objectName);
+		} catch (JMException e) {
+			LOGGER.warn("Unable to register statistics of cache {}: {}",
+					cache.getName(), e.getMessage());
+		}
+	}
+
+	private int toInt(Object value, int defaultValue) {
+		return (int) toLong(value, defaultValue);
+	}
+
+	private long toLong(Object value, long defaultValue) {
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		}
+		try {
+			return Long.parseLong(toString(value, String.valueOf(defaultValue)));
+		} catch (NumberFormatException e) {
+			LOGGER.warn("Invalid number {}, using {}", value, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	private String[] toStringArray(Object value) {
+		if (value instanceof String[]) {
+			return (String[]) value;
+		} else if (value instanceof String) {
+			return new String[] { (String) value };
+		}
+		return new String[0];
+	}
+
+}
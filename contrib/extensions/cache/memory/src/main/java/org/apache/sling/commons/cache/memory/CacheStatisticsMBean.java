@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+/**
+ * Statistics of a single instance cache, registered with JMX.
+ */
+public interface CacheStatisticsMBean {
+
+	/**
+	 * @return the name of the cache.
+	 */
+	String getName();
+
+	/**
+	 * @return the number of gets that found a non expired entry.
+	 */
+	long getHitCount();
+
+	/**
+	 * @return the number of gets that did not find a non expired entry.
+	 */
+	long getMissCount();
+
+	/**
+	 * @return hits as a percentage of all gets.
+	 */
+	double getHitRatio();
+
+	/**
+	 * @return the number of entries evicted to stay within the bounds.
+	 */
+	long getEvictionCount();
+
+	/**
+	 * @return the number of entries removed because they expired.
+	 */
+	long getExpirationCount();
+
+	/**
+	 * @return the current number of entries.
+	 */
+	long getSize();
+
+	/**
+	 * @return the current total weight of the entries.
+	 */
+	long getWeight();
+
+	/**
+	 * @return the maximum number of entries.
+	 */
+	long getMaxEntries();
+
+	/**
+	 * @return the maximum total weight, 0 if the weight is not bounded.
+	 */
+	long getMaxWeight();
+
+	/**
+	 * @return the default time to live in seconds, 0 if entries do not expire.
+	 */
+	int getTimeToLive();
+
+	/**
+	 * Reset the hit, miss, eviction and expiration counts.
+	 */
+	void resetStatistics();
+
+	/**
+	 * Remove all entries from the cache.
+	 */
+	void clear();
+
+}
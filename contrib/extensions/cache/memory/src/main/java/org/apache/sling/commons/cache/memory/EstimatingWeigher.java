@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+/**
+ * A {@link Weigher} that estimates the number of bytes held by strings and
+ * arrays, all other values weigh 1.
+ */
+public class EstimatingWeigher implements Weigher {
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.apache.sling.commons.cache.memory.Weigher#weigh(java.lang.String,
+	 *      java.lang.Object)
+	 */
+	public int weigh(String key, Object value) {
+		long weight;
+		if (value instanceof byte[]) {
+			weight = ((byte[]) value).length;
+		} else if (value instanceof char[]) {
+			weight = 2L * ((char[]) value).length;
+		} else if (value instanceof CharSequence) {
+			weight = 2L * ((CharSequence) value).length();
+		} else {
+			weight = 1;
+		}
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, weight));
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+/**
+ * A count-min sketch with 4 bit counters used by the admission policy to
+ * estimate how often a key has been used recently. The counters are halved
+ * once the number of increments reaches ten times the table width so that
+ * the estimate favours recent use. Not thread safe, all calls are made
+ * holding the eviction lock of the owning cache.
+ */
+final class FrequencySketch {
+
+	private static final long[] SEED = new long[] { 0xc3a5c85c97cb3127L,
+			0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final long ONE_MASK = 0x1111111111111111L;
+
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	/**
+	 * @param maximumSize
+	 *            the maximum number of entries of the cache, used to size the
+	 *            sketch.
+	 */
+	FrequencySketch(int maximumSize) {
+		int width = 1;
+		int target = Math.max(16, Math.min(maximumSize, 1 << 30));
+		while (width < target) {
+			width <<= 1;
+		}
+		table = new long[width];
+		tableMask = width - 1;
+		sampleSize = 10 * width;
+	}
+
+	/**
+	 * @param key
+	 *            the key.
+	 * @return the estimated number of recent uses of the key, 0 to 15.
+	 */
+	int frequency(String key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Record a use of the key.
+	 * 
+	 * @param key
+	 *            the key.
+	 */
+	void increment(String key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if (added && (++size == sampleSize)) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int i, int j) {
+		int offset = j << 2;
+		long mask = (0xfL << offset);
+		if ((table[i] & mask) != mask) {
+			table[i] += (1L << offset);
+			return true;
+		}
+		return false;
+	}
+
+	private void reset() {
+		int count = 0;
+		for (int i = 0; i < table.length; i++) {
+			count += Long.bitCount(table[i] & ONE_MASK);
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size = (size >>> 1) - (count >>> 2);
+	}
+
+	private int indexOf(int item, int i) {
+		long hash = (item + SEED[i]) * SEED[i];
+		hash += (hash >>> 32);
+		return ((int) hash) & tableMask;
+	}
+
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+
+}
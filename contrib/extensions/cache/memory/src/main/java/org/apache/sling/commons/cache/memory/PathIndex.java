@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trie of the keys held in a cache, split on '/', so that all keys below a
+ * key can be found without looking at the rest of the cache. Not thread safe,
+ * all calls are made holding the eviction lock of the owning cache.
+ */
+final class PathIndex {
+
+	private static final class Segment {
+		private final Segment parent;
+		private final String name;
+		private Map<String, Segment> children;
+		private String key;
+
+		private Segment(Segment parent, String name) {
+			this.parent = parent;
+			this.name = name;
+		}
+	}
+
+	private Segment root = new Segment(null, null);
+
+	/**
+	 * @param key
+	 *            a key that has been added to the cache.
+	 */
+	void add(String key) {
+		Segment segment = root;
+		int start = 0;
+		for (;;) {
+			int end = key.indexOf('/', start);
+			String name = (end < 0) ? key.substring(start) : key.substring(
+					start, end);
+			if (segment.children == null) {
+				segment.children = new HashMap<String, Segment>(4);
+			}
+			Segment child = segment.children.get(name);
+			if (child == null) {
+				child = new Segment(segment, name);
+				segment.children.put(name, child);
+			}
+			segment = child;
+			if (end < 0) {
+				break;
+			}
+			start = end + 1;
+		}
+		segment.key = key;
+	}
+
+	/**
+	 * @param key
+	 *            a key that has been removed from the cache.
+	 */
+	void remove(String key) {
+		Segment segment = find(key);
+		if (segment != null) {
+			segment.key = null;
+			prune(segment);
+		}
+	}
+
+	/**
+	 * Find the keys removed by {@link org.apache.sling.commons.cache.api.Cache#removeChildren(String)}:
+	 * the key itself and every key that starts with the key followed by '/'.
+	 * If the key ends with '/' only the keys starting with it are returned.
+	 * 
+	 * @param key
+	 *            the parent key.
+	 * @return the keys of the subtree, in no particular order.
+	 */
+	List<String> subtree(String key) {
+		List<String> keys = new ArrayList<String>();
+		boolean childrenOnly = key.endsWith("/");
+		Segment top = find(childrenOnly ? key.substring(0, key.length() - 1)
+				: key);
+		if (top == null) {
+			return keys;
+		}
+		List<Segment> stack = new ArrayList<Segment>();
+		if (childrenOnly) {
+			if (top.children != null) {
+				stack.addAll(top.children.values());
+			}
+		} else {
+			stack.add(top);
+		}
+		while (!stack.isEmpty()) {
+			Segment segment = stack.remove(stack.size() - 1);
+			if (segment.key != null) {
+				keys.add(segment.key);
+			}
+			if (segment.children != null) {
+				stack.addAll(segment.children.values());
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Forget all keys.
+	 */
+	void clear() {
+		root = new Segment(null, null);
+	}
+
+	private Segment find(String key) {
+		Segment segment = root;
+		int start = 0;
+		for (;;) {
+			if (segment.children == null) {
+				return null;
+			}
+			int end = key.indexOf('/', start);
+			String name = (end < 0) ? key.substring(start) : key.substring(
+					start, end);
+			segment = segment.children.get(name);
+			if (segment == null || end < 0) {
+				return segment;
+			}
+			start = end + 1;
+		}
+	}
+
+	private void prune(Segment segment) {
+		while (segment.parent != null && segment.key == null
+				&& (segment.children == null || segment.children.isEmpty())) {
+			segment.parent.children.remove(segment.name);
+			segment = segment.parent;
+		}
+	}
+
+}
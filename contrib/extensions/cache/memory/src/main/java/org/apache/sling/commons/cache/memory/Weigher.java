@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+/**
+ * Calculates the weight of a cache entry, the weight is used to bound the
+ * total size of a cache when a maximum weight is configured.
+ */
+public interface Weigher {
+
+	/**
+	 * @param key
+	 *            the key of the entry.
+	 * @param value
+	 *            the value of the entry, may be null.
+	 * @return the weight of the entry, must be 1 or more.
+	 */
+	int weigh(String key, Object value);
+
+}
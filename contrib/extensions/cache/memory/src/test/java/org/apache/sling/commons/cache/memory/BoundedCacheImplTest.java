@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.cache.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BoundedCacheImplTest {
+
+	/**
+	 * A cache with a clock that only moves when told to.
+	 */
+	private static class ManualClockCache<V> extends BoundedCacheImpl<V> {
+		private long time;
+
+		ManualClockCache(int maxEntries, long maxWeight, int timeToLive) {
+			super("test", maxEntries, maxWeight, timeToLive,
+					new EstimatingWeigher());
+		}
+
+		@Override
+		long now() {
+			return time;
+		}
+
+		void advance(int seconds) {
+			time += TimeUnit.SECONDS.toNanos(seconds);
+		}
+	}
+
+	@Test
+	public void testSizeBound() {
+		BoundedCacheImpl<String> cache = new ManualClockCache<String>(100, 0, 0);
+		for (int i = 0; i < 1000; i++) {
+			cache.put("key" + i, "value" + i);
+		}
+		assertEquals(100, cache.getSize());
+		assertEquals(100, cache.keys().size());
+		assertEquals(900, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testFrequentlyUsedEntriesSurviveScan() {
+		BoundedCacheImpl<String> cache = new ManualClockCache<String>(100, 0, 0);
+		for (int i = 0; i < 50; i++) {
+			cache.put("hot" + i, "value");
+		}
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 50; i++) {
+				cache.get("hot" + i);
+			}
+		}
+		for (int i = 0; i < 10000; i++) {
+			cache.put("scan" + i, "value");
+		}
+		int retained = 0;
+		for (int i = 0; i < 50; i++) {
+			if (cache.containsKey("hot" + i)) {
+				retained++;
+			}
+		}
+		assertTrue("Expected hot entries to survive a scan, retained "
+				+ retained, retained >= 45);
+		assertEquals(100, cache.getSize());
+	}
+
+	@Test
+	public void testWeightBound() {
+		BoundedCacheImpl<String> cache = new ManualClockCache<String>(100, 20, 0);
+		cache.put("a", "12345");
+		cache.put("b", "12345");
+		assertEquals(20, cache.getWeight());
+		cache.put("c", "12345");
+		assertTrue(cache.getWeight() <= 20);
+		assertEquals(2, cache.getSize());
+		cache.put("d", "this value is larger than the cache");
+		assertFalse(cache.containsKey("d"));
+		assertTrue(cache.getWeight() <= 20);
+	}
+
+	@Test
+	public void testTimeToLive() {
+		ManualClockCache<String> cache = new ManualClockCache<String>(100, 0, 10);
+		cache.put("default", "value");
+		cache.put("short", "value", 2);
+		cache.put("long", "value", 60);
+		cache.advance(5);
+		assertNull(cache.get("short"));
+		assertEquals("value", cache.get("default"));
+		cache.advance(10);
+		assertNull(cache.get("default"));
+		assertFalse(cache.containsKey("default"));
+		assertEquals("value", cache.get("long"));
+		assertEquals(2, cache.getExpirationCount());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void testStatistics() {
+		BoundedCacheImpl<String> cache = new ManualClockCache<String>(10, 0, 0);
+		cache.put("a", "b");
+		cache.get("a");
+		cache.get("a");
+		cache.get("missing");
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		cache.resetStatistics();
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	@Test
+	public void testRemoveChildren() {
+		BoundedCacheImpl<String> cache = new ManualClockCache<String>(100, 0, 0);
+		cache.put("a", "1");
+		cache.put("a/b", "2");
+		cache.put("a/b/c", "3");
+		cache.put("a/", "4");
+		cache.put("ab", "5");
+		cache.put("a/bc", "6");
+
+		cache.removeChildren("a/b");
+		assertNull(cache.get("a/b"));
+		assertNull(cache.get("a/b/c"));
+		assertEquals("6", cache.get("a/bc"));
+
+		cache.removeChildren("a/");
+		assertNull(cache.get("a/"));
+		assertNull(cache.get("a/bc"));
+		assertEquals("1", cache.get("a"));
+		assertEquals("5", cache.get("ab"));
+
+		cache.put("a/d", "7");
+		cache.removeChildren("a");
+		assertNull(cache.get("a"));
+		assertNull(cache.get("a/d"));
+		assertEquals("5", cache.get("ab"));
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void testReplaceAndRemove() {
+		BoundedCacheImpl<String> cache = new ManualClockCache<String>(10, 0, 0);
+		assertNull(cache.put("a", "1"));
+		assertEquals("1", cache.put("a", "2"));
+		assertEquals(1, cache.getSize());
+		assertTrue(cache.remove("a"));
+		assertFalse(cache.remove("a"));
+		cache.put("a/b", "3");
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		assertEquals(0, cache.getWeight());
+		cache.removeChildren("a");
+	}
+
+}
@@ -16,10 +16,15 @@
  */
 package org.apache.sling.scripting.freemarker;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 import javax.jcr.Node;
@@ -36,8 +41,11 @@ import freemarker.template.Template;
 /**
  * A ScriptEngine that uses <a href="http://freemarker.org/">FreeMarker</a> templates
  * to render a Resource in HTML.
+ * <p>
+ * The engine is <code>Compilable</code>: a compiled script holds the parsed
+ * template which is processed for every evaluation.
  */
-public class FreemarkerScriptEngine extends AbstractSlingScriptEngine {
+public class FreemarkerScriptEngine extends AbstractSlingScriptEngine implements Compilable {
     private static final Logger log = Logger.getLogger(FreemarkerScriptEngine.class.getName());
 
     private final Configuration configuration;
@@ -49,6 +57,39 @@ public class FreemarkerScriptEngine extends AbstractSlingScriptEngine {
 
     public Object eval(Reader reader, ScriptContext scriptContext)
             throws ScriptException {
+        SlingScriptHelper helper = getHelper(scriptContext);
+        String scriptName = helper.getScript().getScriptResource().getPath();
+
+        Template tmpl;
+        try {
+            tmpl = new Template(scriptName, reader, configuration);
+        } catch (Throwable t) {
+            log.error("Failure running Freemarker script.", t);
+            throw new ScriptException("Failure running FreeMarker script "
+                + scriptName);
+        }
+        process(tmpl, scriptName, scriptContext);
+
+        return null;
+    }
+
+    public CompiledScript compile(String script) throws ScriptException {
+        return compile(new StringReader(script));
+    }
+
+    public CompiledScript compile(Reader script) throws ScriptException {
+        Object fileName = get(ScriptEngine.FILENAME);
+        String scriptName = (fileName != null) ? fileName.toString() : "script";
+        try {
+            return new FreemarkerCompiledScript(new Template(scriptName, script, configuration));
+        } catch (IOException ioe) {
+            log.error("Failure compiling Freemarker script.", ioe);
+            throw new ScriptException("Failure compiling FreeMarker script "
+                + scriptName + ": " + ioe.getMessage());
+        }
+    }
+
+    private SlingScriptHelper getHelper(ScriptContext scriptContext) throws ScriptException {
         Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
         SlingScriptHelper helper = (SlingScriptHelper) bindings.get(SlingBindings.SLING);
         if (helper == null) {
@@ -60,11 +101,13 @@ public class FreemarkerScriptEngine extends AbstractSlingScriptEngine {
             throw new ScriptException(
                 "FreeMarker templates only support GET requests");
         }
+        return helper;
+    }
 
-        String scriptName = helper.getScript().getScriptResource().getPath();
-
+    private void process(Template tmpl, String scriptName, ScriptContext scriptContext)
+            throws ScriptException {
+        Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
         try {
-            Template tmpl = new Template(scriptName, reader, configuration);
             bindings.put("currentNode", new NodeModel((Node) bindings.get("currentNode")));
             tmpl.process(bindings, scriptContext.getWriter());
         } catch (Throwable t) {
@@ -72,8 +115,28 @@ public class FreemarkerScriptEngine extends AbstractSlingScriptEngine {
             throw new ScriptException("Failure running FreeMarker script "
                 + scriptName);
         }
+    }
+
+    /**
+     * The compiled form of a FreeMarker script is the parsed template.
+     */
+    private class FreemarkerCompiledScript extends CompiledScript {
+
+        private final Template template;
+
+        FreemarkerCompiledScript(Template template) {
+            this.template = template;
+        }
 
-        return null;
+        public Object eval(ScriptContext scriptContext) throws ScriptException {
+            SlingScriptHelper helper = getHelper(scriptContext);
+            process(template, helper.getScript().getScriptResource().getPath(), scriptContext);
+            return null;
+        }
+
+        public ScriptEngine getEngine() {
+            return FreemarkerScriptEngine.this;
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -17,27 +17,35 @@
 package org.apache.sling.scripting.velocity;
 
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.util.Map;
 import java.util.Properties;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 
 import org.apache.sling.api.scripting.SlingBindings;
 import org.apache.sling.api.scripting.SlingScriptHelper;
 import org.apache.sling.scripting.api.AbstractSlingScriptEngine;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeInstance;
 
 /**
  * A ScriptEngine that uses Velocity templates to render a Resource.
+ * <p>
+ * The engine is <code>Compilable</code>: a compiled script holds the parsed
+ * and initialized template which is merged for every evaluation.
  */
-public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine {
+public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine implements Compilable {
 
-    private final VelocityEngine velocity;
+    private final RuntimeInstance velocity;
 
     public VelocityTemplatesScriptEngine(ScriptEngineFactory factory) {
         super(factory);
@@ -46,7 +54,7 @@ public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine {
         try {
 	        Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
 	        
-	        velocity = new VelocityEngine();
+	        velocity = new RuntimeInstance();
 	        
 	        // include the Sling resource loader for Velocity
 	        Properties props = new Properties();
@@ -75,31 +83,74 @@ public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine {
 			throw new IllegalArgumentException(
 					"Method argument scriptContext must not be null.");
 		}
+        String scriptName = getScriptName(scriptContext);
+        final Reader reader = script;
+        render(scriptName, scriptContext, new Renderer() {
+            public void render(VelocityContext c, Writer w, String logTag) {
+                velocity.evaluate(c, w, logTag, reader);
+            }
+        });
+
+        return null;
+    }
+
+    public CompiledScript compile(String script) throws ScriptException {
+        return compile(new StringReader(script));
+    }
+
+    public CompiledScript compile(Reader script) throws ScriptException {
+        Object fileName = get(ScriptEngine.FILENAME);
+        String scriptName = (fileName != null) ? fileName.toString() : "script";
+
+        final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+            final Template template = new Template();
+            template.setRuntimeServices(velocity);
+            template.setName(scriptName);
+            template.setData(velocity.parse(script, scriptName));
+            template.initDocument();
+            return new VelocityCompiledScript(template);
+        } catch (Throwable t) {
+            throw new ScriptException("Failure compiling script " + scriptName
+                + ": " + t);
+        } finally {
+            Thread.currentThread().setContextClassLoader(oldClassLoader);
+        }
+    }
+
+    private String getScriptName(ScriptContext scriptContext) throws ScriptException {
         Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
         SlingScriptHelper helper = (SlingScriptHelper) bindings.get(SlingBindings.SLING);
         if (helper == null) {
             throw new ScriptException("SlingScriptHelper missing from bindings");
         }
 
-        String scriptName = helper.getScript().getScriptResource().getPath();
+        return helper.getScript().getScriptResource().getPath();
+    }
+
+    private void render(String scriptName, ScriptContext scriptContext, Renderer renderer)
+            throws ScriptException {
+        Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
 
         final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
-        
+
         try {
         	Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
-        	
+
 	        // initialize the Velocity context
 	        final VelocityContext c = new VelocityContext();
 	        for (Object entryObj : bindings.entrySet()) {
 	            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) entryObj;
 	            c.put((String) entry.getKey(), entry.getValue());
 	        }
-	
+
 	        // let Velocity evaluate the script, and send the output to the browser
 	        final String logTag = getClass().getSimpleName();
 	        Writer w = scriptContext.getWriter();
 	        try {
-	            velocity.evaluate(c, w, logTag, script);
+	            renderer.render(c, w, logTag);
 	        } catch (Throwable t) {
 	            throw new ScriptException("Failure running script " + scriptName
 	                + ": " + t + ", stack trace: " + t.getStackTrace() );
@@ -107,8 +158,42 @@ public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine {
 	    } finally {
 	    	Thread.currentThread().setContextClassLoader(oldClassLoader);
 	    }
+    }
 
-        return null;
+    /**
+     * Renders a script into the given context and writer.
+     */
+    private interface Renderer {
+        void render(VelocityContext c, Writer w, String logTag) throws Exception;
+    }
+
+    /**
+     * The compiled form of a Velocity script is the parsed template.
+     */
+    private class VelocityCompiledScript extends CompiledScript {
+
+        private final Template template;
+
+        VelocityCompiledScript(Template template) {
+            this.template = template;
+        }
+
+        public Object eval(ScriptContext scriptContext) throws ScriptException {
+            if (scriptContext == null) {
+                throw new IllegalArgumentException(
+                        "Method argument scriptContext must not be null.");
+            }
+            render(getScriptName(scriptContext), scriptContext, new Renderer() {
+                public void render(VelocityContext c, Writer w, String logTag) {
+                    template.merge(c, w);
+                }
+            });
+            return null;
+        }
+
+        public ScriptEngine getEngine() {
+            return VelocityTemplatesScriptEngine.this;
+        }
     }
 
 }
@@ -121,6 +121,18 @@ implements OsgiInstaller, ResourceChangeListener, RetryHandler, InfoProvider, Ru
     private final InstallListener listener;
     private final AtomicLong backgroundTaskCounter = new AtomicLong();
 
+    /** Number of cycles since the installer was idle the last time. */
+    private int busyCycles;
+
+    /** Number of tasks executed since the installer was idle the last time. */
+    private int busyTasks;
+
+    /** Time spent in cycles since the installer was idle the last time. */
+    private long busyCycleTime;
+
+    /** Start of the period the installer is busy. */
+    private long busyStart = -1;
+
 
     /**
      *  Constructor
@@ -230,6 +242,10 @@ implements OsgiInstaller, ResourceChangeListener, RetryHandler, InfoProvider, Ru
 
             while (this.active) {
                 this.logger.debug("Starting new installer cycle");
+                final long cycleStart = System.currentTimeMillis();
+                if ( this.busyStart == -1 ) {
+                    this.busyStart = cycleStart;
+                }
                 this.listener.start();
 
                 // merge potential new resources
@@ -244,7 +260,9 @@ implements OsgiInstaller, ResourceChangeListener, RetryHandler, InfoProvider, Ru
                 synchronized ( this.resourcesLock ) {
                     this.retryDuringTaskExecution = false;
                 }
+                final int taskCount = tasks.size();
                 final ACTION action = this.executeTasks(tasks);
+                this.cycleFinished(cycleStart, taskCount);
                 if ( action == ACTION.SLEEP ) {
                     synchronized ( this.resourcesLock ) {
                         // before we go to sleep, check if new resources arrived in the meantime
@@ -252,6 +270,7 @@ implements OsgiInstaller, ResourceChangeListener, RetryHandler, InfoProvider, Ru
                             // No tasks to execute - wait until new resources are
                             // registered
                             logger.debug("No more tasks to process, suspending listener and going idle");
+                            this.logBusyPeriod();
                             this.listener.suspend();
 
                             try {
@@ -281,6 +300,33 @@ implements OsgiInstaller, ResourceChangeListener, RetryHandler, InfoProvider, Ru
         logger.debug("Main background thread ends");
     }
 
+    /**
+     * Record the time spent in an installer cycle.
+     */
+    private void cycleFinished(final long cycleStart, final int taskCount) {
+        final long time = System.currentTimeMillis() - cycleStart;
+        this.busyCycles++;
+        this.busyTasks += taskCount;
+        this.busyCycleTime += time;
+        logger.debug("Installer cycle finished in {} ms, {} tasks", time, taskCount);
+    }
+
+    /**
+     * Log the time spent in cycles since the installer was idle the last time
+     * and reset the counters.
+     */
+    private void logBusyPeriod() {
+        if ( this.busyTasks > 0 ) {
+            logger.info("Installer executed {} tasks in {} cycles, {} ms in cycles, {} ms until idle",
+                    new Object[] {this.busyTasks, this.busyCycles, this.busyCycleTime,
+                    System.currentTimeMillis() - this.busyStart});
+        }
+        this.busyCycles = 0;
+        this.busyTasks = 0;
+        this.busyCycleTime = 0;
+        this.busyStart = -1;
+    }
+
     /**
      * Wake up the run cycle.
      */
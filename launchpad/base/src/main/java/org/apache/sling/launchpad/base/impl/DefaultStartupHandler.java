@@ -91,6 +91,12 @@ public class DefaultStartupHandler
     /** Use incremental start level handling. */
     private final boolean useIncremental;
 
+    /** The startup profiler, might be <code>null</code>. */
+    private final StartupProfiler profiler;
+
+    /** Start of the current period the installer is busy. */
+    private volatile long installerStart;
+
     /**
      * Constructor.
      * @param context Bundle context
@@ -102,6 +108,7 @@ public class DefaultStartupHandler
         this.bundleContext = context;
         this.startupMode = manager.getMode();
         this.targetStartLevel = manager.getTargetStartLevel();
+        this.profiler = manager.getProfiler();
 
         this.listenerTracker = new ServiceTracker(context, StartupListener.class.getName(),
                 new ServiceTrackerCustomizer() {
@@ -200,9 +207,13 @@ public class DefaultStartupHandler
     public void waitWithStartup(final boolean flag) {
         logger.log(Logger.LOG_DEBUG, "Wait with startup " + flag);
         if ( flag ) {
-            this.startupShouldWait.incrementAndGet();
+            if ( this.startupShouldWait.incrementAndGet() == 1 && this.profiler != null ) {
+                this.installerStart = this.profiler.now();
+            }
         } else {
-            this.startupShouldWait.decrementAndGet();
+            if ( this.startupShouldWait.decrementAndGet() == 0 && this.profiler != null && !this.finished.get() ) {
+                this.profiler.addPhase("OSGi installer", this.installerStart);
+            }
         }
     }
 
@@ -290,6 +301,10 @@ public class DefaultStartupHandler
             this.bundleContext.removeBundleListener(this);
         }
         this.bundleContext.removeFrameworkListener(this);
+
+        if ( this.profiler != null ) {
+            this.profiler.startupFinished(this.startupMode);
+        }
     }
 
     /**
@@ -212,14 +212,27 @@ public class Sling {
             Framework tmpFramework = createFramework(notifiable, logger, props);
             init(tmpFramework);
 
+            final StartupProfiler profiler = startupManager.getProfiler();
+            final long installStart = (profiler != null ? profiler.now() : 0);
             final boolean restart = new BootstrapInstaller(tmpFramework.getBundleContext(), logger,
                     resourceProvider, startupManager.getMode()).install();
             startupManager.markInstalled();
+            if ( profiler != null ) {
+                profiler.addPhase("Bootstrap installer", installStart);
+            }
 
             if (restart) {
+                final long restartStart = (profiler != null ? profiler.now() : 0);
                 restart(tmpFramework);
                 tmpFramework = createFramework(notifiable, logger, props);
                 init(tmpFramework);
+                if ( profiler != null ) {
+                    profiler.addPhase("Framework restart", restartStart);
+                }
+            }
+
+            if ( profiler != null ) {
+                profiler.attach(tmpFramework.getBundleContext());
             }
 
             new DefaultStartupHandler(tmpFramework.getBundleContext(), logger, startupManager);
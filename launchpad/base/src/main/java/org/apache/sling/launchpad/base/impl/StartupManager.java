@@ -65,6 +65,8 @@ public class StartupManager {
 
     private final boolean incrementalStartupEnabled;
 
+    private final StartupProfiler profiler;
+
     StartupManager(final Map<String, String> properties,
                    final Logger logger) {
         this.logger = logger;
@@ -89,6 +91,15 @@ public class StartupManager {
             final String startLevel = properties.get(SharedConstants.SLING_INSTALL_STARTLEVEL);
             properties.put(Constants.FRAMEWORK_BEGINNING_STARTLEVEL, startLevel != null ? startLevel : "10");
         }
+
+        // the profiler is enabled unless explicitly disabled
+        final String profile = System.getProperty(StartupProfiler.PROFILE_PROP, properties.get(StartupProfiler.PROFILE_PROP));
+        if ( profile == null || Boolean.valueOf(profile) ) {
+            this.profiler = new StartupProfiler(logger,
+                    new File(DirectoryUtil.getHomeDir(properties), StartupProfiler.REPORT_FILE));
+        } else {
+            this.profiler = null;
+        }
     }
 
     /**
@@ -114,6 +125,14 @@ public class StartupManager {
         return this.targetStartLevel;
     }
 
+    /**
+     * Return the startup profiler
+     * @return The profiler or <code>null</code> if profiling is disabled
+     */
+    public StartupProfiler getProfiler() {
+        return this.profiler;
+    }
+
     /**
      * Detect the startup mode by comparing time stamps
      */
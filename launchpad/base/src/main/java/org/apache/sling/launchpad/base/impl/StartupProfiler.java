@@ -0,0 +1,430 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.launchpad.base.impl;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.felix.framework.Logger;
+import org.apache.sling.launchpad.api.StartupMode;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.SynchronousBundleListener;
+import org.osgi.service.startlevel.StartLevel;
+
+/**
+ * The <code>StartupProfiler</code> records where the time is spent during
+ * the startup of the framework:
+ * - the phases of the launchpad like the bootstrap installer and the
+ *   periods the OSGi installer is busy
+ * - the time each start level is reached
+ * - the resolve and start time of each bundle and the time spent in
+ *   its activator
+ * - the time the services of Declarative Services components are
+ *   registered after their bundle has been started
+ *
+ * Once the startup is finished, a report is written to
+ * {@link #REPORT_FILE} in the Sling home directory. The same report
+ * is available as a configuration printer in the web console.
+ *
+ * All times are measured relative to the creation of the profiler.
+ * @since 2.5.2
+ */
+public class StartupProfiler
+    implements SynchronousBundleListener, FrameworkListener, ServiceListener {
+
+    /** Name of the property to disable the profiler. */
+    static final String PROFILE_PROP = "org.apache.sling.launchpad.startup.profile";
+
+    /** The path of the report file in the sling home. */
+    static final String REPORT_FILE = "logs" + File.separatorChar + "startup-profile.txt";
+
+    /** The service property of Declarative Services components. */
+    private static final String COMPONENT_NAME = "component.name";
+
+    /** Maximum number of entries listed in the bundle and component tables. */
+    private static final int MAX_ENTRIES = 50;
+
+    private static final String HEADLINE = "Apache Sling Startup Profile";
+
+    private final Logger logger;
+
+    private final File reportFile;
+
+    /** Start of the profiling in nano seconds. */
+    private final long startTime;
+
+    private final List<Phase> phases = new ArrayList<Phase>();
+
+    private final Map<Integer, Long> startLevels = new TreeMap<Integer, Long>();
+
+    private final Map<Long, BundleTiming> bundles = new LinkedHashMap<Long, BundleTiming>();
+
+    private final List<ComponentTiming> components = new ArrayList<ComponentTiming>();
+
+    private BundleContext bundleContext;
+
+    private StartLevel startLevelService;
+
+    private StartupMode startupMode;
+
+    /** Duration of the startup or -1 if the startup is not finished yet. */
+    private long finishTime = -1;
+
+    public StartupProfiler(final Logger logger, final File reportFile) {
+        this.startTime = System.nanoTime();
+        this.logger = logger;
+        this.reportFile = reportFile;
+    }
+
+    /**
+     * Return the current time to be used as the start of a phase.
+     * @see #addPhase(String, long)
+     */
+    public long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a phase which started at the given time and ends now.
+     * @param name The name of the phase
+     * @param start The start of the phase as returned by {@link #now()}
+     */
+    public synchronized void addPhase(final String name, final long start) {
+        this.phases.add(new Phase(name, this.offset(start), this.offset(System.nanoTime())));
+    }
+
+    /**
+     * Start listening to the framework and register the report with the
+     * web console.
+     * @param context The system bundle context of the (final) framework
+     */
+    public void attach(final BundleContext context) {
+        this.bundleContext = context;
+        final ServiceReference ref = context.getServiceReference(StartLevel.class.getName());
+        if ( ref != null ) {
+            this.startLevelService = (StartLevel) context.getService(ref);
+        }
+        context.addBundleListener(this);
+        context.addFrameworkListener(this);
+        context.addServiceListener(this);
+
+        final Dictionary<String, Object> props = new Hashtable<String, Object>();
+        props.put(Constants.SERVICE_DESCRIPTION, "Apache Sling Startup Profile Configuration Printer");
+        props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        props.put("felix.webconsole.label", "slingstartupprofile");
+        props.put("felix.webconsole.title", "Sling Startup Profile");
+        props.put("felix.webconsole.configprinter.modes", "always");
+        context.registerService(StartupProfiler.class.getName(), this, props);
+    }
+
+    /**
+     * Stop listening, write the report file and log a summary.
+     * The report stays available in the web console.
+     * @param mode The startup mode
+     */
+    public void startupFinished(final StartupMode mode) {
+        synchronized ( this ) {
+            if ( this.finishTime != -1 ) {
+                return;
+            }
+            this.startupMode = mode;
+            this.finishTime = this.offset(System.nanoTime());
+        }
+        if ( this.bundleContext != null ) {
+            this.bundleContext.removeServiceListener(this);
+            this.bundleContext.removeFrameworkListener(this);
+            this.bundleContext.removeBundleListener(this);
+        }
+
+        if ( this.reportFile != null ) {
+            try {
+                this.reportFile.getParentFile().mkdirs();
+                final PrintWriter pw = new PrintWriter(new FileWriter(this.reportFile));
+                try {
+                    this.printConfiguration(pw);
+                } finally {
+                    pw.close();
+                }
+            } catch (final IOException ioe) {
+                logger.log(Logger.LOG_WARNING, "Unable to write startup profile to " + this.reportFile, ioe);
+            }
+        }
+        logger.log(Logger.LOG_INFO, "Startup took " + toMillis(this.finishTime) + "ms"
+                + (this.reportFile != null ? ", profile written to " + this.reportFile : ""));
+    }
+
+    /**
+     * @see org.osgi.framework.BundleListener#bundleChanged(org.osgi.framework.BundleEvent)
+     */
+    public void bundleChanged(final BundleEvent event) {
+        final long time = this.offset(System.nanoTime());
+        final int type = event.getType();
+        if ( type != BundleEvent.RESOLVED && type != BundleEvent.STARTING && type != BundleEvent.STARTED ) {
+            return;
+        }
+        final Bundle bundle = event.getBundle();
+        final int startLevel = (type == BundleEvent.STARTING ? this.getStartLevel(bundle) : -1);
+        synchronized ( this ) {
+            if ( this.finishTime != -1 ) {
+                return;
+            }
+            BundleTiming timing = this.bundles.get(bundle.getBundleId());
+            if ( timing == null ) {
+                timing = new BundleTiming(bundle.getBundleId(), bundle.getSymbolicName());
+                this.bundles.put(bundle.getBundleId(), timing);
+            }
+            if ( type == BundleEvent.RESOLVED ) {
+                timing.resolved = time;
+            } else if ( type == BundleEvent.STARTING ) {
+                timing.starting = time;
+                timing.startLevel = startLevel;
+            } else {
+                timing.started = time;
+            }
+        }
+    }
+
+    /**
+     * @see org.osgi.framework.FrameworkListener#frameworkEvent(org.osgi.framework.FrameworkEvent)
+     */
+    public void frameworkEvent(final FrameworkEvent event) {
+        if ( event.getType() == FrameworkEvent.STARTED || event.getType() == FrameworkEvent.STARTLEVEL_CHANGED ) {
+            final long time = this.offset(System.nanoTime());
+            final int level = (this.startLevelService != null ? this.startLevelService.getStartLevel() : -1);
+            synchronized ( this ) {
+                if ( this.finishTime == -1 && !this.startLevels.containsKey(level) ) {
+                    this.startLevels.put(level, time);
+                }
+            }
+        }
+    }
+
+    /**
+     * @see org.osgi.framework.ServiceListener#serviceChanged(org.osgi.framework.ServiceEvent)
+     */
+    public void serviceChanged(final ServiceEvent event) {
+        if ( event.getType() != ServiceEvent.REGISTERED ) {
+            return;
+        }
+        final Object name = event.getServiceReference().getProperty(COMPONENT_NAME);
+        if ( name == null ) {
+            return;
+        }
+        final long time = this.offset(System.nanoTime());
+        final Bundle bundle = event.getServiceReference().getBundle();
+        synchronized ( this ) {
+            if ( this.finishTime == -1 ) {
+                final BundleTiming timing = (bundle == null ? null : this.bundles.get(bundle.getBundleId()));
+                this.components.add(new ComponentTiming(name.toString(), time,
+                        timing != null && timing.started != -1 ? time - timing.started : -1));
+            }
+        }
+    }
+
+    /**
+     * Print the report.
+     * @see org.apache.felix.webconsole.ConfigurationPrinter#printConfiguration(java.io.PrintWriter)
+     */
+    public synchronized void printConfiguration(final PrintWriter pw) {
+        pw.println(HEADLINE);
+        pw.println();
+        if ( this.finishTime == -1 ) {
+            pw.println("Startup in progress since " + toMillis(this.offset(System.nanoTime())) + "ms");
+        } else {
+            pw.println("Startup mode: " + this.startupMode);
+            pw.println("Startup time: " + toMillis(this.finishTime) + "ms");
+        }
+        pw.println("All times in ms since the launch of the framework.");
+
+        pw.println();
+        pw.println("Phases");
+        final Map<String, long[]> totals = new LinkedHashMap<String, long[]>();
+        for(final Phase p : this.phases) {
+            pw.printf("%10s %10s  %s%n", toMillis(p.start), toMillis(p.end - p.start), p.name);
+            long[] total = totals.get(p.name);
+            if ( total == null ) {
+                total = new long[2];
+                totals.put(p.name, total);
+            }
+            total[0]++;
+            total[1] += p.end - p.start;
+        }
+        for(final Map.Entry<String, long[]> entry : totals.entrySet()) {
+            if ( entry.getValue()[0] > 1 ) {
+                pw.printf("Total %s: %sms in %d phases%n", entry.getKey(), toMillis(entry.getValue()[1]), entry.getValue()[0]);
+            }
+        }
+
+        pw.println();
+        pw.println("Start levels");
+        pw.printf("%6s %10s %10s %8s %12s%n", "Level", "Reached", "Last start", "Bundles", "Activators");
+        final Map<Integer, long[]> levels = new TreeMap<Integer, long[]>();
+        for(final BundleTiming timing : this.bundles.values()) {
+            if ( timing.startLevel != -1 && timing.started != -1 ) {
+                long[] level = levels.get(timing.startLevel);
+                if ( level == null ) {
+                    level = new long[3];
+                    levels.put(timing.startLevel, level);
+                }
+                level[0] = Math.max(level[0], timing.started);
+                level[1]++;
+                level[2] += timing.getActivationTime();
+            }
+        }
+        final Map<Integer, Long> reached = new TreeMap<Integer, Long>(this.startLevels);
+        for(final Integer level : levels.keySet()) {
+            if ( !reached.containsKey(level) ) {
+                reached.put(level, -1L);
+            }
+        }
+        for(final Map.Entry<Integer, Long> entry : reached.entrySet()) {
+            final long[] level = levels.get(entry.getKey());
+            pw.printf("%6d %10s %10s %8d %12s%n", entry.getKey(),
+                    entry.getValue() == -1 ? "-" : toMillis(entry.getValue()),
+                    level == null ? "-" : toMillis(level[0]),
+                    level == null ? 0 : level[1],
+                    level == null ? "-" : toMillis(level[2]));
+        }
+
+        final List<BundleTiming> sorted = new ArrayList<BundleTiming>(this.bundles.values());
+        Collections.sort(sorted, new Comparator<BundleTiming>() {
+            public int compare(final BundleTiming o1, final BundleTiming o2) {
+                final long t1 = o1.getActivationTime();
+                final long t2 = o2.getActivationTime();
+                return t1 < t2 ? 1 : (t1 == t2 ? 0 : -1);
+            }
+        });
+        pw.println();
+        pw.println("Bundles by activator time (" + sorted.size() + " bundles)");
+        pw.printf("%10s %10s %10s %6s  %s%n", "Activator", "Resolved", "Started", "Level", "Bundle");
+        int count = 0;
+        for(final BundleTiming timing : sorted) {
+            if ( count++ == MAX_ENTRIES ) {
+                break;
+            }
+            pw.printf("%10s %10s %10s %6s  %s (%d)%n",
+                    timing.starting == -1 || timing.started == -1 ? "-" : toMillis(timing.getActivationTime()),
+                    timing.resolved == -1 ? "-" : toMillis(timing.resolved),
+                    timing.started == -1 ? "-" : toMillis(timing.started),
+                    timing.startLevel == -1 ? "-" : String.valueOf(timing.startLevel),
+                    timing.symbolicName, timing.id);
+        }
+
+        final List<ComponentTiming> sortedComponents = new ArrayList<ComponentTiming>(this.components);
+        Collections.sort(sortedComponents, new Comparator<ComponentTiming>() {
+            public int compare(final ComponentTiming o1, final ComponentTiming o2) {
+                return o1.delay < o2.delay ? 1 : (o1.delay == o2.delay ? 0 : -1);
+            }
+        });
+        pw.println();
+        pw.println("Component services by delay after bundle start (" + sortedComponents.size() + " services)");
+        pw.printf("%10s %10s  %s%n", "Delay", "Registered", "Component");
+        count = 0;
+        for(final ComponentTiming timing : sortedComponents) {
+            if ( count++ == MAX_ENTRIES ) {
+                break;
+            }
+            pw.printf("%10s %10s  %s%n", timing.delay == -1 ? "-" : toMillis(timing.delay),
+                    toMillis(timing.registered), timing.name);
+        }
+    }
+
+    private int getStartLevel(final Bundle bundle) {
+        if ( this.startLevelService != null ) {
+            try {
+                return this.startLevelService.getBundleStartLevel(bundle);
+            } catch (final IllegalArgumentException iae) {
+                // bundle has been uninstalled
+            }
+        }
+        return -1;
+    }
+
+    private long offset(final long nanoTime) {
+        return nanoTime - this.startTime;
+    }
+
+    /**
+     * Format a duration in nano seconds as milliseconds.
+     */
+    static String toMillis(final long nanos) {
+        return String.format("%.1f", nanos / 1000000.0);
+    }
+
+    private static final class Phase {
+        public final String name;
+        public final long start;
+        public final long end;
+
+        public Phase(final String name, final long start, final long end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class BundleTiming {
+        public final long id;
+        public final String symbolicName;
+        public long resolved = -1;
+        public long starting = -1;
+        public long started = -1;
+        public int startLevel = -1;
+
+        public BundleTiming(final long id, final String symbolicName) {
+            this.id = id;
+            this.symbolicName = symbolicName;
+        }
+
+        public long getActivationTime() {
+            return (this.starting == -1 || this.started == -1 ? -1 : this.started - this.starting);
+        }
+    }
+
+    private static final class ComponentTiming {
+        public final String name;
+        public final long registered;
+        public final long delay;
+
+        public ComponentTiming(final String name, final long registered, final long delay) {
+            this.name = name;
+            this.registered = registered;
+            this.delay = delay;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.launchpad.base.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.apache.felix.framework.Logger;
+import org.apache.sling.launchpad.api.StartupMode;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceReference;
+
+/** Test the StartupProfiler */
+@RunWith(JMock.class)
+public class StartupProfilerTest {
+    final Mockery mockery = new JUnit4Mockery();
+    private File reportFile;
+    private StartupProfiler profiler;
+
+    @Before
+    public void setUp() throws IOException {
+        reportFile = File.createTempFile(getClass().getSimpleName(), ".txt");
+        profiler = new StartupProfiler(new Logger(), reportFile);
+    }
+
+    @After
+    public void tearDown() {
+        reportFile.delete();
+    }
+
+    private Bundle bundle(final long id, final String name) {
+        final Bundle b = mockery.mock(Bundle.class, name);
+        mockery.checking(new Expectations() {{
+            allowing(b).getBundleId();
+            will(returnValue(id));
+            allowing(b).getSymbolicName();
+            will(returnValue(name));
+        }});
+        return b;
+    }
+
+    private void start(final Bundle b, final long activatorTime) throws InterruptedException {
+        profiler.bundleChanged(new BundleEvent(BundleEvent.RESOLVED, b));
+        profiler.bundleChanged(new BundleEvent(BundleEvent.STARTING, b));
+        Thread.sleep(activatorTime);
+        profiler.bundleChanged(new BundleEvent(BundleEvent.STARTED, b));
+    }
+
+    private String read(final File f) throws IOException {
+        final StringWriter w = new StringWriter();
+        final FileReader r = new FileReader(f);
+        try {
+            final char[] buf = new char[4096];
+            int len;
+            while ( (len = r.read(buf)) != -1 ) {
+                w.write(buf, 0, len);
+            }
+        } finally {
+            r.close();
+        }
+        return w.toString();
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        final long installStart = profiler.now();
+        final Bundle fast = bundle(1, "fast.bundle");
+        final Bundle slow = bundle(2, "slow.bundle");
+        profiler.addPhase("Bootstrap installer", installStart);
+
+        start(fast, 0);
+        start(slow, 50);
+
+        final ServiceReference ref = mockery.mock(ServiceReference.class);
+        mockery.checking(new Expectations() {{
+            allowing(ref).getProperty("component.name");
+            will(returnValue("org.example.SlowComponent"));
+            allowing(ref).getBundle();
+            will(returnValue(slow));
+        }});
+        profiler.serviceChanged(new ServiceEvent(ServiceEvent.REGISTERED, ref));
+
+        profiler.startupFinished(StartupMode.INSTALL);
+
+        final String report = read(reportFile);
+        assertTrue(report, report.contains("Startup mode: INSTALL"));
+        assertTrue(report, report.contains("Bootstrap installer"));
+        assertTrue(report, report.contains("org.example.SlowComponent"));
+        // bundles are sorted by activator time
+        final int slowIndex = report.indexOf("slow.bundle (2)");
+        final int fastIndex = report.indexOf("fast.bundle (1)");
+        assertTrue(report, slowIndex > 0 && fastIndex > slowIndex);
+    }
+
+    @Test
+    public void testEventsAfterFinishIgnored() throws Exception {
+        profiler.startupFinished(StartupMode.RESTART);
+        start(bundle(3, "late.bundle"), 0);
+
+        final StringWriter w = new StringWriter();
+        profiler.printConfiguration(new PrintWriter(w));
+        assertFalse(w.toString(), w.toString().contains("late.bundle"));
+        assertTrue(w.toString(), w.toString().contains("Startup mode: RESTART"));
+    }
+}
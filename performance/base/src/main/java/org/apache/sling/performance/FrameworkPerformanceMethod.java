@@ -21,7 +21,6 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import javax.naming.directory.InvalidAttributesException;
 
@@ -172,12 +171,15 @@ class FrameworkPerformanceMethod extends FrameworkMethod {
 			}
 		}
 
+		PerformanceReport report = null;
 		if (statistics.getN() > 0) {
-			ReportLogger
-					.writeReport(this.target.getClass().getName(),
-							this.performanceSuiteState.testSuiteName,
-							getMethod().getName(), statistics,
-							ReportLogger.ReportType.TXT, reportLevel);
+			report = PerformanceReport.create(
+					ReportLogger.getTestSuiteName(this.performanceSuiteState.testSuiteName),
+					this.target.getClass().getName(), getMethod().getName(),
+					statistics);
+			for (ReportLogger.ReportType reportType : ReportLogger.getReportTypes()) {
+				ReportLogger.writeReport(report, reportType, reportLevel);
+			}
 		}
 
 		// In case of a PerformanceSuite we need to run the methods annotated
@@ -207,6 +209,12 @@ class FrameworkPerformanceMethod extends FrameworkMethod {
 
 		}
 
+		// Compare with the baseline after the suite has been cleaned up so
+		// that a regression does not leave the suite state behind
+		if (report != null) {
+			PerformanceBaseline.check(report);
+		}
+
 		return response;
 	}
 
@@ -239,8 +247,7 @@ class FrameworkPerformanceMethod extends FrameworkMethod {
 		// System.out.println("Start test: " + testMethodToInvoke.getName());
 		long start = System.nanoTime();
 		response = super.invokeExplosively(this.target, params);
-		long timeMilliseconds = TimeUnit.MILLISECONDS.convert(System.nanoTime()
-				- start, TimeUnit.NANOSECONDS);
+		double timeMilliseconds = (System.nanoTime() - start) / 1000000.0;
 		statistics.addValue(timeMilliseconds);
 
 		// System.out.println("End test: " + testMethodToInvoke.getName());
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.performance;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+import org.junit.Assert;
+
+/**
+ * Compares the results of a test with the JSON report of a previous run.
+ * <p>
+ * The comparison is enabled by pointing the {@link #PROP_BASELINE_DIR} system
+ * property to a directory with the same layout as the
+ * <code>target/performance-reports</code> directory, e.g. a copy of the
+ * reports of a previous build. Tests without a baseline report are not
+ * compared.
+ * <p>
+ * A test is considered to have regressed if its median is more than
+ * {@link #PROP_REGRESSION_THRESHOLD} percent above the median of the baseline
+ * and the confidence intervals of both medians do not overlap, so that
+ * noise on the machine running the tests does not fail the build.
+ */
+public class PerformanceBaseline {
+
+	/** The system property with the directory of the baseline reports */
+	public static final String PROP_BASELINE_DIR = "performance.baseline.dir";
+
+	/**
+	 * The system property with the tolerated increase of the median in
+	 * percent (default: 10)
+	 */
+	public static final String PROP_REGRESSION_THRESHOLD = "performance.regression.threshold";
+
+	private static final double DEFAULT_REGRESSION_THRESHOLD = 10;
+
+	/**
+	 * Compare the report with the baseline if a baseline directory is
+	 * configured and fail if the test has regressed.
+	 * 
+	 * @param report
+	 *            the report of the current run
+	 * @throws IOException
+	 *             if the baseline report cannot be read
+	 * @throws JSONException
+	 *             if the baseline report cannot be parsed
+	 */
+	public static void check(PerformanceReport report) throws IOException,
+			JSONException {
+		String baselineDir = System.getProperty(PROP_BASELINE_DIR);
+		if (baselineDir == null || baselineDir.length() == 0) {
+			return;
+		}
+
+		File file = ReportLogger.getJsonReportFile(new File(baselineDir),
+				report.getTestSuiteName(), report.getClassName(),
+				report.getMethodName());
+		if (!file.isFile()) {
+			return;
+		}
+
+		JSONObject baseline = new JSONObject(FileUtils.readFileToString(file,
+				"UTF-8"));
+		double threshold = Double.parseDouble(System.getProperty(
+				PROP_REGRESSION_THRESHOLD,
+				String.valueOf(DEFAULT_REGRESSION_THRESHOLD)));
+
+		double baselineMedian = baseline.getDouble("p50");
+		double baselineMedianHigh = baseline.getDouble("medianHigh");
+
+		if (report.getP50() > baselineMedian * (1 + threshold / 100)
+				&& report.getMedianLow() > baselineMedianHigh) {
+			Assert.fail(String.format(
+					"Performance regression in %s.%s (%s): median %.3f ms "
+							+ "[%.3f, %.3f] exceeds baseline median %.3f ms "
+							+ "[%.3f, %.3f] by more than %.1f%%",
+					report.getClassName(), report.getMethodName(),
+					report.getTestSuiteName(), report.getP50(),
+					report.getMedianLow(), report.getMedianHigh(),
+					baselineMedian, baseline.getDouble("medianLow"),
+					baselineMedianHigh, threshold));
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.performance;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.distribution.NormalDistributionImpl;
+import org.apache.commons.math.distribution.TDistributionImpl;
+import org.apache.commons.math.stat.descriptive.DescriptiveStatistics;
+
+/**
+ * The statistical summary of the execution times of a performance test
+ * method in a test suite. All times are in milliseconds.
+ * <p>
+ * Besides the percentiles, the summary contains the confidence interval of
+ * the mean (based on the Student's t-distribution) and the distribution
+ * free confidence interval of the median (based on order statistics), both
+ * for a confidence level of {@link #CONFIDENCE_LEVEL}.
+ */
+public class PerformanceReport {
+
+	/** The confidence level of the confidence intervals */
+	public static final double CONFIDENCE_LEVEL = 0.95;
+
+	private final String testSuiteName;
+	private final String className;
+	private final String methodName;
+	private final String date;
+
+	private final long n;
+	private final double min;
+	private final double p10;
+	private final double p50;
+	private final double p90;
+	private final double max;
+	private final double mean;
+	private final double standardDeviation;
+	private final double meanLow;
+	private final double meanHigh;
+	private final double medianLow;
+	private final double medianHigh;
+
+	public PerformanceReport(String testSuiteName, String className,
+			String methodName, String date, long n, double min, double p10,
+			double p50, double p90, double max, double mean,
+			double standardDeviation, double meanLow, double meanHigh,
+			double medianLow, double medianHigh) {
+		this.testSuiteName = testSuiteName;
+		this.className = className;
+		this.methodName = methodName;
+		this.date = date;
+		this.n = n;
+		this.min = min;
+		this.p10 = p10;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.max = max;
+		this.mean = mean;
+		this.standardDeviation = standardDeviation;
+		this.meanLow = meanLow;
+		this.meanHigh = meanHigh;
+		this.medianLow = medianLow;
+		this.medianHigh = medianHigh;
+	}
+
+	/**
+	 * Compute the summary of the given statistics
+	 * 
+	 * @param testSuiteName
+	 *            the name of the test suite
+	 * @param className
+	 *            the fully qualified name of the test class
+	 * @param methodName
+	 *            the name of the test method
+	 * @param statistics
+	 *            the execution times in milliseconds
+	 * @return the summary
+	 * @throws MathException
+	 *             if the confidence intervals cannot be computed
+	 */
+	public static PerformanceReport create(String testSuiteName,
+			String className, String methodName,
+			DescriptiveStatistics statistics) throws MathException {
+		final long n = statistics.getN();
+		final double mean = statistics.getMean();
+		final double sd = statistics.getStandardDeviation();
+		final double alpha = 1.0 - CONFIDENCE_LEVEL;
+
+		// confidence interval of the mean
+		double meanLow = mean;
+		double meanHigh = mean;
+		if (n > 1) {
+			final double t = new TDistributionImpl(n - 1)
+					.inverseCumulativeProbability(1.0 - alpha / 2);
+			final double halfWidth = t * sd / Math.sqrt(n);
+			meanLow = mean - halfWidth;
+			meanHigh = mean + halfWidth;
+		}
+
+		// confidence interval of the median using the ranks
+		// n/2 -/+ z * sqrt(n) / 2 of the sorted values
+		final double[] sorted = statistics.getSortedValues();
+		final double z = new NormalDistributionImpl()
+				.inverseCumulativeProbability(1.0 - alpha / 2);
+		final double offset = z * Math.sqrt(n) / 2;
+		final int lowRank = (int) Math.max(1, Math.floor(n / 2.0 - offset));
+		final int highRank = (int) Math.min(n, Math.ceil(1 + n / 2.0 + offset));
+
+		return new PerformanceReport(testSuiteName, className, methodName,
+				now(), n, statistics.getMin(),
+				statistics.getPercentile(10.0), statistics.getPercentile(50.0),
+				statistics.getPercentile(90.0), statistics.getMax(), mean, sd,
+				meanLow, meanHigh, sorted[lowRank - 1], sorted[highRank - 1]);
+	}
+
+	/**
+	 * Get the date that will be written into the result file
+	 * 
+	 * @return the current date
+	 */
+	private static String now() {
+		DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
+		return dateFormat.format(new Date());
+	}
+
+	public String getTestSuiteName() {
+		return testSuiteName;
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	public String getDate() {
+		return date;
+	}
+
+	public long getN() {
+		return n;
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getP10() {
+		return p10;
+	}
+
+	public double getP50() {
+		return p50;
+	}
+
+	public double getP90() {
+		return p90;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public double getStandardDeviation() {
+		return standardDeviation;
+	}
+
+	public double getMeanLow() {
+		return meanLow;
+	}
+
+	public double getMeanHigh() {
+		return meanHigh;
+	}
+
+	public double getMedianLow() {
+		return medianLow;
+	}
+
+	public double getMedianHigh() {
+		return medianHigh;
+	}
+}
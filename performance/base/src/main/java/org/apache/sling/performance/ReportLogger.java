@@ -3,25 +3,114 @@ package org.apache.sling.performance;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 import org.apache.commons.io.output.FileWriterWithEncoding;
 import org.apache.commons.math.stat.descriptive.DescriptiveStatistics;
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.io.JSONWriter;
 
+/**
+ * Writes the performance reports to <code>target/performance-reports</code>.
+ * <p>
+ * The report types written are configured with the
+ * {@link #PROP_REPORT_TYPES} system property:
+ * <ul>
+ * <li><code>txt</code> - the fixed width table used by <code>plot.sh</code></li>
+ * <li><code>csv</code> - one <code>&lt;test class&gt;.csv</code> file per test
+ * class with one row per test method and test suite (jcr-resource version)</li>
+ * <li><code>json</code> - one
+ * <code>&lt;test suite&gt;/&lt;test class&gt;.&lt;test method&gt;.json</code>
+ * file per test method and test suite, which is also the format of the
+ * baseline used by the {@link PerformanceBaseline}</li>
+ * </ul>
+ */
 public class ReportLogger {
 
+	/**
+	 * The system property with the comma separated list of report types to
+	 * write (default: <code>txt,csv,json</code>)
+	 */
+	public static final String PROP_REPORT_TYPES = "performance.report.types";
+
+	/** The directory the reports are written to */
+	public static final String REPORT_DIR = "target/performance-reports";
+
+	private static final String CSV_HEADER = "suite,class,method,date,n,min,p10,p50,p90,max,"
+			+ "mean,stddev,mean_ci_low,mean_ci_high,median_ci_low,median_ci_high";
+
 	public enum ReportType {
-		TXT
+		TXT,
+		CSV,
+		JSON
+	}
+
+	/**
+	 * Get the report types configured with the {@link #PROP_REPORT_TYPES}
+	 * system property
+	 * 
+	 * @return the list of report types
+	 * @throws Exception
+	 *             if an unknown report type is configured
+	 */
+	public static List<ReportType> getReportTypes() throws Exception {
+		final List<ReportType> types = new ArrayList<ReportType>();
+		final String value = System.getProperty(PROP_REPORT_TYPES, "txt,csv,json");
+		for (String type : value.split(",")) {
+			type = type.trim();
+			if (type.length() > 0) {
+				try {
+					types.add(ReportType.valueOf(type.toUpperCase(Locale.ENGLISH)));
+				} catch (IllegalArgumentException iae) {
+					throw new Exception("Unknown report type " + type);
+				}
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Get the name of the test suite, which can be set from the command line
+	 * for test cases not run as part of a test suite
+	 * 
+	 * @param testSuiteName
+	 *            the name of the test suite
+	 * @return the name to use in the reports
+	 */
+	public static String getTestSuiteName(String testSuiteName) {
+		// need this in the case a user wants to set the suite name from the
+		// command line
+		// useful if we run the test cases from the command line for example
+		// by using maven
+		if (testSuiteName.equals(ParameterizedTestList.TEST_CASE_ONLY)) {
+			if (System.getProperty("testsuitename") != null) {
+				testSuiteName = System.getProperty("testsuitename");
+			}
+		}
+		return testSuiteName;
 	}
 
 	public static void writeReport(String test, String testSuiteName,
 			String name, DescriptiveStatistics statistics, ReportType reportType, PerformanceRunner.ReportLevel reportlevel)
 			throws Exception {
+		writeReport(PerformanceReport.create(getTestSuiteName(testSuiteName),
+				test, name, statistics), reportType, reportlevel);
+	}
+
+	public static void writeReport(PerformanceReport report,
+			ReportType reportType, PerformanceRunner.ReportLevel reportlevel)
+			throws Exception {
 		switch (reportType) {
 		case TXT:
-			writeReportTxt(test, testSuiteName, name, statistics, reportlevel);
+			writeReportTxt(report, reportlevel);
+			break;
+		case CSV:
+			writeReportCsv(report);
+			break;
+		case JSON:
+			writeReportJson(report);
 			break;
 		default:
 			throw new Exception(
@@ -32,59 +121,42 @@ public class ReportLogger {
 	/**
 	 * Method the writes the performance report after a test is run
 	 * 
-	 * @param test
-	 *            the test name
-	 * @param name
-	 *            the name that will be listed in the report
-	 * @param statistics
+	 * @param report
 	 *            the statistics data to be written
+	 * @param reportlevel
+	 *            the report level
 	 * @throws IOException
 	 */
-	public static void writeReportTxt(String test, String testSuiteName, String name, DescriptiveStatistics statistics, PerformanceRunner.ReportLevel reportlevel)
+	public static void writeReportTxt(PerformanceReport report, PerformanceRunner.ReportLevel reportlevel)
 			throws Exception{
 
-		String className = test;
+		String className = report.getClassName();
 		className = className.substring(className.lastIndexOf(".") + 1);
 
-		File reportDir = new File("target/performance-reports");
-		if (!reportDir.exists()) {
-			if (!reportDir.mkdir())
-				throw new IOException("Unable to create performance-reports directory");	
-		}
-
-		// need this in the case a user wants to set the suite name from the
-		// command line
-		// useful if we run the test cases from the command line for example
-		// by using maven
-		if (testSuiteName.equals(ParameterizedTestList.TEST_CASE_ONLY)) {
-			if (System.getProperty("testsuitename") != null) {
-				testSuiteName = System.getProperty("testsuitename");
-			}
-		}
+		getReportDir();
 
 		String resultFileName = className;
 		if (reportlevel.equals(PerformanceRunner.ReportLevel.ClassLevel)){
-			writeReportClassLevel(resultFileName, testSuiteName, statistics);
+			writeReportClassLevel(resultFileName, report);
 			}else if (reportlevel.equals(PerformanceRunner.ReportLevel.MethodLevel)){
-				resultFileName = test + "." + name;
-				writeReportMethodLevel(resultFileName, testSuiteName, statistics);
+				resultFileName = report.getClassName() + "." + report.getMethodName();
+				writeReportMethodLevel(resultFileName, report);
 			}
 	}
 	
 	/**
      * Write report for class level tests
      * @param resultFileName the name of the result file (without extension)
-     * @param testSuiteName the name of the test suite name
-     * @param statistics the statistics object used to compute different medians
+     * @param report the statistics to write
      * @throws IOException
      */
-    private static void writeReportClassLevel(String resultFileName, String testSuiteName, DescriptiveStatistics statistics)
+    private static void writeReportClassLevel(String resultFileName, PerformanceReport report)
     		throws IOException{
     	
-    	File report = new File("target/performance-reports", resultFileName + ".txt");
-		boolean needsPrefix = !report.exists();
+    	File file = new File(REPORT_DIR, resultFileName + ".txt");
+		boolean needsPrefix = !file.exists();
 	    PrintWriter writer = new PrintWriter(
-	    		new FileWriterWithEncoding(report, "UTF-8", true));
+	    		new FileWriterWithEncoding(file, "UTF-8", true));
 	    try {
 	    	if (needsPrefix) {
 	    		writer.format(
@@ -94,12 +166,12 @@ public class ReportLogger {
 	    	
 	    	writer.format(
 	    			"%-36.36s  %6.0f  %6.0f  %6.0f  %6.0f  %6.0f%n",
-	    			testSuiteName,
-	    			statistics.getMin(),
-	    			statistics.getPercentile(10.0),
-	    			statistics.getPercentile(50.0),
-	    			statistics.getPercentile(90.0),
-	    			statistics.getMax());
+	    			report.getTestSuiteName(),
+	    			report.getMin(),
+	    			report.getP10(),
+	    			report.getP50(),
+	    			report.getP90(),
+	    			report.getMax());
 	    	} finally {
 	    		writer.close();
 	   		}
@@ -108,20 +180,19 @@ public class ReportLogger {
     /**
      * Write report for method level tests
      * @param resultFileName the name of the result file (without extension)
-     * @param testSuiteName the name of the test suite name
-     * @param statistics the statistics object used to compute different medians
+     * @param report the statistics to write
      * @throws IOException
      */
-    private static void writeReportMethodLevel(String resultFileName, String testSuiteName, DescriptiveStatistics statistics)
+    private static void writeReportMethodLevel(String resultFileName, PerformanceReport report)
     	    throws IOException{
-    	File report = new File("target/performance-reports", resultFileName + ".txt");
+    	File file = new File(REPORT_DIR, resultFileName + ".txt");
 	
     	String className = resultFileName.substring(0, resultFileName.lastIndexOf(".")); 
     	String methodName = resultFileName.substring(resultFileName.lastIndexOf(".") + 1); 
     	
-    	boolean needsPrefix = !report.exists();
+    	boolean needsPrefix = !file.exists();
     	PrintWriter writer = new PrintWriter(
-    			new FileWriterWithEncoding(report, "UTF-8", true));
+    			new FileWriterWithEncoding(file, "UTF-8", true));
     	try {
     		if (needsPrefix) {
     			writer.format(
@@ -133,33 +204,126 @@ public class ReportLogger {
     		
     		writer.format(
     				"%-40.40s|%-80.80s|%-40.40s|%-20.20s|%7.0f|%9.0f|%9.0f|%9.0f|%9.0f%n",
-    				testSuiteName,
+    				report.getTestSuiteName(),
     				className,
     				methodName,
-    				getDate(),
-    				statistics.getMin(),
-    				statistics.getPercentile(10.0),
-    				statistics.getPercentile(50.0),
-    				statistics.getPercentile(90.0),
-    				statistics.getMax());
+    				report.getDate(),
+    				report.getMin(),
+    				report.getP10(),
+    				report.getP50(),
+    				report.getP90(),
+    				report.getMax());
     		} finally {
     			writer.close();
     		}
     }
-	    
-	
-	
 
 	/**
-	 * Get the date that will be written into the result file
+	 * Append the report to the CSV file of the test class
+	 * 
+	 * @param report
+	 *            the statistics to write
+	 * @throws IOException
+	 */
+	public static void writeReportCsv(PerformanceReport report)
+			throws IOException {
+		String className = report.getClassName();
+		className = className.substring(className.lastIndexOf(".") + 1);
+
+		File file = new File(getReportDir(), className + ".csv");
+		boolean needsHeader = !file.exists();
+		PrintWriter writer = new PrintWriter(new FileWriterWithEncoding(
+				file, "UTF-8", true));
+		try {
+			if (needsHeader) {
+				writer.println(CSV_HEADER);
+			}
+			writer.format(Locale.ENGLISH,
+					"%s,%s,%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+					report.getTestSuiteName(), report.getClassName(),
+					report.getMethodName(), report.getDate(), report.getN(),
+					report.getMin(), report.getP10(), report.getP50(),
+					report.getP90(), report.getMax(), report.getMean(),
+					report.getStandardDeviation(), report.getMeanLow(),
+					report.getMeanHigh(), report.getMedianLow(),
+					report.getMedianHigh());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Write the report to the JSON file of the test method in the directory
+	 * of the test suite, replacing the results of a previous run
 	 * 
-	 * @return
+	 * @param report
+	 *            the statistics to write
+	 * @throws IOException
+	 * @throws JSONException
 	 */
-	private static String getDate() {
-		DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
-		Date date = new Date();
+	public static void writeReportJson(PerformanceReport report)
+			throws IOException, JSONException {
+		File file = getJsonReportFile(getReportDir(), report.getTestSuiteName(),
+				report.getClassName(), report.getMethodName());
+		File suiteDir = file.getParentFile();
+		if (!suiteDir.exists() && !suiteDir.mkdirs()) {
+			throw new IOException("Unable to create " + suiteDir);
+		}
 
-		return dateFormat.format(date);
+		PrintWriter writer = new PrintWriter(new FileWriterWithEncoding(
+				file, "UTF-8", false));
+		try {
+			JSONWriter json = new JSONWriter(writer);
+			json.setTidy(true);
+			json.object();
+			json.key("suite").value(report.getTestSuiteName());
+			json.key("class").value(report.getClassName());
+			json.key("method").value(report.getMethodName());
+			json.key("date").value(report.getDate());
+			json.key("n").value(report.getN());
+			json.key("confidenceLevel").value(PerformanceReport.CONFIDENCE_LEVEL);
+			json.key("min").value(report.getMin());
+			json.key("p10").value(report.getP10());
+			json.key("p50").value(report.getP50());
+			json.key("p90").value(report.getP90());
+			json.key("max").value(report.getMax());
+			json.key("mean").value(report.getMean());
+			json.key("stddev").value(report.getStandardDeviation());
+			json.key("meanLow").value(report.getMeanLow());
+			json.key("meanHigh").value(report.getMeanHigh());
+			json.key("medianLow").value(report.getMedianLow());
+			json.key("medianHigh").value(report.getMedianHigh());
+			json.endObject();
+		} finally {
+			writer.close();
+		}
 	}
 
+	/**
+	 * Get the JSON report file of a test method
+	 * 
+	 * @param dir
+	 *            the report or baseline directory
+	 * @param testSuiteName
+	 *            the name of the test suite
+	 * @param className
+	 *            the fully qualified name of the test class
+	 * @param methodName
+	 *            the name of the test method
+	 * @return the report file
+	 */
+	static File getJsonReportFile(File dir, String testSuiteName,
+			String className, String methodName) {
+		return new File(new File(dir, testSuiteName), className + "."
+				+ methodName + ".json");
+	}
+
+	private static File getReportDir() throws IOException {
+		File reportDir = new File(REPORT_DIR);
+		if (!reportDir.exists()) {
+			if (!reportDir.mkdirs())
+				throw new IOException("Unable to create performance-reports directory");	
+		}
+		return reportDir;
+	}
 }
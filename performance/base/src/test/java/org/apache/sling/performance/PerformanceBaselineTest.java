@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.performance;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PerformanceBaselineTest {
+
+	private File baselineDir;
+
+	@Before
+	public void setUp() throws IOException {
+		baselineDir = File.createTempFile("baseline", "");
+		baselineDir.delete();
+		baselineDir.mkdir();
+		System.setProperty(PerformanceBaseline.PROP_BASELINE_DIR,
+				baselineDir.getAbsolutePath());
+		// baseline median 100 ms with the confidence interval [95, 105]
+		FileUtils.writeStringToFile(
+				ReportLogger.getJsonReportFile(baselineDir, "suite", "Test", "test"),
+				"{\"p50\":100,\"medianLow\":95,\"medianHigh\":105}", "UTF-8");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		System.clearProperty(PerformanceBaseline.PROP_BASELINE_DIR);
+		System.clearProperty(PerformanceBaseline.PROP_REGRESSION_THRESHOLD);
+		FileUtils.deleteDirectory(baselineDir);
+	}
+
+	private static PerformanceReport report(String method, double median,
+			double medianLow, double medianHigh) {
+		return new PerformanceReport("suite", "Test", method, "date", 100,
+				0, 0, median, 0, 0, median, 0, median, median, medianLow,
+				medianHigh);
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testRegression() throws Exception {
+		// more than 10% slower and the intervals don't overlap
+		PerformanceBaseline.check(report("test", 111, 106, 116));
+	}
+
+	@Test
+	public void testOverlappingIntervals() throws Exception {
+		// more than 10% slower, but might be noise
+		PerformanceBaseline.check(report("test", 111, 105, 116));
+	}
+
+	@Test
+	public void testBelowThreshold() throws Exception {
+		// the intervals don't overlap, but the median is only 10% slower
+		PerformanceBaseline.check(report("test", 110, 106, 114));
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testConfiguredThreshold() throws Exception {
+		System.setProperty(PerformanceBaseline.PROP_REGRESSION_THRESHOLD, "5");
+		PerformanceBaseline.check(report("test", 108, 106, 110));
+	}
+
+	@Test
+	public void testFaster() throws Exception {
+		PerformanceBaseline.check(report("test", 50, 45, 55));
+	}
+
+	@Test
+	public void testNoBaselineReport() throws Exception {
+		PerformanceBaseline.check(report("other", 1000, 900, 1100));
+	}
+
+	@Test
+	public void testNoBaselineDir() throws Exception {
+		System.clearProperty(PerformanceBaseline.PROP_BASELINE_DIR);
+		PerformanceBaseline.check(report("test", 1000, 900, 1100));
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.commons.math.stat.descriptive.DescriptiveStatistics;
+import org.junit.Test;
+
+/**
+ * Checks the summary against values computed by hand, using
+ * t(0.975, 4) = 2.776445, t(0.975, 99) = 1.984217 and z(0.975) = 1.959964.
+ */
+public class PerformanceReportTest {
+
+	private static final double DELTA = 1e-5;
+
+	private static PerformanceReport report(double... values) throws Exception {
+		DescriptiveStatistics statistics = new DescriptiveStatistics();
+		for (double value : values) {
+			statistics.addValue(value);
+		}
+		return PerformanceReport.create("suite", "Test", "test", statistics);
+	}
+
+	private static double[] range(int n) {
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			// unsorted to check that the ranks use the sorted values
+			values[i] = (i * 37) % n + 1;
+		}
+		return values;
+	}
+
+	@Test
+	public void testPercentiles() throws Exception {
+		PerformanceReport report = report(range(100));
+		assertEquals(100, report.getN());
+		assertEquals(1, report.getMin(), DELTA);
+		assertEquals(100, report.getMax(), DELTA);
+		// position p * (n + 1) / 100, interpolated between the neighbours
+		assertEquals(10.1, report.getP10(), DELTA);
+		assertEquals(50.5, report.getP50(), DELTA);
+		assertEquals(90.9, report.getP90(), DELTA);
+	}
+
+	@Test
+	public void testMeanConfidenceInterval() throws Exception {
+		PerformanceReport report = report(2, 4, 4, 4, 6);
+		assertEquals(4, report.getMean(), DELTA);
+		// sqrt(8 / 4)
+		assertEquals(1.414214, report.getStandardDeviation(), DELTA);
+		// 2.776445 * sqrt(2) / sqrt(5) = 1.755978
+		assertEquals(2.244022, report.getMeanLow(), DELTA);
+		assertEquals(5.755978, report.getMeanHigh(), DELTA);
+	}
+
+	@Test
+	public void testMeanConfidenceIntervalLargeSample() throws Exception {
+		PerformanceReport report = report(range(100));
+		assertEquals(50.5, report.getMean(), DELTA);
+		// sqrt(100 * 101 / 12)
+		assertEquals(29.011492, report.getStandardDeviation(), DELTA);
+		// 1.984217 * 29.011492 / 10 = 5.756509
+		assertEquals(44.743491, report.getMeanLow(), DELTA);
+		assertEquals(56.256509, report.getMeanHigh(), DELTA);
+	}
+
+	@Test
+	public void testMedianConfidenceInterval() throws Exception {
+		PerformanceReport report = report(range(100));
+		// offset 1.959964 * sqrt(100) / 2 = 9.79982, ranks
+		// floor(50 - 9.79982) = 40 and ceil(51 + 9.79982) = 61
+		assertEquals(40, report.getMedianLow(), DELTA);
+		assertEquals(61, report.getMedianHigh(), DELTA);
+	}
+
+	@Test
+	public void testMedianConfidenceIntervalSmallSample() throws Exception {
+		PerformanceReport report = report(range(10));
+		// offset 1.959964 * sqrt(10) / 2 = 3.09898, the ranks
+		// floor(1.90102) = 1 and ceil(9.09898) = 10 are the extremes
+		assertEquals(1, report.getMedianLow(), DELTA);
+		assertEquals(10, report.getMedianHigh(), DELTA);
+	}
+
+	@Test
+	public void testSingleValue() throws Exception {
+		PerformanceReport report = report(7);
+		assertEquals(1, report.getN());
+		assertEquals(7, report.getP50(), DELTA);
+		assertEquals(7, report.getMeanLow(), DELTA);
+		assertEquals(7, report.getMeanHigh(), DELTA);
+		assertEquals(7, report.getMedianLow(), DELTA);
+		assertEquals(7, report.getMedianHigh(), DELTA);
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.commons.testing.sling.MockSlingHttpServletRequest;
+import org.apache.sling.commons.testing.sling.MockSlingHttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering the request log entry and the NCSA combined access
+ * log line with the <code>CustomLogFormat</code>. The benchmark lives in the
+ * implementation package as the log format classes are package private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CustomLogFormatBenchmark {
+
+    private static final String REQUEST_LOG_ENTRY_FORMAT = "%t [%R] -> %m %U%q %H";
+
+    private static final String ACCESS_LOG_FORMAT = "%a %l %u %t \"%r\" %>s %b \"%{Referer}i\" \"%{User-Agent}i\"";
+
+    private CustomLogFormat requestLogFormat;
+
+    private CustomLogFormat accessLogFormat;
+
+    private RequestLoggerRequest request;
+
+    private RequestLoggerResponse response;
+
+    @Setup
+    public void setup() {
+        requestLogFormat = new CustomLogFormat(REQUEST_LOG_ENTRY_FORMAT);
+        accessLogFormat = new CustomLogFormat(ACCESS_LOG_FORMAT);
+
+        final MockSlingHttpServletRequest mockRequest = new MockSlingHttpServletRequest(
+            "/content/bench/page", null, "html", null, "a=1&b=2") {
+            @Override
+            public String getHeader(final String name) {
+                if ("Referer".equalsIgnoreCase(name)) {
+                    return "http://localhost:8080/content/bench.html";
+                } else if ("User-Agent".equalsIgnoreCase(name)) {
+                    return "Mozilla/5.0 (X11; Linux x86_64) Benchmark/1.0";
+                }
+                return null;
+            }
+
+            @Override
+            public String getRequestURI() {
+                return "/content/bench/page.html";
+            }
+
+            @Override
+            public String getProtocol() {
+                return "HTTP/1.1";
+            }
+
+            @Override
+            public String getRemoteAddr() {
+                return "127.0.0.1";
+            }
+        };
+        mockRequest.setMethod("GET");
+
+        request = new RequestLoggerRequest(mockRequest);
+        response = new RequestLoggerResponse(new MockSlingHttpServletResponse() {
+            @Override
+            public void setContentLength(final int len) {
+                // only recorded by the RequestLoggerResponse
+            }
+        });
+        response.setStatus(200);
+        response.setContentLength(4711);
+        response.requestEnd();
+    }
+
+    @Benchmark
+    public String requestLogEntry() {
+        return requestLogFormat.format(request, response);
+    }
+
+    @Benchmark
+    public String accessLog() {
+        return accessLogFormat.format(request, response);
+    }
+}
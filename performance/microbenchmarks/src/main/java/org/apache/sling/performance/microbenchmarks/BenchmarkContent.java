@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.performance.microbenchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.apache.sling.testing.resourceresolver.MockResourceResolver;
+import org.apache.sling.testing.resourceresolver.MockResourceTree;
+
+/**
+ * The <code>BenchmarkContent</code> class creates the in-memory resource
+ * trees the benchmarks run against, so no repository or network access is
+ * needed.
+ */
+public class BenchmarkContent {
+
+    private BenchmarkContent() {
+        // no instances
+    }
+
+    /**
+     * Creates an empty mock resource resolver using the default search path
+     * of Sling.
+     */
+    public static MockResourceResolver createResolver() {
+        return new MockResourceResolver(null, new MockResourceTree()) {
+            @Override
+            public String[] getSearchPath() {
+                return new String[] { "/apps/", "/libs/" };
+            }
+        };
+    }
+
+    /**
+     * Creates the resource at the given path with the given properties. The
+     * changes have to be committed by the caller.
+     *
+     * @param resolver The resolver to create the resource with
+     * @param path The absolute path of the resource
+     * @param keysAndValues Alternating property names and values
+     */
+    public static Resource create(final MockResourceResolver resolver,
+            final String path, final Object... keysAndValues)
+    throws PersistenceException {
+        final Map<String, Object> props = new HashMap<String, Object>();
+        for (int i = 0; i + 1 < keysAndValues.length; i += 2) {
+            props.put(keysAndValues[i].toString(), keysAndValues[i + 1]);
+        }
+        final Resource parent = new SyntheticResource(resolver,
+            ResourceUtil.getParent(path), null);
+        return resolver.create(parent, ResourceUtil.getName(path), props);
+    }
+
+    /**
+     * Creates a tree of resources below the root with the given number of
+     * levels and children per resource. Resources are named
+     * <code>node&lt;level&gt;_&lt;index&gt;</code>.
+     */
+    public static void createTree(final MockResourceResolver resolver,
+            final String root, final int levels, final int children)
+    throws PersistenceException {
+        create(resolver, root, "sling:resourceType", "bench/page");
+        createChildren(resolver, root, 0, levels, children);
+        resolver.commit();
+    }
+
+    private static void createChildren(final MockResourceResolver resolver,
+            final String parent, final int level, final int levels, final int children)
+    throws PersistenceException {
+        if (level == levels) {
+            return;
+        }
+        for (int i = 0; i < children; i++) {
+            final String path = parent + "/node" + level + "_" + i;
+            create(resolver, path, "sling:resourceType", "bench/page", "title", path);
+            createChildren(resolver, path, level + 1, levels, children);
+        }
+    }
+}
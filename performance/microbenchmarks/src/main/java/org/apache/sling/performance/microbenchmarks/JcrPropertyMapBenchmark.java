@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.performance.microbenchmarks;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.apache.sling.commons.testing.jcr.RepositoryUtil;
+import org.apache.sling.jcr.resource.JcrPropertyMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the value conversions of the <code>JcrPropertyMap</code> on a
+ * node of an in-memory Jackrabbit repository, both with a new map per
+ * operation (cold property cache) and with a shared map (warm cache).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JcrPropertyMapBenchmark {
+
+    private Session session;
+
+    private Node node;
+
+    private JcrPropertyMap warmMap;
+
+    @Setup
+    public void setup() throws Exception {
+        RepositoryUtil.startRepository();
+        session = RepositoryUtil.getRepository().loginAdministrative(null);
+        node = session.getRootNode().addNode("bench" + System.currentTimeMillis(), "nt:unstructured");
+        node.setProperty("string", "Hello Sling");
+        node.setProperty("number", "12345");
+        node.setProperty("long", 42L);
+        node.setProperty("double", 3.1415);
+        node.setProperty("boolean", true);
+        node.setProperty("date", Calendar.getInstance());
+        node.setProperty("multi", new String[] { "a", "b", "c", "d" });
+        session.save();
+
+        // read all properties once to fill the cache
+        warmMap = new JcrPropertyMap(node);
+        warmMap.entrySet();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        node.remove();
+        session.save();
+        session.logout();
+        RepositoryUtil.stopRepository();
+    }
+
+    private void convert(final JcrPropertyMap map, final Blackhole bh) {
+        bh.consume(map.get("string", String.class));
+        bh.consume(map.get("number", Integer.class));
+        bh.consume(map.get("long", String.class));
+        bh.consume(map.get("double", Double.class));
+        bh.consume(map.get("boolean", Boolean.class));
+        bh.consume(map.get("date", Calendar.class));
+        bh.consume(map.get("date", Date.class));
+        bh.consume(map.get("multi", String[].class));
+        bh.consume(map.get("string", String[].class));
+    }
+
+    @Benchmark
+    public void convertNewMap(final Blackhole bh) {
+        convert(new JcrPropertyMap(node), bh);
+    }
+
+    @Benchmark
+    public void convertCachedMap(final Blackhole bh) {
+        convert(warmMap, bh);
+    }
+
+    @Benchmark
+    public int readAll() {
+        return new JcrPropertyMap(node).entrySet().size();
+    }
+}
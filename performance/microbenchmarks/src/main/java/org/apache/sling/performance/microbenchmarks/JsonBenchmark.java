@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.performance.microbenchmarks;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.commons.json.io.JSONWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks serializing and parsing a JSON document similar to the
+ * rendering of a page resource with some children by the default GET
+ * servlet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final int CHILDREN = 20;
+
+    private JSONObject object;
+
+    private String json;
+
+    @Setup
+    public void setup() throws JSONException {
+        object = new JSONObject();
+        object.put("jcr:primaryType", "cq:Page");
+        object.put("jcr:created", "Tue Jan 01 2013 10:00:00 GMT+0100");
+        object.put("title", "A \"quoted\" title with unicode \u00e4\u00f6\u00fc");
+        object.put("count", 1234567L);
+        object.put("ratio", 0.75);
+        object.put("hidden", false);
+        final JSONArray children = new JSONArray();
+        for (int i = 0; i < CHILDREN; i++) {
+            final JSONObject child = new JSONObject();
+            child.put("name", "child" + i);
+            child.put("sling:resourceType", "bench/component");
+            child.put("index", i);
+            child.put("tags", new JSONArray().put("a").put("b").put("c"));
+            children.put(child);
+        }
+        object.put("children", children);
+        json = object.toString();
+    }
+
+    @Benchmark
+    public String objectToString() {
+        return object.toString();
+    }
+
+    @Benchmark
+    public String objectWrite() throws JSONException {
+        final StringWriter out = new StringWriter(json.length());
+        object.write(out);
+        return out.toString();
+    }
+
+    @Benchmark
+    public String writer() throws JSONException {
+        final StringWriter out = new StringWriter(json.length());
+        final JSONWriter w = new JSONWriter(out);
+        w.object();
+        w.key("jcr:primaryType").value("cq:Page");
+        w.key("title").value("A \"quoted\" title with unicode \u00e4\u00f6\u00fc");
+        w.key("count").value(1234567L);
+        w.key("ratio").value(0.75);
+        w.key("hidden").value(false);
+        w.key("children").array();
+        for (int i = 0; i < CHILDREN; i++) {
+            w.object();
+            w.key("name").value("child" + i);
+            w.key("sling:resourceType").value("bench/component");
+            w.key("index").value(i);
+            w.key("tags").array().value("a").value("b").value("c").endArray();
+            w.endObject();
+        }
+        w.endArray();
+        w.endObject();
+        return out.toString();
+    }
+
+    @Benchmark
+    public JSONObject parse() throws JSONException {
+        return new JSONObject(json);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.performance.microbenchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.servlets.resolver.internal.helper.ResourceCollector;
+import org.apache.sling.testing.resourceresolver.MockResourceResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the script resolution of the <code>SlingServletResolver</code>
+ * for resources whose resource type has a chain of resource super types of
+ * the given depth. The only script is provided by the last type of the
+ * chain, so the complete chain is walked on each resolution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ServletResolverBenchmark {
+
+    private static final String[] EXECUTION_PATHS = new String[] { "/apps/", "/libs/" };
+
+    private static final String[] DEFAULT_EXTENSIONS = new String[] { "html" };
+
+    private static final String[] NO_SELECTORS = new String[0];
+
+    private static final String[] SELECTORS = new String[] { "print", "a4" };
+
+    @Param({ "1", "5", "10", "20" })
+    public int depth;
+
+    private MockResourceResolver resolver;
+
+    private Resource resource;
+
+    @Setup
+    public void setup() throws Exception {
+        resolver = BenchmarkContent.createResolver();
+        for (int i = 0; i < depth; i++) {
+            final String typePath = "/apps/bench/type" + i;
+            if (i + 1 < depth) {
+                BenchmarkContent.create(resolver, typePath, "sling:resourceSuperType", "bench/type" + (i + 1));
+            } else {
+                BenchmarkContent.create(resolver, typePath);
+                BenchmarkContent.create(resolver, typePath + "/html.jsp");
+                BenchmarkContent.create(resolver, typePath + "/print.html.jsp");
+            }
+        }
+        resource = BenchmarkContent.create(resolver, "/content/bench/page", "sling:resourceType", "bench/type0");
+        resolver.commit();
+    }
+
+    @Benchmark
+    public Collection<Resource> resolveScript() {
+        return ResourceCollector.create(resource, null, "html", EXECUTION_PATHS,
+            DEFAULT_EXTENSIONS, "GET", NO_SELECTORS).getServlets(resolver);
+    }
+
+    @Benchmark
+    public Collection<Resource> resolveScriptWithSelectors() {
+        return ResourceCollector.create(resource, null, "html", EXECUTION_PATHS,
+            DEFAULT_EXTENSIONS, "GET", SELECTORS).getServlets(resolver);
+    }
+}
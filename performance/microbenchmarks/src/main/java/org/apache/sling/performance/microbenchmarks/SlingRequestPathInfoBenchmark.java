@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.performance.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceMetadata;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.apache.sling.engine.impl.request.SlingRequestPathInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the decomposition of the request path into selectors,
+ * extension and suffix by the <code>SlingRequestPathInfo</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SlingRequestPathInfoBenchmark {
+
+    private static final String PATH = "/content/bench/page";
+
+    private Resource plain;
+
+    private Resource selectorsAndSuffix;
+
+    private Resource dotsInSuffix;
+
+    private Resource resource(final String pathInfo) {
+        final Resource r = new SyntheticResource(null, PATH, "bench/page");
+        final ResourceMetadata metadata = r.getResourceMetadata();
+        metadata.setResolutionPath(PATH);
+        metadata.setResolutionPathInfo(pathInfo);
+        return r;
+    }
+
+    @Setup
+    public void setup() {
+        plain = resource(".html");
+        selectorsAndSuffix = resource(".print.a4.html/suffix/path");
+        dotsInSuffix = resource(".print.html/suffix/with.dots/file.json");
+    }
+
+    @Benchmark
+    public RequestPathInfo plain() {
+        return new SlingRequestPathInfo(plain);
+    }
+
+    @Benchmark
+    public RequestPathInfo selectorsAndSuffix() {
+        return new SlingRequestPathInfo(selectorsAndSuffix);
+    }
+
+    @Benchmark
+    public RequestPathInfo dotsInSuffix() {
+        return new SlingRequestPathInfo(dotsInSuffix);
+    }
+
+    @Benchmark
+    public RequestPathInfo merge() {
+        return new SlingRequestPathInfo(plain).merge(
+            new SlingRequestPathInfo(selectorsAndSuffix));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import junitx.util.PrivateAccessor;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceProvider;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.performance.microbenchmarks.BenchmarkContent;
+import org.apache.sling.resourceresolver.impl.helper.ResourceResolverContext;
+import org.apache.sling.testing.resourceresolver.MockResourceResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.Constants;
+
+/**
+ * Benchmarks <code>ResourceResolverImpl.resolve</code> and
+ * <code>map</code> with a single resource provider serving a mock resource
+ * tree. The benchmark lives in the implementation package to bind the
+ * provider without an OSGi framework.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResourceResolverBenchmark {
+
+    private static final String PAGE = "/content/bench/node0_5/node1_5/node2_5";
+
+    private ResourceResolver resolver;
+
+    @Setup
+    public void setup() throws Exception {
+        final MockResourceResolver content = BenchmarkContent.createResolver();
+        BenchmarkContent.createTree(content, "/content/bench", 3, 10);
+        BenchmarkContent.create(content, PAGE + "/jcr:content", "title", "Page");
+        content.commit();
+
+        final ResourceResolverFactoryActivator activator = new ResourceResolverFactoryActivator();
+        PrivateAccessor.setField(activator, "searchPath", new String[] { "/apps/", "/libs/" });
+        PrivateAccessor.setField(activator, "mangleNamespacePrefixes", true);
+
+        final Map<String, Object> props = new HashMap<String, Object>();
+        props.put(Constants.SERVICE_PID, "org.apache.sling.performance.MockProvider");
+        props.put(Constants.SERVICE_ID, 1L);
+        props.put(ResourceProvider.ROOTS, new String[] { "/" });
+        activator.bindResourceProvider(new MockContentProvider(content), props);
+
+        final CommonResourceResolverFactoryImpl factory = new CommonResourceResolverFactoryImpl(activator);
+        resolver = new ResourceResolverImpl(factory, new ResourceResolverContext(false, null, null));
+    }
+
+    @TearDown
+    public void tearDown() {
+        resolver.close();
+    }
+
+    @Benchmark
+    public Resource resolveExisting() {
+        return resolver.resolve(PAGE + ".html");
+    }
+
+    @Benchmark
+    public Resource resolveWithSelectorsAndSuffix() {
+        return resolver.resolve(PAGE + ".print.a4.html/suffix/path");
+    }
+
+    @Benchmark
+    public Resource resolveNonExisting() {
+        return resolver.resolve("/content/bench/node0_5/missing/page.html");
+    }
+
+    @Benchmark
+    public String map() {
+        return resolver.map(PAGE + ".html");
+    }
+
+    @Benchmark
+    public String mapMangledNamespace() {
+        return resolver.map(PAGE + "/jcr:content.html");
+    }
+
+    /**
+     * Resource provider serving the resources of a mock resource resolver.
+     */
+    private static final class MockContentProvider implements ResourceProvider {
+
+        private final ResourceResolver content;
+
+        MockContentProvider(final ResourceResolver content) {
+            this.content = content;
+        }
+
+        public Resource getResource(final ResourceResolver resourceResolver,
+                final HttpServletRequest request, final String path) {
+            return getResource(resourceResolver, path);
+        }
+
+        public Resource getResource(final ResourceResolver resourceResolver, final String path) {
+            return content.getResource(path);
+        }
+
+        public Iterator<Resource> listChildren(final Resource parent) {
+            return content.listChildren(parent);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.tree;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceProvider;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.Constants;
+
+/**
+ * Benchmarks the lookup of the resource provider for a path in the tree of
+ * <code>ResourceProviderEntry</code> objects, either with a single provider
+ * mounted at the root or with additional servlet resource providers mounted
+ * below <code>/apps</code> and <code>/libs</code>. The providers return a
+ * constant resource, so only the cost of the tree is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResourceProviderEntryBenchmark {
+
+    private static final String[] SERVLET_ROOTS = new String[] {
+        "/libs/sling/servlet/default/GET.servlet",
+        "/libs/sling/servlet/default/POST.servlet",
+        "/libs/sling/servlet/errorhandler/default.servlet",
+        "/apps/bench/components/page/GET.servlet",
+        "/apps/bench/components/list/json.servlet"
+    };
+
+    @Param({ "root", "servlets" })
+    public String mounts;
+
+    private ResourceProviderEntry root;
+
+    @Setup
+    public void setup() {
+        root = new RootResourceProviderEntry();
+        long serviceId = 1;
+        root.addResourceProvider("/", handler(serviceId++, "/"));
+        if ("servlets".equals(mounts)) {
+            for (final String path : SERVLET_ROOTS) {
+                root.addResourceProvider(path, handler(serviceId++, path));
+            }
+        }
+    }
+
+    @Benchmark
+    public Resource contentPath() {
+        return root.getResource(null, null, "/content/bench/en/products/page/jcr:content/par/text");
+    }
+
+    @Benchmark
+    public Resource scriptPath() {
+        return root.getResource(null, null, "/apps/bench/components/page/page.jsp");
+    }
+
+    @Benchmark
+    public Resource servletPath() {
+        return root.getResource(null, null, "/libs/sling/servlet/default/GET.servlet");
+    }
+
+    private static ResourceProviderHandler handler(final long serviceId, final String root) {
+        final Map<String, Object> props = new HashMap<String, Object>();
+        props.put(Constants.SERVICE_ID, serviceId);
+        props.put(ResourceProvider.ROOTS, new String[] { root });
+        return new ResourceProviderHandler(new ConstantProvider(), props);
+    }
+
+    /**
+     * Resource provider returning the same resource for every path.
+     */
+    private static final class ConstantProvider implements ResourceProvider {
+
+        private final Resource resource = new SyntheticResource(null, "/", "bench/constant");
+
+        public Resource getResource(final ResourceResolver resourceResolver,
+                final HttpServletRequest request, final String path) {
+            return resource;
+        }
+
+        public Resource getResource(final ResourceResolver resourceResolver, final String path) {
+            return resource;
+        }
+
+        public Iterator<Resource> listChildren(final Resource parent) {
+            return null;
+        }
+    }
+}
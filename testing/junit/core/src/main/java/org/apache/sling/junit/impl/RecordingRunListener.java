@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.junit.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/** RunListener that records the events of a test run, to replay
+ *  them later on another listener. Used to run test classes in
+ *  parallel while rendering the results of each class in one
+ *  piece, as renderers are not thread-safe.
+ */
+class RecordingRunListener extends RunListener {
+
+    private enum Type {
+        RUN_STARTED, RUN_FINISHED, STARTED, FINISHED, FAILURE, ASSUMPTION_FAILURE, IGNORED
+    }
+
+    private static class Event {
+        final Type type;
+        final Object data;
+
+        Event(Type type, Object data) {
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    private final String className;
+
+    private final List<Event> events = new ArrayList<Event>();
+
+    RecordingRunListener(String className) {
+        this.className = className;
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    @Override
+    public synchronized void testRunStarted(Description description) {
+        events.add(new Event(Type.RUN_STARTED, description));
+    }
+
+    @Override
+    public synchronized void testRunFinished(Result result) {
+        events.add(new Event(Type.RUN_FINISHED, result));
+    }
+
+    @Override
+    public synchronized void testStarted(Description description) {
+        events.add(new Event(Type.STARTED, description));
+    }
+
+    @Override
+    public synchronized void testFinished(Description description) {
+        events.add(new Event(Type.FINISHED, description));
+    }
+
+    @Override
+    public synchronized void testFailure(Failure failure) {
+        events.add(new Event(Type.FAILURE, failure));
+    }
+
+    @Override
+    public synchronized void testAssumptionFailure(Failure failure) {
+        events.add(new Event(Type.ASSUMPTION_FAILURE, failure));
+    }
+
+    @Override
+    public synchronized void testIgnored(Description description) {
+        events.add(new Event(Type.IGNORED, description));
+    }
+
+    /** Send all recorded events, in order, to the supplied listener */
+    synchronized void replay(RunListener target) throws Exception {
+        for(Event e : events) {
+            switch(e.type) {
+                case RUN_STARTED:
+                    target.testRunStarted((Description)e.data);
+                    break;
+                case RUN_FINISHED:
+                    target.testRunFinished((Result)e.data);
+                    break;
+                case STARTED:
+                    target.testStarted((Description)e.data);
+                    break;
+                case FINISHED:
+                    target.testFinished((Description)e.data);
+                    break;
+                case FAILURE:
+                    target.testFailure((Failure)e.data);
+                    break;
+                case ASSUMPTION_FAILURE:
+                    target.testAssumptionFailure((Failure)e.data);
+                    break;
+                case IGNORED:
+                    target.testIgnored((Description)e.data);
+                    break;
+            }
+        }
+    }
+}
@@ -22,16 +22,27 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.junit.Renderer;
 import org.apache.sling.junit.TestSelector;
 import org.apache.sling.junit.TestsManager;
 import org.apache.sling.junit.TestsProvider;
+import org.apache.sling.junit.annotations.SerialExecution;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Request;
+import org.junit.runner.notification.RunListener;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
@@ -39,10 +50,18 @@ import org.osgi.util.tracker.ServiceTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@Component
+@Component(metatype=true)
 @Service
 public class TestsManagerImpl implements TestsManager {
     private final Logger log = LoggerFactory.getLogger(getClass());
+
+    public static final int DEFAULT_PARALLEL_THREADS = 1;
+
+    /** Number of test classes executed concurrently, 1 means serial execution */
+    @Property(intValue=DEFAULT_PARALLEL_THREADS)
+    public static final String PARALLEL_THREADS = "parallel.threads";
+
+    private int parallelThreads = DEFAULT_PARALLEL_THREADS;
     private ServiceTracker tracker;
     private int lastTrackingCount = -1;
     private BundleContext bundleContext;
@@ -60,6 +79,21 @@ public class TestsManagerImpl implements TestsManager {
         bundleContext = ctx.getBundleContext();
         tracker = new ServiceTracker(bundleContext, TestsProvider.class.getName(), null);
         tracker.open();
+
+        setParallelThreads(ctx.getProperties().get(PARALLEL_THREADS));
+        log.info("Test classes are executed by up to {} threads", parallelThreads);
+    }
+
+    /** Set the number of test classes executed concurrently from its configuration value */
+    void setParallelThreads(Object threads) {
+        parallelThreads = DEFAULT_PARALLEL_THREADS;
+        if(threads != null) {
+            try {
+                parallelThreads = Math.max(1, Integer.parseInt(threads.toString().trim()));
+            } catch(NumberFormatException nfe) {
+                log.warn("Invalid value {} for {}, using default", threads, PARALLEL_THREADS);
+            }
+        }
     }
 
     protected void deactivate(ComponentContext ctx) {
@@ -173,18 +207,87 @@ public class TestsManagerImpl implements TestsManager {
     /** @inheritDoc */
     public void executeTests(Collection<String> testNames, Renderer renderer, TestSelector selector) throws Exception {
         renderer.title(2, "Running tests");
+        final String testMethodName = selector == null ? null : selector.getSelectedTestMethodName();
+        if(parallelThreads <= 1 || testNames.size() <= 1) {
+            final JUnitCore junit = new JUnitCore();
+            junit.addListener(renderer.getRunListener());
+            for(String className : testNames) {
+                renderer.title(3, className);
+                runTestClass(junit, className, getTestClass(className), testMethodName);
+            }
+            return;
+        }
+
+        // Classes that are not annotated with SerialExecution are executed
+        // concurrently, each one with its own JUnitCore. Their results are
+        // recorded and rendered in one piece once the class is done, as
+        // the renderer can only be used by the request thread.
+        final List<String> serial = new ArrayList<String>();
+        final ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelThreads, testNames.size()),
+                new ThreadFactory() {
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    public Thread newThread(Runnable r) {
+                        final Thread t = new Thread(r, "Sling JUnit test runner #" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        t.setContextClassLoader(tccl);
+                        return t;
+                    }
+                });
+        try {
+            final CompletionService<RecordingRunListener> completion = new ExecutorCompletionService<RecordingRunListener>(executor);
+            int submitted = 0;
+            for(final String className : testNames) {
+                final Class<?> testClass = getTestClass(className);
+                if(testClass.isAnnotationPresent(SerialExecution.class)) {
+                    serial.add(className);
+                    continue;
+                }
+                completion.submit(new Callable<RecordingRunListener>() {
+                    public RecordingRunListener call() throws Exception {
+                        final RecordingRunListener recorder = new RecordingRunListener(className);
+                        final JUnitCore junit = new JUnitCore();
+                        junit.addListener(recorder);
+                        runTestClass(junit, className, testClass, testMethodName);
+                        return recorder;
+                    }
+                });
+                submitted++;
+            }
+            log.debug("Running {} test classes in parallel, {} serially", submitted, serial.size());
+
+            final RunListener listener = renderer.getRunListener();
+            for(int i = 0; i < submitted; i++) {
+                final RecordingRunListener recorder;
+                try {
+                    recorder = completion.take().get();
+                } catch(ExecutionException ee) {
+                    final Throwable cause = ee.getCause();
+                    throw cause instanceof Exception ? (Exception)cause : ee;
+                }
+                renderer.title(3, recorder.getClassName());
+                recorder.replay(listener);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
         final JUnitCore junit = new JUnitCore();
         junit.addListener(renderer.getRunListener());
-        for(String className : testNames) {
+        for(String className : serial) {
             renderer.title(3, className);
-            final String testMethodName = selector == null ? null : selector.getSelectedTestMethodName();
-            if(testMethodName != null && testMethodName.length() > 0) {
-                log.debug("Running test method {} from test class {}", testMethodName, className);
-                junit.run(Request.method(getTestClass(className), testMethodName));
-            } else {
-                log.debug("Running test class {}", className);
-                junit.run(getTestClass(className));
-            }
+            runTestClass(junit, className, getTestClass(className), testMethodName);
+        }
+    }
+
+    private void runTestClass(JUnitCore junit, String className, Class<?> testClass, String testMethodName) {
+        if(testMethodName != null && testMethodName.length() > 0) {
+            log.debug("Running test method {} from test class {}", testMethodName, className);
+            junit.run(Request.method(testClass, testMethodName));
+        } else {
+            log.debug("Running test class {}", className);
+            junit.run(testClass);
         }
     }
 
@@ -17,6 +17,7 @@
 package org.apache.sling.junit.impl.servlet;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.Collection;
 
@@ -35,7 +36,10 @@ import org.junit.runner.notification.RunListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** JSON renderer for JUnit servlet */
+/** JSON renderer for JUnit servlet. The output is flushed
+ *  after each test, so that clients can consume the results
+ *  incrementally while the tests are running.
+ */
 @Component(immediate=false)
 @Service
 public class JsonRenderer extends RunListener implements Renderer {
@@ -44,6 +48,7 @@ public class JsonRenderer extends RunListener implements Renderer {
     public static final String INFO_TYPE_KEY = "INFO_TYPE";
     public static final String INFO_SUBTYPE_KEY = "INFO_SUBTYPE";
     private final Logger log = LoggerFactory.getLogger(getClass());
+    private PrintWriter output;
     private JSONWriter writer;
     private int counter;
     
@@ -61,7 +66,8 @@ public class JsonRenderer extends RunListener implements Renderer {
     public void setup(HttpServletResponse response, String pageTitle) throws IOException, UnsupportedEncodingException {
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
-        writer = new JSONWriter(response.getWriter());
+        output = response.getWriter();
+        writer = new JSONWriter(output);
         writer.setTidy(true);
         try {
             writer.array();
@@ -80,6 +86,7 @@ public class JsonRenderer extends RunListener implements Renderer {
             }
         }
         writer = null;
+        output = null;
     }
 
     /** @inheritDoc */
@@ -145,6 +152,7 @@ public class JsonRenderer extends RunListener implements Renderer {
     public void testFinished(Description description) throws Exception {
         super.testFinished(description);
         endItem();
+        output.flush();
     }
 
     
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.junit.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.junit.Renderer;
+import org.apache.sling.junit.TestSelector;
+import org.apache.sling.junit.annotations.SerialExecution;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+public class TestsManagerImplTest {
+
+    /** Released once both parallel classes are running at the same time */
+    static CountDownLatch bothRunning;
+
+    static volatile Thread serialThread;
+
+    public static class ParallelA {
+        @Test
+        public void first() throws InterruptedException {
+            bothRunning.countDown();
+            assertTrue("ParallelB not running concurrently", bothRunning.await(10, TimeUnit.SECONDS));
+        }
+
+        @Test
+        public void second() {
+        }
+    }
+
+    public static class ParallelB {
+        @Test
+        public void first() throws InterruptedException {
+            bothRunning.countDown();
+            assertTrue("ParallelA not running concurrently", bothRunning.await(10, TimeUnit.SECONDS));
+        }
+
+        @Test
+        public void second() {
+        }
+    }
+
+    @SerialExecution
+    public static class Serial {
+        @Test
+        public void test() {
+            serialThread = Thread.currentThread();
+        }
+    }
+
+    /** Renderer recording the titles and test events, in order */
+    static class RecordingRenderer implements Renderer {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final List<Failure> failures = Collections.synchronizedList(new ArrayList<Failure>());
+
+        private final RunListener listener = new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                events.add("started:" + description.getClassName());
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                events.add("finished:" + description.getClassName());
+            }
+
+            @Override
+            public void testFailure(Failure failure) {
+                failures.add(failure);
+            }
+        };
+
+        public boolean appliesTo(TestSelector selector) {
+            return true;
+        }
+
+        public void setup(HttpServletResponse response, String pageTitle) {
+        }
+
+        public void cleanup() {
+        }
+
+        public void list(String role, Collection<String> data) {
+        }
+
+        public void info(String role, String info) {
+        }
+
+        public void title(int level, String title) {
+            if(level == 3) {
+                events.add("title:" + title);
+            }
+        }
+
+        public void link(String info, String url, String method) {
+        }
+
+        public RunListener getRunListener() {
+            return listener;
+        }
+
+        public String getExtension() {
+            return "txt";
+        }
+    }
+
+    private final TestsManagerImpl manager = new TestsManagerImpl() {
+        @Override
+        public Class<?> getTestClass(String testName) throws ClassNotFoundException {
+            return Class.forName(testName);
+        }
+    };
+
+    private final List<String> testNames = Arrays.asList(
+            Serial.class.getName(), ParallelA.class.getName(), ParallelB.class.getName());
+
+    @Before
+    public void setup() {
+        bothRunning = new CountDownLatch(2);
+        serialThread = null;
+    }
+
+    /** Check that the events of each class directly follow its title */
+    private void assertNotInterleaved(List<String> events) {
+        final Set<String> seen = new HashSet<String>();
+        String current = null;
+        for(String e : events) {
+            if(e.startsWith("title:")) {
+                current = e.substring("title:".length());
+                assertTrue("Duplicate title " + current, seen.add(current));
+            } else {
+                assertEquals("Event " + e + " interleaved in output of " + current,
+                        current, e.substring(e.indexOf(':') + 1));
+            }
+        }
+        assertEquals(new HashSet<String>(testNames), seen);
+    }
+
+    @Test
+    public void testParallelExecution() throws Exception {
+        final RecordingRenderer renderer = new RecordingRenderer();
+        manager.setParallelThreads(4);
+        manager.executeTests(testNames, renderer, null);
+
+        assertEquals(renderer.failures.toString(), 0, renderer.failures.size());
+        // 3 titles, 2 events for each of the 5 tests
+        assertEquals(renderer.events.toString(), 13, renderer.events.size());
+        assertNotInterleaved(renderer.events);
+
+        // the serial class runs last, on the calling thread
+        final List<String> events = renderer.events;
+        assertEquals("title:" + Serial.class.getName(), events.get(events.size() - 3));
+        assertSame(Thread.currentThread(), serialThread);
+    }
+
+    @Test
+    public void testSerialExecution() throws Exception {
+        final RecordingRenderer renderer = new RecordingRenderer();
+        manager.setParallelThreads(1);
+        manager.executeTests(Collections.singletonList(Serial.class.getName()), renderer, null);
+
+        assertEquals(Arrays.asList(
+                "title:" + Serial.class.getName(),
+                "started:" + Serial.class.getName(),
+                "finished:" + Serial.class.getName()), renderer.events);
+        assertSame(Thread.currentThread(), serialThread);
+    }
+
+    @Test
+    public void testInvalidParallelThreads() throws Exception {
+        // falls back to serial execution, in which the parallel
+        // classes must not wait for each other
+        manager.setParallelThreads("many");
+        bothRunning = new CountDownLatch(0);
+        final RecordingRenderer renderer = new RecordingRenderer();
+        manager.executeTests(testNames, renderer, null);
+
+        assertEquals(renderer.failures.toString(), 0, renderer.failures.size());
+        assertEquals("title:" + Serial.class.getName(), renderer.events.get(0));
+        assertNotInterleaved(renderer.events);
+    }
+}
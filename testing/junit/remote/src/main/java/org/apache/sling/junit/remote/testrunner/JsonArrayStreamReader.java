@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.junit.remote.testrunner;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+
+/** Reads the objects of a JSON array one by one from a stream,
+ *  so that the results of the Sling JUnit servlet can be processed
+ *  while the tests are still running, without keeping the whole
+ *  response in memory.
+ */
+class JsonArrayStreamReader {
+    private final Reader reader;
+    private final StringBuilder current = new StringBuilder();
+    private boolean started;
+    private boolean done;
+
+    JsonArrayStreamReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Return the next object of the array, or null at the end of the array */
+    JSONObject next() throws IOException, JSONException {
+        if(done) {
+            return null;
+        }
+        current.setLength(0);
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        int c;
+        while((c = reader.read()) != -1) {
+            if(!started) {
+                if(c == '[') {
+                    started = true;
+                } else if(!Character.isWhitespace(c)) {
+                    throw new JSONException("Expected JSON array, got '" + (char)c + "'");
+                }
+                continue;
+            }
+            if(depth == 0) {
+                // between elements
+                if(c == ']') {
+                    done = true;
+                    return null;
+                } else if(c == '{') {
+                    depth++;
+                    current.append((char)c);
+                } else if(c != ',' && !Character.isWhitespace(c)) {
+                    throw new JSONException("Expected JSON object in array, got '" + (char)c + "'");
+                }
+                continue;
+            }
+            current.append((char)c);
+            if(inString) {
+                if(escaped) {
+                    escaped = false;
+                } else if(c == '\\') {
+                    escaped = true;
+                } else if(c == '"') {
+                    inString = false;
+                }
+            } else if(c == '"') {
+                inString = true;
+            } else if(c == '{' || c == '[') {
+                depth++;
+            } else if(c == '}' || c == ']') {
+                depth--;
+                if(depth == 0) {
+                    return new JSONObject(current.toString());
+                }
+            }
+        }
+        throw new JSONException("Unexpected end of JSON stream");
+    }
+}
@@ -16,12 +16,13 @@
  */
 package org.apache.sling.junit.remote.testrunner;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONObject;
-import org.apache.sling.commons.json.JSONTokener;
 import org.apache.sling.junit.remote.httpclient.RemoteTestHttpClient;
 import org.apache.sling.testing.tools.http.RequestCustomizer;
 import org.apache.sling.testing.tools.http.RequestExecutor;
@@ -92,7 +93,9 @@ public class SlingRemoteTestRunner extends ParentRunner<SlingRemoteTest> {
             return;
         }
         
-        testHttpClient = new RemoteTestHttpClient(testParameters.getJunitServletUrl(), this.username, this.password, true);
+        // Do not let the client consume the response, the results
+        // are read while the server is still executing tests
+        testHttpClient = new RemoteTestHttpClient(testParameters.getJunitServletUrl(), this.username, this.password, false);
 
         // Let the parameters class customize the request if desired 
         if(testParameters instanceof RequestCustomizer) {
@@ -106,18 +109,25 @@ public class SlingRemoteTestRunner extends ParentRunner<SlingRemoteTest> {
                 "json"
                 );
         executor.assertContentType("application/json");
-        final JSONArray json = new JSONArray(new JSONTokener((executor.getContent())));
 
-        // Response contains an array of objects identified by 
-        // their INFO_TYPE, extract the tests
-        // based on this vlaue
-        for(int i = 0 ; i < json.length(); i++) {
-            final JSONObject obj = json.getJSONObject(i);
-            if("test".equals(obj.getString("INFO_TYPE"))) {
-                children.add(new SlingRemoteTest(testClass, obj));
+        // Response contains an array of objects identified by
+        // their INFO_TYPE, extract the tests based on this value
+        final InputStream content = executor.getEntity().getContent();
+        try {
+            final JsonArrayStreamReader json = new JsonArrayStreamReader(
+                    new BufferedReader(new InputStreamReader(content, "UTF-8")));
+            JSONObject obj;
+            while((obj = json.next()) != null) {
+                if("test".equals(obj.getString("INFO_TYPE"))) {
+                    final SlingRemoteTest test = new SlingRemoteTest(testClass, obj);
+                    log.debug("Received result of {}", test.describe());
+                    children.add(test);
+                }
             }
+        } finally {
+            content.close();
         }
-        
+
         log.info("Server-side tests executed as {} at {} with path {}",
                 new Object[]{this.username, testParameters.getJunitServletUrl(), testHttpClient.getTestExecutionPath()});
         
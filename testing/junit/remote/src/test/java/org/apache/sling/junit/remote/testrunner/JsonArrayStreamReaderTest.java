@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.junit.remote.testrunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+import org.junit.Test;
+
+public class JsonArrayStreamReaderTest {
+
+    private static JsonArrayStreamReader reader(String json) {
+        return new JsonArrayStreamReader(new StringReader(json));
+    }
+
+    private static void assertFails(JsonArrayStreamReader r) throws Exception {
+        try {
+            while(r.next() != null) {
+            }
+            fail("Expected a JSONException");
+        } catch(JSONException expected) {
+        }
+    }
+
+    @Test
+    public void testObjects() throws Exception {
+        final JsonArrayStreamReader r = reader(" [ {\"test\":\"a\"},\n{\"test\":\"b\"} ] ");
+        assertEquals("a", r.next().getString("test"));
+        assertEquals("b", r.next().getString("test"));
+        assertNull(r.next());
+        assertNull(r.next());
+    }
+
+    @Test
+    public void testEmptyArray() throws Exception {
+        assertNull(reader("[]").next());
+        assertNull(reader(" [ \n ] ").next());
+    }
+
+    @Test
+    public void testNestedArraysAndObjects() throws Exception {
+        final JsonArrayStreamReader r = reader(
+                "[{\"a\":[1,[2,3],{\"b\":[]}],\"c\":{\"d\":{\"e\":[]}}},{\"f\":[]}]");
+        final JSONObject first = r.next();
+        assertEquals(3, first.getJSONArray("a").length());
+        assertEquals(3, first.getJSONArray("a").getJSONArray(1).getInt(1));
+        assertEquals(0, first.getJSONObject("c").getJSONObject("d").getJSONArray("e").length());
+        assertEquals(0, r.next().getJSONArray("f").length());
+        assertNull(r.next());
+    }
+
+    @Test
+    public void testQuotesAndBracketsInStrings() throws Exception {
+        final JsonArrayStreamReader r = reader(
+                "[{\"message\":\"expected \\\"}]\\\" but was [{\",\"trace\":\"a\\\\\"},{\"x\":\"]\"}]");
+        assertEquals("expected \"}]\" but was [{", r.next().getString("message"));
+        assertEquals("]", r.next().getString("x"));
+        assertNull(r.next());
+    }
+
+    @Test
+    public void testTruncatedInput() throws Exception {
+        assertFails(reader(""));
+        assertFails(reader("["));
+        assertFails(reader("[{\"test\":\"a\"},{\"test\":"));
+        assertFails(reader("[{\"test\":\"a}]"));
+    }
+
+    @Test
+    public void testTruncatedInputAfterObject() throws Exception {
+        final JsonArrayStreamReader r = reader("[{\"test\":\"a\"},");
+        assertEquals("a", r.next().getString("test"));
+        try {
+            r.next();
+            fail("Expected a JSONException");
+        } catch(JSONException expected) {
+        }
+    }
+
+    @Test
+    public void testNotAnArray() throws Exception {
+        assertFails(reader("{\"test\":\"a\"}"));
+        assertFails(reader("[\"a\"]"));
+    }
+}
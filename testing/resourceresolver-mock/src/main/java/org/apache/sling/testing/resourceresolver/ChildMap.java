@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.testing.resourceresolver;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable map from child names to values keeping the insertion order.
+ * <p>
+ * Adding or removing a child returns a new map sharing most of its structure
+ * with this one, so both take time logarithmic in the number of children
+ * instead of copying all children. The entries are kept in a hash array
+ * mapped trie and their names in a 32-ary trie indexed by insertion order.
+ * Removing a child clears its slot in the order trie, which is compacted
+ * once more than half of the slots are empty.
+ */
+final class ChildMap<V> implements Iterable<Map.Entry<String, V>> {
+
+    private static final int BITS = 5;
+
+    private static final int WIDTH = 1 << BITS;
+
+    private static final int MASK = WIDTH - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final ChildMap EMPTY = new ChildMap(null, null, 0, 0, 0);
+
+    /** The root of the hash trie or <code>null</code> if the map is empty. */
+    private final Trie entries;
+
+    /** The root of the order trie holding the names by index. */
+    private final Object[] order;
+
+    /** The shift of the root of the order trie. */
+    private final int orderShift;
+
+    /** The number of used slots of the order trie including cleared ones. */
+    private final int length;
+
+    private final int size;
+
+    private ChildMap(final Trie entries, final Object[] order, final int orderShift, final int length, final int size) {
+        this.entries = entries;
+        this.order = order;
+        this.orderShift = orderShift;
+        this.length = length;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> ChildMap<V> empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public V get(final String name) {
+        final Leaf<V> leaf = this.getLeaf(name);
+        return leaf == null ? null : leaf.value;
+    }
+
+    /**
+     * Return a map with the value of the child replaced or the child added
+     * as the last one.
+     */
+    public ChildMap<V> put(final String name, final V value) {
+        final Leaf<V> existing = this.getLeaf(name);
+        if ( existing != null ) {
+            final Leaf<V> leaf = new Leaf<V>(name, existing.hash, existing.index, value, null);
+            return new ChildMap<V>(put(this.entries, 0, leaf), this.order, this.orderShift, this.length, this.size);
+        }
+        final Leaf<V> leaf = new Leaf<V>(name, hash(name), this.length, value, null);
+        Object[] newOrder = this.order;
+        int newShift = this.orderShift;
+        if ( newOrder == null ) {
+            newOrder = new Object[WIDTH];
+        } else if ( this.length == WIDTH << this.orderShift ) {
+            // the order trie is full, add a level
+            newOrder = new Object[WIDTH];
+            newOrder[0] = this.order;
+            newShift += BITS;
+        }
+        newOrder = set(newOrder, newShift, this.length, name);
+        return new ChildMap<V>(put(this.entries, 0, leaf), newOrder, newShift, this.length + 1, this.size + 1);
+    }
+
+    /**
+     * Return a map without the child.
+     */
+    public ChildMap<V> remove(final String name) {
+        final Leaf<V> existing = this.getLeaf(name);
+        if ( existing == null ) {
+            return this;
+        }
+        if ( this.size == 1 ) {
+            return empty();
+        }
+        final ChildMap<V> result = new ChildMap<V>(remove(this.entries, 0, existing),
+                set(this.order, this.orderShift, existing.index, null),
+                this.orderShift, this.length, this.size - 1);
+        if ( result.size < result.length / 2 ) {
+            return result.compact();
+        }
+        return result;
+    }
+
+    /**
+     * Rebuild the map without the cleared slots of the order trie.
+     */
+    private ChildMap<V> compact() {
+        ChildMap<V> result = empty();
+        for(final Map.Entry<String, V> entry : this) {
+            result = result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Iterate over the entries in insertion order.
+     */
+    public Iterator<Map.Entry<String, V>> iterator() {
+        return new Iterator<Map.Entry<String, V>>() {
+
+            private int index = 0;
+
+            private Leaf<V> next = advance();
+
+            private Leaf<V> advance() {
+                while ( this.index < length ) {
+                    final String name = (String)get(order, orderShift, this.index++);
+                    if ( name != null ) {
+                        return getLeaf(name);
+                    }
+                }
+                return null;
+            }
+
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            public Map.Entry<String, V> next() {
+                if ( this.next == null ) {
+                    throw new NoSuchElementException();
+                }
+                final Leaf<V> current = this.next;
+                this.next = advance();
+                return current;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    // ---------- order trie -----------------------------------------------
+
+    private static Object get(final Object[] node, final int shift, final int index) {
+        Object[] current = node;
+        for(int s = shift; s > 0; s -= BITS) {
+            current = (Object[])current[(index >>> s) & MASK];
+        }
+        return current[index & MASK];
+    }
+
+    /**
+     * Return a copy of the node with the slot at the index set, copying
+     * the nodes on the way to the slot.
+     */
+    private static Object[] set(final Object[] node, final int shift, final int index, final Object value) {
+        final Object[] copy = (node == null ? new Object[WIDTH] : node.clone());
+        if ( shift == 0 ) {
+            copy[index & MASK] = value;
+        } else {
+            final int pos = (index >>> shift) & MASK;
+            copy[pos] = set((Object[])copy[pos], shift - BITS, index, value);
+        }
+        return copy;
+    }
+
+    // ---------- hash trie ------------------------------------------------
+
+    private static int hash(final String name) {
+        final int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Leaf<V> getLeaf(final String name) {
+        if ( this.entries == null ) {
+            return null;
+        }
+        final int hash = hash(name);
+        Trie trie = this.entries;
+        int shift = 0;
+        while ( true ) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ( (trie.bitmap & bit) == 0 ) {
+                return null;
+            }
+            final Object child = trie.array[Integer.bitCount(trie.bitmap & (bit - 1))];
+            if ( child instanceof Trie ) {
+                trie = (Trie)child;
+                shift += BITS;
+            } else {
+                for(Leaf<V> leaf = (Leaf<V>)child; leaf != null; leaf = leaf.next) {
+                    if ( leaf.hash == hash && leaf.name.equals(name) ) {
+                        return leaf;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Return a trie with the leaf added or replacing the leaf of the same name.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Trie put(final Trie trie, final int shift, final Leaf<V> leaf) {
+        final int bit = 1 << ((leaf.hash >>> shift) & MASK);
+        if ( trie == null ) {
+            return new Trie(bit, new Object[] {leaf});
+        }
+        final int pos = Integer.bitCount(trie.bitmap & (bit - 1));
+        if ( (trie.bitmap & bit) == 0 ) {
+            final Object[] array = new Object[trie.array.length + 1];
+            System.arraycopy(trie.array, 0, array, 0, pos);
+            array[pos] = leaf;
+            System.arraycopy(trie.array, pos, array, pos + 1, trie.array.length - pos);
+            return new Trie(trie.bitmap | bit, array);
+        }
+        final Object child = trie.array[pos];
+        final Object newChild;
+        if ( child instanceof Trie ) {
+            newChild = put((Trie)child, shift + BITS, leaf);
+        } else {
+            final Leaf<V> existing = (Leaf<V>)child;
+            if ( existing.hash == leaf.hash ) {
+                // same hash, the leaves are chained
+                newChild = new Leaf<V>(leaf.name, leaf.hash, leaf.index, leaf.value, removeFromChain(existing, leaf.name));
+            } else {
+                // moves the existing leaf together with its chain into a sub trie
+                newChild = put(put(null, shift + BITS, existing), shift + BITS, leaf);
+            }
+        }
+        final Object[] array = trie.array.clone();
+        array[pos] = newChild;
+        return new Trie(trie.bitmap, array);
+    }
+
+    /**
+     * Return a trie without the leaf or <code>null</code> if it is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Trie remove(final Trie trie, final int shift, final Leaf<V> leaf) {
+        final int bit = 1 << ((leaf.hash >>> shift) & MASK);
+        final int pos = Integer.bitCount(trie.bitmap & (bit - 1));
+        final Object child = trie.array[pos];
+        final Object newChild;
+        if ( child instanceof Trie ) {
+            newChild = remove((Trie)child, shift + BITS, leaf);
+        } else {
+            newChild = removeFromChain((Leaf<V>)child, leaf.name);
+        }
+        if ( newChild != null ) {
+            final Object[] array = trie.array.clone();
+            array[pos] = newChild;
+            return new Trie(trie.bitmap, array);
+        }
+        if ( trie.array.length == 1 ) {
+            return null;
+        }
+        final Object[] array = new Object[trie.array.length - 1];
+        System.arraycopy(trie.array, 0, array, 0, pos);
+        System.arraycopy(trie.array, pos + 1, array, pos, array.length - pos);
+        return new Trie(trie.bitmap & ~bit, array);
+    }
+
+    /**
+     * Return the chain without the leaf of the name.
+     */
+    private static <V> Leaf<V> removeFromChain(final Leaf<V> chain, final String name) {
+        if ( chain == null ) {
+            return null;
+        }
+        if ( chain.name.equals(name) ) {
+            return chain.next;
+        }
+        final Leaf<V> rest = removeFromChain(chain.next, name);
+        return rest == chain.next ? chain : new Leaf<V>(chain.name, chain.hash, chain.index, chain.value, rest);
+    }
+
+    private static final class Trie {
+
+        final int bitmap;
+
+        /** The leaves and sub tries ordered by their bit in the bitmap. */
+        final Object[] array;
+
+        Trie(final int bitmap, final Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+    }
+
+    private static final class Leaf<V> implements Map.Entry<String, V> {
+
+        final String name;
+
+        final int hash;
+
+        /** The index of the name in the order trie. */
+        final int index;
+
+        final V value;
+
+        /** The next leaf with the same hash. */
+        final Leaf<V> next;
+
+        Leaf(final String name, final int hash, final int index, final V value, final Leaf<V> next) {
+            this.name = name;
+            this.hash = hash;
+            this.index = index;
+            this.value = value;
+            this.next = next;
+        }
+
+        public String getKey() {
+            return this.name;
+        }
+
+        public V getValue() {
+            return this.value;
+        }
+
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if ( !(obj instanceof Map.Entry) ) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>)obj;
+            return this.name.equals(entry.getKey())
+                    && (this.value == null ? entry.getValue() == null : this.value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode() ^ (this.value == null ? 0 : this.value.hashCode());
+        }
+    }
+}
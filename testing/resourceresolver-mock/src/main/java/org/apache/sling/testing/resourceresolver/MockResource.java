@@ -32,7 +32,7 @@ public class MockResource extends AbstractResource {
 
     private final String path;
 
-    private final Map<String, Object> props;
+    private Map<String, Object> props;
 
     private final ResourceMetadata rm = new ResourceMetadata();
 
@@ -76,7 +76,7 @@ public class MockResource extends AbstractResource {
         if ( type == ValueMap.class ) {
             return (AdapterType)new ValueMapDecorator(this.props);
         } else if ( type == ModifiableValueMap.class ) {
-            ((MockResourceResolver)this.resolver).addChanged(this.path, this.props);
+            this.props = ((MockResourceResolver)this.resolver).addChanged(this.path, this.props);
             return (AdapterType)new ModifiableValueMapDecorator(this.props);
         }
         return super.adaptTo(type);
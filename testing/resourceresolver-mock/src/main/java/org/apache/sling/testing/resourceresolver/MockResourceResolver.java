@@ -23,9 +23,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -39,7 +41,7 @@ import org.osgi.service.event.EventAdmin;
 
 public class MockResourceResolver implements ResourceResolver {
 
-    private final Map<String, Map<String, Object>> resources;
+    private final MockResourceTree resources;
 
     private final Map<String, Map<String, Object>> temporaryResources = new HashMap<String, Map<String,Object>>();
 
@@ -48,11 +50,21 @@ public class MockResourceResolver implements ResourceResolver {
     private final EventAdmin eventAdmin;
 
     public MockResourceResolver(final EventAdmin eventAdmin,
-            final Map<String, Map<String, Object>> resources) {
+            final MockResourceTree resources) {
         this.eventAdmin = eventAdmin;
         this.resources = resources;
     }
 
+    /**
+     * Create a resolver for the resources of the map.
+     * The resources are copied into a new {@link MockResourceTree}, changes
+     * committed by this resolver are not written back to the map.
+     */
+    public MockResourceResolver(final EventAdmin eventAdmin,
+            final Map<String, Map<String, Object>> resources) {
+        this(eventAdmin, new MockResourceTree(resources));
+    }
+
     @Override
     public <AdapterType> AdapterType adaptTo(Class<AdapterType> type) {
         return null;
@@ -95,12 +107,10 @@ public class MockResourceResolver implements ResourceResolver {
                 final Resource rsrc = new MockResource(path, tempProps, this);
                 return rsrc;
             }
-            synchronized ( this.resources ) {
-                final Map<String, Object> props = this.resources.get(path);
-                if ( props != null ) {
-                    final Resource rsrc = new MockResource(path, props, this);
-                    return rsrc;
-                }
+            final Map<String, Object> props = this.resources.getProperties(path);
+            if ( props != null ) {
+                final Resource rsrc = new MockResource(path, props, this);
+                return rsrc;
             }
         } else {
             for(final String s : this.getSearchPath() ) {
@@ -134,21 +144,18 @@ public class MockResourceResolver implements ResourceResolver {
 
     @Override
     public Iterator<Resource> listChildren(final Resource parent) {
-        final String prefixPath = parent.getPath() + "/";
-        final Map<String, Map<String, Object>> candidates = new HashMap<String, Map<String,Object>>();
-        synchronized ( this.resources ) {
-            for(final Map.Entry<String, Map<String, Object>> e : this.resources.entrySet()) {
-                if (e.getKey().startsWith(prefixPath) && e.getKey().lastIndexOf('/') < prefixPath.length() ) {
-                    if ( !this.deletedResources.contains(e.getKey()) ) {
-                        candidates.put(e.getKey(), e.getValue());
-                    }
-                }
+        final String prefixPath = parent.getPath().equals("/") ? "/" : parent.getPath() + "/";
+        final Map<String, Map<String, Object>> candidates = new LinkedHashMap<String, Map<String,Object>>();
+        for(final Map.Entry<String, Map<String, Object>> e : this.resources.getChildren(parent.getPath()).entrySet()) {
+            final String path = prefixPath + e.getKey();
+            if ( !this.deletedResources.contains(path) ) {
+                candidates.put(path, e.getValue());
             }
-            for(final Map.Entry<String, Map<String, Object>> e : this.temporaryResources.entrySet()) {
-                if (e.getKey().startsWith(prefixPath) && e.getKey().lastIndexOf('/') < prefixPath.length() ) {
-                    if ( !this.deletedResources.contains(e.getKey()) ) {
-                        candidates.put(e.getKey(), e.getValue());
-                    }
+        }
+        for(final Map.Entry<String, Map<String, Object>> e : this.temporaryResources.entrySet()) {
+            if (e.getKey().startsWith(prefixPath) && e.getKey().lastIndexOf('/') < prefixPath.length() ) {
+                if ( !this.deletedResources.contains(e.getKey()) ) {
+                    candidates.put(e.getKey(), e.getValue());
                 }
             }
         }
@@ -222,18 +229,12 @@ public class MockResourceResolver implements ResourceResolver {
         this.deletedResources.add(resource.getPath());
         this.temporaryResources.remove(resource.getPath());
         final String prefixPath = resource.getPath() + '/';
-        synchronized ( this.resources ) {
-            for(final Map.Entry<String, Map<String, Object>> e : this.resources.entrySet()) {
-                if (e.getKey().startsWith(prefixPath)) {
-                    this.deletedResources.add(e.getKey());
-                }
-            }
-            final Iterator<Map.Entry<String, Map<String, Object>>> i = this.temporaryResources.entrySet().iterator();
-            while ( i.hasNext() ) {
-                final Map.Entry<String, Map<String, Object>> e = i.next();
-                if (e.getKey().startsWith(prefixPath) ) {
-                    i.remove();
-                }
+        this.resources.collectDescendants(resource.getPath(), this.deletedResources);
+        final Iterator<Map.Entry<String, Map<String, Object>>> i = this.temporaryResources.entrySet().iterator();
+        while ( i.hasNext() ) {
+            final Map.Entry<String, Map<String, Object>> e = i.next();
+            if (e.getKey().startsWith(prefixPath) ) {
+                i.remove();
             }
         }
     }
@@ -245,10 +246,8 @@ public class MockResourceResolver implements ResourceResolver {
         if ( this.temporaryResources.containsKey(path) ) {
             throw new PersistenceException("Path already exists: " + path);
         }
-        synchronized ( this.resources ) {
-            if ( this.resources.containsKey(path) ) {
-                throw new PersistenceException("Path already exists: " + path);
-            }
+        if ( this.resources.getProperties(path) != null ) {
+            throw new PersistenceException("Path already exists: " + path);
         }
         this.deletedResources.remove(path);
         if ( properties == null ) {
@@ -267,28 +266,37 @@ public class MockResourceResolver implements ResourceResolver {
 
     @Override
     public void commit() throws PersistenceException {
-        synchronized ( this.resources ) {
-            for(final String path : this.deletedResources ) {
-                if ( this.resources.remove(path) != null && this.eventAdmin != null ) {
-                    final Map<String, Object> props = new HashMap<String, Object>();
-                    props.put(SlingConstants.PROPERTY_PATH, path);
-                    final Event e = new Event(SlingConstants.TOPIC_RESOURCE_REMOVED, props);
-                    this.eventAdmin.sendEvent(e);
-                }
-                this.temporaryResources.remove(path);
+        final List<String> removed = new ArrayList<String>();
+        for(final String path : this.deletedResources ) {
+            if ( this.resources.getProperties(path) != null ) {
+                removed.add(path);
             }
-            for(final String path : this.temporaryResources.keySet() ) {
-                final boolean changed = this.resources.containsKey(path);
-                this.resources.put(path, this.temporaryResources.get(path));
-                if ( this.eventAdmin != null ) {
-                    final Map<String, Object> props = new HashMap<String, Object>();
-                    props.put(SlingConstants.PROPERTY_PATH, path);
-                    if ( this.resources.get(path).get(ResourceResolver.PROPERTY_RESOURCE_TYPE) != null ) {
-                        props.put(SlingConstants.PROPERTY_RESOURCE_TYPE, this.resources.get(path).get(ResourceResolver.PROPERTY_RESOURCE_TYPE));
-                    }
-                    final Event e = new Event(changed ? SlingConstants.TOPIC_RESOURCE_CHANGED : SlingConstants.TOPIC_RESOURCE_ADDED, props);
-                    this.eventAdmin.sendEvent(e);
+            this.temporaryResources.remove(path);
+        }
+        final Set<String> existing = new HashSet<String>();
+        for(final String path : this.temporaryResources.keySet() ) {
+            if ( this.resources.getProperties(path) != null ) {
+                existing.add(path);
+            }
+        }
+        final Map<String, Map<String, Object>> changed = new TreeMap<String, Map<String, Object>>(this.temporaryResources);
+        this.resources.commit(this.deletedResources, changed);
+
+        if ( this.eventAdmin != null ) {
+            for(final String path : removed) {
+                final Map<String, Object> props = new HashMap<String, Object>();
+                props.put(SlingConstants.PROPERTY_PATH, path);
+                final Event e = new Event(SlingConstants.TOPIC_RESOURCE_REMOVED, props);
+                this.eventAdmin.sendEvent(e);
+            }
+            for(final Map.Entry<String, Map<String, Object>> entry : changed.entrySet() ) {
+                final Map<String, Object> props = new HashMap<String, Object>();
+                props.put(SlingConstants.PROPERTY_PATH, entry.getKey());
+                if ( entry.getValue().get(ResourceResolver.PROPERTY_RESOURCE_TYPE) != null ) {
+                    props.put(SlingConstants.PROPERTY_RESOURCE_TYPE, entry.getValue().get(ResourceResolver.PROPERTY_RESOURCE_TYPE));
                 }
+                final Event e = new Event(existing.contains(entry.getKey()) ? SlingConstants.TOPIC_RESOURCE_CHANGED : SlingConstants.TOPIC_RESOURCE_ADDED, props);
+                this.eventAdmin.sendEvent(e);
             }
         }
         this.revert();
@@ -319,7 +327,17 @@ public class MockResourceResolver implements ResourceResolver {
         // nothing to do
     }
 
-    public void addChanged(final String path, final Map<String, Object> props) {
-        this.temporaryResources.put(path, props);
+    /**
+     * Return the modifiable properties of the resource. The committed
+     * properties are copied on the first modification, so other resolvers
+     * do not see the changes before they are committed.
+     */
+    public Map<String, Object> addChanged(final String path, final Map<String, Object> props) {
+        Map<String, Object> changed = this.temporaryResources.get(path);
+        if ( changed == null ) {
+            changed = new HashMap<String, Object>(props);
+            this.temporaryResources.put(path, changed);
+        }
+        return changed;
     }
 }
@@ -18,7 +18,8 @@
  */
 package org.apache.sling.testing.resourceresolver;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import org.apache.sling.api.resource.LoginException;
@@ -26,15 +27,20 @@ import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.osgi.service.event.EventAdmin;
 
+/**
+ * The <code>MockResourceResolverFactory</code> creates resolvers sharing
+ * one {@link MockResourceTree}. Resolvers keep their changes until they
+ * are committed, the shared tree can be used by resolvers of concurrent
+ * threads.
+ */
 public class MockResourceResolverFactory implements ResourceResolverFactory {
 
-    private final Map<String, Map<String, Object>> resources = new HashMap<String, Map<String, Object>>();
+    private final MockResourceTree resources = new MockResourceTree();
 
     private final EventAdmin eventAdmin;
 
     public MockResourceResolverFactory(final EventAdmin eventAdmin) {
         this.eventAdmin = eventAdmin;
-        resources.put("/", new HashMap<String, Object>());
     }
 
     public MockResourceResolverFactory() {
@@ -53,4 +59,11 @@ public class MockResourceResolverFactory implements ResourceResolverFactory {
         return new MockResourceResolver(this.eventAdmin, resources);
     }
 
+    /**
+     * Load resources from a JSON document.
+     * @see MockResourceTree#load(String, InputStream)
+     */
+    public void load(final String path, final InputStream json) throws IOException {
+        this.resources.load(path, json);
+    }
 }
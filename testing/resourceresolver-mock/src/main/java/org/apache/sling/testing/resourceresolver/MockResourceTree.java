@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.testing.resourceresolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.commons.json.JSONTokener;
+
+/**
+ * The <code>MockResourceTree</code> holds the committed resources shared by
+ * all resolvers of a {@link MockResourceResolverFactory}.
+ * <p>
+ * Resources are kept in a tree, so looking up a resource depends on the
+ * depth of its path and listing the children of a resource on the number
+ * of children, but not on the total number of resources.
+ * <p>
+ * The tree is never modified once it is visible to readers: a commit copies
+ * the nodes along the modified paths, applies the changes to the copies and
+ * then publishes the new root. The children of a node are kept in a
+ * persistent map, so copying a node does not copy its children and adding
+ * a child takes logarithmic time even for nodes with many children. Reads are therefore lock free and see a
+ * consistent state while commits are serialized. This makes it safe to share
+ * one tree between resolvers used by concurrent threads.
+ */
+public class MockResourceTree {
+
+    /** The current root, replaced on each commit. */
+    private volatile Node root;
+
+    public MockResourceTree() {
+        this.root = new Node(new HashMap<String, Object>());
+    }
+
+    /**
+     * Create a tree containing the resources of the map.
+     * @param resources The properties of the resources by path, the map
+     *                  is copied and not modified by later commits.
+     */
+    public MockResourceTree(final Map<String, Map<String, Object>> resources) {
+        this();
+        this.commit(Collections.<String>emptyList(), resources);
+    }
+
+    /**
+     * Return the properties of the resource at the path.
+     * @return The properties or <code>null</code> if there is no such resource.
+     */
+    public Map<String, Object> getProperties(final String path) {
+        final Node node = getNode(this.root, path);
+        return node == null ? null : node.properties;
+    }
+
+    /**
+     * Return the children of the resource at the path.
+     * @return The properties of the child resources by name, the map must
+     *         not be modified.
+     */
+    public Map<String, Map<String, Object>> getChildren(final String path) {
+        final Node node = getNode(this.root, path);
+        if ( node == null || node.children.isEmpty() ) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Map<String, Object>> result = new LinkedHashMap<String, Map<String, Object>>();
+        for(final Map.Entry<String, Node> entry : node.children) {
+            if ( entry.getValue().properties != null ) {
+                result.put(entry.getKey(), entry.getValue().properties);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add the paths of all resources below the path to the collection.
+     */
+    public void collectDescendants(final String path, final Collection<String> paths) {
+        final Node node = getNode(this.root, path);
+        if ( node != null ) {
+            collect(node, "/".equals(path) ? "" : path, paths);
+        }
+    }
+
+    private static void collect(final Node node, final String path, final Collection<String> paths) {
+        for(final Map.Entry<String, Node> entry : node.children) {
+            final String childPath = path + '/' + entry.getKey();
+            if ( entry.getValue().properties != null ) {
+                paths.add(childPath);
+            }
+            collect(entry.getValue(), childPath, paths);
+        }
+    }
+
+    /**
+     * Apply the changes and publish the new tree.
+     * Resources are removed before the changed resources are stored. A
+     * missing parent of a changed resource is created as an intermediate
+     * node which is not visible as a resource.
+     * @param removed The paths of the resources to remove including their subtree.
+     * @param changed The properties of added or changed resources by path.
+     */
+    public synchronized void commit(final Collection<String> removed,
+            final Map<String, Map<String, Object>> changed) {
+        final Set<Node> copies = new HashSet<Node>();
+        final Node newRoot = this.root.copy();
+        copies.add(newRoot);
+
+        for(final String path : removed) {
+            if ( "/".equals(path) ) {
+                continue;
+            }
+            final int pos = path.lastIndexOf('/');
+            final Node parent = getCopy(newRoot, pos == 0 ? "/" : path.substring(0, pos), false, copies);
+            if ( parent != null ) {
+                parent.children = parent.children.remove(path.substring(pos + 1));
+            }
+        }
+
+        // sorting guarantees that parents are processed before their children
+        final SortedMap<String, Map<String, Object>> sorted = (changed instanceof SortedMap
+                ? (SortedMap<String, Map<String, Object>>)changed
+                : new TreeMap<String, Map<String, Object>>(changed));
+        for(final Map.Entry<String, Map<String, Object>> entry : sorted.entrySet()) {
+            getCopy(newRoot, entry.getKey(), true, copies).properties = entry.getValue();
+        }
+
+        this.root = newRoot;
+    }
+
+    /**
+     * Load resources from a JSON document into the tree.
+     * The JSON object becomes the resource at the given path, nested objects
+     * become child resources and all other values become properties. Existing
+     * resources are updated, existing children not contained in the document
+     * are kept. All resources are loaded with a single commit and no events
+     * are sent.
+     * @param path The absolute path of the resource for the top level object
+     * @param json The JSON document, the stream is not closed
+     * @throws IOException If the document cannot be read or parsed
+     */
+    public void load(final String path, final InputStream json) throws IOException {
+        final Map<String, Map<String, Object>> changed = new TreeMap<String, Map<String, Object>>();
+        try {
+            final Reader reader = new InputStreamReader(json, "UTF-8");
+            final StringBuilder sb = new StringBuilder();
+            final char[] buf = new char[8192];
+            int len;
+            while ( (len = reader.read(buf)) != -1 ) {
+                sb.append(buf, 0, len);
+            }
+            final JSONObject obj = new JSONObject(new JSONTokener(sb.toString()));
+            addResource(changed, path, obj);
+        } catch (final JSONException je) {
+            throw (IOException)new IOException("Unable to parse JSON for " + path).initCause(je);
+        }
+        this.commit(Collections.<String>emptyList(), changed);
+    }
+
+    private static void addResource(final Map<String, Map<String, Object>> changed,
+            final String path, final JSONObject obj)
+    throws JSONException {
+        final Map<String, Object> props = new HashMap<String, Object>();
+        changed.put(path, props);
+        final Iterator<String> keys = obj.keys();
+        while ( keys.hasNext() ) {
+            final String key = keys.next();
+            final Object value = obj.get(key);
+            if ( value instanceof JSONObject ) {
+                addResource(changed, "/".equals(path) ? path + key : path + '/' + key, (JSONObject)value);
+            } else if ( value instanceof JSONArray ) {
+                props.put(key, toArray((JSONArray)value));
+            } else if ( value != JSONObject.NULL ) {
+                props.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * Convert a JSON array into an array of the type of its elements
+     * or into an object array for mixed types.
+     */
+    private static Object toArray(final JSONArray array) throws JSONException {
+        Class<?> type = null;
+        for(int i = 0; i < array.length(); i++) {
+            final Class<?> elementType = array.get(i).getClass();
+            if ( type == null ) {
+                type = elementType;
+            } else if ( type != elementType ) {
+                type = Object.class;
+            }
+        }
+        final Object result = Array.newInstance(type == null ? String.class : type, array.length());
+        for(int i = 0; i < array.length(); i++) {
+            Array.set(result, i, array.get(i));
+        }
+        return result;
+    }
+
+    private static Node getNode(final Node root, final String path) {
+        if ( path == null || !path.startsWith("/") ) {
+            return null;
+        }
+        Node node = root;
+        int start = 1;
+        while ( node != null && start < path.length() ) {
+            int end = path.indexOf('/', start);
+            if ( end == -1 ) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            start = end + 1;
+        }
+        return node;
+    }
+
+    /**
+     * Return a modifiable copy of the node at the path, copying all nodes
+     * on the way which have not been copied during this commit yet.
+     */
+    private static Node getCopy(final Node root, final String path, final boolean create, final Set<Node> copies) {
+        Node node = root;
+        int start = 1;
+        while ( start < path.length() ) {
+            int end = path.indexOf('/', start);
+            if ( end == -1 ) {
+                end = path.length();
+            }
+            final String name = path.substring(start, end);
+            Node child = node.children.get(name);
+            if ( child == null ) {
+                if ( !create ) {
+                    return null;
+                }
+                child = new Node(null);
+            } else if ( !copies.contains(child) ) {
+                child = child.copy();
+            } else {
+                node = child;
+                start = end + 1;
+                continue;
+            }
+            copies.add(child);
+            node.addChild(name, child);
+            node = child;
+            start = end + 1;
+        }
+        return node;
+    }
+
+    /**
+     * A node of the tree. Nodes are only modified while they are copies
+     * of a commit in progress. The children are immutable and shared
+     * between a node and its copies.
+     */
+    private static final class Node {
+
+        /** The properties or <code>null</code> for an intermediate node. */
+        public Map<String, Object> properties;
+
+        public ChildMap<Node> children = ChildMap.empty();
+
+        public Node(final Map<String, Object> properties) {
+            this.properties = properties;
+        }
+
+        public Node copy() {
+            final Node copy = new Node(this.properties);
+            copy.children = this.children;
+            return copy;
+        }
+
+        public void addChild(final String name, final Node child) {
+            this.children = this.children.put(name, child);
+        }
+    }
+}
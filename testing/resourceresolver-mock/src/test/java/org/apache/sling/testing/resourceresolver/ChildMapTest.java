@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.testing.resourceresolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ChildMapTest {
+
+    private static List<String> names(final ChildMap<?> map) {
+        final List<String> names = new ArrayList<String>();
+        for(final Map.Entry<String, ?> entry : map) {
+            names.add(entry.getKey());
+        }
+        return names;
+    }
+
+    @Test public void testEmpty() {
+        final ChildMap<String> map = ChildMap.empty();
+        assertTrue(map.isEmpty());
+        assertNull(map.get("a"));
+        assertSame(map, map.remove("a"));
+        assertEquals(0, names(map).size());
+    }
+
+    @Test public void testInsertionOrder() {
+        final ChildMap<String> map = ChildMap.<String>empty().put("c", "1").put("a", "2").put("b", "3");
+        assertEquals(Arrays.asList("c", "a", "b"), names(map));
+        assertEquals("2", map.get("a"));
+        assertEquals(3, map.size());
+    }
+
+    @Test public void testReplaceKeepsPosition() {
+        final ChildMap<String> map = ChildMap.<String>empty().put("a", "1").put("b", "2").put("a", "3");
+        assertEquals(Arrays.asList("a", "b"), names(map));
+        assertEquals("3", map.get("a"));
+        assertEquals(2, map.size());
+    }
+
+    @Test public void testRemoveAndAddAgain() {
+        final ChildMap<String> map = ChildMap.<String>empty().put("a", "1").put("b", "2").put("c", "3")
+                .remove("a").put("a", "4");
+        assertEquals(Arrays.asList("b", "c", "a"), names(map));
+        assertEquals(3, map.size());
+    }
+
+    @Test public void testOldVersionsUnchanged() {
+        final ChildMap<String> first = ChildMap.<String>empty().put("a", "1");
+        final ChildMap<String> second = first.put("b", "2");
+        final ChildMap<String> third = second.remove("a");
+        assertEquals(Arrays.asList("a"), names(first));
+        assertEquals(Arrays.asList("a", "b"), names(second));
+        assertEquals(Arrays.asList("b"), names(third));
+        assertNull(first.get("b"));
+        assertEquals("1", second.get("a"));
+    }
+
+    @Test public void testHashCollisions() {
+        // "Aa" and "BB" have the same hash code
+        final ChildMap<String> map = ChildMap.<String>empty().put("Aa", "1").put("BB", "2").put("AaAa", "3").put("BBBB", "4");
+        assertEquals("1", map.get("Aa"));
+        assertEquals("2", map.get("BB"));
+        assertEquals(Arrays.asList("Aa", "BB", "AaAa", "BBBB"), names(map));
+        final ChildMap<String> removed = map.remove("Aa").put("BB", "5");
+        assertNull(removed.get("Aa"));
+        assertEquals("5", removed.get("BB"));
+        assertEquals(Arrays.asList("BB", "AaAa", "BBBB"), names(removed));
+    }
+
+    /**
+     * Compare random changes with a linked hash map.
+     */
+    @Test public void testRandomChanges() {
+        final Random random = new Random(42);
+        final Map<String, Integer> expected = new LinkedHashMap<String, Integer>();
+        ChildMap<Integer> map = ChildMap.empty();
+        for(int i = 0; i < 20000; i++) {
+            final String name = "n" + random.nextInt(3000);
+            if ( random.nextInt(3) == 0 ) {
+                expected.remove(name);
+                map = map.remove(name);
+            } else {
+                expected.put(name, i);
+                map = map.put(name, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        final List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>();
+        for(final Map.Entry<String, Integer> entry : map) {
+            entries.add(entry);
+        }
+        assertEquals(new ArrayList<Map.Entry<String, Integer>>(expected.entrySet()), entries);
+        for(final Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.testing.resourceresolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MockResourceTreeTest {
+
+    private MockResourceTree tree;
+
+    @Before
+    public void setup() {
+        this.tree = new MockResourceTree();
+        final Map<String, Map<String, Object>> changed = new HashMap<String, Map<String, Object>>();
+        changed.put("/a", props("title", "a"));
+        changed.put("/a/b", props("title", "b"));
+        changed.put("/a/c", props("title", "c"));
+        changed.put("/x/y", props("title", "y"));
+        this.tree.commit(Collections.<String>emptyList(), changed);
+    }
+
+    private static Map<String, Object> props(final String name, final Object value) {
+        final Map<String, Object> props = new HashMap<String, Object>();
+        props.put(name, value);
+        return props;
+    }
+
+    private static InputStream json(final String json) throws IOException {
+        return new ByteArrayInputStream(json.getBytes("UTF-8"));
+    }
+
+    private static List<String> names(final Iterator<Resource> i) {
+        final List<String> names = new ArrayList<String>();
+        while ( i.hasNext() ) {
+            names.add(i.next().getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void testGetProperties() {
+        assertNotNull(this.tree.getProperties("/"));
+        assertEquals("b", this.tree.getProperties("/a/b").get("title"));
+        assertNull(this.tree.getProperties("/a/d"));
+        assertNull(this.tree.getProperties("a"));
+        assertNull(this.tree.getProperties(null));
+    }
+
+    @Test
+    public void testIntermediateNodes() {
+        // the missing parent of /x/y is not a resource
+        assertNull(this.tree.getProperties("/x"));
+        assertNotNull(this.tree.getProperties("/x/y"));
+        assertEquals(Collections.singleton("a"), this.tree.getChildren("/").keySet());
+    }
+
+    @Test
+    public void testRemoveSubtree() {
+        final List<String> descendants = new ArrayList<String>();
+        this.tree.collectDescendants("/a", descendants);
+        assertEquals(2, descendants.size());
+        assertTrue(descendants.contains("/a/b"));
+        assertTrue(descendants.contains("/a/c"));
+
+        this.tree.commit(Collections.singletonList("/a"), Collections.<String, Map<String, Object>>emptyMap());
+        assertNull(this.tree.getProperties("/a"));
+        assertNull(this.tree.getProperties("/a/b"));
+        assertNotNull(this.tree.getProperties("/x/y"));
+    }
+
+    @Test
+    public void testCommitDoesNotChangePublishedState() {
+        final Map<String, Map<String, Object>> before = this.tree.getChildren("/a");
+        final Map<String, Object> propsBefore = this.tree.getProperties("/a/b");
+
+        final Map<String, Map<String, Object>> changed = new HashMap<String, Map<String, Object>>();
+        changed.put("/a/b", props("title", "b2"));
+        changed.put("/a/d", props("title", "d"));
+        this.tree.commit(Collections.singletonList("/a/c"), changed);
+
+        // data read before the commit is not modified
+        assertEquals(2, before.size());
+        assertTrue(before.containsKey("c"));
+        assertEquals("b", propsBefore.get("title"));
+
+        final Map<String, Map<String, Object>> after = this.tree.getChildren("/a");
+        assertEquals(2, after.size());
+        assertEquals("b2", after.get("b").get("title"));
+        assertTrue(after.containsKey("d"));
+        assertFalse(after.containsKey("c"));
+    }
+
+    @Test
+    public void testResolverIsolation() throws Exception {
+        final MockResourceResolver first = new MockResourceResolver(null, this.tree);
+        final MockResourceResolver second = new MockResourceResolver(null, this.tree);
+
+        first.getResource("/a/b").adaptTo(ModifiableValueMap.class).put("title", "changed");
+        first.create(first.getResource("/a"), "d", props("title", "d"));
+
+        assertEquals("changed", first.getResource("/a/b").adaptTo(ValueMap.class).get("title"));
+        assertEquals("b", second.getResource("/a/b").adaptTo(ValueMap.class).get("title"));
+        assertNull(second.getResource("/a/d"));
+        assertEquals("b", this.tree.getProperties("/a/b").get("title"));
+
+        first.commit();
+        assertFalse(first.hasChanges());
+        assertEquals("changed", second.getResource("/a/b").adaptTo(ValueMap.class).get("title"));
+        assertNotNull(second.getResource("/a/d"));
+    }
+
+    @Test
+    public void testRevert() throws Exception {
+        final MockResourceResolver resolver = new MockResourceResolver(null, this.tree);
+        resolver.getResource("/a/b").adaptTo(ModifiableValueMap.class).put("title", "changed");
+        resolver.create(resolver.getResource("/a"), "d", props("title", "d"));
+        resolver.delete(resolver.getResource("/a/c"));
+        assertTrue(resolver.hasChanges());
+        assertEquals(2, names(resolver.listChildren(resolver.getResource("/a"))).size());
+        assertTrue(names(resolver.listChildren(resolver.getResource("/a"))).contains("d"));
+
+        resolver.revert();
+        assertFalse(resolver.hasChanges());
+        assertEquals("b", resolver.getResource("/a/b").adaptTo(ValueMap.class).get("title"));
+        assertNull(resolver.getResource("/a/d"));
+        assertNotNull(resolver.getResource("/a/c"));
+
+        resolver.commit();
+        assertEquals("b", this.tree.getProperties("/a/b").get("title"));
+        assertNull(this.tree.getProperties("/a/d"));
+        assertNotNull(this.tree.getProperties("/a/c"));
+    }
+
+    @Test
+    public void testMapConstructor() {
+        final Map<String, Map<String, Object>> resources = new HashMap<String, Map<String, Object>>();
+        resources.put("/", new HashMap<String, Object>());
+        resources.put("/content", props(ResourceResolver.PROPERTY_RESOURCE_TYPE, "page"));
+        final ResourceResolver resolver = new MockResourceResolver(null, resources);
+
+        final Resource content = resolver.getResource("/content");
+        assertNotNull(content);
+        assertEquals("page", content.getResourceType());
+        assertEquals(1, names(resolver.listChildren(resolver.getResource("/"))).size());
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        this.tree.load("/content", json("{\"jcr:title\":\"Content\",\"count\":3,\"empty\":null,"
+                + "\"tags\":[\"a\",\"b\"],\"mixed\":[\"a\",1],"
+                + "\"child\":{\"title\":\"child\",\"grandchild\":{\"flag\":true}}}"));
+
+        final Map<String, Object> content = this.tree.getProperties("/content");
+        assertEquals("Content", content.get("jcr:title"));
+        assertEquals(3, content.get("count"));
+        assertFalse(content.containsKey("empty"));
+        assertFalse(content.containsKey("child"));
+        assertArrayEquals(new String[] {"a", "b"}, (String[])content.get("tags"));
+        assertArrayEquals(new Object[] {"a", 1}, (Object[])content.get("mixed"));
+        assertEquals("child", this.tree.getProperties("/content/child").get("title"));
+        assertEquals(Boolean.TRUE, this.tree.getProperties("/content/child/grandchild").get("flag"));
+    }
+
+    @Test
+    public void testLoadKeepsExistingChildren() throws Exception {
+        this.tree.load("/a", json("{\"title\":\"a2\",\"d\":{}}"));
+
+        assertEquals("a2", this.tree.getProperties("/a").get("title"));
+        assertEquals(3, this.tree.getChildren("/a").size());
+        assertEquals("b", this.tree.getProperties("/a/b").get("title"));
+    }
+
+    @Test
+    public void testLoadRoot() throws Exception {
+        this.tree.load("/", json("{\"apps\":{}}"));
+        assertNotNull(this.tree.getProperties("/apps"));
+        assertNotNull(this.tree.getProperties("/a"));
+    }
+
+    @Test
+    public void testLoadInvalidJson() throws Exception {
+        try {
+            this.tree.load("/broken", json("{\"title\":"));
+            fail("Invalid JSON must not be loaded");
+        } catch (final IOException expected) {
+            // expected
+        }
+        assertNull(this.tree.getProperties("/broken"));
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.sling.ide.serialization;
 
+import java.util.List;
+
 import org.apache.sling.ide.transport.Command;
 import org.apache.sling.ide.transport.FileInfo;
 import org.apache.sling.ide.transport.Repository;
@@ -124,6 +126,11 @@ public class StubRepository implements Repository {
         return null;
     }
 
+    @Override
+    public Command<Void> newBatchCommand(List<Command<?>> commands) {
+        return null;
+    }
+
     @Override
     public RepositoryInfo getRepositoryInfo() {
         return null;
@@ -16,6 +16,8 @@
  */
 package org.apache.sling.ide.transport;
 
+import java.util.List;
+
 public interface Repository {
 	
 	public static String JCR_PRIMARY_TYPE= "jcr:primaryType";
@@ -102,4 +104,13 @@ public interface Repository {
     Command<ResourceProxy> newGetNodeContentCommand(String path);
 
 	Command<byte[]> newGetNodeCommand(String path);
+
+    /**
+     * Combines commands created by this repository into a single command which executes them in order and stops at
+     * the first failure. Implementations may send consecutive changes in fewer requests.
+     * 
+     * @param commands the commands to execute
+     * @return a command whose result is the first failure, or a success if all commands succeeded
+     */
+    Command<Void> newBatchCommand(List<Command<?>> commands);
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.ide.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes a list of commands one by one, stopping at the first failure
+ * 
+ * <p>
+ * This is the batch command for repositories which cannot combine commands into fewer requests.
+ * </p>
+ */
+public class SequentialCommand implements Command<Void> {
+
+    private final List<Command<?>> commands;
+
+    public SequentialCommand(List<Command<?>> commands) {
+        this.commands = new ArrayList<Command<?>>(commands);
+    }
+
+    @Override
+    public Result<Void> execute() {
+        for (Command<?> command : commands) {
+            final Result<?> result = command.execute();
+            if (!result.isSuccess()) {
+                return new Result<Void>() {
+
+                    @Override
+                    public boolean isSuccess() {
+                        return false;
+                    }
+
+                    @Override
+                    public Void get() throws RepositoryException {
+                        result.get();
+                        // not reached, the failed result throws
+                        throw new RepositoryException("Command failed");
+                    }
+
+                    @Override
+                    public String toString() {
+                        return result.toString();
+                    }
+                };
+            }
+        }
+        return new Result<Void>() {
+
+            @Override
+            public boolean isSuccess() {
+                return true;
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+
+            @Override
+            public String toString() {
+                return "  OK ";
+            }
+        };
+    }
+
+    @Override
+    public String getPath() {
+        return commands.isEmpty() ? null : commands.get(0).getPath();
+    }
+}
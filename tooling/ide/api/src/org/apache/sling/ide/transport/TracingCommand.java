@@ -66,4 +66,8 @@ public class TracingCommand<T> implements Command<T> {
         return command.getPath();
     }
 
+    public Command<T> getCommand() {
+        return command;
+    }
+
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -307,6 +308,9 @@ public class SlingLaunchpadBehaviour extends ServerBehaviourDelegate {
         // the behaviour for resources being filtered out is deletion, and that
         // would be an incorrect ( or at least suprising ) behaviour at development time
 
+        // collected and executed as a batch, so that the repository can send them in fewer requests
+        List<Command<?>> commands = new ArrayList<Command<?>>();
+
         switch (deltaKind) {
             case ServerBehaviourDelegate.CHANGED:
                 List<IModuleResourceDelta> publishedResourceDelta = 
@@ -344,10 +348,10 @@ public class SlingLaunchpadBehaviour extends ServerBehaviourDelegate {
                         case IModuleResourceDelta.ADDED:
                         case IModuleResourceDelta.CHANGED:
                         case IModuleResourceDelta.NO_CHANGE: // TODO is this needed?
-                            execute(addFileCommand(repository, resourceDelta.getModuleResource()));
+                            add(commands, addFileCommand(repository, resourceDelta.getModuleResource()));
                             break;
                         case IModuleResourceDelta.REMOVED:
-                            execute(removeFileCommand(repository, resourceDelta.getModuleResource()));
+                            add(commands, removeFileCommand(repository, resourceDelta.getModuleResource()));
                             break;
                     }
                 }
@@ -358,17 +362,21 @@ public class SlingLaunchpadBehaviour extends ServerBehaviourDelegate {
                 IModuleResource[] moduleResources1 = getResources(module);
                 List<IModuleResource> adjustedModuleResourcesList = filterContentXmlParents(moduleResources1);
                 for (IModuleResource resource : adjustedModuleResourcesList) {
-                    execute(addFileCommand(repository, resource));
+                    add(commands, addFileCommand(repository, resource));
                 }
                 break;
             case ServerBehaviourDelegate.REMOVED:
                 IModuleResource[] moduleResources2 = getResources(module);
                 for (IModuleResource resource : moduleResources2) {
-                    execute(removeFileCommand(repository, resource));
+                    add(commands, removeFileCommand(repository, resource));
                 }
                 break;
         }
 
+        if (!commands.isEmpty()) {
+            execute(repository.newBatchCommand(commands));
+        }
+
 
         // set state to published
         super.publishModule(kind, deltaKind, module, monitor);
@@ -483,6 +491,12 @@ public class SlingLaunchpadBehaviour extends ServerBehaviourDelegate {
 		return false;
 	}
 
+    private void add(List<Command<?>> commands, Command<?> command) {
+        if (command != null) {
+            commands.add(command);
+        }
+    }
+
     private void execute(Command<?> command) throws CoreException {
         if (command == null) {
             return;
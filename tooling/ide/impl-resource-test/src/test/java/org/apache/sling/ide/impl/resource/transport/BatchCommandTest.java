@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.ide.impl.resource.transport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.sling.ide.impl.resource.transport.SlingServerStub.Request;
+import org.apache.sling.ide.transport.Command;
+import org.apache.sling.ide.transport.FileInfo;
+import org.apache.sling.ide.transport.RepositoryInfo;
+import org.apache.sling.ide.transport.ResourceProxy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchCommandTest {
+
+    private SlingServerStub server;
+    private MultiThreadedHttpConnectionManager connectionManager;
+    private HttpClient httpClient;
+    private RepositoryInfo repositoryInfo;
+    private ContentFingerprints fingerprints;
+    private List<File> files = new ArrayList<File>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new SlingServerStub();
+        connectionManager = new MultiThreadedHttpConnectionManager();
+        httpClient = new HttpClient(connectionManager);
+        repositoryInfo = new RepositoryInfo("admin", "admin", server.getUrl());
+        fingerprints = new ContentFingerprints();
+    }
+
+    @After
+    public void tearDown() {
+        connectionManager.shutdown();
+        server.stop();
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private File file(String content) throws IOException {
+        File file = File.createTempFile("content", ".txt");
+        files.add(file);
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private UpdateContentCommand update(String path, File file) {
+        return new UpdateContentCommand(repositoryInfo, httpClient, path, new HashMap<String, Object>(),
+                new FileInfo(file.getAbsolutePath(), path, file.getName()), fingerprints);
+    }
+
+    private UpdateContentCommand updateProperty(String path, String name, String value) {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(name, value);
+        return new UpdateContentCommand(repositoryInfo, httpClient, path, properties, new FileInfo(path, path,
+                "content"), fingerprints);
+    }
+
+    private DeleteNodeCommand delete(String path) {
+        return new DeleteNodeCommand(new ResourceProxy(path), repositoryInfo, httpClient, fingerprints);
+    }
+
+    private boolean execute(Command<?>... commands) {
+        return new BatchCommand(repositoryInfo, httpClient, Arrays.<Command<?>> asList(commands), fingerprints)
+                .execute().isSuccess();
+    }
+
+    private static void assertContains(Request request, String text) {
+        assertTrue(request + " does not contain " + text, request.body.contains(text));
+    }
+
+    @Test
+    public void sendsUpdatesInOneRequest() throws IOException {
+        File first = file("first");
+        File second = file("second");
+
+        assertThat(execute(update("/apps/a", first), update("/apps/b", second),
+                updateProperty("/apps/c", "jcr:title", "Title")), is(true));
+
+        List<Request> posts = server.getRequests("POST");
+        assertThat(posts.size(), is(1));
+        assertThat(posts.get(0).path, is("/"));
+        assertContains(posts.get(0), "name=\"./apps/a/" + first.getName() + "\"");
+        assertContains(posts.get(0), "name=\"./apps/b/" + second.getName() + "\"");
+        assertContains(posts.get(0), "name=\"./apps/c/jcr:title\"");
+        assertContains(posts.get(0), "second");
+    }
+
+    @Test
+    public void sendsDeletesInOneRequest() {
+        assertThat(execute(delete("/apps/a"), delete("/apps/b")), is(true));
+
+        List<Request> posts = server.getRequests("POST");
+        assertThat(posts.size(), is(1));
+        assertThat(posts.get(0).path, is("/"));
+        assertContains(posts.get(0), ":operation");
+        assertContains(posts.get(0), "/apps/a");
+        assertContains(posts.get(0), "/apps/b");
+    }
+
+    @Test
+    public void keepsTheOrderOfUpdatesAndDeletes() throws IOException {
+        assertThat(
+                execute(update("/apps/a", file("a")), update("/apps/b", file("b")), delete("/apps/c"),
+                        delete("/apps/d"), updateProperty("/apps/e", "title", "e"), updateProperty("/apps/f",
+                                "title", "f")), is(true));
+
+        List<Request> posts = server.getRequests("POST");
+        assertThat(posts.size(), is(3));
+        assertContains(posts.get(0), "./apps/b/");
+        assertContains(posts.get(1), ":applyTo");
+        assertContains(posts.get(2), "./apps/f/title");
+    }
+
+    @Test
+    public void sendsSingleCommandsOnTheirOwn() throws IOException {
+        assertThat(execute(update("/apps/a", file("a")), delete("/apps/b")), is(true));
+
+        List<Request> posts = server.getRequests("POST");
+        assertThat(posts.size(), is(2));
+        assertThat(posts.get(0).path, is("/apps/a"));
+        assertThat(posts.get(1).path, is("/apps/b"));
+    }
+
+    @Test
+    public void splitsLargeBatches() {
+        List<Command<?>> commands = new ArrayList<Command<?>>();
+        for (int i = 0; i < BatchCommand.MAX_BATCH_SIZE * 2 + 1; i++) {
+            commands.add(delete("/apps/node" + i));
+        }
+
+        assertThat(new BatchCommand(repositoryInfo, httpClient, commands, fingerprints).execute().isSuccess(),
+                is(true));
+
+        assertThat(server.getRequests("POST").size(), is(3));
+    }
+
+    @Test
+    public void executesCommandsOneByOneWhenTheBatchFails() throws IOException {
+        server.respond("POST", "/", 500);
+
+        assertThat(execute(update("/apps/a", file("a")), update("/apps/b", file("b"))), is(true));
+
+        List<Request> posts = server.getRequests("POST");
+        assertThat(posts.size(), is(3));
+        assertThat(posts.get(1).path, is("/apps/a"));
+        assertThat(posts.get(2).path, is("/apps/b"));
+    }
+
+    @Test
+    public void reportsTheFailingCommand() throws IOException {
+        server.respond("POST", "/", 500);
+        server.respond("POST", "/apps/a", 500);
+
+        assertThat(execute(update("/apps/a", file("a")), update("/apps/b", file("b")), delete("/apps/c")),
+                is(false));
+
+        // the commands after the failing one are not executed
+        assertThat(server.getRequests("POST").size(), is(2));
+    }
+
+    @Test
+    public void skipsUnchangedFiles() throws IOException {
+        File first = file("first");
+        File second = file("second");
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Content-Length", "5");
+        headers.put("Last-Modified", "Mon, 07 Oct 2013 10:00:00 GMT");
+        server.respond("HEAD", "/apps/a/" + first.getName(), 200, headers);
+
+        execute(update("/apps/a", first), update("/apps/b", second));
+        server.reset();
+        execute(update("/apps/a", first), update("/apps/b", second));
+
+        // the second file is not held by the repository and sent again
+        List<Request> posts = server.getRequests("POST");
+        assertThat(posts.size(), is(1));
+        assertThat(posts.get(0).path, is("/apps/b"));
+    }
+
+    @Test
+    public void relativePrefix() {
+        assertThat(BatchCommand.relativePrefix("/"), is("./"));
+        assertThat(BatchCommand.relativePrefix(""), is("./"));
+        assertThat(BatchCommand.relativePrefix("/apps/a"), is("./apps/a/"));
+        assertThat(BatchCommand.relativePrefix("/apps/a/"), is("./apps/a/"));
+    }
+
+    @Test
+    public void repositoryBatchesTracedCommands() throws IOException {
+        RepositoryImpl repository = new RepositoryImpl();
+        repository.setRepositoryInfo(repositoryInfo);
+        try {
+            File first = file("first");
+            File second = file("second");
+            List<Command<?>> commands = new ArrayList<Command<?>>();
+            commands.add(repository.newAddOrUpdateNodeCommand(new FileInfo(first.getAbsolutePath(), "/apps/a",
+                    first.getName()), new ResourceProxy("/apps/a")));
+            commands.add(repository.newAddOrUpdateNodeCommand(new FileInfo(second.getAbsolutePath(), "/apps/b",
+                    second.getName()), new ResourceProxy("/apps/b")));
+
+            assertThat(repository.newBatchCommand(commands).execute().isSuccess(), is(true));
+
+            assertThat(server.getRequests("POST").size(), is(1));
+        } finally {
+            repository.deactivate();
+        }
+    }
+}
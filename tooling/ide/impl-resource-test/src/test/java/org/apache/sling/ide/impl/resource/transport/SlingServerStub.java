@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.ide.impl.resource.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP server standing in for a Sling launchpad, recording the requests it receives
+ */
+class SlingServerStub {
+
+    static class Request {
+
+        final String method;
+        final String path;
+        final String body;
+
+        Request(String method, String path, String body) {
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + path;
+        }
+    }
+
+    private final HttpServer server;
+    private final List<Request> requests = new ArrayList<Request>();
+    private final Map<String, Integer> statuses = new HashMap<String, Integer>();
+    private final Map<String, Map<String, String>> headers = new HashMap<String, Map<String, String>>();
+
+    SlingServerStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String method = exchange.getRequestMethod();
+                String path = exchange.getRequestURI().getPath();
+                String body = read(exchange.getRequestBody());
+                Integer status;
+                Map<String, String> responseHeaders;
+                synchronized (SlingServerStub.this) {
+                    requests.add(new Request(method, path, body));
+                    status = statuses.get(method + " " + path);
+                    responseHeaders = headers.get(method + " " + path);
+                }
+                if (status == null) {
+                    status = "HEAD".equals(method) ? 404 : 200;
+                }
+                if (responseHeaders != null) {
+                    for (Map.Entry<String, String> header : responseHeaders.entrySet()) {
+                        exchange.getResponseHeaders().add(header.getKey(), header.getValue());
+                    }
+                }
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toString("UTF-8");
+    }
+
+    String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    synchronized void respond(String method, String path, int status) {
+        statuses.put(method + " " + path, status);
+    }
+
+    synchronized void respond(String method, String path, int status, Map<String, String> responseHeaders) {
+        respond(method, path, status);
+        headers.put(method + " " + path, responseHeaders);
+    }
+
+    synchronized List<Request> getRequests() {
+        return new ArrayList<Request>(requests);
+    }
+
+    synchronized List<Request> getRequests(String method) {
+        List<Request> matching = new ArrayList<Request>();
+        for (Request request : requests) {
+            if (request.method.equals(method)) {
+                matching.add(request);
+            }
+        }
+        return matching;
+    }
+
+    synchronized void reset() {
+        requests.clear();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+}
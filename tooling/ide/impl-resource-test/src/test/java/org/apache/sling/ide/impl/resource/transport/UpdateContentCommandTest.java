@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.ide.impl.resource.transport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.sling.ide.transport.FileInfo;
+import org.apache.sling.ide.transport.RepositoryInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UpdateContentCommandTest {
+
+    private SlingServerStub server;
+    private MultiThreadedHttpConnectionManager connectionManager;
+    private HttpClient httpClient;
+    private RepositoryInfo repositoryInfo;
+    private ContentFingerprints fingerprints;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new SlingServerStub();
+        connectionManager = new MultiThreadedHttpConnectionManager();
+        httpClient = new HttpClient(connectionManager);
+        repositoryInfo = new RepositoryInfo("admin", "admin", server.getUrl());
+        fingerprints = new ContentFingerprints();
+        file = File.createTempFile("content", ".txt");
+        write("hello");
+    }
+
+    @After
+    public void tearDown() {
+        connectionManager.shutdown();
+        server.stop();
+        file.delete();
+    }
+
+    private void write(String content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private void serverHolds(long length, String lastModified) {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Content-Length", String.valueOf(length));
+        headers.put("Last-Modified", lastModified);
+        server.respond("HEAD", "/apps/test/" + file.getName(), 200, headers);
+    }
+
+    private boolean update() {
+        FileInfo fileInfo = new FileInfo(file.getAbsolutePath(), "/apps/test", file.getName());
+        return new UpdateContentCommand(repositoryInfo, httpClient, "/apps/test", new HashMap<String, Object>(),
+                fileInfo, fingerprints).execute().isSuccess();
+    }
+
+    @Test
+    public void uploadsNewContent() {
+        assertThat(update(), is(true));
+
+        assertThat(server.getRequests("POST").size(), is(1));
+        assertThat(server.getRequests("POST").get(0).path, is("/apps/test"));
+        assertThat(server.getRequests("HEAD").size(), is(0));
+    }
+
+    @Test
+    public void skipsUploadWhenServerContentIsUnchanged() {
+        serverHolds(5, "Mon, 07 Oct 2013 10:00:00 GMT");
+
+        update();
+        update();
+        update();
+
+        assertThat(server.getRequests("POST").size(), is(1));
+        assertThat(server.getRequests("HEAD").size(), is(2));
+    }
+
+    @Test
+    public void uploadsWhenLocalContentChanged() throws IOException {
+        serverHolds(5, "Mon, 07 Oct 2013 10:00:00 GMT");
+
+        update();
+        write("hallo");
+        update();
+
+        assertThat(server.getRequests("POST").size(), is(2));
+    }
+
+    @Test
+    public void uploadsWhenServerContentWasModified() {
+        serverHolds(5, "Mon, 07 Oct 2013 10:00:00 GMT");
+
+        update();
+        update();
+        // changed by another client
+        serverHolds(5, "Mon, 07 Oct 2013 10:05:00 GMT");
+        update();
+
+        assertThat(server.getRequests("POST").size(), is(2));
+    }
+
+    @Test
+    public void uploadsWhenServerContentHasDifferentLength() {
+        serverHolds(7, "Mon, 07 Oct 2013 10:00:00 GMT");
+
+        update();
+        update();
+
+        assertThat(server.getRequests("POST").size(), is(2));
+    }
+
+    @Test
+    public void uploadsWhenServerContentWasDeleted() {
+        update();
+        update();
+
+        assertThat(server.getRequests("HEAD").size(), is(1));
+        assertThat(server.getRequests("POST").size(), is(2));
+    }
+
+    @Test
+    public void uploadsAgainAfterFailedUpload() {
+        serverHolds(5, "Mon, 07 Oct 2013 10:00:00 GMT");
+        server.respond("POST", "/apps/test", 500);
+
+        assertThat(update(), is(false));
+        server.respond("POST", "/apps/test", 200);
+        assertThat(update(), is(true));
+
+        assertThat(server.getRequests("POST").size(), is(2));
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.ide.impl.resource.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.UsernamePasswordCredentials;
+import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.multipart.MultipartRequestEntity;
+import org.apache.commons.httpclient.methods.multipart.Part;
+import org.apache.commons.httpclient.methods.multipart.StringPart;
+import org.apache.sling.ide.transport.Command;
+import org.apache.sling.ide.transport.RepositoryException;
+import org.apache.sling.ide.transport.RepositoryInfo;
+import org.apache.sling.ide.transport.Result;
+
+/**
+ * Executes a list of commands, sending consecutive updates and consecutive deletions as a single POST request each
+ * 
+ * <p>
+ * Updates are sent to the repository root, addressing each node through a <tt>./</tt> prefixed relative path, and
+ * deletions are sent as one <tt>:operation=delete</tt> with an <tt>:applyTo</tt> parameter for each node. The Sling
+ * POST servlet saves all changes of a request at once, so if a combined request fails its commands are executed one
+ * by one to find the failing one. Other commands are executed on their own, in order.
+ * </p>
+ */
+class BatchCommand extends AbstractCommand<Void> {
+
+    /**
+     * The maximum number of commands sent in a single request
+     */
+    static final int MAX_BATCH_SIZE = 100;
+
+    private final List<Command<?>> commands;
+    private final ContentFingerprints fingerprints;
+
+    BatchCommand(RepositoryInfo repositoryInfo, HttpClient httpClient, List<Command<?>> commands,
+            ContentFingerprints fingerprints) {
+        super(repositoryInfo, httpClient, "/");
+        this.commands = new ArrayList<Command<?>>(commands);
+        this.fingerprints = fingerprints;
+    }
+
+    @Override
+    public Result<Void> execute() {
+        List<UpdateContentCommand> updates = new ArrayList<UpdateContentCommand>();
+        List<DeleteNodeCommand> deletes = new ArrayList<DeleteNodeCommand>();
+        for (Command<?> command : commands) {
+            Result<?> result;
+            if (command instanceof UpdateContentCommand) {
+                result = executeDeletes(deletes);
+                if (result.isSuccess()) {
+                    updates.add((UpdateContentCommand) command);
+                    if (updates.size() == MAX_BATCH_SIZE) {
+                        result = executeUpdates(updates);
+                    }
+                }
+            } else if (command instanceof DeleteNodeCommand) {
+                result = executeUpdates(updates);
+                if (result.isSuccess()) {
+                    deletes.add((DeleteNodeCommand) command);
+                    if (deletes.size() == MAX_BATCH_SIZE) {
+                        result = executeDeletes(deletes);
+                    }
+                }
+            } else {
+                result = executeUpdates(updates);
+                if (result.isSuccess()) {
+                    result = executeDeletes(deletes);
+                }
+                if (result.isSuccess()) {
+                    result = command.execute();
+                }
+            }
+            if (!result.isSuccess()) {
+                return failure(result);
+            }
+        }
+        Result<?> result = executeUpdates(updates);
+        if (result.isSuccess()) {
+            result = executeDeletes(deletes);
+        }
+        return result.isSuccess() ? AbstractResult.<Void> success(null) : failure(result);
+    }
+
+    private Result<Void> failure(Result<?> result) {
+        try {
+            result.get();
+            return AbstractResult.failure(new RepositoryException("Command failed"));
+        } catch (RepositoryException e) {
+            return AbstractResult.failure(e);
+        }
+    }
+
+    /**
+     * Sends the pending updates which are not already held by the repository and clears the list
+     */
+    private Result<?> executeUpdates(List<UpdateContentCommand> updates) {
+        List<UpdateContentCommand> changed = new ArrayList<UpdateContentCommand>();
+        List<String> changedFingerprints = new ArrayList<String>();
+        for (UpdateContentCommand update : updates) {
+            String fingerprint = update.fingerprint();
+            if (update.isUnchanged(fingerprint)) {
+                continue;
+            }
+            // in case the upload fails the repository content is unknown
+            fingerprints.forget(update.getTarget());
+            changed.add(update);
+            changedFingerprints.add(fingerprint);
+        }
+        updates.clear();
+        if (changed.isEmpty()) {
+            return AbstractResult.success(null);
+        }
+        if (changed.size() == 1) {
+            return changed.get(0).execute();
+        }
+
+        List<Part> parts = new ArrayList<Part>();
+        try {
+            for (UpdateContentCommand update : changed) {
+                parts.addAll(update.createParts(relativePrefix(update.getRelativePath())));
+            }
+        } catch (Exception e) {
+            return AbstractResult.failure(new RepositoryException(e));
+        }
+        if (post(parts)) {
+            for (int i = 0; i < changed.size(); i++) {
+                fingerprints.uploaded(changed.get(i).getTarget(), changedFingerprints.get(i));
+            }
+            return AbstractResult.success(null);
+        }
+        return executeEach(changed);
+    }
+
+    /**
+     * Sends the pending deletions and clears the list
+     */
+    private Result<?> executeDeletes(List<DeleteNodeCommand> deletes) {
+        List<DeleteNodeCommand> pending = new ArrayList<DeleteNodeCommand>(deletes);
+        deletes.clear();
+        if (pending.isEmpty()) {
+            return AbstractResult.success(null);
+        }
+        if (pending.size() == 1) {
+            return pending.get(0).execute();
+        }
+
+        List<Part> parts = new ArrayList<Part>();
+        parts.add(new StringPart(":operation", "delete"));
+        for (DeleteNodeCommand delete : pending) {
+            fingerprints.forgetTree(delete.getPath());
+            parts.add(new StringPart(":applyTo", delete.getRelativePath()));
+        }
+        if (post(parts)) {
+            return AbstractResult.success(null);
+        }
+        return executeEach(pending);
+    }
+
+    private Result<?> executeEach(List<? extends Command<?>> commands) {
+        for (Command<?> command : commands) {
+            Result<?> result = command.execute();
+            if (!result.isSuccess()) {
+                return result;
+            }
+        }
+        return AbstractResult.success(null);
+    }
+
+    /**
+     * @return true if the request succeeded
+     */
+    private boolean post(List<Part> parts) {
+        PostMethod post = new PostMethod(getPath());
+        try {
+            post.setRequestEntity(new MultipartRequestEntity(parts.toArray(new Part[parts.size()]), post.getParams()));
+            httpClient.getState().setCredentials(AuthScope.ANY,
+                    new UsernamePasswordCredentials(repositoryInfo.getUsername(), repositoryInfo.getPassword()));
+            httpClient.getParams().setAuthenticationPreemptive(true);
+            return isSuccessStatus(httpClient.executeMethod(post));
+        } catch (Exception e) {
+            return false;
+        } finally {
+            post.releaseConnection();
+        }
+    }
+
+    /**
+     * @return the prefix addressing the node at <tt>relativePath</tt> from the repository root
+     */
+    static String relativePrefix(String relativePath) {
+        StringBuilder prefix = new StringBuilder("./");
+        for (String segment : relativePath.split("/")) {
+            if (segment.length() > 0) {
+                prefix.append(segment).append('/');
+            }
+        }
+        return prefix.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%8s %s commands", "BATCH", commands.size());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.ide.impl.resource.transport;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Remembers a fingerprint of the content last uploaded to a repository path, so that publishing unchanged files does
+ * not result in another upload.
+ * 
+ * <p>
+ * The fingerprints are only a record of what this repository instance has sent. Before an upload is skipped the
+ * caller must check that the repository still holds that content, see {@link #isUnchanged(String, String, String)}.
+ * The <tt>Last-Modified</tt> value reported by the repository is recorded on the first check after an upload and
+ * any later change made by other clients results in a different value.
+ * </p>
+ */
+class ContentFingerprints {
+
+    private static class Entry {
+
+        private final String fingerprint;
+        private String lastModified;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final Map<String, Entry> fingerprints = new HashMap<String, Entry>();
+
+    /**
+     * @return true if the content with this <tt>fingerprint</tt> has been uploaded to <tt>path</tt>, without checking
+     *         whether the repository still holds it
+     */
+    synchronized boolean isUploaded(String path, String fingerprint) {
+        Entry entry = fingerprints.get(path);
+        return fingerprint != null && entry != null && fingerprint.equals(entry.fingerprint);
+    }
+
+    /**
+     * @param lastModified the <tt>Last-Modified</tt> value the repository currently reports for <tt>path</tt>
+     * @return true if the content with this <tt>fingerprint</tt> has been uploaded to <tt>path</tt> and has not been
+     *         modified in the repository since
+     */
+    synchronized boolean isUnchanged(String path, String fingerprint, String lastModified) {
+        if (lastModified == null || !isUploaded(path, fingerprint)) {
+            return false;
+        }
+        Entry entry = fingerprints.get(path);
+        if (entry.lastModified == null) {
+            entry.lastModified = lastModified;
+            return true;
+        }
+        return entry.lastModified.equals(lastModified);
+    }
+
+    synchronized void uploaded(String path, String fingerprint) {
+        if (fingerprint != null) {
+            fingerprints.put(path, new Entry(fingerprint));
+        }
+    }
+
+    synchronized void forget(String path) {
+        fingerprints.remove(path);
+    }
+
+    /**
+     * Forgets the fingerprints of <tt>path</tt> and all its descendants
+     */
+    synchronized void forgetTree(String path) {
+        String prefix = path.endsWith("/") ? path : path + "/";
+        for (Iterator<String> it = fingerprints.keySet().iterator(); it.hasNext();) {
+            String key = it.next();
+            if (key.equals(path) || key.startsWith(prefix)) {
+                it.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        fingerprints.clear();
+    }
+}
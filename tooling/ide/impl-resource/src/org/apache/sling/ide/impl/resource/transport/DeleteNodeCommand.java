@@ -30,13 +30,26 @@ import org.apache.sling.ide.transport.Result;
 
 class DeleteNodeCommand extends AbstractCommand<Void> {
 
+    private final String relativePath;
+    private final ContentFingerprints fingerprints;
 
-    DeleteNodeCommand(ResourceProxy resource, RepositoryInfo repositoryInfo, HttpClient httpClient) {
+    DeleteNodeCommand(ResourceProxy resource, RepositoryInfo repositoryInfo, HttpClient httpClient,
+            ContentFingerprints fingerprints) {
         super(repositoryInfo, httpClient, resource.getPath());
+        this.relativePath = resource.getPath();
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * @return the repository path of the node deleted by this command
+     */
+    String getRelativePath() {
+        return relativePath;
     }
 
     @Override
     public Result<Void> execute() {
+        fingerprints.forgetTree(getPath());
         PostMethod post = new PostMethod(getPath());
     	try{
     		Part[] parts ={new StringPart(":operation", "delete")};
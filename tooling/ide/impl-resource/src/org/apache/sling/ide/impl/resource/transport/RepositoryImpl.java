@@ -16,7 +16,11 @@
  */
 package org.apache.sling.ide.impl.resource.transport;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.sling.ide.transport.Command;
 import org.apache.sling.ide.transport.FileInfo;
 import org.apache.sling.ide.transport.ResourceProxy;
@@ -24,17 +28,31 @@ import org.apache.sling.ide.transport.TracingCommand;
 import org.osgi.service.event.EventAdmin;
 
 public class RepositoryImpl extends AbstractRepository{
-	
-    private final HttpClient httpClient = new HttpClient();
+
+    /**
+     * The maximum number of connections kept open to the repository, allowing commands to be executed concurrently
+     */
+    private static final int MAX_CONNECTIONS = 8;
+
+    // pooled connections are kept alive between commands, instead of opening a new connection for each request
+    private final MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
+    private final HttpClient httpClient = new HttpClient(connectionManager);
+    // keyed by the full url, so fingerprints of different repositories do not clash
+    private final ContentFingerprints fingerprints = new ContentFingerprints();
     private EventAdmin eventAdmin;
 
+    public RepositoryImpl() {
+        connectionManager.getParams().setDefaultMaxConnectionsPerHost(MAX_CONNECTIONS);
+        connectionManager.getParams().setMaxTotalConnections(MAX_CONNECTIONS);
+    }
+
     private <T> Command<T> wrap(AbstractCommand<T> command) {
         return new TracingCommand<T>(command, eventAdmin);
     }
 
 	@Override
 	public Command<Void> newDeleteNodeCommand(final ResourceProxy resource) {
-        return wrap(new DeleteNodeCommand(resource, repositoryInfo, httpClient));
+        return wrap(new DeleteNodeCommand(resource, repositoryInfo, httpClient, fingerprints));
 	}
 	
 	@Override
@@ -57,9 +75,26 @@ public class RepositoryImpl extends AbstractRepository{
     public Command<Void> newAddOrUpdateNodeCommand(final FileInfo fileInfo, ResourceProxy resource) {
 		
         return wrap(new UpdateContentCommand(repositoryInfo, httpClient, fileInfo.getRelativeLocation(),
-                resource.getProperties(), fileInfo));
+                resource.getProperties(), fileInfo, fingerprints));
 	}
 
+    @Override
+    public Command<Void> newBatchCommand(List<Command<?>> commands) {
+
+        // the batch needs the commands themselves to combine them, it is traced as a whole instead
+        List<Command<?>> unwrapped = new ArrayList<Command<?>>(commands.size());
+        for (Command<?> command : commands) {
+            unwrapped.add(command instanceof TracingCommand ? ((TracingCommand<?>) command).getCommand() : command);
+        }
+        return wrap(new BatchCommand(repositoryInfo, httpClient, unwrapped, fingerprints));
+    }
+
+    protected void deactivate() {
+
+        connectionManager.shutdown();
+        fingerprints.clear();
+    }
+
     public void bindEventAdmin(EventAdmin eventAdmin) {
 
         this.eventAdmin = eventAdmin;
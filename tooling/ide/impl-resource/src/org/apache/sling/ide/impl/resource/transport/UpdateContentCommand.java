@@ -17,13 +17,22 @@
 package org.apache.sling.ide.impl.resource.transport;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.methods.HeadMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.multipart.FilePart;
 import org.apache.commons.httpclient.methods.multipart.MultipartRequestEntity;
@@ -37,45 +46,40 @@ import org.apache.sling.ide.transport.Result;
 
 class UpdateContentCommand extends AbstractCommand<Void> {
 
+    private final String relativePath;
     private final Map<String, Object> properties;
     private final FileInfo fileInfo;
+    private final ContentFingerprints fingerprints;
 
     UpdateContentCommand(RepositoryInfo repositoryInfo, HttpClient httpClient, String relativePath,
-            Map<String, Object> properties, FileInfo fileInfo) {
+            Map<String, Object> properties, FileInfo fileInfo, ContentFingerprints fingerprints) {
         super(repositoryInfo, httpClient, relativePath);
+        this.relativePath = relativePath;
         this.properties = properties;
         this.fileInfo = fileInfo;
+        this.fingerprints = fingerprints;
     }
 
     @Override
     public Result<Void> execute() {
+        String fingerprint = fingerprint();
+        if (isUnchanged(fingerprint)) {
+            return AbstractResult.success(null);
+        }
+        // in case the upload fails the repository content is unknown
+        fingerprints.forget(getTarget());
+
         PostMethod post = new PostMethod(getPath());
     	try{
-            List<Part> parts = new ArrayList<Part>();
-            for (Map.Entry<String, Object> property : properties.entrySet()) {
-                if (ProtectedNodes.exists(property.getKey())) {
-                    continue;
-                }
-
-                Object propValue = property.getValue();
-
-                if (propValue instanceof String) {
-                    parts.add(new StringPart(property.getKey(), (String) propValue));
-                } else if (property != null) {
-                    // TODO handle multi-valued properties
-                    System.err.println("Unable to handle property " + property.getKey() + " of type "
-                            + property.getValue().getClass());
-                }
-    		}
-            File f = new File(fileInfo.getLocation());
-            if (f.isFile()) {
-                parts.add(new FilePart(fileInfo.getName(), f));
-            }
+            List<Part> parts = createParts("");
             post.setRequestEntity(new MultipartRequestEntity(parts.toArray(new Part[parts.size()]), post
                     .getParams()));
     		httpClient.getState().setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(repositoryInfo.getUsername(),repositoryInfo.getPassword()));
     		httpClient.getParams().setAuthenticationPreemptive(true);
     		int responseStatus=httpClient.executeMethod(post);
+            if (isSuccessStatus(responseStatus)) {
+                fingerprints.uploaded(getTarget(), fingerprint);
+            }
     		
     		return resultForResponseStatus(responseStatus);
     	} catch(Exception e){
@@ -85,6 +89,125 @@ class UpdateContentCommand extends AbstractCommand<Void> {
     	}
     }
 
+    /**
+     * @return the url of the file node created by this command
+     */
+    String getTarget() {
+        return getPath() + "/" + fileInfo.getName();
+    }
+
+    /**
+     * @return the repository path of the node whose properties are set by this command
+     */
+    String getRelativePath() {
+        return relativePath;
+    }
+
+    /**
+     * Creates the request parts for the properties and the file of this command
+     * 
+     * @param prefix prepended to the part names, used to address the nodes of this command in a request sent to
+     *            another node
+     */
+    List<Part> createParts(String prefix) throws FileNotFoundException {
+        List<Part> parts = new ArrayList<Part>();
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            if (ProtectedNodes.exists(property.getKey())) {
+                continue;
+            }
+
+            Object propValue = property.getValue();
+
+            if (propValue instanceof String) {
+                parts.add(new StringPart(prefix + property.getKey(), (String) propValue));
+            } else if (property != null) {
+                // TODO handle multi-valued properties
+                System.err.println("Unable to handle property " + property.getKey() + " of type "
+                        + property.getValue().getClass());
+            }
+        }
+        File f = new File(fileInfo.getLocation());
+        if (f.isFile()) {
+            parts.add(new FilePart(prefix + fileInfo.getName(), f));
+        }
+        return parts;
+    }
+
+    /**
+     * Checks whether the file content with this <tt>fingerprint</tt> was uploaded by this command and is still held
+     * unmodified by the repository. Commands without a file are always executed, as they are as cheap as this check.
+     * 
+     * @return true if the upload can be skipped
+     */
+    boolean isUnchanged(String fingerprint) {
+        String target = getTarget();
+        File f = new File(fileInfo.getLocation());
+        if (!f.isFile() || !fingerprints.isUploaded(target, fingerprint)) {
+            return false;
+        }
+        HeadMethod head = new HeadMethod(target);
+        try {
+            httpClient.getState().setCredentials(AuthScope.ANY,
+                    new UsernamePasswordCredentials(repositoryInfo.getUsername(), repositoryInfo.getPassword()));
+            httpClient.getParams().setAuthenticationPreemptive(true);
+            if (httpClient.executeMethod(head) != 200) {
+                return false;
+            }
+            Header length = head.getResponseHeader("Content-Length");
+            if (length == null || !String.valueOf(f.length()).equals(length.getValue().trim())) {
+                return false;
+            }
+            Header lastModified = head.getResponseHeader("Last-Modified");
+            return fingerprints.isUnchanged(target, fingerprint, lastModified == null ? null : lastModified.getValue());
+        } catch (IOException e) {
+            return false;
+        } finally {
+            head.releaseConnection();
+        }
+    }
+
+    /**
+     * Computes a digest of everything this command sends, the properties and the file contents
+     * 
+     * @return the digest, or <tt>null</tt> if it could not be computed
+     */
+    String fingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            // sorted, so that the digest does not depend on the iteration order of the properties
+            for (Map.Entry<String, Object> property : new TreeMap<String, Object>(properties).entrySet()) {
+                if (property.getValue() instanceof String && !ProtectedNodes.exists(property.getKey())) {
+                    digest.update(property.getKey().getBytes("UTF-8"));
+                    digest.update((byte) 0);
+                    digest.update(((String) property.getValue()).getBytes("UTF-8"));
+                    digest.update((byte) 0);
+                }
+            }
+            File f = new File(fileInfo.getLocation());
+            if (f.isFile()) {
+                InputStream in = new FileInputStream(f);
+                try {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     @Override
     public String toString() {
     	
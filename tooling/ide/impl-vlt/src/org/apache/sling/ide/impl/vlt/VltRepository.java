@@ -1,5 +1,7 @@
 package org.apache.sling.ide.impl.vlt;
 
+import java.util.List;
+
 import javax.jcr.Credentials;
 import javax.jcr.RepositoryException;
 
@@ -8,6 +10,7 @@ import org.apache.sling.ide.transport.FileInfo;
 import org.apache.sling.ide.transport.Repository;
 import org.apache.sling.ide.transport.RepositoryInfo;
 import org.apache.sling.ide.transport.ResourceProxy;
+import org.apache.sling.ide.transport.SequentialCommand;
 import org.apache.sling.ide.transport.TracingCommand;
 import org.osgi.service.event.EventAdmin;
 
@@ -56,6 +59,11 @@ public class VltRepository implements Repository {
         return TracingCommand.wrap(new DeleteNodeCommand(jcrRepo, credentials, resource), eventAdmin);
     }
 
+    @Override
+    public Command<Void> newBatchCommand(List<Command<?>> commands) {
+        return new SequentialCommand(commands);
+    }
+
     @Override
     public Command<ResourceProxy> newListChildrenNodeCommand(String path) {
 